@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.metaobject;
+
+import groovy.lang.GroovySystem;
+import groovy.lang.MetaClass;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the dynamic property and method access used by the DSL, compared with the same access through the meta-class.
+ */
+@Fork(1)
+@Threads(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class BeanDynamicObjectBenchmark {
+    private final Bean bean = new Bean();
+    private final DynamicObject dynamicObject = new BeanDynamicObject(bean);
+    private final MetaClass metaClass = GroovySystem.getMetaClassRegistry().getMetaClass(Bean.class);
+
+    @Benchmark
+    public void getPropertyThroughDynamicObject(Blackhole bh) {
+        bh.consume(dynamicObject.getProperty("name"));
+    }
+
+    @Benchmark
+    public void getPropertyThroughMetaClass(Blackhole bh) {
+        bh.consume(metaClass.getProperty(bean, "name"));
+    }
+
+    @Benchmark
+    public void setPropertyThroughDynamicObject() {
+        dynamicObject.setProperty("name", "value");
+    }
+
+    @Benchmark
+    public void setPropertyThroughMetaClass() {
+        metaClass.setProperty(bean, "name", "value");
+    }
+
+    @Benchmark
+    public void invokeMethodThroughDynamicObject(Blackhole bh) {
+        bh.consume(dynamicObject.invokeMethod("describe", "prefix"));
+    }
+
+    @Benchmark
+    public void invokeMethodThroughMetaClass(Blackhole bh) {
+        bh.consume(metaClass.invokeMethod(bean, "describe", new Object[]{"prefix"}));
+    }
+
+    @Benchmark
+    public void lookupMissingPropertyThroughDynamicObject(Blackhole bh) {
+        bh.consume(dynamicObject.hasProperty("unknown"));
+    }
+
+    public static class Bean {
+        private String name = "name";
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String describe(String prefix) {
+            return prefix + name;
+        }
+    }
+}
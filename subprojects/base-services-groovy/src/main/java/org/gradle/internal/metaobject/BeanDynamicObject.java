@@ -327,11 +327,26 @@ public class BeanDynamicObject extends AbstractDynamicObject {
         /*
          * MetaClass.getMetaProperty(name) is very expensive when the property is not known.
          * Instead, we reach into the meta class to call a much more efficient lookup method.
-         * Since we do this in a hot code path, we also reuse the argument array used for the
-         * reflective call to save memory.
+         * Since we do this in a hot code path, the result is also remembered for the meta class,
+         * so that the reflective call is made once per property name.
          */
         @Nullable
         protected MetaProperty lookupProperty(MetaClass metaClass, String name) {
+            MetaClassLookupCache lookups = MetaClassLookupCache.of(metaClass);
+            if (lookups == null) {
+                return resolveProperty(metaClass, name);
+            }
+            Object property = lookups.getProperty(name);
+            if (property == null) {
+                MetaProperty resolved = resolveProperty(metaClass, name);
+                lookups.putProperty(name, resolved);
+                return resolved;
+            }
+            return property == MetaClassLookupCache.NOT_FOUND ? null : (MetaProperty) property;
+        }
+
+        @Nullable
+        private MetaProperty resolveProperty(MetaClass metaClass, String name) {
             if (metaClass instanceof MetaClassImpl) {
                 try {
                     return (MetaProperty) META_PROP_METHOD.invoke(metaClass, name, false);
@@ -508,7 +523,17 @@ public class BeanDynamicObject extends AbstractDynamicObject {
 
         @Nullable
         protected MetaMethod lookupMethod(MetaClass metaClass, String name, Class[] arguments) {
-            return metaClass.pickMethod(name, arguments);
+            MetaClassLookupCache lookups = MetaClassLookupCache.of(metaClass);
+            if (lookups == null) {
+                return metaClass.pickMethod(name, arguments);
+            }
+            Object method = lookups.getMethod(name, arguments);
+            if (method == null) {
+                MetaMethod resolved = metaClass.pickMethod(name, arguments);
+                lookups.putMethod(name, arguments, resolved);
+                return resolved;
+            }
+            return method == MetaClassLookupCache.NOT_FOUND ? null : (MetaMethod) method;
         }
 
         protected DynamicInvokeResult invokeOpaqueMethod(MetaClass metaClass, String name, Object[] arguments) {
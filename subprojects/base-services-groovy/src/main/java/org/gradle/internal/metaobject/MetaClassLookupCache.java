@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.metaobject;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import groovy.lang.MetaClass;
+import groovy.lang.MetaClassImpl;
+import groovy.lang.MetaMethod;
+import groovy.lang.MetaProperty;
+import org.codehaus.groovy.runtime.GroovyCategorySupport;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers the properties and methods resolved by name on a {@link MetaClassImpl}, so that the dynamic property and method access of
+ * {@link BeanDynamicObject} does not resolve the same member again for every object of the same class.
+ *
+ * <p>The lookups are kept per meta-class instance. Replacing the meta-class of a class or of an object therefore starts with empty lookups,
+ * and the lookups of the previous meta-class are discarded once it is no longer used. Only plain {@link MetaClassImpl} instances are cached,
+ * as their members cannot change once they are initialized, whereas subclasses such as {@link groovy.lang.ExpandoMetaClass} can be modified.
+ * The members resolved while a category is in use by the current thread also depend on that category, so they are not cached either.</p>
+ */
+class MetaClassLookupCache {
+    /**
+     * Marks a member which is known not to exist.
+     */
+    static final Object NOT_FOUND = new Object();
+
+    private static final Cache<MetaClass, MetaClassLookupCache> LOOKUPS = CacheBuilder.newBuilder().weakKeys().softValues().build();
+
+    private final ConcurrentMap<String, Object> properties = new ConcurrentHashMap<String, Object>();
+    private final ConcurrentMap<MethodKey, Object> methods = new ConcurrentHashMap<MethodKey, Object>();
+
+    /**
+     * Returns the lookups of the given meta-class, or null when the lookups of this meta-class cannot be cached.
+     */
+    @Nullable
+    static MetaClassLookupCache of(MetaClass metaClass) {
+        if (metaClass.getClass() != MetaClassImpl.class || GroovyCategorySupport.hasCategoryInCurrentThread()) {
+            return null;
+        }
+        MetaClassLookupCache lookups = LOOKUPS.getIfPresent(metaClass);
+        if (lookups == null) {
+            lookups = new MetaClassLookupCache();
+            MetaClassLookupCache previous = LOOKUPS.asMap().putIfAbsent(metaClass, lookups);
+            if (previous != null) {
+                lookups = previous;
+            }
+        }
+        return lookups;
+    }
+
+    /**
+     * Returns the resolved property, {@link #NOT_FOUND} when the property is known not to exist, or null when the property has not been resolved yet.
+     */
+    @Nullable
+    Object getProperty(String name) {
+        return properties.get(name);
+    }
+
+    void putProperty(String name, @Nullable MetaProperty property) {
+        properties.put(name, property == null ? NOT_FOUND : property);
+    }
+
+    /**
+     * Returns the resolved method, {@link #NOT_FOUND} when the method is known not to exist, or null when the method has not been resolved yet.
+     */
+    @Nullable
+    Object getMethod(String name, Class[] argumentTypes) {
+        return methods.get(new MethodKey(name, argumentTypes));
+    }
+
+    void putMethod(String name, Class[] argumentTypes, @Nullable MetaMethod method) {
+        methods.put(new MethodKey(name, argumentTypes), method == null ? NOT_FOUND : method);
+    }
+
+    private static class MethodKey {
+        private final String name;
+        private final Class[] argumentTypes;
+        private final int hashCode;
+
+        MethodKey(String name, Class[] argumentTypes) {
+            this.name = name;
+            this.argumentTypes = argumentTypes;
+            this.hashCode = 31 * name.hashCode() + Arrays.hashCode(argumentTypes);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            MethodKey other = (MethodKey) obj;
+            return name.equals(other.name) && Arrays.equals(argumentTypes, other.argumentTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -398,6 +398,46 @@ class BeanDynamicObjectTest extends Specification {
         e.message == "Cannot set the value of read-only property 'readOnly' for object of type ${Bean.name}."
     }
 
+    def "uses the members of the meta-class which replaced the meta-class of an object"() {
+        def bean = new Bean(prop: "value")
+        def dynamicObject = new BeanDynamicObject(bean)
+
+        expect:
+        dynamicObject.getProperty("prop") == "value"
+        !dynamicObject.hasProperty("extra")
+        !dynamicObject.hasMethod("extraMethod")
+
+        when:
+        def metaClass = new ExpandoMetaClass(Bean, false, true)
+        metaClass.getExtra = { -> "extra" }
+        metaClass.extraMethod = { -> "method" }
+        metaClass.initialize()
+        bean.metaClass = metaClass
+
+        then:
+        dynamicObject.getProperty("prop") == "value"
+        dynamicObject.getProperty("extra") == "extra"
+        dynamicObject.invokeMethod("extraMethod") == "method"
+    }
+
+    def "uses the members of a category only while the category is in use"() {
+        def bean = new Bean()
+        def dynamicObject = new BeanDynamicObject(bean)
+
+        expect:
+        !dynamicObject.hasMethod("categoryMethod", [12] as Object[])
+        use(BeanCategory) {
+            dynamicObject.invokeMethod("categoryMethod", [12] as Object[]) == "category 12"
+        }
+        !dynamicObject.hasMethod("categoryMethod", [12] as Object[])
+
+        and:
+        use(BeanCategory) {
+            dynamicObject.invokeMethod("categoryMethod", [13] as Object[]) == "category 13"
+        }
+        !dynamicObject.hasMethod("categoryMethod", [13] as Object[])
+    }
+
     def "fails when set value of instance property of class object"() {
         def dynamicObject = new BeanDynamicObject(WithStaticFields)
 
@@ -797,6 +837,12 @@ class BeanDynamicObjectTest extends Specification {
         }
     }
 
+    static class BeanCategory {
+        static String categoryMethod(Bean bean, int l) {
+            return "category ${l}"
+        }
+    }
+
     static class EnumBean {
         SomeEnum prop
 
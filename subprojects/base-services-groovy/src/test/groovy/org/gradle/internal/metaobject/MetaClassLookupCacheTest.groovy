@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.metaobject
+
+import spock.lang.Specification
+
+class MetaClassLookupCacheTest extends Specification {
+    def "keeps lookups per meta-class"() {
+        def metaClass = metaClassOf(String)
+        def other = metaClassOf(String)
+
+        expect:
+        MetaClassLookupCache.of(metaClass).is(MetaClassLookupCache.of(metaClass))
+        !MetaClassLookupCache.of(metaClass).is(MetaClassLookupCache.of(other))
+    }
+
+    def "does not cache lookups of meta-classes which can be modified"() {
+        expect:
+        MetaClassLookupCache.of(new ExpandoMetaClass(String, false, true)) == null
+    }
+
+    def "remembers resolved and missing members"() {
+        def metaClass = metaClassOf(String)
+        def lookups = MetaClassLookupCache.of(metaClass)
+        def property = metaClass.getMetaProperty("bytes")
+        def method = metaClass.pickMethod("length", [] as Class[])
+
+        expect:
+        lookups.getProperty("bytes") == null
+        lookups.getMethod("length", [] as Class[]) == null
+
+        when:
+        lookups.putProperty("bytes", property)
+        lookups.putProperty("unknown", null)
+        lookups.putMethod("length", [] as Class[], method)
+        lookups.putMethod("unknown", [String] as Class[], null)
+
+        then:
+        lookups.getProperty("bytes").is(property)
+        lookups.getProperty("unknown").is(MetaClassLookupCache.NOT_FOUND)
+        lookups.getMethod("length", [] as Class[]).is(method)
+        lookups.getMethod("unknown", [String] as Class[]).is(MetaClassLookupCache.NOT_FOUND)
+        lookups.getMethod("unknown", [Integer] as Class[]) == null
+    }
+
+    def metaClassOf(Class<?> type) {
+        def metaClass = new MetaClassImpl(type)
+        metaClass.initialize()
+        return metaClass
+    }
+}
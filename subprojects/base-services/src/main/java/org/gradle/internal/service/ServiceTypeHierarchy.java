@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The types under which a service can be looked up: the service class itself and all its superclasses and interfaces, except {@link Object}.
+ *
+ * <p>The hierarchy of each service class is flattened once and shared by all registries, so that registering a service only indexes it under
+ * the precomputed types instead of walking its class hierarchy again for each registry.</p>
+ */
+class ServiceTypeHierarchy {
+    private static final ConcurrentMap<Class<?>, Class<?>[]> HIERARCHY_CACHE = new ConcurrentHashMap<Class<?>, Class<?>[]>();
+
+    private ServiceTypeHierarchy() {
+    }
+
+    /**
+     * Returns the types under which a service of the given class is indexed, the class itself first.
+     */
+    static Class<?>[] of(Class<?> serviceClass) {
+        Class<?>[] hierarchy = HIERARCHY_CACHE.get(serviceClass);
+        if (hierarchy == null) {
+            hierarchy = flatten(serviceClass);
+            HIERARCHY_CACHE.putIfAbsent(serviceClass, hierarchy);
+        }
+        return hierarchy;
+    }
+
+    private static Class<?>[] flatten(Class<?> serviceClass) {
+        List<Class<?>> types = new ArrayList<Class<?>>();
+        collect(serviceClass, new HashSet<Class<?>>(), types);
+        return types.toArray(new Class<?>[0]);
+    }
+
+    private static void collect(Class<?> type, Set<Class<?>> seen, List<Class<?>> types) {
+        if (type == null || type == Object.class) {
+            return;
+        }
+        if (seen.add(type)) {
+            types.add(type);
+            collect(type.getSuperclass(), seen, types);
+            for (Class<?> iface : type.getInterfaces()) {
+                collect(iface, seen, types);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.service
+
+import spock.lang.Specification
+
+class ServiceTypeHierarchyTest extends Specification {
+    def "flattens the class hierarchy without Object"() {
+        expect:
+        ServiceTypeHierarchy.of(ArrayList) as List == [ArrayList, AbstractList, AbstractCollection, Collection, Iterable, List, RandomAccess, Cloneable, Serializable]
+        ServiceTypeHierarchy.of(Runnable) as List == [Runnable]
+        ServiceTypeHierarchy.of(Object) as List == []
+    }
+
+    def "reuses the hierarchy of a class"() {
+        expect:
+        ServiceTypeHierarchy.of(ArrayList).is(ServiceTypeHierarchy.of(ArrayList))
+    }
+}
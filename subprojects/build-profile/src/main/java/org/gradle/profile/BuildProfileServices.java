@@ -17,9 +17,12 @@
 package org.gradle.profile;
 
 import org.gradle.api.internal.BuildDefinition;
+import org.gradle.api.internal.InternalFlags;
+import org.gradle.internal.build.PublicBuildPath;
 import org.gradle.internal.buildevents.BuildStartedTime;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.logging.text.StyledTextOutputFactory;
+import org.gradle.internal.operations.BuildOperationListenerManager;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
@@ -31,20 +34,29 @@ public class BuildProfileServices extends AbstractPluginServiceRegistry {
     @Override
     public void registerBuildServices(ServiceRegistration registration) {
         registration.addProvider(new Object() {
-            public BuildScopeListenerManagerAction createBuildProfileListeners(ServiceRegistry services, BuildDefinition buildDefinition) {
+            public BuildScopeListenerManagerAction createBuildProfileListeners(ServiceRegistry services, BuildDefinition buildDefinition, InternalFlags internalFlags) {
                 return new BuildScopeListenerManagerAction() {
                     @Override
                     public void execute(ListenerManager listenerManager) {
                         if (buildDefinition.getStartParameter().isProfile()) {
                             listenerManager.addListener(services.get(ProfileEventAdapter.class));
                             listenerManager.addListener(services.get(ReportGeneratingProfileListener.class));
+                            if (internalFlags.isEnabled(InternalFlags.Flag.CONFIGURATION_RESOURCE_PROFILING)) {
+                                ConfigurationResourceProfiler configurationResourceProfiler = services.get(ConfigurationResourceProfiler.class);
+                                listenerManager.addListener(configurationResourceProfiler);
+                                configurationResourceProfiler.start();
+                            }
                         }
                     }
                 };
             }
 
-            public ReportGeneratingProfileListener createReportGeneratingProfileListener(StyledTextOutputFactory styledTextOutputFactory) {
-                return new ReportGeneratingProfileListener(styledTextOutputFactory);
+            public ReportGeneratingProfileListener createReportGeneratingProfileListener(StyledTextOutputFactory styledTextOutputFactory, ConfigurationResourceProfiler configurationResourceProfiler) {
+                return new ReportGeneratingProfileListener(styledTextOutputFactory, configurationResourceProfiler);
+            }
+
+            public ConfigurationResourceProfiler createConfigurationResourceProfiler(BuildOperationListenerManager buildOperationListenerManager, PublicBuildPath publicBuildPath) {
+                return new ConfigurationResourceProfiler(buildOperationListenerManager, publicBuildPath);
             }
 
             public ProfileEventAdapter createProfileEventAdapter(BuildStartedTime buildStartedTime, Clock clock, ListenerManager listenerManager) {
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.profile;
+
+import com.google.common.collect.Maps;
+import org.gradle.api.internal.plugins.ApplyPluginBuildOperationType;
+import org.gradle.configuration.ApplyScriptPluginBuildOperationType;
+import org.gradle.configuration.internal.ExecuteListenerBuildOperationType;
+import org.gradle.configuration.project.ConfigureProjectBuildOperationType;
+import org.gradle.configuration.project.NotifyProjectAfterEvaluatedBuildOperationType;
+import org.gradle.configuration.project.NotifyProjectBeforeEvaluatedBuildOperationType;
+import org.gradle.initialization.BuildCompletionListener;
+import org.gradle.internal.build.PublicBuildPath;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationListener;
+import org.gradle.internal.operations.BuildOperationListenerManager;
+import org.gradle.internal.operations.OperationFinishEvent;
+import org.gradle.internal.operations.OperationIdentifier;
+import org.gradle.internal.operations.OperationProgressEvent;
+import org.gradle.internal.operations.OperationStartEvent;
+import org.gradle.util.CollectionUtils;
+
+import javax.annotation.Nullable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Attributes the CPU time and the bytes allocated while configuring the build to the projects, plugins, scripts and listeners that caused them,
+ * using the build operations that wrap each of these.
+ *
+ * <p>The resources are sampled for the thread running each operation. The self usage of an operation excludes the usage of the nested operations
+ * that are attributed themselves, so that the cost of a plugin does not include the cost of the plugins it applies. Listeners are reported together
+ * with the plugin or script that registered them.</p>
+ */
+public class ConfigurationResourceProfiler implements BuildOperationListener, BuildCompletionListener {
+    private final BuildOperationListenerManager buildOperationListenerManager;
+    private final PublicBuildPath publicBuildPath;
+    private final ThreadResourceSampler sampler;
+    private final ConcurrentMap<OperationIdentifier, OperationFrame> runningOperations = new ConcurrentHashMap<OperationIdentifier, OperationFrame>();
+    private final ConcurrentMap<Long, String> userCodeApplications = new ConcurrentHashMap<Long, String>();
+    private final Map<List<String>, ConfigurationResourceUsage> usages = Maps.newHashMap();
+    private boolean started;
+
+    public ConfigurationResourceProfiler(BuildOperationListenerManager buildOperationListenerManager, PublicBuildPath publicBuildPath) {
+        this(buildOperationListenerManager, publicBuildPath, new JvmThreadResourceSampler());
+    }
+
+    ConfigurationResourceProfiler(BuildOperationListenerManager buildOperationListenerManager, PublicBuildPath publicBuildPath, ThreadResourceSampler sampler) {
+        this.buildOperationListenerManager = buildOperationListenerManager;
+        this.publicBuildPath = publicBuildPath;
+        this.sampler = sampler;
+    }
+
+    public void start() {
+        started = true;
+        buildOperationListenerManager.addListener(this);
+    }
+
+    @Override
+    public void completed() {
+        if (started) {
+            started = false;
+            buildOperationListenerManager.removeListener(this);
+        }
+    }
+
+    /**
+     * Returns the usages collected so far, most expensive first.
+     */
+    public List<ConfigurationResourceUsage> getUsages() {
+        synchronized (usages) {
+            return CollectionUtils.sort(usages.values(), ConfigurationResourceUsage.mostExpensiveFirst());
+        }
+    }
+
+    @Override
+    public void started(BuildOperationDescriptor buildOperation, OperationStartEvent startEvent) {
+        OperationFrame parent = buildOperation.getParentId() == null ? null : runningOperations.get(buildOperation.getParentId());
+        OperationFrame frame = new OperationFrame(parent);
+        Object details = buildOperation.getDetails();
+        if (details instanceof ConfigureProjectBuildOperationType.Details) {
+            ConfigureProjectBuildOperationType.Details configureProject = (ConfigureProjectBuildOperationType.Details) details;
+            frame.project(configureProject.getBuildPath(), configureProject.getProjectPath());
+            frame.attributeTo("Project", "Configuration");
+        } else if (details instanceof NotifyProjectBeforeEvaluatedBuildOperationType.Details) {
+            NotifyProjectBeforeEvaluatedBuildOperationType.Details notify = (NotifyProjectBeforeEvaluatedBuildOperationType.Details) details;
+            frame.project(notify.getBuildPath(), notify.getProjectPath());
+        } else if (details instanceof NotifyProjectAfterEvaluatedBuildOperationType.Details) {
+            NotifyProjectAfterEvaluatedBuildOperationType.Details notify = (NotifyProjectAfterEvaluatedBuildOperationType.Details) details;
+            frame.project(notify.getBuildPath(), notify.getProjectPath());
+        } else if (details instanceof ApplyPluginBuildOperationType.Details) {
+            ApplyPluginBuildOperationType.Details applyPlugin = (ApplyPluginBuildOperationType.Details) details;
+            if ("project".equals(applyPlugin.getTargetType())) {
+                frame.project(applyPlugin.getBuildPath(), applyPlugin.getTargetPath());
+            }
+            String pluginName = applyPlugin.getPluginId() != null ? applyPlugin.getPluginId() : applyPlugin.getPluginClass().getName();
+            userCodeApplications.put(applyPlugin.getApplicationId(), "plugin " + pluginName);
+            frame.attributeTo("Plugin", pluginName);
+        } else if (details instanceof ApplyScriptPluginBuildOperationType.Details) {
+            ApplyScriptPluginBuildOperationType.Details applyScript = (ApplyScriptPluginBuildOperationType.Details) details;
+            if ("project".equals(applyScript.getTargetType())) {
+                frame.project(applyScript.getBuildPath(), applyScript.getTargetPath());
+            }
+            String scriptName = applyScript.getFile() != null ? applyScript.getFile() : String.valueOf(applyScript.getUri());
+            userCodeApplications.put(applyScript.getApplicationId(), "script " + scriptName);
+            frame.attributeTo("Script", scriptName);
+        } else if (details instanceof ExecuteListenerBuildOperationType.Details) {
+            ExecuteListenerBuildOperationType.Details executeListener = (ExecuteListenerBuildOperationType.Details) details;
+            String registeredBy = userCodeApplications.get(executeListener.getApplicationId());
+            frame.attributeTo("Listener", executeListener.getRegistrationPoint() + " registered by " + (registeredBy == null ? "unknown code" : registeredBy));
+        }
+        if (frame.type != null) {
+            frame.threadId = Thread.currentThread().getId();
+            frame.startCpuTime = sampler.getCpuTime();
+            frame.startAllocatedBytes = sampler.getAllocatedBytes();
+        }
+        runningOperations.put(buildOperation.getId(), frame);
+    }
+
+    @Override
+    public void progress(OperationIdentifier operationIdentifier, OperationProgressEvent progressEvent) {
+    }
+
+    @Override
+    public void finished(BuildOperationDescriptor buildOperation, OperationFinishEvent finishEvent) {
+        OperationFrame frame = runningOperations.remove(buildOperation.getId());
+        if (frame == null || frame.type == null || frame.threadId != Thread.currentThread().getId()) {
+            return;
+        }
+        long cpuTime = sampler.getCpuTime() - frame.startCpuTime;
+        long allocatedBytes = sampler.getAllocatedBytes() - frame.startAllocatedBytes;
+
+        OperationFrame attributedParent = frame.parent;
+        while (attributedParent != null && attributedParent.type == null) {
+            attributedParent = attributedParent.parent;
+        }
+        if (attributedParent != null && attributedParent.threadId == frame.threadId) {
+            attributedParent.nestedCpuTime += cpuTime;
+            attributedParent.nestedAllocatedBytes += allocatedBytes;
+        }
+
+        if (frame.projectPath != null && isCurrentBuild(frame.buildPath)) {
+            List<String> key = Arrays.asList(frame.projectPath, frame.type, frame.name);
+            synchronized (usages) {
+                ConfigurationResourceUsage usage = usages.get(key);
+                if (usage == null) {
+                    usage = new ConfigurationResourceUsage(frame.projectPath, frame.type, frame.name);
+                    usages.put(key, usage);
+                }
+                usage.add(cpuTime, cpuTime - frame.nestedCpuTime, allocatedBytes, allocatedBytes - frame.nestedAllocatedBytes);
+            }
+        }
+    }
+
+    private boolean isCurrentBuild(@Nullable String buildPath) {
+        try {
+            return publicBuildPath.getBuildPath().getPath().equals(buildPath);
+        } catch (IllegalStateException e) {
+            // The path of a nested build is not known before its projects are loaded
+            return false;
+        }
+    }
+
+    private static class OperationFrame {
+        final OperationFrame parent;
+        String buildPath;
+        String projectPath;
+        String type;
+        String name;
+        long threadId;
+        long startCpuTime;
+        long startAllocatedBytes;
+        // Only updated by the thread running the operation
+        long nestedCpuTime;
+        long nestedAllocatedBytes;
+
+        OperationFrame(@Nullable OperationFrame parent) {
+            this.parent = parent;
+            if (parent != null) {
+                buildPath = parent.buildPath;
+                projectPath = parent.projectPath;
+            }
+        }
+
+        void project(String buildPath, @Nullable String projectPath) {
+            this.buildPath = buildPath;
+            this.projectPath = projectPath;
+        }
+
+        void attributeTo(String type, String name) {
+            this.type = type;
+            this.name = name;
+        }
+    }
+
+    private static class JvmThreadResourceSampler implements ThreadResourceSampler {
+        private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        private final com.sun.management.ThreadMXBean allocationMXBean;
+        private final boolean cpuTimeSupported;
+
+        JvmThreadResourceSampler() {
+            cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported();
+            if (cpuTimeSupported && !threadMXBean.isThreadCpuTimeEnabled()) {
+                threadMXBean.setThreadCpuTimeEnabled(true);
+            }
+            if (threadMXBean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported()) {
+                allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+                if (!allocationMXBean.isThreadAllocatedMemoryEnabled()) {
+                    allocationMXBean.setThreadAllocatedMemoryEnabled(true);
+                }
+            } else {
+                allocationMXBean = null;
+            }
+        }
+
+        @Override
+        public long getCpuTime() {
+            return cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : 0;
+        }
+
+        @Override
+        public long getAllocatedBytes() {
+            return allocationMXBean != null ? allocationMXBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+        }
+    }
+}
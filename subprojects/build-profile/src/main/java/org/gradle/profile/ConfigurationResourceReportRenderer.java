@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.profile;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes the configuration resource usages as comma separated values, one usage per line, so that they can be sorted by any column.
+ */
+public class ConfigurationResourceReportRenderer {
+
+    public void writeTo(List<ConfigurationResourceUsage> usages, File file) {
+        GFileUtils.parentMkdirs(file);
+        try {
+            Writer writer = new OutputStreamWriter(new FileOutputStream(file), Charset.forName("UTF-8"));
+            try {
+                writer.write("Project,Type,Name,Count,Self CPU (ms),Total CPU (ms),Self allocated (bytes),Total allocated (bytes)\n");
+                for (ConfigurationResourceUsage usage : usages) {
+                    writer.write(escape(usage.getProjectPath()));
+                    writer.write(',');
+                    writer.write(escape(usage.getType()));
+                    writer.write(',');
+                    writer.write(escape(usage.getName()));
+                    writer.write(',');
+                    writer.write(String.valueOf(usage.getCount()));
+                    writer.write(',');
+                    writer.write(millis(usage.getSelfCpuTime()));
+                    writer.write(',');
+                    writer.write(millis(usage.getTotalCpuTime()));
+                    writer.write(',');
+                    writer.write(String.valueOf(usage.getSelfAllocatedBytes()));
+                    writer.write(',');
+                    writer.write(String.valueOf(usage.getTotalAllocatedBytes()));
+                    writer.write('\n');
+                }
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write configuration resource report to " + file, e);
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.US, "%.3f", nanos / 1000000d);
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.profile;
+
+import java.util.Comparator;
+
+/**
+ * The CPU time and the allocations attributed to a plugin, script or listener while configuring a project, summed over all of its executions.
+ *
+ * <p>The self values exclude the nested plugins, scripts and listeners that ran on the same thread, which have their own usage.</p>
+ */
+public class ConfigurationResourceUsage {
+    private final String projectPath;
+    private final String type;
+    private final String name;
+    private int count;
+    private long totalCpuTime;
+    private long selfCpuTime;
+    private long totalAllocatedBytes;
+    private long selfAllocatedBytes;
+
+    public ConfigurationResourceUsage(String projectPath, String type, String name) {
+        this.projectPath = projectPath;
+        this.type = type;
+        this.name = name;
+    }
+
+    public String getProjectPath() {
+        return projectPath;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Total CPU time, in nanoseconds.
+     */
+    public long getTotalCpuTime() {
+        return totalCpuTime;
+    }
+
+    /**
+     * CPU time excluding nested operations, in nanoseconds.
+     */
+    public long getSelfCpuTime() {
+        return selfCpuTime;
+    }
+
+    public long getTotalAllocatedBytes() {
+        return totalAllocatedBytes;
+    }
+
+    public long getSelfAllocatedBytes() {
+        return selfAllocatedBytes;
+    }
+
+    void add(long totalCpuTime, long selfCpuTime, long totalAllocatedBytes, long selfAllocatedBytes) {
+        count++;
+        this.totalCpuTime += totalCpuTime;
+        this.selfCpuTime += selfCpuTime;
+        this.totalAllocatedBytes += totalAllocatedBytes;
+        this.selfAllocatedBytes += selfAllocatedBytes;
+    }
+
+    /**
+     * @return comparator that compares usages, most self CPU time first, then most self allocations, then alphabetically
+     */
+    public static Comparator<ConfigurationResourceUsage> mostExpensiveFirst() {
+        return new Comparator<ConfigurationResourceUsage>() {
+            @Override
+            public int compare(ConfigurationResourceUsage o1, ConfigurationResourceUsage o2) {
+                int diff = Long.compare(o2.selfCpuTime, o1.selfCpuTime);
+                if (diff != 0) {
+                    return diff;
+                }
+                diff = Long.compare(o2.selfAllocatedBytes, o1.selfAllocatedBytes);
+                if (diff != 0) {
+                    return diff;
+                }
+                return o1.toString().compareTo(o2.toString());
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return projectPath + " " + type + " " + name;
+    }
+}
@@ -23,19 +23,23 @@ import org.gradle.internal.logging.ConsoleRenderer;
 import org.gradle.internal.logging.text.StyledTextOutput;
 import org.gradle.internal.logging.text.StyledTextOutputFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
 
 import static org.gradle.internal.logging.text.StyledTextOutput.Style.UserInput;
 
 public class ReportGeneratingProfileListener extends InternalBuildAdapter implements ProfileListener {
     private static final SimpleDateFormat FILE_DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd-HH-mm-ss");
     private final StyledTextOutputFactory textOutputFactory;
+    private final ConfigurationResourceProfiler configurationResourceProfiler;
     private File buildDir;
 
-    public ReportGeneratingProfileListener(StyledTextOutputFactory textOutputFactory) {
+    public ReportGeneratingProfileListener(StyledTextOutputFactory textOutputFactory, ConfigurationResourceProfiler configurationResourceProfiler) {
         this.textOutputFactory = textOutputFactory;
+        this.configurationResourceProfiler = configurationResourceProfiler;
     }
 
     @Override
@@ -45,16 +49,26 @@ public class ReportGeneratingProfileListener extends InternalBuildAdapter implem
 
     public void buildFinished(BuildProfile buildProfile) {
         ProfileReportRenderer renderer = new ProfileReportRenderer();
-        File file = new File(buildDir, "reports/profile/profile-" + FILE_DATE_FORMAT.format(new Date(buildProfile.getBuildStarted())) + ".html");
+        String baseName = "reports/profile/profile-" + FILE_DATE_FORMAT.format(new Date(buildProfile.getBuildStarted()));
+        File file = new File(buildDir, baseName + ".html");
         renderer.writeTo(buildProfile, file);
-        renderReportUrl(file);
+        File resourceFile = null;
+        List<ConfigurationResourceUsage> resourceUsages = configurationResourceProfiler.getUsages();
+        if (!resourceUsages.isEmpty()) {
+            resourceFile = new File(buildDir, baseName + "-configuration-resources.csv");
+            new ConfigurationResourceReportRenderer().writeTo(resourceUsages, resourceFile);
+        }
+        renderReportUrl(file, resourceFile);
     }
 
-    private void renderReportUrl(File reportFile) {
+    private void renderReportUrl(File reportFile, @Nullable File resourceReportFile) {
         StyledTextOutput textOutput = textOutputFactory.create(ReportGeneratingProfileListener.class, LogLevel.LIFECYCLE);
         textOutput.println();
         String reportUrl = new ConsoleRenderer().asClickableFileUrl(reportFile);
         textOutput.formatln("See the profiling report at: %s", reportUrl);
+        if (resourceReportFile != null) {
+            textOutput.formatln("See the configuration resource usage at: %s", new ConsoleRenderer().asClickableFileUrl(resourceReportFile));
+        }
         textOutput.text("A fine-grained performance profile is available: use the ");
         textOutput.withStyle(UserInput).format("--%s", StartParameterBuildOptions.BuildScanOption.LONG_OPTION);
         textOutput.text(" option.");
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.profile;
+
+/**
+ * Samples the resources used so far by the current thread.
+ */
+interface ThreadResourceSampler {
+    /**
+     * Returns the CPU time used by the current thread in nanoseconds, or 0 when not supported by the JVM.
+     */
+    long getCpuTime();
+
+    /**
+     * Returns the number of bytes allocated by the current thread, or 0 when not supported by the JVM.
+     */
+    long getAllocatedBytes();
+}
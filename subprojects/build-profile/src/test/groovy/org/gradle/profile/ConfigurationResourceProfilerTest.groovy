@@ -0,0 +1,203 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.profile
+
+import org.gradle.api.internal.plugins.ApplyPluginBuildOperationType
+import org.gradle.configuration.ApplyScriptPluginBuildOperationType
+import org.gradle.configuration.internal.ExecuteListenerBuildOperationType
+import org.gradle.configuration.project.ConfigureProjectBuildOperationType
+import org.gradle.internal.build.PublicBuildPath
+import org.gradle.internal.operations.BuildOperationDescriptor
+import org.gradle.internal.operations.BuildOperationListenerManager
+import org.gradle.internal.operations.OperationFinishEvent
+import org.gradle.internal.operations.OperationIdentifier
+import org.gradle.internal.operations.OperationStartEvent
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Path
+import org.junit.Rule
+import spock.lang.Specification
+
+class ConfigurationResourceProfilerTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+
+    def listenerManager = Mock(BuildOperationListenerManager)
+    def buildPath = Stub(PublicBuildPath) {
+        getBuildPath() >> Path.ROOT
+    }
+    def sampler = new TestThreadResourceSampler()
+    def profiler = new ConfigurationResourceProfiler(listenerManager, buildPath, sampler)
+    long nextId
+
+    def "registers as build operation listener until the build completes"() {
+        when:
+        profiler.start()
+
+        then:
+        1 * listenerManager.addListener(profiler)
+
+        when:
+        profiler.completed()
+        profiler.completed()
+
+        then:
+        1 * listenerManager.removeListener(profiler)
+    }
+
+    def "attributes usage to the project, excluding nested plugins and scripts from the self usage"() {
+        when:
+        def project = start(null, configureProject(":a"))
+        use(100, 1000)
+        def script = start(project, applyScript("build.gradle", ":a", 1))
+        use(20, 200)
+        def plugin = start(script, applyPlugin("java", ":a", 2))
+        use(5, 50)
+        finish(plugin)
+        use(3, 30)
+        finish(script)
+        use(1, 10)
+        finish(project)
+
+        then:
+        def usages = profiler.usages
+        usages*.toString() == [":a Project Configuration", ":a Script build.gradle", ":a Plugin java"]
+        usage(usages, "Project").totalCpuTime == 129
+        usage(usages, "Project").selfCpuTime == 101
+        usage(usages, "Project").totalAllocatedBytes == 1290
+        usage(usages, "Project").selfAllocatedBytes == 1010
+        usage(usages, "Script").totalCpuTime == 28
+        usage(usages, "Script").selfCpuTime == 23
+        usage(usages, "Script").selfAllocatedBytes == 230
+        usage(usages, "Plugin").totalCpuTime == 5
+        usage(usages, "Plugin").selfCpuTime == 5
+        usage(usages, "Plugin").count == 1
+    }
+
+    def "sums usages of the same plugin in the same project"() {
+        when:
+        def project = start(null, configureProject(":a"))
+        2.times {
+            def plugin = start(project, applyPlugin("java", ":a", it))
+            use(5, 50)
+            finish(plugin)
+        }
+        finish(project)
+
+        then:
+        def pluginUsage = usage(profiler.usages, "Plugin")
+        pluginUsage.count == 2
+        pluginUsage.selfCpuTime == 10
+        pluginUsage.selfAllocatedBytes == 100
+    }
+
+    def "attributes listeners to the plugin that registered them"() {
+        when:
+        def project = start(null, configureProject(":a"))
+        def plugin = start(project, applyPlugin("java", ":a", 12))
+        finish(plugin)
+        def listener = start(project, executeListener("Project.afterEvaluate", 12))
+        use(7, 70)
+        finish(listener)
+        finish(project)
+
+        then:
+        def listenerUsage = usage(profiler.usages, "Listener")
+        listenerUsage.projectPath == ":a"
+        listenerUsage.name == "Project.afterEvaluate registered by plugin java"
+        listenerUsage.selfCpuTime == 7
+    }
+
+    def "ignores operations of other builds"() {
+        when:
+        def project = start(null, configureProject(":a", ":buildSrc"))
+        use(7, 70)
+        finish(project)
+
+        then:
+        profiler.usages.empty
+    }
+
+    def "renders usages as comma separated values"() {
+        def file = temp.file("report.csv")
+        def usage = new ConfigurationResourceUsage(":a", "Script", "build, with comma.gradle")
+        usage.add(2500000, 1500000, 2000, 1000)
+
+        when:
+        new ConfigurationResourceReportRenderer().writeTo([usage], file)
+
+        then:
+        file.text == "Project,Type,Name,Count,Self CPU (ms),Total CPU (ms),Self allocated (bytes),Total allocated (bytes)\n" +
+            ':a,Script,"build, with comma.gradle",1,1.500,2.500,1000,2000\n'
+    }
+
+    private void use(long cpu, long allocations) {
+        sampler.cpuTime += cpu
+        sampler.allocatedBytes += allocations
+    }
+
+    private static ConfigurationResourceUsage usage(List<ConfigurationResourceUsage> usages, String type) {
+        return usages.find { it.type == type }
+    }
+
+    private BuildOperationDescriptor start(BuildOperationDescriptor parent, Object details) {
+        def descriptor = BuildOperationDescriptor.displayName("operation").details(details).build(new OperationIdentifier(++nextId), parent?.id)
+        profiler.started(descriptor, new OperationStartEvent(0))
+        return descriptor
+    }
+
+    private void finish(BuildOperationDescriptor descriptor) {
+        profiler.finished(descriptor, new OperationFinishEvent(0, 0, null, null))
+    }
+
+    private ConfigureProjectBuildOperationType.Details configureProject(String projectPath, String buildPath = ":") {
+        return Stub(ConfigureProjectBuildOperationType.Details) {
+            getProjectPath() >> projectPath
+            getBuildPath() >> buildPath
+        }
+    }
+
+    private ApplyScriptPluginBuildOperationType.Details applyScript(String file, String projectPath, long applicationId) {
+        return Stub(ApplyScriptPluginBuildOperationType.Details) {
+            getFile() >> file
+            getTargetType() >> "project"
+            getTargetPath() >> projectPath
+            getBuildPath() >> ":"
+            getApplicationId() >> applicationId
+        }
+    }
+
+    private ApplyPluginBuildOperationType.Details applyPlugin(String pluginId, String projectPath, long applicationId) {
+        return Stub(ApplyPluginBuildOperationType.Details) {
+            getPluginId() >> pluginId
+            getTargetType() >> "project"
+            getTargetPath() >> projectPath
+            getBuildPath() >> ":"
+            getApplicationId() >> applicationId
+        }
+    }
+
+    private ExecuteListenerBuildOperationType.Details executeListener(String registrationPoint, long applicationId) {
+        return Stub(ExecuteListenerBuildOperationType.Details) {
+            getRegistrationPoint() >> registrationPoint
+            getApplicationId() >> applicationId
+        }
+    }
+
+    static class TestThreadResourceSampler implements ThreadResourceSampler {
+        long cpuTime
+        long allocatedBytes
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.artifacts.transform;
+
+import org.gradle.api.Incubating;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Base class for artifact transformations which can process the changes to their input incrementally.
+ *
+ * <p>An incremental transform keeps its output directory between transformations of the same input location. When the input has changed since the
+ * previous transformation, the transform receives the files of the input which have been added, modified or removed, and only needs to
+ * update the corresponding outputs.</p>
+ *
+ * @since 5.1
+ */
+@Incubating
+public abstract class IncrementalArtifactTransform extends ArtifactTransform {
+
+    /**
+     * Transforms the given input.
+     *
+     * <p>When {@link IncrementalTaskInputs#isIncremental()} is {@code true}, the output directory contains the outputs of the previous transformation
+     * of the same input location, and the input changes describe the files of the input which changed since then.
+     * Otherwise, the output directory is empty and every file of the input is reported as out-of-date.</p>
+     *
+     * @param input the input to transform.
+     * @param inputChanges the changes to the input since the previous transformation.
+     * @return the outputs of the transformation.
+     */
+    public abstract List<File> transform(File input, IncrementalTaskInputs inputChanges);
+
+    /**
+     * Not used for incremental transforms. Gradle invokes them with the changes to their input, and with every file of the input reported as
+     * out-of-date when there is no previous transformation to update.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public final List<File> transform(File input) {
+        throw new UnsupportedOperationException(getClass().getName() + " is incremental and needs to be invoked with the changes to its input.");
+    }
+}
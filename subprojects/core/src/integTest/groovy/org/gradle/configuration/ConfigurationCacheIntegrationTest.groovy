@@ -0,0 +1,159 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration
+
+import org.gradle.api.internal.InternalFlags
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+class ConfigurationCacheIntegrationTest extends AbstractIntegrationSpec {
+    def setup() {
+        settingsFile << "include 'a', 'b', 'c'"
+        buildFile << """
+            println "configuring root"
+        """
+        ['a', 'b', 'c'].each { name ->
+            file("$name/build.gradle") << """
+                println "configuring \$path"
+                task thing
+            """
+        }
+        file("a/build.gradle") << """
+            apply from: 'other.gradle'
+            thing.dependsOn ':c:thing'
+        """
+        file("a/other.gradle") << ""
+    }
+
+    def "configures only the projects owning scheduled tasks when the task graph is remembered"() {
+        when:
+        runWithConfigurationCache ":a:thing"
+
+        then:
+        outputContains("configuring :b")
+        result.assertTasksExecuted(":c:thing", ":a:thing")
+
+        when:
+        runWithConfigurationCache ":a:thing"
+
+        then:
+        outputContains("configuring root")
+        outputContains("configuring :a")
+        outputContains("configuring :c")
+        outputDoesNotContain("configuring :b")
+        result.assertTasksExecuted(":c:thing", ":a:thing")
+    }
+
+    def "configures all projects when a build file changes"() {
+        given:
+        runWithConfigurationCache ":a:thing"
+
+        when:
+        file("b/build.gradle") << "// changed"
+        runWithConfigurationCache ":a:thing"
+
+        then:
+        outputContains("configuring :b")
+    }
+
+    def "configures all projects when an applied script changes"() {
+        given:
+        runWithConfigurationCache ":a:thing"
+
+        when:
+        file("a/other.gradle") << "// changed"
+        runWithConfigurationCache ":a:thing"
+
+        then:
+        outputContains("configuring :b")
+    }
+
+    def "configures all projects when a script applied by the settings script changes"() {
+        given:
+        settingsFile << "\napply from: 'other-settings.gradle'"
+        file("other-settings.gradle") << ""
+        runWithConfigurationCache ":a:thing"
+
+        when:
+        file("other-settings.gradle") << "// changed"
+        runWithConfigurationCache ":a:thing"
+
+        then:
+        outputContains("configuring :b")
+    }
+
+    def "configures only the projects owning scheduled tasks when the root project configures other projects"() {
+        given:
+        buildFile << """
+            subprojects {
+                ext.configuredByRoot = true
+            }
+        """
+        runWithConfigurationCache ":a:thing"
+
+        when:
+        runWithConfigurationCache ":a:thing"
+
+        then:
+        outputDoesNotContain("configuring :b")
+        result.assertTasksExecuted(":c:thing", ":a:thing")
+    }
+
+    def "configures all projects when a project which is not configured configures other projects"() {
+        given:
+        file("b/build.gradle") << """
+            project(':c') {
+                ext.configuredByB = true
+            }
+        """
+        runWithConfigurationCache ":a:thing"
+
+        when:
+        runWithConfigurationCache ":a:thing"
+
+        then:
+        outputContains("configuring :b")
+        result.assertTasksExecuted(":c:thing", ":a:thing")
+    }
+
+    def "configures all projects when other tasks are requested"() {
+        given:
+        runWithConfigurationCache ":a:thing"
+
+        when:
+        runWithConfigurationCache ":c:thing"
+
+        then:
+        outputContains("configuring :b")
+    }
+
+    def "configures all projects when the cache is not enabled"() {
+        given:
+        runWithConfigurationCache ":a:thing"
+
+        when:
+        run ":a:thing"
+
+        then:
+        outputContains("configuring :b")
+    }
+
+    private void runWithConfigurationCache(String... tasks) {
+        executer.withArgument("-D${InternalFlags.Flag.CONFIGURATION_CACHE.systemProperty}=true")
+        run tasks
+    }
+}
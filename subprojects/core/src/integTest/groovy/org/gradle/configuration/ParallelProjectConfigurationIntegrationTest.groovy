@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration
+
+import org.gradle.api.internal.InternalFlags
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.test.fixtures.server.http.BlockingHttpServer
+import org.junit.Rule
+import spock.lang.Unroll
+
+import static org.hamcrest.Matchers.startsWith
+
+class ParallelProjectConfigurationIntegrationTest extends AbstractIntegrationSpec {
+    @Rule
+    BlockingHttpServer server = new BlockingHttpServer()
+
+    def setup() {
+        server.start()
+        settingsFile << "include 'a', 'b'"
+    }
+
+    def "configures subprojects concurrently after the root project"() {
+        given:
+        buildFile << """
+            subprojects {
+                ext.configuredByRoot = true
+            }
+        """
+        file("a/build.gradle") << """
+            assert configuredByRoot
+            ${server.callFromBuild("configure-a")}
+        """
+        file("b/build.gradle") << """
+            assert configuredByRoot
+            ${server.callFromBuild("configure-b")}
+        """
+
+        when:
+        withParallelConfiguration()
+        server.expectConcurrent("configure-a", "configure-b")
+        run "help"
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "evaluationDependsOn waits for a project configured by another thread"() {
+        given:
+        file("a/build.gradle") << """
+            ${server.callFromBuild("a-started")}
+            evaluationDependsOn(':b')
+            println "value from b: " + project(':b').value
+        """
+        file("b/build.gradle") << """
+            ${server.callFromBuild("b-started")}
+            Thread.sleep(200)
+            ext.value = 'configured'
+        """
+
+        when:
+        withParallelConfiguration()
+        server.expectConcurrent("a-started", "b-started")
+        run "help"
+
+        then:
+        outputContains("value from b: configured")
+    }
+
+    def "reports a failure to configure a project"() {
+        given:
+        file("a/build.gradle") << """
+            throw new RuntimeException("broken")
+        """
+        file("b/build.gradle") << ""
+
+        when:
+        withParallelConfiguration()
+        fails "help"
+
+        then:
+        failure.assertHasDescription("A problem occurred evaluating project ':a'.")
+        failure.assertHasCause("broken")
+    }
+
+    @Unroll
+    def "reports circular evaluationDependsOn with --parallel when parallel configuration is #state"() {
+        given:
+        file("a/build.gradle") << "evaluationDependsOn(':b')"
+        file("b/build.gradle") << "evaluationDependsOn(':a')"
+
+        when:
+        executer.withArguments("--parallel", "--max-workers=4", "-D${InternalFlags.Flag.PARALLEL_CONFIGURATION.systemProperty}=${enabled}")
+        fails "help"
+
+        then:
+        // Either project may detect the cycle when both are configured concurrently
+        failure.assertThatCause(startsWith("Circular referencing during evaluation for project ':"))
+
+        where:
+        state      | enabled
+        "enabled"  | true
+        "disabled" | false
+    }
+
+    def "reports circular evaluationDependsOn between projects configured by different threads"() {
+        given:
+        file("a/build.gradle") << """
+            ${server.callFromBuild("a-started")}
+            evaluationDependsOn(':b')
+        """
+        file("b/build.gradle") << """
+            ${server.callFromBuild("b-started")}
+            evaluationDependsOn(':a')
+        """
+
+        when:
+        withParallelConfiguration()
+        server.expectConcurrent("a-started", "b-started")
+        fails "help"
+
+        then:
+        failure.assertThatCause(startsWith("Circular referencing during evaluation for project ':"))
+    }
+
+    private void withParallelConfiguration() {
+        executer.withArguments("--parallel", "--max-workers=4", "-D${InternalFlags.Flag.PARALLEL_CONFIGURATION.systemProperty}=true")
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution
+
+import org.gradle.api.internal.InternalFlags
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import spock.lang.Unroll
+
+class LazyTaskRealizationIntegrationTest extends AbstractIntegrationSpec {
+
+    def setup() {
+        buildFile << """
+            class SomeTask extends DefaultTask {
+                SomeTask() {
+                    println("Create \${path}")
+                }
+            }
+        """
+    }
+
+    @Unroll
+    def "honours #orderingRule ordering against a registered task which is scheduled"() {
+        buildFile << """
+            def b = tasks.register("b", SomeTask)
+            tasks.register("a", SomeTask) {
+                ${orderingRule} b
+            }
+        """
+
+        when:
+        withLazyTaskRealization()
+        run "a", "b"
+
+        then:
+        result.assertTasksExecutedInOrder(":b", ":a")
+
+        where:
+        orderingRule << ['mustRunAfter', 'shouldRunAfter']
+    }
+
+    @Unroll
+    def "honours #orderingRule ordering against a registered task which is scheduled by a dependency"() {
+        buildFile << """
+            def b = tasks.register("b", SomeTask)
+            tasks.register("a", SomeTask) {
+                ${orderingRule} b
+            }
+            tasks.register("c", SomeTask) {
+                dependsOn b
+            }
+        """
+
+        when:
+        withLazyTaskRealization()
+        run "a", "c"
+
+        then:
+        result.assertTasksExecutedInOrder(":b", ":a", ":c")
+
+        where:
+        orderingRule << ['mustRunAfter', 'shouldRunAfter']
+    }
+
+    @Unroll
+    def "does not create a registered task which is only referenced by #orderingRule"() {
+        buildFile << """
+            def b = tasks.register("b", SomeTask)
+            tasks.register("a", SomeTask) {
+                ${orderingRule} b
+            }
+        """
+
+        when:
+        withLazyTaskRealization()
+        run "a"
+
+        then:
+        result.assertTasksExecuted(":a")
+        outputContains("Create :a")
+        outputDoesNotContain("Create :b")
+
+        where:
+        orderingRule << ['mustRunAfter', 'shouldRunAfter']
+    }
+
+    def "creates a registered task which is only referenced by mustRunAfter when lazy task realization is disabled"() {
+        buildFile << """
+            def b = tasks.register("b", SomeTask)
+            tasks.register("a", SomeTask) {
+                mustRunAfter b
+            }
+        """
+
+        when:
+        run "a"
+
+        then:
+        result.assertTasksExecuted(":a")
+        outputContains("Create :b")
+    }
+
+    private void withLazyTaskRealization() {
+        executer.withArgument("-D${InternalFlags.Flag.LAZY_TASK_REALIZATION.systemProperty}=true")
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal;
+
+import org.gradle.api.Named;
+import org.gradle.api.NamedDomainObjectCollection;
+import org.gradle.api.internal.provider.AbstractReadOnlyProvider;
+import org.gradle.api.specs.Spec;
+import org.gradle.internal.reflect.DirectInstantiator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.annotation.Nullable;
+
+/**
+ * Measures the views of a large container that select the elements of one type, as used by {@code tasks.withType(...)}.
+ *
+ * <p>Every tenth element of the container is of the selected type. The container also holds as many pending elements, none of which is of the selected type.</p>
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class NamedDomainObjectCollectionBenchmark {
+    private static final Spec<Element> EVEN_NAMES = new Spec<Element>() {
+        @Override
+        public boolean isSatisfiedBy(Element element) {
+            return element.getName().hashCode() % 2 == 0;
+        }
+    };
+
+    @Param({"50000"})
+    int size;
+
+    private DefaultNamedDomainObjectSet<Element> container;
+
+    @Setup
+    public void setup() {
+        container = new DefaultNamedDomainObjectSet<Element>(Element.class, DirectInstantiator.INSTANCE);
+        for (int i = 0; i < size; i++) {
+            String name = "element" + i;
+            container.add(i % 10 == 0 ? new SpecialElement(name) : new Element(name));
+            container.addLater(new ElementProvider("pending" + i));
+        }
+    }
+
+    @Benchmark
+    public void iterateWithType(Blackhole bh) {
+        for (SpecialElement element : container.withType(SpecialElement.class)) {
+            bh.consume(element);
+        }
+    }
+
+    @Benchmark
+    public void namesWithType(Blackhole bh) {
+        bh.consume(container.withType(SpecialElement.class).getNames());
+    }
+
+    @Benchmark
+    public void asMapWithType(Blackhole bh) {
+        bh.consume(container.withType(SpecialElement.class).getAsMap());
+    }
+
+    @Benchmark
+    public void findByNameWithType(Blackhole bh) {
+        NamedDomainObjectCollection<SpecialElement> view = container.withType(SpecialElement.class);
+        bh.consume(view.findByName("element100"));
+        bh.consume(view.findByName("pending100"));
+    }
+
+    @Benchmark
+    public void sizeWithTypeMatching(Blackhole bh) {
+        bh.consume(container.withType(SpecialElement.class).matching(EVEN_NAMES).size());
+    }
+
+    public static class Element implements Named {
+        private final String name;
+
+        public Element(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+
+    public static class SpecialElement extends Element {
+        public SpecialElement(String name) {
+            super(name);
+        }
+    }
+
+    private static class ElementProvider extends AbstractReadOnlyProvider<Element> implements Named {
+        private final String name;
+
+        ElementProvider(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Nullable
+        @Override
+        public Class<Element> getType() {
+            return Element.class;
+        }
+
+        @Nullable
+        @Override
+        public Element getOrNull() {
+            return new Element(name);
+        }
+    }
+}
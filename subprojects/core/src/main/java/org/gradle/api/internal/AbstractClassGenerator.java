@@ -18,6 +18,7 @@ package org.gradle.api.internal;
 
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.Striped;
 import groovy.lang.Closure;
 import groovy.lang.GroovyObject;
 import org.apache.commons.collections.map.AbstractReferenceMap;
@@ -67,36 +68,79 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 public abstract class AbstractClassGenerator implements ClassGenerator {
     private static final Map<Class<?>, Map<Class<?>, Class<?>>> GENERATED_CLASSES = new HashMap<Class<?>, Map<Class<?>, Class<?>>>();
+    // Guards GENERATED_CLASSES only, so that types are generated concurrently under their own lock
     private static final Lock CACHE_LOCK = new ReentrantLock();
+    private static final Striped<Lock> TYPE_LOCKS = Striped.lock(Runtime.getRuntime().availableProcessors() * 4);
     private static final Collection<String> SKIP_PROPERTIES = Arrays.asList("class", "metaClass", "conventionMapping", "convention", "asDynamicObject", "extensions");
+    private static volatile PersistentGeneratedClassCache persistentCache;
+
+    /**
+     * Uses the given cache to reuse the classes generated by previous processes, or generates every class when null.
+     */
+    public static void usePersistentCache(@Nullable PersistentGeneratedClassCache cache) {
+        persistentCache = cache;
+    }
 
     public <T> T newInstance(Class<T> type, Object... parameters) {
         return DirectInstantiator.instantiate(generate(type), parameters);
     }
 
     public <T> Class<? extends T> generate(Class<T> type) {
+        Map<Class<?>, Class<?>> cache = generatedClassesForThisGenerator();
+        Class<?> generatedClass = getGenerated(cache, type);
+        if (generatedClass != null) {
+            return generatedClass.asSubclass(type);
+        }
+
+        Lock typeLock = TYPE_LOCKS.get(type);
+        typeLock.lock();
         try {
+            generatedClass = getGenerated(cache, type);
+            if (generatedClass != null) {
+                return generatedClass.asSubclass(type);
+            }
+            Class<? extends T> subclass = generateUnderLock(type);
             CACHE_LOCK.lock();
-            return generateUnderLock(type);
+            try {
+                cache.put(type, subclass);
+                cache.put(subclass, subclass);
+            } finally {
+                CACHE_LOCK.unlock();
+            }
+            return subclass;
+        } finally {
+            typeLock.unlock();
+        }
+    }
+
+    private Map<Class<?>, Class<?>> generatedClassesForThisGenerator() {
+        CACHE_LOCK.lock();
+        try {
+            Map<Class<?>, Class<?>> cache = GENERATED_CLASSES.get(getClass());
+            if (cache == null) {
+                // WeakHashMap won't work here. It keeps a strong reference to the mapping value, which is the generated class in this case
+                // However, the generated class has a strong reference to the source class (by extending it), so the keys will always be
+                // strongly reachable while this Class is strongly reachable. Use weak references for both key and value of the mapping instead.
+                cache = new ReferenceMap(AbstractReferenceMap.WEAK, AbstractReferenceMap.WEAK);
+                GENERATED_CLASSES.put(getClass(), cache);
+            }
+            return cache;
         } finally {
             CACHE_LOCK.unlock();
         }
     }
 
-    private <T> Class<? extends T> generateUnderLock(Class<T> type) {
-        Map<Class<?>, Class<?>> cache = GENERATED_CLASSES.get(getClass());
-        if (cache == null) {
-            // WeakHashMap won't work here. It keeps a strong reference to the mapping value, which is the generated class in this case
-            // However, the generated class has a strong reference to the source class (by extending it), so the keys will always be
-            // strongly reachable while this Class is strongly reachable. Use weak references for both key and value of the mapping instead.
-            cache = new ReferenceMap(AbstractReferenceMap.WEAK, AbstractReferenceMap.WEAK);
-            GENERATED_CLASSES.put(getClass(), cache);
-        }
-        Class<?> generatedClass = cache.get(type);
-        if (generatedClass != null) {
-            return generatedClass.asSubclass(type);
+    @Nullable
+    private static Class<?> getGenerated(Map<Class<?>, Class<?>> cache, Class<?> type) {
+        CACHE_LOCK.lock();
+        try {
+            return cache.get(type);
+        } finally {
+            CACHE_LOCK.unlock();
         }
+    }
 
+    private <T> Class<? extends T> generateUnderLock(Class<T> type) {
         int modifiers = type.getModifiers();
         if (Modifier.isPrivate(modifiers)) {
             throw new GradleException(String.format("Cannot create a proxy class for private class '%s'.",
@@ -110,6 +154,20 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
             throw new GradleException(String.format("Cannot create a proxy class for final class '%s'.",
                 type.getSimpleName()));
         }
+        PersistentGeneratedClassCache classCache = persistentCache;
+        String persistentKey = classCache == null ? null : classCache.keyFor(getClass(), type);
+        if (persistentKey != null) {
+            byte[] classBytes = classCache.load(persistentKey);
+            if (classBytes != null) {
+                try {
+                    return define(type, classBytes);
+                } catch (LinkageError e) {
+                    // The entry is not usable, for example because it is corrupt or refers to a class which no longer exists, so generate the class again
+                    classCache.remove(persistentKey);
+                }
+            }
+        }
+
         Class<? extends T> subclass;
         try {
             ClassMetaData classMetaData = inspectType(type);
@@ -224,17 +282,22 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
             }
 
             subclass = builder.generate();
+            if (persistentKey != null) {
+                classCache.store(persistentKey, builder.getClassBytes());
+            }
         } catch (Throwable e) {
             throw new GradleException(String.format("Could not generate a proxy class for class %s.", type.getName()), e);
         }
-
-        cache.put(type, subclass);
-        cache.put(subclass, subclass);
         return subclass;
     }
 
     protected abstract <T> ClassBuilder<T> start(Class<T> type, ClassMetaData classMetaData);
 
+    /**
+     * Defines the class previously generated for the given type from its byte code.
+     */
+    protected abstract <T> Class<? extends T> define(Class<T> type, byte[] classBytes);
+
     private ClassMetaData inspectType(Class<?> type) {
         boolean isConventionAware = type.getAnnotation(NoConventionMapping.class) == null;
         boolean extensible = JavaReflectionUtil.getAnnotation(type, NonExtensible.class) == null;
@@ -477,5 +540,10 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
         void generateServiceRegistrySupportMethods() throws Exception;
 
         Class<? extends T> generate() throws Exception;
+
+        /**
+         * Returns the byte code of the class returned by {@link #generate()}.
+         */
+        byte[] getClassBytes();
     }
 }
@@ -560,9 +560,15 @@ public class DefaultNamedDomainObjectCollection<T> extends DefaultDomainObjectCo
         Map<String, ProviderInternal<? extends T>> getPendingAsMap();
     }
 
+    /**
+     * The index of a collection. The elements and pending providers of each type that is asked for are kept in a secondary index, which is built on the
+     * first request for the type and then maintained as elements and providers are added and removed, so that the views of a type visit only the entries
+     * of that type.
+     */
     protected static class UnfilteredIndex<T> implements Index<T> {
         private final Map<String, ProviderInternal<? extends T>> pendingMap = Maps.newLinkedHashMap();
         private final NavigableMap<String, T> map = new TreeMap<String, T>();
+        private final Map<Class<?>, TypeIndex<?>> typeIndexes = Maps.newHashMap();
 
         @Override
         public NavigableMap<String, T> asMap() {
@@ -572,6 +578,9 @@ public class DefaultNamedDomainObjectCollection<T> extends DefaultDomainObjectCo
         @Override
         public void put(String name, T value) {
             map.put(name, value);
+            for (TypeIndex<?> typeIndex : typeIndexes.values()) {
+                typeIndex.put(name, value);
+            }
         }
 
         @Override
@@ -581,13 +590,18 @@ public class DefaultNamedDomainObjectCollection<T> extends DefaultDomainObjectCo
 
         @Override
         public void remove(String name) {
-            map.remove(name);
+            if (map.remove(name) != null) {
+                for (TypeIndex<?> typeIndex : typeIndexes.values()) {
+                    typeIndex.realized.remove(name);
+                }
+            }
         }
 
         @Override
         public void clear() {
             map.clear();
             pendingMap.clear();
+            typeIndexes.clear();
         }
 
         @Override
@@ -604,30 +618,105 @@ public class DefaultNamedDomainObjectCollection<T> extends DefaultDomainObjectCo
         @Override
         public void putPending(String name, ProviderInternal<? extends T> provider) {
             pendingMap.put(name, provider);
+            for (TypeIndex<?> typeIndex : typeIndexes.values()) {
+                typeIndex.putPending(name, provider);
+            }
         }
 
         @Override
         public void removePending(String name) {
-            pendingMap.remove(name);
+            if (pendingMap.remove(name) != null) {
+                for (TypeIndex<?> typeIndex : typeIndexes.values()) {
+                    typeIndex.pending.remove(name);
+                }
+            }
         }
 
         @Override
         public void removePending(ProviderInternal<? extends T> provider) {
-            pendingMap.values().remove(provider);
+            if (provider instanceof Named) {
+                String name = ((Named) provider).getName();
+                if (pendingMap.get(name) == provider) {
+                    removePending(name);
+                    return;
+                }
+            }
+            for (Map.Entry<String, ProviderInternal<? extends T>> entry : pendingMap.entrySet()) {
+                if (entry.getValue().equals(provider)) {
+                    removePending(entry.getKey());
+                    return;
+                }
+            }
         }
 
         @Override
         public Map<String, ProviderInternal<? extends T>> getPendingAsMap() {
             return pendingMap;
         }
+
+        /**
+         * Returns the elements of the given type, by name.
+         */
+        <S> NavigableMap<String, S> getRealizedOfType(Class<S> type) {
+            return typeIndex(type).realized;
+        }
+
+        /**
+         * Returns the pending providers whose type is known to be the given type, by name.
+         */
+        <S> Map<String, ProviderInternal<? extends S>> getPendingOfType(Class<S> type) {
+            return typeIndex(type).pending;
+        }
+
+        private <S> TypeIndex<S> typeIndex(Class<S> type) {
+            TypeIndex<S> typeIndex = Cast.uncheckedCast(typeIndexes.get(type));
+            if (typeIndex == null) {
+                typeIndex = new TypeIndex<S>(type);
+                for (Map.Entry<String, T> entry : map.entrySet()) {
+                    typeIndex.put(entry.getKey(), entry.getValue());
+                }
+                for (Map.Entry<String, ProviderInternal<? extends T>> entry : pendingMap.entrySet()) {
+                    typeIndex.putPending(entry.getKey(), entry.getValue());
+                }
+                typeIndexes.put(type, typeIndex);
+            }
+            return typeIndex;
+        }
+    }
+
+    private static class TypeIndex<S> {
+        private final Class<S> type;
+        private final NavigableMap<String, S> realized = new TreeMap<String, S>();
+        private final Map<String, ProviderInternal<? extends S>> pending = Maps.newLinkedHashMap();
+
+        TypeIndex(Class<S> type) {
+            this.type = type;
+        }
+
+        void put(String name, Object value) {
+            if (type.isInstance(value)) {
+                realized.put(name, type.cast(value));
+            } else {
+                realized.remove(name);
+            }
+        }
+
+        void putPending(String name, ProviderInternal<?> provider) {
+            if (provider.getType() != null && type.isAssignableFrom(provider.getType())) {
+                ProviderInternal<? extends S> typedProvider = Cast.uncheckedCast(provider);
+                pending.put(name, typedProvider);
+            } else {
+                pending.remove(name);
+            }
+        }
     }
 
     private static class FilteredIndex<T> implements Index<T> {
 
-        private final Index<? super T> delegate;
+        private final UnfilteredIndex<? super T> delegate;
         private final CollectionFilter<T> filter;
 
-        FilteredIndex(Index<? super T> delegate, CollectionFilter<T> filter) {
+        FilteredIndex(UnfilteredIndex<? super T> delegate, CollectionFilter<T> filter) {
             this.delegate = delegate;
             this.filter = filter;
         }
@@ -654,10 +743,13 @@ public class DefaultNamedDomainObjectCollection<T> extends DefaultDomainObjectCo
 
         @Override
         public NavigableMap<String, T> asMap() {
-            NavigableMap<String, ? super T> delegateMap = delegate.asMap();
+            NavigableMap<String, ? extends T> ofType = delegate.getRealizedOfType(filter.getType());
+            if (filter.isTypeOnly()) {
+                return new TreeMap<String, T>(ofType);
+            }
 
             NavigableMap<String, T> filtered = new TreeMap<String, T>();
-            for (Map.Entry<String, ? super T> entry : delegateMap.entrySet()) {
+            for (Map.Entry<String, ? extends T> entry : ofType.entrySet()) {
                 T obj = filter.filter(entry.getValue());
                 if (obj != null) {
                     filtered.put(entry.getKey(), obj);
@@ -700,16 +792,7 @@ public class DefaultNamedDomainObjectCollection<T> extends DefaultDomainObjectCo
 
         @Override
         public Map<String, ProviderInternal<? extends T>> getPendingAsMap() {
-            // TODO not sure if we can clean up the generics here and do less unchecked casting
-            Map<String, ProviderInternal<?>> delegateMap = Cast.uncheckedCast(delegate.getPendingAsMap());
-            Map<String, ProviderInternal<? extends T>> filteredMap = Maps.newLinkedHashMap();
-            for (Map.Entry<String, ProviderInternal<?>> entry : delegateMap.entrySet()) {
-                if (entry.getValue().getType() != null && filter.getType().isAssignableFrom(entry.getValue().getType())) {
-                    ProviderInternal<? extends T> typedValue = Cast.uncheckedCast(entry.getValue());
-                    filteredMap.put(entry.getKey(), typedValue);
-                }
-            }
-            return filteredMap;
+            return Maps.<String, ProviderInternal<? extends T>>newLinkedHashMap(delegate.getPendingOfType(filter.getType()));
         }
     }
 
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal;
+
+import com.google.common.collect.Sets;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The internal flags which turn on the optimizations that are disabled by default.
+ *
+ * <p>A flag is enabled when its system property is set to {@code true}. The system properties are read once, when the flags are created.
+ * The flags of the build session services are created for each build, while the services which outlive a build, such as those of the
+ * Gradle user home and of the daemon client, read the flags when they are created.</p>
+ */
+public class InternalFlags {
+
+    public enum Flag {
+        /**
+         * Attributes the resources used while configuring the build, when {@code --profile} is used. See {@code ConfigurationResourceProfiler}.
+         */
+        CONFIGURATION_RESOURCE_PROFILING("org.gradle.internal.profile.configuration.resources"),
+        /**
+         * Keeps the generated classes in the Gradle user home. See {@link PersistentGeneratedClassCache}.
+         */
+        PERSISTENT_GENERATED_CLASSES("org.gradle.internal.persistent.generated.classes"),
+        /**
+         * Remembers the task graph of a build, to only configure the projects that own a scheduled task. See {@link org.gradle.configuration.ConfigurationCache}.
+         */
+        CONFIGURATION_CACHE("org.gradle.internal.configuration.cache"),
+        /**
+         * Compiles the build scripts of child projects in the background. See {@link org.gradle.configuration.project.BuildScriptPrecompiler}.
+         */
+        PRECOMPILE_BUILD_SCRIPTS("org.gradle.internal.precompile.build.scripts"),
+        /**
+         * Selects tasks and builds the task graph from the registered tasks, without creating them. Tasks excluded from the build are matched by
+         * name and project, and a task that must or should run after a registered task is only ordered after it when that task is created while
+         * the graph is built.
+         */
+        LAZY_TASK_REALIZATION("org.gradle.internal.tasks.lazy.realization"),
+        /**
+         * Configures the projects concurrently when parallel project execution is enabled. See {@link org.gradle.execution.ParallelProjectConfigurer}.
+         */
+        PARALLEL_CONFIGURATION("org.gradle.internal.parallel.configuration"),
+        /**
+         * Shares the class data of the daemon and worker processes. See {@link org.gradle.process.internal.ClassDataSharingArchives}.
+         */
+        CLASS_DATA_SHARING("org.gradle.internal.class.data.sharing"),
+        /**
+         * Starts a spare daemon when a client takes the last idle daemon. See {@code SpareDaemonStarter}.
+         */
+        SPARE_DAEMON("org.gradle.internal.daemon.spare"),
+        /**
+         * Looks up the entries of the artifact cache without holding its lock. See {@code DefaultArtifactCacheLockingManager}.
+         */
+        LOCK_FREE_ARTIFACT_CACHE_READS("org.gradle.internal.artifact.cache.lockfree.reads"),
+        /**
+         * Keeps test workers alive between test tasks and builds. See {@code TestWorkerPool}.
+         */
+        REUSE_TEST_WORKERS("org.gradle.internal.testing.reuse.workers"),
+        /**
+         * Sends the test events of a test worker in batches. See {@code BatchingTestResultProcessor}.
+         */
+        BATCH_TEST_EVENTS("org.gradle.internal.testing.batch.events"),
+        /**
+         * Distributes the test classes between the test workers by the duration of their previous run.
+         */
+        BALANCE_TEST_FORKS_BY_DURATION("org.gradle.internal.testing.balance.forks.by.duration"),
+        /**
+         * Only runs the test classes affected by the changes since the previous test run. See {@code TestImpactAnalyzer}.
+         */
+        TEST_IMPACT_ANALYSIS("org.gradle.internal.testing.impact.analysis");
+
+        private final String systemProperty;
+
+        Flag(String systemProperty) {
+            this.systemProperty = systemProperty;
+        }
+
+        public String getSystemProperty() {
+            return systemProperty;
+        }
+    }
+
+    private final Set<Flag> enabledFlags;
+
+    public InternalFlags(Set<Flag> enabledFlags) {
+        this.enabledFlags = Sets.immutableEnumSet(enabledFlags);
+    }
+
+    /**
+     * Reads the flags from the system properties of the current process.
+     */
+    public static InternalFlags fromSystemProperties() {
+        Set<Flag> enabledFlags = EnumSet.noneOf(Flag.class);
+        for (Flag flag : Flag.values()) {
+            if (Boolean.getBoolean(flag.getSystemProperty())) {
+                enabledFlags.add(flag);
+            }
+        }
+        return new InternalFlags(enabledFlags);
+    }
+
+    public boolean isEnabled(Flag flag) {
+        return enabledFlags.contains(flag);
+    }
+}
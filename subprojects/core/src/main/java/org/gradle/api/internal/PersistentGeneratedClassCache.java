@@ -0,0 +1,188 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.ByteStreams;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.util.GFileUtils;
+import org.gradle.util.GradleVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Keeps the byte code of generated classes in the Gradle user home, so that a new daemon can define a generated class without generating it again.
+ *
+ * <p>The entries are kept per Gradle version, and are keyed by the generator and by the class files of the generated type and of all its supertypes,
+ * so that changing any of these classes generates a new entry. The class files of types which are only referenced by the generated type, such as the
+ * types of its properties, are not part of the key. Types whose class file cannot be located are not cached.</p>
+ *
+ * <p>Entries are never modified once written: a generated class is written to a temporary file which is then renamed, so that concurrent processes
+ * see either no entry or the complete entry.</p>
+ */
+public class PersistentGeneratedClassCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistentGeneratedClassCache.class);
+
+    private final File cacheDir;
+
+    public PersistentGeneratedClassCache(File gradleUserHomeDir) {
+        this.cacheDir = new File(gradleUserHomeDir, "caches/" + GradleVersion.current().getVersion() + "/generated-classes");
+    }
+
+    /**
+     * Returns the key of the class generated for the given type by the given generator, or null when the generated class cannot be cached.
+     */
+    @Nullable
+    public String keyFor(Class<?> generatorType, Class<?> type) {
+        Hasher hasher = Hashing.newHasher();
+        if (!hashHierarchy(generatorType, hasher) || !hashHierarchy(type, hasher)) {
+            return null;
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Returns the byte code of the generated class with the given key, or null when there is no such entry.
+     */
+    @Nullable
+    public byte[] load(String key) {
+        File entryFile = entryFileFor(key);
+        try {
+            return Files.readAllBytes(entryFile.toPath());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOGGER.debug("Could not read generated class {}.", entryFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the byte code of the generated class with the given key. Failures are ignored, as the class can be generated again.
+     */
+    public void store(String key, byte[] classBytes) {
+        File entryFile = entryFileFor(key);
+        if (entryFile.isFile()) {
+            return;
+        }
+        try {
+            GFileUtils.mkdirs(cacheDir);
+            File tempFile = File.createTempFile(entryFile.getName(), ".tmp", cacheDir);
+            try {
+                OutputStream outputStream = new FileOutputStream(tempFile);
+                try {
+                    outputStream.write(classBytes);
+                } finally {
+                    outputStream.close();
+                }
+                moveAtomically(tempFile, entryFile);
+            } finally {
+                Files.deleteIfExists(tempFile.toPath());
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not write generated class {}.", entryFile, e);
+        }
+    }
+
+    /**
+     * Removes the entry with the given key, which could not be used. Failures are ignored.
+     */
+    public void remove(String key) {
+        File entryFile = entryFileFor(key);
+        try {
+            Files.deleteIfExists(entryFile.toPath());
+        } catch (IOException e) {
+            LOGGER.debug("Could not remove generated class {}.", entryFile, e);
+        }
+    }
+
+    @VisibleForTesting
+    File entryFileFor(String key) {
+        return new File(cacheDir, key + ".class");
+    }
+
+    private static boolean hashHierarchy(Class<?> type, Hasher hasher) {
+        Set<Class<?>> hierarchy = new LinkedHashSet<Class<?>>();
+        collectHierarchy(type, hierarchy);
+        for (Class<?> current : hierarchy) {
+            hasher.putString(current.getName());
+            if (current.getClassLoader() == null) {
+                // A JDK class, which cannot change for the Gradle version
+                continue;
+            }
+            byte[] classBytes = classBytesOf(current);
+            if (classBytes == null) {
+                return false;
+            }
+            hasher.putBytes(classBytes);
+        }
+        return true;
+    }
+
+    private static void collectHierarchy(Class<?> type, Set<Class<?>> hierarchy) {
+        if (!hierarchy.add(type)) {
+            return;
+        }
+        if (type.getSuperclass() != null) {
+            collectHierarchy(type.getSuperclass(), hierarchy);
+        }
+        for (Class<?> superInterface : type.getInterfaces()) {
+            collectHierarchy(superInterface, hierarchy);
+        }
+    }
+
+    @Nullable
+    private static byte[] classBytesOf(Class<?> type) {
+        InputStream inputStream = type.getClassLoader().getResourceAsStream(type.getName().replace('.', '/') + ".class");
+        if (inputStream == null) {
+            return null;
+        }
+        try {
+            try {
+                return ByteStreams.toByteArray(inputStream);
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Could not read class file of {}.", type.getName(), e);
+            return null;
+        }
+    }
+
+    private static void moveAtomically(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.gradle.api.internal.changedetection.changes;
 
 import org.gradle.api.Action;
+import org.gradle.api.Describable;
 import org.gradle.api.Task;
 import org.gradle.api.tasks.incremental.InputFileDetails;
 import org.gradle.internal.fingerprint.FileCollectionFingerprint;
@@ -31,7 +32,18 @@ public class RebuildIncrementalTaskInputs extends StatefulIncrementalTaskInputs
     private final Iterable<? extends FileCollectionFingerprint> fingerprints;
 
     public RebuildIncrementalTaskInputs(Task task, Iterable<? extends FileCollectionFingerprint> fingerprints) {
-        LOGGER.info("All input files are considered out-of-date for incremental {}.", task);
+        this((Object) task, fingerprints);
+    }
+
+    /**
+     * Creates the inputs for a unit of work other than a task, which needs to process all of its input files.
+     */
+    public static RebuildIncrementalTaskInputs of(Describable work, Iterable<? extends FileCollectionFingerprint> fingerprints) {
+        return new RebuildIncrementalTaskInputs(work.getDisplayName(), fingerprints);
+    }
+
+    private RebuildIncrementalTaskInputs(Object work, Iterable<? extends FileCollectionFingerprint> fingerprints) {
+        LOGGER.info("All input files are considered out-of-date for incremental {}.", work);
         this.fingerprints = fingerprints;
     }
 
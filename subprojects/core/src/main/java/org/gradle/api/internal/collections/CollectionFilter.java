@@ -39,6 +39,13 @@ public class CollectionFilter<T> implements Spec<T> {
         return type;
     }
 
+    /**
+     * Returns true when this filter accepts every instance of its type.
+     */
+    public boolean isTypeOnly() {
+        return spec == Specs.SATISFIES_ALL;
+    }
+
     public T filter(Object object) {
         if (!type.isInstance(object)) {
             return null;
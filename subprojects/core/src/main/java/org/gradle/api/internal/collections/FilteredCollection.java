@@ -110,12 +110,20 @@ public class FilteredCollection<T, S extends T> implements ElementSource<S> {
         private S next;
 
         FilteringIterator(ElementSource<T> collection, CollectionFilter<S> filter) {
-            this.iterator = collection.iteratorNoFlush();
+            this.iterator = candidates(collection, filter);
             this.filter = filter;
             this.estimatedSize = collection.estimatedSize();
             this.next = findNext();
         }
 
+        private static <T> Iterator<T> candidates(ElementSource<T> collection, CollectionFilter<?> filter) {
+            if (collection instanceof TypeIndexedElementSource) {
+                // Visit only the elements of the filtered type
+                return ((TypeIndexedElementSource<T>) collection).iteratorNoFlush(filter.getType());
+            }
+            return collection.iteratorNoFlush();
+        }
+
         private S findNext() {
             while (iterator.hasNext()) {
                 T potentialNext = iterator.next();
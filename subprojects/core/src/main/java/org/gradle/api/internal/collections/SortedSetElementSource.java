@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.collections;
 
+import com.google.common.collect.Maps;
 import org.gradle.api.Action;
 import org.gradle.api.internal.DefaultMutationGuard;
 import org.gradle.api.internal.MutationGuard;
@@ -26,14 +27,24 @@ import org.gradle.api.internal.provider.ProviderInternal;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.TreeSet;
 
-public class SortedSetElementSource<T> implements ElementSource<T> {
+/**
+ * A sorted source of elements.
+ *
+ * <p>The realized elements of each type that is asked for are kept in a secondary index, which is built on the first request for the type and then
+ * maintained as elements are added and removed. Iterating over the elements of a type visits only the elements of that type.</p>
+ */
+public class SortedSetElementSource<T> implements TypeIndexedElementSource<T> {
+    private final Comparator<T> comparator;
     private final TreeSet<T> values;
+    private final Map<Class<?>, TreeSet<T>> valuesByType = Maps.newHashMap();
     private final PendingSource<T> pending = new DefaultPendingSource<T>();
     private final MutationGuard mutationGuard = new DefaultMutationGuard();
 
     public SortedSetElementSource(Comparator<T> comparator) {
+        this.comparator = comparator;
         this.values = new TreeSet<T>(comparator);
     }
 
@@ -60,12 +71,17 @@ public class SortedSetElementSource<T> implements ElementSource<T> {
     @Override
     public Iterator<T> iterator() {
         pending.realizePending();
-        return values.iterator();
+        return new ValuesIterator(values.iterator());
     }
 
     @Override
     public Iterator<T> iteratorNoFlush() {
-        return values.iterator();
+        return new ValuesIterator(values.iterator());
+    }
+
+    @Override
+    public Iterator<T> iteratorNoFlush(Class<?> type) {
+        return new ValuesIterator(valuesOfType(type).iterator());
     }
 
     @Override
@@ -82,23 +98,66 @@ public class SortedSetElementSource<T> implements ElementSource<T> {
 
     @Override
     public boolean add(T element) {
-        return values.add(element);
+        return addValue(element);
     }
 
     @Override
     public boolean addRealized(T element) {
-        return values.add(element);
+        return addValue(element);
     }
 
     @Override
     public boolean remove(Object o) {
-        return values.remove(o);
+        return removeValue(o);
     }
 
     @Override
     public void clear() {
         pending.clear();
         values.clear();
+        valuesByType.clear();
+    }
+
+    private TreeSet<T> valuesOfType(Class<?> type) {
+        TreeSet<T> valuesOfType = valuesByType.get(type);
+        if (valuesOfType == null) {
+            valuesOfType = new TreeSet<T>(comparator);
+            for (T value : values) {
+                if (type.isInstance(value)) {
+                    valuesOfType.add(value);
+                }
+            }
+            valuesByType.put(type, valuesOfType);
+        }
+        return valuesOfType;
+    }
+
+    private boolean addValue(T element) {
+        if (!values.add(element)) {
+            return false;
+        }
+        for (Map.Entry<Class<?>, TreeSet<T>> entry : valuesByType.entrySet()) {
+            if (entry.getKey().isInstance(element)) {
+                entry.getValue().add(element);
+            }
+        }
+        return true;
+    }
+
+    private boolean removeValue(Object o) {
+        if (!values.remove(o)) {
+            return false;
+        }
+        removeFromTypeIndexes(o);
+        return true;
+    }
+
+    private void removeFromTypeIndexes(Object o) {
+        for (Map.Entry<Class<?>, TreeSet<T>> entry : valuesByType.entrySet()) {
+            if (entry.getKey().isInstance(o)) {
+                entry.getValue().remove(o);
+            }
+        }
     }
 
     @Override
@@ -117,7 +176,7 @@ public class SortedSetElementSource<T> implements ElementSource<T> {
             ((ChangingValue<T>)provider).onValueChange(new Action<T>() {
                 @Override
                 public void execute(T previousValue) {
-                    values.remove(previousValue);
+                    removeValue(previousValue);
                     pending.addPending(provider);
                 }
             });
@@ -137,7 +196,7 @@ public class SortedSetElementSource<T> implements ElementSource<T> {
                 @Override
                 public void execute(Iterable<T> previousValues) {
                     for (T value : previousValues) {
-                        values.remove(value);
+                        removeValue(value);
                     }
                     pending.addPendingCollection(provider);
                 }
@@ -165,4 +224,32 @@ public class SortedSetElementSource<T> implements ElementSource<T> {
     public MutationGuard getMutationGuard() {
         return mutationGuard;
     }
+
+    private class ValuesIterator implements Iterator<T> {
+        private final Iterator<T> delegate;
+        private T current;
+
+        ValuesIterator(Iterator<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public T next() {
+            current = delegate.next();
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            delegate.remove();
+            values.remove(current);
+            removeFromTypeIndexes(current);
+            current = null;
+        }
+    }
 }
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.collections;
+
+import java.util.Iterator;
+
+/**
+ * An {@link ElementSource} that keeps an index of its realized elements by type, so that the elements of a given type can be visited without visiting every element.
+ */
+public interface TypeIndexedElementSource<T> extends ElementSource<T> {
+    /**
+     * Iterates over only the realized elements which are instances of the given type (without flushing any pending elements), in the iteration order of this source.
+     */
+    Iterator<T> iteratorNoFlush(Class<?> type);
+}
@@ -30,6 +30,10 @@ import org.gradle.internal.operations.RunnableBuildOperation;
 import java.util.Collections;
 
 public class BuildOperationCrossProjectConfigurator implements CrossProjectConfigurator, WithMutationGuard {
+    /**
+     * The prefix of the display name of the operation which runs a configure action against a project, followed by the identity path of the project.
+     */
+    public static final String CROSS_CONFIGURE_PROJECT_PREFIX = "Cross-configure project ";
 
     private final BuildOperationExecutor buildOperationExecutor;
     private final MutationGuard mutationGuard = new DefaultMutationGuard();
@@ -143,7 +147,7 @@ public class BuildOperationCrossProjectConfigurator implements CrossProjectConfi
 
         @Override
         public BuildOperationDescriptor.Builder description() {
-            String name = "Cross-configure project " + ((ProjectInternal) project).getIdentityPath().toString();
+            String name = CROSS_CONFIGURE_PROJECT_PREFIX + ((ProjectInternal) project).getIdentityPath().toString();
             return BuildOperationDescriptor.displayName(name);
         }
     }
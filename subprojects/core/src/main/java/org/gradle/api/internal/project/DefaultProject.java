@@ -50,6 +50,7 @@ import org.gradle.api.internal.DynamicPropertyNamer;
 import org.gradle.api.internal.ExtensibleDynamicObject;
 import org.gradle.api.internal.FactoryNamedDomainObjectContainer;
 import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.InternalFlags;
 import org.gradle.api.internal.MutationGuards;
 import org.gradle.api.internal.NoConventionMapping;
 import org.gradle.api.internal.ProcessOperations;
@@ -159,6 +160,8 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     private ProjectEvaluator projectEvaluator;
 
+    private InternalFlags internalFlags;
+
     private ScriptSource buildScriptSource;
 
     private final File projectDir;
@@ -367,6 +370,13 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         this.projectEvaluator = projectEvaluator;
     }
 
+    private InternalFlags getInternalFlags() {
+        if (internalFlags == null) {
+            internalFlags = services.get(InternalFlags.class);
+        }
+        return internalFlags;
+    }
+
     @Inject
     @Override
     public ScriptHandler getBuildscript() {
@@ -761,6 +771,15 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
     }
 
     private Project evaluationDependsOn(DefaultProject projectToEvaluate) {
+        if (getInternalFlags().isEnabled(InternalFlags.Flag.PARALLEL_CONFIGURATION)) {
+            // Waits for a project configured by another thread. The project is still being configured when it is part of a cycle.
+            DefaultProject evaluated = projectToEvaluate.evaluate();
+            if (evaluated.getState().isConfiguring()) {
+                throw new CircularReferenceException(String.format("Circular referencing during evaluation for %s.",
+                    projectToEvaluate));
+            }
+            return evaluated;
+        }
         if (projectToEvaluate.getState().isConfiguring()) {
             throw new CircularReferenceException(String.format("Circular referencing during evaluation for %s.",
                 projectToEvaluate));
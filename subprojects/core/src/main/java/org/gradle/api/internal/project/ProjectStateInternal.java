@@ -18,10 +18,18 @@ package org.gradle.api.internal.project;
 
 import org.gradle.api.ProjectConfigurationException;
 import org.gradle.api.ProjectState;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.resources.ProjectLeaseRegistry;
 import org.gradle.util.CollectionUtils;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Represents the lifecycle state of a project, with regard to configuration.
@@ -29,6 +37,10 @@ import java.util.List;
  * There are three synonymous terms mixed in here (configure, evaluate, execute) for legacy reasons.
  * Where not bound to backwards compatibility constraints, we use the term “configure”.
  *
+ * When projects are configured in parallel, the configuration of a project is claimed by a single thread, and other threads wait for it to be configured.
+ * Each thread keeps a stack of the projects it is configuring, and records the project it is waiting for, so that circular references
+ * between projects are detected instead of deadlocking.
+ *
  * @see org.gradle.configuration.project.LifecycleProjectEvaluator
  */
 public class ProjectStateInternal implements ProjectState {
@@ -41,8 +53,19 @@ public class ProjectStateInternal implements ProjectState {
         CONFIGURED
     }
 
-    private State state = State.UNCONFIGURED;
+    private static final ThreadLocal<Deque<ProjectStateInternal>> CONFIGURING_ON_THREAD = new ThreadLocal<Deque<ProjectStateInternal>>() {
+        @Override
+        protected Deque<ProjectStateInternal> initialValue() {
+            return new ArrayDeque<ProjectStateInternal>();
+        }
+    };
+    private static final ConcurrentMap<Thread, ProjectStateInternal> WAITING_FOR = new ConcurrentHashMap<Thread, ProjectStateInternal>();
+
+    // Read without holding the project lock, when projects are configured in parallel
+    private volatile State state = State.UNCONFIGURED;
     private ProjectConfigurationException failure;
+    private final AtomicReference<Thread> configuringThread = new AtomicReference<Thread>();
+    private final CountDownLatch configuredLatch = new CountDownLatch(1);
 
     @Override
     public boolean getExecuted() {
@@ -81,6 +104,74 @@ public class ProjectStateInternal implements ProjectState {
         state = State.CONFIGURED;
     }
 
+    /**
+     * Claims the configuration of this project for the current thread, when projects are configured in parallel.
+     *
+     * @return true when the current thread should configure this project, false when it has already been claimed by this or another thread.
+     */
+    public boolean startConfiguring() {
+        if (!configuringThread.compareAndSet(null, Thread.currentThread())) {
+            return false;
+        }
+        CONFIGURING_ON_THREAD.get().push(this);
+        return true;
+    }
+
+    /**
+     * Releases the threads waiting for this project, once the current thread has finished configuring it.
+     */
+    public void finishConfiguring() {
+        CONFIGURING_ON_THREAD.get().remove(this);
+        configuredLatch.countDown();
+    }
+
+    /**
+     * Waits for this project to be configured by the thread which claimed it, releasing the project locks of the current thread while waiting.
+     *
+     * Does not wait when this project is being configured by the current thread, or when the thread configuring it is waiting, directly or
+     * through other threads, for a project the current thread is configuring. The project is then still being configured when this method returns.
+     */
+    public void awaitConfigured(ProjectLeaseRegistry projectLeaseRegistry) {
+        if (configuredLatch.getCount() == 0 || CONFIGURING_ON_THREAD.get().contains(this)) {
+            return;
+        }
+        Thread currentThread = Thread.currentThread();
+        WAITING_FOR.put(currentThread, this);
+        try {
+            if (waitingForCurrentThread(currentThread)) {
+                return;
+            }
+            projectLeaseRegistry.withoutProjectLock(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        configuredLatch.await();
+                    } catch (InterruptedException e) {
+                        throw UncheckedException.throwAsUncheckedException(e);
+                    }
+                }
+            });
+        } finally {
+            WAITING_FOR.remove(currentThread);
+        }
+    }
+
+    private boolean waitingForCurrentThread(Thread currentThread) {
+        ProjectStateInternal awaited = this;
+        // Bounded, as other threads may be updating what they wait for
+        for (int i = 0; awaited != null && i <= WAITING_FOR.size(); i++) {
+            Thread owner = awaited.configuringThread.get();
+            if (owner == null || awaited.configuredLatch.getCount() == 0) {
+                return false;
+            }
+            if (owner == currentThread) {
+                return true;
+            }
+            awaited = WAITING_FOR.get(owner);
+        }
+        return false;
+    }
+
     public void failed(ProjectConfigurationException failure) {
         if (this.failure == null) {
             this.failure = failure;
@@ -626,7 +626,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
     }
 
     // Cannot be private due to reflective instantiation
-    public class TaskCreatingProvider<I extends Task> extends AbstractDomainObjectCreatingProvider<I> implements TaskProvider<I> {
+    public class TaskCreatingProvider<I extends Task> extends AbstractDomainObjectCreatingProvider<I> implements RegisteredTaskProvider<I> {
         private final TaskIdentity<I> identity;
         private Object[] constructorArgs;
 
@@ -647,6 +647,11 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
             return true;
         }
 
+        @Override
+        public boolean isRealized() {
+            return findByNameWithoutRules(getName()) != null;
+        }
+
         @Override
         protected void tryCreate() {
             buildOperationExecutor.run(new RunnableBuildOperation() {
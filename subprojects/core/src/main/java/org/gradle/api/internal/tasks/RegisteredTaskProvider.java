@@ -0,0 +1,31 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks;
+
+import org.gradle.api.Task;
+import org.gradle.api.tasks.TaskProvider;
+
+/**
+ * A {@link TaskProvider} for a task which has been registered with a task container, and which is created when it is first required.
+ */
+public interface RegisteredTaskProvider<T extends Task> extends TaskProvider<T> {
+    /**
+     * Returns true when the task has been created, without creating it.
+     */
+    boolean isRealized();
+}
@@ -31,15 +31,27 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Collects statistics about the tasks created by a build, when the {@value #TASK_STATISTICS_PROPERTY} system property is set.
+ *
+ * <p>For each task that was registered but created anyway, the first caller outside of the Gradle internals that caused the task to be created is
+ * recorded, and the callers responsible for the most task creations are reported at the end of the build. When the property is set to a file path,
+ * the full stack trace of each creation is also written to that file.</p>
+ */
 public class TaskStatistics implements Closeable {
     private final static Logger LOGGER = Logging.getLogger(TaskStatistics.class);
     private final static String TASK_STATISTICS_PROPERTY = "org.gradle.internal.tasks.stats";
+    private final static int MAX_REPORTED_CALLERS = 20;
+    private final static String[] INTERNAL_PACKAGES = {
+        "org.gradle.api.internal.", "org.gradle.internal.", "org.gradle.util.", "org.codehaus.groovy.", "groovy.", "java.", "javax.", "sun.", "jdk.", "com.sun."
+    };
 
     private final AtomicInteger eagerTasks = new AtomicInteger();
     private final AtomicInteger lazyTasks = new AtomicInteger();
     private final AtomicInteger lazyRealizedTasks = new AtomicInteger();
     private final Map<Class, Integer> typeCounts = Maps.newHashMap();
     private final Map<Class, Integer> realizedTypeCounts = Maps.newHashMap();
+    private final Map<String, Integer> realizingCallerCounts = Maps.newHashMap();
     private final boolean collectStatistics;
 
     private PrintWriter lazyTaskLog;
@@ -97,8 +109,14 @@ public class TaskStatistics implements Closeable {
                 }
                 realizedTypeCounts.put(type, count);
             }
+            Throwable trace = new Throwable();
+            String caller = realizingCaller(trace.getStackTrace());
+            synchronized (realizingCallerCounts) {
+                Integer count = realizingCallerCounts.get(caller);
+                realizingCallerCounts.put(caller, count == null ? 1 : count + 1);
+            }
             if (lazyTaskLog != null) {
-                new Throwable().printStackTrace(lazyTaskLog);
+                trace.printStackTrace(lazyTaskLog);
             }
         }
     }
@@ -117,21 +135,48 @@ public class TaskStatistics implements Closeable {
 
             printTypeCounts("\nTask types that were created with the old API", typeCounts);
             printTypeCounts("\nTask types that were registered with the new API but were created anyways", realizedTypeCounts);
+            printCounts("\nCallers that caused registered tasks to be created", realizingCallerCounts, MAX_REPORTED_CALLERS);
             IoActions.closeQuietly(lazyTaskLog);
         }
     }
 
+    /**
+     * Returns the first frame of the given stack that does not belong to the Gradle internals or the runtime, which is the build logic or the part of
+     * Gradle that asked for the task.
+     */
+    static String realizingCaller(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            if (!isInternal(frame.getClassName())) {
+                return frame.toString();
+            }
+        }
+        return "unknown";
+    }
+
+    private static boolean isInternal(String className) {
+        for (String internalPackage : INTERNAL_PACKAGES) {
+            if (className.startsWith(internalPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void printTypeCounts(String header, Map<Class, Integer> typeCounts) {
-        if (!typeCounts.isEmpty()) {
+        printCounts(header, typeCounts, Integer.MAX_VALUE);
+    }
+
+    private <K> void printCounts(String header, Map<K, Integer> counts, int limit) {
+        if (!counts.isEmpty()) {
             LOGGER.lifecycle(header);
-            List<Map.Entry<Class, Integer>> sorted = CollectionUtils.sort(typeCounts.entrySet(), new Comparator<Map.Entry<Class, Integer>>() {
+            List<Map.Entry<K, Integer>> sorted = CollectionUtils.sort(counts.entrySet(), new Comparator<Map.Entry<K, Integer>>() {
                 @Override
-                public int compare(Map.Entry<Class, Integer> a, Map.Entry<Class, Integer> b) {
+                public int compare(Map.Entry<K, Integer> a, Map.Entry<K, Integer> b) {
                     return b.getValue().compareTo(a.getValue());
                 }
             });
-            for (Map.Entry<Class, Integer> typeCount : sorted) {
-                LOGGER.lifecycle(typeCount.getKey() + " " + typeCount.getValue());
+            for (Map.Entry<K, Integer> count : sorted.subList(0, Math.min(limit, sorted.size()))) {
+                LOGGER.lifecycle(count.getKey() + " " + count.getValue());
             }
         }
     }
@@ -0,0 +1,442 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration;
+
+import org.gradle.StartParameter;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.internal.project.BuildOperationCrossProjectConfigurator;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.internal.LeastRecentlyUsedCacheCleanup;
+import org.gradle.cache.internal.SingleDepthFilesFinder;
+import org.gradle.configuration.project.ConfigureProjectBuildOperationType;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationListener;
+import org.gradle.internal.operations.BuildOperationListenerManager;
+import org.gradle.internal.operations.OperationFinishEvent;
+import org.gradle.internal.operations.OperationIdentifier;
+import org.gradle.internal.operations.OperationProgressEvent;
+import org.gradle.internal.operations.OperationStartEvent;
+import org.gradle.internal.resource.local.FileAccessTimeJournal;
+import org.gradle.internal.resource.local.ModificationTimeFileAccessTimeJournal;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.GFileUtils;
+import org.gradle.util.GradleVersion;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.gradle.cache.internal.LeastRecentlyUsedCacheCleanup.DEFAULT_MAX_AGE_IN_DAYS_FOR_RECREATABLE_CACHE_ENTRIES;
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Remembers the task graph scheduled by a build, so that a later build with the same configuration inputs only needs to configure the projects
+ * which own a scheduled task, and the parents of those projects.
+ *
+ * <p>An entry is keyed by the requested and excluded task names, the project and system properties given on the command line, the settings script,
+ * the {@code gradle.properties} files, the init scripts, the {@code buildSrc} jars and the build files of all projects. An entry also records every
+ * script applied while configuring the build, including the scripts applied by init scripts and by the settings script, and is only used while all
+ * of those scripts are unchanged. As with configuration on demand, the remembered graph is only valid for builds whose projects are decoupled.
+ * An entry therefore records the projects which configured other projects, and is not used when any of those projects would not be configured.</p>
+ *
+ * <p>Entries which have not been used for a while are removed by the cleanup of the cache.</p>
+ *
+ * <p>Tasks cannot be restored without evaluating the build scripts which register them, so the projects owning scheduled tasks are still configured,
+ * and the task graph is calculated from them as usual. When the calculated graph differs from the remembered one, the entry is discarded.</p>
+ */
+public class ConfigurationCache implements Stoppable {
+    private static final Logger LOGGER = Logging.getLogger(ConfigurationCache.class);
+    private static final int FORMAT_VERSION = 2;
+
+    private final File cacheDir;
+    private final CacheRepository cacheRepository;
+    private final FileHasher fileHasher;
+    private final BuildOperationListenerManager buildOperationListenerManager;
+    private final FileAccessTimeJournal fileAccessTimeJournal = new ModificationTimeFileAccessTimeJournal();
+    private final ConfigurationListener configurationListener = new ConfigurationListener();
+    private final boolean enabled;
+    private PersistentCache cache;
+    private File entryFile;
+    private CachedTaskGraph cachedTaskGraph;
+    private boolean listening;
+
+    public ConfigurationCache(File projectCacheDir, CacheRepository cacheRepository, FileHasher fileHasher, BuildOperationListenerManager buildOperationListenerManager, boolean enabled) {
+        this.cacheDir = new File(projectCacheDir, GradleVersion.current().getVersion() + "/configuration-cache");
+        this.cacheRepository = cacheRepository;
+        this.fileHasher = fileHasher;
+        this.buildOperationListenerManager = buildOperationListenerManager;
+        this.enabled = enabled;
+        if (enabled) {
+            // Starts listening before the init scripts and the settings script are applied
+            buildOperationListenerManager.addListener(configurationListener);
+            listening = true;
+        }
+    }
+
+    /**
+     * Looks up the task graph remembered for the given build, whose projects have been loaded but not configured.
+     * Keeps recording how the build is configured only when the build may need to be remembered.
+     */
+    public void load(GradleInternal gradle) {
+        if (!enabled || gradle.getParent() != null || gradle.getStartParameter().isConfigureOnDemand()) {
+            stopListening();
+            return;
+        }
+        cache = cacheRepository
+            .cache(cacheDir)
+            .withDisplayName("configuration cache")
+            .withLockOptions(mode(FileLockManager.LockMode.None))
+            .withCleanup(new LeastRecentlyUsedCacheCleanup(new SingleDepthFilesFinder(1), fileAccessTimeJournal, DEFAULT_MAX_AGE_IN_DAYS_FOR_RECREATABLE_CACHE_ENTRIES))
+            .open();
+        entryFile = new File(cacheDir, computeKey(gradle) + ".bin");
+        cachedTaskGraph = readEntry(entryFile);
+        if (cachedTaskGraph != null) {
+            LOGGER.info("Configuring only the {} projects owning the tasks of the remembered task graph.", cachedTaskGraph.projectPaths.size());
+            fileAccessTimeJournal.setLastAccessTime(entryFile, System.currentTimeMillis());
+            stopListening();
+        }
+    }
+
+    /**
+     * Returns true when the task graph for the current build has been found, and the build should only configure the projects returned by {@link #getProjectPaths()}.
+     */
+    public boolean isHit() {
+        return cachedTaskGraph != null;
+    }
+
+    /**
+     * Returns the paths of the projects owning the tasks of the remembered task graph.
+     */
+    public Set<String> getProjectPaths() {
+        if (cachedTaskGraph == null) {
+            throw new IllegalStateException("No task graph has been found for this build.");
+        }
+        return cachedTaskGraph.projectPaths;
+    }
+
+    /**
+     * Remembers the task graph calculated for the given build, or discards the remembered task graph when it differs from the calculated one.
+     */
+    public void store(GradleInternal gradle) {
+        if (entryFile == null) {
+            return;
+        }
+        stopListening();
+        SortedSet<String> projectPaths = new TreeSet<String>();
+        SortedSet<String> taskPaths = new TreeSet<String>();
+        for (Task task : gradle.getTaskGraph().getAllTasks()) {
+            projectPaths.add(task.getProject().getPath());
+            taskPaths.add(task.getPath());
+        }
+        if (cachedTaskGraph != null) {
+            if (!cachedTaskGraph.taskPaths.equals(taskPaths)) {
+                LOGGER.info("Discarding the remembered task graph, as the calculated task graph is different.");
+                GFileUtils.deleteQuietly(entryFile);
+            }
+            return;
+        }
+        try {
+            writeEntry(entryFile, configurationListener.getScriptHashes(), configurationListener.getConfiguringProjectPaths(), projectPaths, taskPaths);
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        stopListening();
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    private void stopListening() {
+        if (listening) {
+            buildOperationListenerManager.removeListener(configurationListener);
+            listening = false;
+        }
+    }
+
+    private String computeKey(GradleInternal gradle) {
+        StartParameter startParameter = gradle.getStartParameter();
+        Hasher hasher = Hashing.newHasher();
+        hasher.putInt(FORMAT_VERSION);
+        hasher.putString(startParameter.getCurrentDir().getAbsolutePath());
+        putStrings(hasher, startParameter.getTaskNames());
+        putStrings(hasher, startParameter.getExcludedTaskNames());
+        putProperties(hasher, startParameter.getProjectProperties());
+        putProperties(hasher, startParameter.getSystemPropertiesArgs());
+        putFile(hasher, gradle.getSettings().getSettingsScript().getResource().getFile());
+        File rootDir = gradle.getRootProject().getProjectDir();
+        putFile(hasher, new File(rootDir, Project.GRADLE_PROPERTIES));
+        putFile(hasher, new File(startParameter.getGradleUserHomeDir(), Project.GRADLE_PROPERTIES));
+        for (File initScript : startParameter.getAllInitScripts()) {
+            putFile(hasher, initScript);
+        }
+        File[] buildSrcJars = new File(rootDir, "buildSrc/build/libs").listFiles();
+        if (buildSrcJars != null) {
+            for (File jar : new TreeSet<File>(Arrays.asList(buildSrcJars))) {
+                putFile(hasher, jar);
+            }
+        }
+        for (Project project : new TreeSet<Project>(gradle.getRootProject().getAllprojects())) {
+            hasher.putString(project.getPath());
+            putFile(hasher, project.getBuildFile());
+        }
+        return hasher.hash().toString();
+    }
+
+    private void putFile(Hasher hasher, @Nullable File file) {
+        if (file == null) {
+            hasher.putNull();
+            return;
+        }
+        hasher.putString(file.getAbsolutePath());
+        HashCode hash = hashOf(file);
+        if (hash == null) {
+            hasher.putNull();
+        } else {
+            hasher.putHash(hash);
+        }
+    }
+
+    @Nullable
+    private HashCode hashOf(File file) {
+        return file.isFile() ? fileHasher.hash(file) : null;
+    }
+
+    private static void putStrings(Hasher hasher, Collection<String> values) {
+        hasher.putInt(values.size());
+        for (String value : values) {
+            hasher.putString(value);
+        }
+    }
+
+    private static void putProperties(Hasher hasher, Map<String, String> properties) {
+        SortedMap<String, String> sorted = new TreeMap<String, String>(properties);
+        hasher.putInt(sorted.size());
+        for (Map.Entry<String, String> entry : sorted.entrySet()) {
+            hasher.putString(entry.getKey());
+            hasher.putString(String.valueOf(entry.getValue()));
+        }
+    }
+
+    @Nullable
+    private CachedTaskGraph readEntry(File entryFile) {
+        if (!entryFile.isFile()) {
+            return null;
+        }
+        try {
+            KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(entryFile));
+            try {
+                int scriptCount = decoder.readSmallInt();
+                for (int i = 0; i < scriptCount; i++) {
+                    File script = new File(decoder.readString());
+                    String hash = decoder.readNullableString();
+                    HashCode currentHash = hashOf(script);
+                    if (currentHash == null ? hash != null : !currentHash.toString().equals(hash)) {
+                        LOGGER.info("Not using the remembered task graph, as {} has changed.", script);
+                        return null;
+                    }
+                }
+                SortedSet<String> configuringProjectPaths = readStrings(decoder);
+                CachedTaskGraph cachedTaskGraph = new CachedTaskGraph(readStrings(decoder), readStrings(decoder));
+                Set<String> configuredProjectPaths = withParents(cachedTaskGraph.projectPaths);
+                for (String projectPath : configuringProjectPaths) {
+                    if (!configuredProjectPaths.contains(projectPath)) {
+                        LOGGER.info("Not using the remembered task graph, as {} configures other projects.", projectPath);
+                        return null;
+                    }
+                }
+                return cachedTaskGraph;
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not read configuration cache entry {}.", entryFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the paths of the given projects and of their parents, which are the projects configured when the entry is used.
+     */
+    private static Set<String> withParents(Set<String> projectPaths) {
+        Set<String> paths = new TreeSet<String>();
+        paths.add(Project.PATH_SEPARATOR);
+        for (String projectPath : projectPaths) {
+            String path = projectPath;
+            while (path.length() > 1) {
+                paths.add(path);
+                path = path.substring(0, Math.max(1, path.lastIndexOf(Project.PATH_SEPARATOR)));
+            }
+        }
+        return paths;
+    }
+
+    private static void writeEntry(File entryFile, Map<String, String> scriptHashes, Set<String> configuringProjectPaths, Set<String> projectPaths, Set<String> taskPaths) throws IOException {
+        GFileUtils.parentMkdirs(entryFile);
+        File tempFile = File.createTempFile(entryFile.getName(), ".tmp", entryFile.getParentFile());
+        try {
+            KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(tempFile));
+            try {
+                encoder.writeSmallInt(scriptHashes.size());
+                for (Map.Entry<String, String> entry : scriptHashes.entrySet()) {
+                    encoder.writeString(entry.getKey());
+                    encoder.writeNullableString(entry.getValue());
+                }
+                writeStrings(encoder, configuringProjectPaths);
+                writeStrings(encoder, projectPaths);
+                writeStrings(encoder, taskPaths);
+            } finally {
+                encoder.close();
+            }
+            GFileUtils.deleteQuietly(entryFile);
+            if (!tempFile.renameTo(entryFile)) {
+                throw new IOException("Could not move " + tempFile + " to " + entryFile);
+            }
+        } finally {
+            GFileUtils.deleteQuietly(tempFile);
+        }
+    }
+
+    private static SortedSet<String> readStrings(Decoder decoder) throws IOException {
+        int count = decoder.readSmallInt();
+        SortedSet<String> values = new TreeSet<String>();
+        for (int i = 0; i < count; i++) {
+            values.add(decoder.readString());
+        }
+        return values;
+    }
+
+    private static void writeStrings(Encoder encoder, Set<String> values) throws IOException {
+        encoder.writeSmallInt(values.size());
+        for (String value : values) {
+            encoder.writeString(value);
+        }
+    }
+
+    private static class CachedTaskGraph {
+        private final SortedSet<String> projectPaths;
+        private final SortedSet<String> taskPaths;
+
+        CachedTaskGraph(SortedSet<String> projectPaths, SortedSet<String> taskPaths) {
+            this.projectPaths = projectPaths;
+            this.taskPaths = taskPaths;
+        }
+    }
+
+    /**
+     * Records the script files applied while the build is configured, so that an entry is invalidated when any of them changes,
+     * and the projects which configure other projects, either by running a configure action against them or by evaluating them.
+     */
+    private class ConfigurationListener implements BuildOperationListener {
+        private final Set<File> scripts = new TreeSet<File>();
+        private final Set<String> configuringProjectPaths = new TreeSet<String>();
+        // The path of the project being configured by each running operation, if any
+        private final Map<OperationIdentifier, String> configuredProjects = new ConcurrentHashMap<OperationIdentifier, String>();
+
+        @Override
+        public void started(BuildOperationDescriptor buildOperation, OperationStartEvent startEvent) {
+            Object details = buildOperation.getDetails();
+            if (details instanceof ApplyScriptPluginBuildOperationType.Details) {
+                String file = ((ApplyScriptPluginBuildOperationType.Details) details).getFile();
+                if (file != null) {
+                    synchronized (scripts) {
+                        scripts.add(new File(file));
+                    }
+                }
+            }
+            String configuredProject = buildOperation.getParentId() == null ? null : configuredProjects.get(buildOperation.getParentId());
+            String targetProject = null;
+            if (details instanceof ConfigureProjectBuildOperationType.Details) {
+                ConfigureProjectBuildOperationType.Details configureProjectDetails = (ConfigureProjectBuildOperationType.Details) details;
+                if (!configureProjectDetails.getBuildPath().equals(Project.PATH_SEPARATOR)) {
+                    // Only the projects of the root build are remembered
+                    return;
+                }
+                targetProject = configureProjectDetails.getProjectPath();
+            } else if (buildOperation.getDisplayName().startsWith(BuildOperationCrossProjectConfigurator.CROSS_CONFIGURE_PROJECT_PREFIX)) {
+                targetProject = buildOperation.getDisplayName().substring(BuildOperationCrossProjectConfigurator.CROSS_CONFIGURE_PROJECT_PREFIX.length());
+            }
+            if (targetProject != null) {
+                if (configuredProject != null && !configuredProject.equals(targetProject)) {
+                    synchronized (configuringProjectPaths) {
+                        configuringProjectPaths.add(configuredProject);
+                    }
+                }
+                configuredProject = targetProject;
+            }
+            if (configuredProject != null) {
+                configuredProjects.put(buildOperation.getId(), configuredProject);
+            }
+        }
+
+        @Override
+        public void progress(OperationIdentifier operationIdentifier, OperationProgressEvent progressEvent) {
+        }
+
+        @Override
+        public void finished(BuildOperationDescriptor buildOperation, OperationFinishEvent finishEvent) {
+            configuredProjects.remove(buildOperation.getId());
+        }
+
+        Map<String, String> getScriptHashes() {
+            Map<String, String> hashes = new TreeMap<String, String>();
+            synchronized (scripts) {
+                for (File script : scripts) {
+                    HashCode hash = hashOf(script);
+                    hashes.put(script.getAbsolutePath(), hash == null ? null : hash.toString());
+                }
+            }
+            return hashes;
+        }
+
+        Set<String> getConfiguringProjectPaths() {
+            synchronized (configuringProjectPaths) {
+                return new TreeSet<String>(configuringProjectPaths);
+            }
+        }
+    }
+}
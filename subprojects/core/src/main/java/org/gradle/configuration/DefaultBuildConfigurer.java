@@ -17,6 +17,7 @@ package org.gradle.configuration;
 
 import org.gradle.StartParameter;
 import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.execution.ProjectConfigurer;
 import org.gradle.internal.build.BuildStateRegistry;
 import org.gradle.util.SingleMessageLogger;
@@ -24,10 +25,12 @@ import org.gradle.util.SingleMessageLogger;
 public class DefaultBuildConfigurer implements BuildConfigurer {
     private final ProjectConfigurer projectConfigurer;
     private final BuildStateRegistry buildRegistry;
+    private final ConfigurationCache configurationCache;
 
-    public DefaultBuildConfigurer(ProjectConfigurer projectConfigurer, BuildStateRegistry buildRegistry) {
+    public DefaultBuildConfigurer(ProjectConfigurer projectConfigurer, BuildStateRegistry buildRegistry, ConfigurationCache configurationCache) {
         this.projectConfigurer = projectConfigurer;
         this.buildRegistry = buildRegistry;
+        this.configurationCache = configurationCache;
     }
 
     public void configure(GradleInternal gradle) {
@@ -37,11 +40,28 @@ public class DefaultBuildConfigurer implements BuildConfigurer {
         }
         if (gradle.getStartParameter().isConfigureOnDemand()) {
             projectConfigurer.configure(gradle.getRootProject());
+        } else if (configurationCache.isHit()) {
+            projectConfigurer.configure(gradle.getRootProject());
+            for (String projectPath : configurationCache.getProjectPaths()) {
+                ProjectInternal project = gradle.getRootProject().findProject(projectPath);
+                if (project != null) {
+                    configureWithParents(project);
+                }
+            }
         } else {
             projectConfigurer.configureHierarchy(gradle.getRootProject());
         }
     }
 
+    private void configureWithParents(ProjectInternal project) {
+        // The root project has already been configured
+        ProjectInternal parent = project.getParent();
+        if (parent != null) {
+            configureWithParents(parent);
+            projectConfigurer.configure(project);
+        }
+    }
+
     private void maybeInformAboutIncubatingMode(GradleInternal gradle) {
         StartParameter startParameter = gradle.getStartParameter();
 
@@ -124,6 +124,42 @@ public class DefaultScriptPluginFactory implements ScriptPluginFactory {
         return new ScriptPluginImpl(scriptSource, (ScriptHandlerInternal) scriptHandler, targetScope, baseScope, topLevelScript);
     }
 
+    /**
+     * Compiles the build script of the given project ahead of its evaluation, using the class loader of the given base scope.
+     *
+     * <p>The body of the script is only compiled when the script declares neither a build script classpath nor plugins, as the body of the script
+     * is then compiled using the same class loader during evaluation. The compiled script is cached by the script compiler, so that the evaluation
+     * of the project does not compile it again.</p>
+     */
+    public void precompileBuildScript(ProjectInternal project, ClassLoaderScope baseScope) {
+        ScriptSource scriptSource = project.getBuildScriptSource();
+        ScriptCompiler compiler = scriptCompilerFactory.createCompiler(scriptSource);
+        ClassLoader classLoader = baseScope.getExportClassLoader();
+
+        ScriptTarget initialPassScriptTarget = new ProjectScriptTarget(project);
+        ScriptRunner<? extends BasicScript, PluginRequests> initialRunner = compiler.compile(initialPassScriptTarget.getScriptClass(), initialPassOperation(scriptSource, initialPassScriptTarget), classLoader, Actions.doNothing());
+        if (initialRunner.getRunDoesSomething() || !initialRunner.getData().isEmpty()) {
+            // The body is compiled using a class loader which is not known until the project is evaluated
+            return;
+        }
+
+        ScriptTarget scriptTarget = new ProjectScriptTarget(project);
+        compiler.compile(scriptTarget.getScriptClass(), bodyOperation(scriptSource, scriptTarget), classLoader, ClosureCreationInterceptingVerifier.INSTANCE);
+    }
+
+    private CompileOperation<PluginRequests> initialPassOperation(ScriptSource scriptSource, ScriptTarget initialPassScriptTarget) {
+        InitialPassStatementTransformer initialPassStatementTransformer = new InitialPassStatementTransformer(scriptSource, initialPassScriptTarget, documentationRegistry);
+        SubsetScriptTransformer initialTransformer = new SubsetScriptTransformer(initialPassStatementTransformer);
+        String id = INTERNER.intern("cp_" + initialPassScriptTarget.getId());
+        return new FactoryBackedCompileOperation<PluginRequests>(id, CLASSPATH_COMPILE_STAGE, initialTransformer, initialPassStatementTransformer, pluginRequestsSerializer);
+    }
+
+    private CompileOperation<BuildScriptData> bodyOperation(ScriptSource scriptSource, ScriptTarget scriptTarget) {
+        BuildScriptTransformer buildScriptTransformer = new BuildScriptTransformer(scriptSource, scriptTarget);
+        String operationId = scriptTarget.getId();
+        return new FactoryBackedCompileOperation<BuildScriptData>(operationId, BODY_COMPILE_STAGE, buildScriptTransformer, buildScriptTransformer, buildScriptDataSerializer);
+    }
+
     private class ScriptPluginImpl implements ScriptPlugin {
         private final ScriptSource scriptSource;
         private final ClassLoaderScope targetScope;
@@ -171,10 +207,7 @@ public class DefaultScriptPluginFactory implements ScriptPluginFactory {
             // Pass 1, extract plugin requests and plugin repositories and execute buildscript {}, ignoring (i.e. not even compiling) anything else
 
             Class<? extends BasicScript> scriptType = initialPassScriptTarget.getScriptClass();
-            InitialPassStatementTransformer initialPassStatementTransformer = new InitialPassStatementTransformer(scriptSource, initialPassScriptTarget, documentationRegistry);
-            SubsetScriptTransformer initialTransformer = new SubsetScriptTransformer(initialPassStatementTransformer);
-            String id = INTERNER.intern("cp_" + initialPassScriptTarget.getId());
-            CompileOperation<PluginRequests> initialOperation = new FactoryBackedCompileOperation<PluginRequests>(id, CLASSPATH_COMPILE_STAGE, initialTransformer, initialPassStatementTransformer, pluginRequestsSerializer);
+            CompileOperation<PluginRequests> initialOperation = initialPassOperation(scriptSource, initialPassScriptTarget);
 
             ScriptRunner<? extends BasicScript, PluginRequests> initialRunner = compiler.compile(scriptType, initialOperation, baseScope.getExportClassLoader(), Actions.doNothing());
             initialRunner.run(target, services);
@@ -189,9 +222,7 @@ public class DefaultScriptPluginFactory implements ScriptPluginFactory {
             final ScriptTarget scriptTarget = secondPassTarget(target);
             scriptType = scriptTarget.getScriptClass();
 
-            BuildScriptTransformer buildScriptTransformer = new BuildScriptTransformer(scriptSource, scriptTarget);
-            String operationId = scriptTarget.getId();
-            CompileOperation<BuildScriptData> operation = new FactoryBackedCompileOperation<BuildScriptData>(operationId, BODY_COMPILE_STAGE, buildScriptTransformer, buildScriptTransformer, buildScriptDataSerializer);
+            CompileOperation<BuildScriptData> operation = bodyOperation(scriptSource, scriptTarget);
 
             final ScriptRunner<? extends BasicScript, BuildScriptData> runner = compiler.compile(scriptType, operation, targetScope.getLocalClassLoader(), ClosureCreationInterceptingVerifier.INSTANCE);
             if (scriptTarget.getSupportsMethodInheritance() && runner.getHasMethods()) {
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.project;
+
+import org.gradle.api.Project;
+import org.gradle.api.internal.initialization.ClassLoaderScope;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.configuration.DefaultScriptPluginFactory;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.work.NoAvailableWorkerLeaseException;
+import org.gradle.internal.work.WorkerLeaseRegistry;
+import org.gradle.internal.work.WorkerLeaseRegistry.WorkerLease;
+import org.gradle.internal.work.WorkerLeaseRegistry.WorkerLeaseCompletion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+
+/**
+ * Compiles the Groovy build scripts of the child projects of a project in the background, once the build script of that project has been applied.
+ *
+ * <p>The build script of a child project is compiled against the class loader of its parent, which is final once the build script of the parent
+ * has been applied. The children are then compiled concurrently, while the configuration of the build goes on, and their evaluation finds the
+ * compiled scripts in the in-memory script cache instead of compiling them one after the other. A child project which declares a build script
+ * classpath or plugins only has the first pass of its script compiled ahead of time. Failures are ignored, as the script is compiled again and
+ * the failure reported when the project is evaluated.</p>
+ *
+ * <p>Each compilation runs under a child of the worker lease of the thread which configured the parent project, in the same way as the
+ * work submitted through the worker API, so that the compilations share the {@code --max-workers} limit with the rest of the build.</p>
+ */
+public class BuildScriptPrecompiler implements Stoppable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BuildScriptPrecompiler.class);
+
+    private final DefaultScriptPluginFactory scriptPluginFactory;
+    private final ExecutorFactory executorFactory;
+    private final WorkerLeaseRegistry workerLeaseRegistry;
+    private final int maxConcurrentCompilations;
+    private ManagedExecutor executor;
+    private volatile boolean stopped;
+
+    public BuildScriptPrecompiler(DefaultScriptPluginFactory scriptPluginFactory, ExecutorFactory executorFactory, WorkerLeaseRegistry workerLeaseRegistry, int maxConcurrentCompilations) {
+        this.scriptPluginFactory = scriptPluginFactory;
+        this.executorFactory = executorFactory;
+        this.workerLeaseRegistry = workerLeaseRegistry;
+        this.maxConcurrentCompilations = maxConcurrentCompilations;
+    }
+
+    /**
+     * Starts compiling the build scripts of the children of the given project, whose build script has been applied.
+     */
+    public void precompileChildrenOf(ProjectInternal project) {
+        final ClassLoaderScope scope = project.getClassLoaderScope();
+        if (!scope.isLocked()) {
+            return;
+        }
+        final WorkerLease parentLease;
+        try {
+            parentLease = workerLeaseRegistry.getCurrentWorkerLease();
+        } catch (NoAvailableWorkerLeaseException e) {
+            // Not configured by a Gradle managed thread, so there is no lease to share
+            return;
+        }
+        for (Project child : project.getChildProjects().values()) {
+            final ProjectInternal childProject = (ProjectInternal) child;
+            if (!shouldPrecompile(childProject, scope)) {
+                continue;
+            }
+            executor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (stopped || !childProject.getState().isUnconfigured()) {
+                        return;
+                    }
+                    WorkerLeaseCompletion lease = parentLease.startChild();
+                    try {
+                        // The project may have started to be configured while waiting for the lease
+                        if (stopped || !childProject.getState().isUnconfigured()) {
+                            return;
+                        }
+                        scriptPluginFactory.precompileBuildScript(childProject, scope);
+                    } catch (Exception e) {
+                        LOGGER.debug("Could not compile {} ahead of time.", childProject.getBuildScriptSource().getDisplayName(), e);
+                    } finally {
+                        lease.leaseFinish();
+                    }
+                }
+            });
+        }
+    }
+
+    private static boolean shouldPrecompile(ProjectInternal project, ClassLoaderScope parentScope) {
+        File buildFile = project.getBuildFile();
+        return project.getBaseClassLoaderScope() == parentScope
+            && project.getState().isUnconfigured()
+            && buildFile.getName().endsWith(".gradle")
+            && buildFile.isFile();
+    }
+
+    private synchronized ManagedExecutor executor() {
+        if (executor == null) {
+            executor = executorFactory.create("Build script precompilation", maxConcurrentCompilations);
+        }
+        return executor;
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        ManagedExecutor executor;
+        synchronized (this) {
+            executor = this.executor;
+            this.executor = null;
+        }
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+}
@@ -23,12 +23,19 @@ import org.gradle.internal.time.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+
 public class BuildScriptProcessor implements ProjectConfigureAction {
     private static final Logger LOGGER = LoggerFactory.getLogger(BuildScriptProcessor.class);
     private final ScriptPluginFactory configurerFactory;
+    private final BuildScriptPrecompiler precompiler;
 
-    public BuildScriptProcessor(ScriptPluginFactory configurerFactory) {
+    /**
+     * Creates a processor which starts compiling the build scripts of the child projects once a build script has been applied, when the given precompiler is not null.
+     */
+    public BuildScriptProcessor(ScriptPluginFactory configurerFactory, @Nullable BuildScriptPrecompiler precompiler) {
         this.configurerFactory = configurerFactory;
+        this.precompiler = precompiler;
     }
 
     public void execute(final ProjectInternal project) {
@@ -44,6 +51,9 @@ public class BuildScriptProcessor implements ProjectConfigureAction {
                     configurer.apply(project);
                 }
             });
+            if (precompiler != null) {
+                precompiler.precompileChildrenOf(project);
+            }
         } finally {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Timing: Running the build script took {}", clock.getElapsed());
@@ -25,6 +25,7 @@ import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.resources.ProjectLeaseRegistry;
 import org.gradle.util.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,18 +57,37 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
 
     private final BuildOperationExecutor buildOperationExecutor;
     private final ProjectEvaluator delegate;
+    private final ProjectLeaseRegistry projectLeaseRegistry;
+    private final boolean parallelConfiguration;
 
-    public LifecycleProjectEvaluator(BuildOperationExecutor buildOperationExecutor, ProjectEvaluator delegate) {
+    public LifecycleProjectEvaluator(BuildOperationExecutor buildOperationExecutor, ProjectEvaluator delegate, ProjectLeaseRegistry projectLeaseRegistry, boolean parallelConfiguration) {
         this.buildOperationExecutor = buildOperationExecutor;
         this.delegate = delegate;
+        this.projectLeaseRegistry = projectLeaseRegistry;
+        this.parallelConfiguration = parallelConfiguration;
     }
 
     public void evaluate(final ProjectInternal project, final ProjectStateInternal state) {
-        if (state.isUnconfigured()) {
+        if (parallelConfiguration) {
+            evaluateConcurrently(project, state);
+        } else if (state.isUnconfigured()) {
             buildOperationExecutor.run(new EvaluateProject(project, state));
         }
     }
 
+    private void evaluateConcurrently(ProjectInternal project, ProjectStateInternal state) {
+        if (state.startConfiguring()) {
+            try {
+                buildOperationExecutor.run(new EvaluateProject(project, state));
+            } finally {
+                state.finishConfiguring();
+            }
+        } else {
+            // Returns without waiting when this thread is configuring the project, or when waiting would deadlock
+            state.awaitConfigured(projectLeaseRegistry);
+        }
+    }
+
     private static void addConfigurationFailure(ProjectInternal project, ProjectStateInternal state, Exception e, BuildOperationContext ctx) {
         ProjectConfigurationException exception = wrapException(project, e);
         ctx.failed(exception);
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.execution;
+
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.MultipleBuildOperationFailures;
+import org.gradle.internal.operations.RunnableBuildOperation;
+
+/**
+ * A {@link ProjectConfigurer} which configures the projects of a hierarchy concurrently, using the worker pool.
+ *
+ * <p>The root of the hierarchy is configured first, and each other project is scheduled once its parent has been configured, so that the
+ * {@code allprojects {}} and {@code subprojects {}} blocks of a parent are applied before its children are configured. Each project is configured
+ * while holding its project lock, which cross-project configuration also acquires. {@code evaluationDependsOn()} waits until a project being configured
+ * by another thread has been configured, and reports a circular reference when that thread is itself waiting for the current project.
+ * The configuration of each project is still reported as its own build operation.</p>
+ *
+ * <p>Projects are only configured concurrently when parallel project execution is enabled, as all projects of a build otherwise share a single
+ * project lock.</p>
+ */
+public class ParallelProjectConfigurer implements ProjectConfigurer {
+    private final ProjectConfigurer delegate;
+    private final BuildOperationExecutor buildOperationExecutor;
+
+    public ParallelProjectConfigurer(ProjectConfigurer delegate, BuildOperationExecutor buildOperationExecutor) {
+        this.delegate = delegate;
+        this.buildOperationExecutor = buildOperationExecutor;
+    }
+
+    @Override
+    public void configure(ProjectInternal project) {
+        delegate.configure(project);
+    }
+
+    @Override
+    public void configureFully(ProjectInternal project) {
+        delegate.configureFully(project);
+    }
+
+    @Override
+    public void configureHierarchy(ProjectInternal project) {
+        if (!project.getGradle().getStartParameter().isParallelProjectExecutionEnabled()) {
+            delegate.configureHierarchy(project);
+            return;
+        }
+        delegate.configure(project);
+        final Iterable<Project> children = project.getChildProjects().values();
+        try {
+            buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+                @Override
+                public void execute(BuildOperationQueue<RunnableBuildOperation> queue) {
+                    scheduleAll(children, queue);
+                }
+            });
+        } catch (MultipleBuildOperationFailures e) {
+            if (e.getCauses().size() == 1) {
+                // Report a single failure as sequential configuration does
+                throw UncheckedException.throwAsUncheckedException(e.getCauses().get(0));
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void configureHierarchyFully(ProjectInternal project) {
+        configureHierarchy(project);
+        // Tasks are discovered and model rules are bound sequentially, once all projects have been configured
+        delegate.configureHierarchyFully(project);
+    }
+
+    private void scheduleAll(Iterable<Project> projects, BuildOperationQueue<RunnableBuildOperation> queue) {
+        for (Project project : projects) {
+            queue.add(new ConfigureProjectSubtree((ProjectInternal) project, queue));
+        }
+    }
+
+    private class ConfigureProjectSubtree implements RunnableBuildOperation {
+        private final ProjectInternal project;
+        private final BuildOperationQueue<RunnableBuildOperation> queue;
+
+        ConfigureProjectSubtree(ProjectInternal project, BuildOperationQueue<RunnableBuildOperation> queue) {
+            this.project = project;
+            this.queue = queue;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            delegate.configure(project);
+            // The children are only scheduled once their parent has been configured successfully
+            scheduleAll(project.getChildProjects().values(), queue);
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Parallel configuration of project " + project.getIdentityPath());
+        }
+    }
+}
@@ -37,15 +37,17 @@ public class TaskSelector {
     private final GradleInternal gradle;
     private final ProjectConfigurer configurer;
     private final TaskPathResolver taskPathResolver = new TaskPathResolver();
+    private final boolean lazyTaskRealization;
 
-    public TaskSelector(GradleInternal gradle, ProjectConfigurer projectConfigurer) {
-        this(gradle, new TaskNameResolver(), projectConfigurer);
+    public TaskSelector(GradleInternal gradle, ProjectConfigurer projectConfigurer, boolean lazyTaskRealization) {
+        this(gradle, new TaskNameResolver(), projectConfigurer, lazyTaskRealization);
     }
 
-    public TaskSelector(GradleInternal gradle, TaskNameResolver taskNameResolver, ProjectConfigurer configurer) {
+    public TaskSelector(GradleInternal gradle, TaskNameResolver taskNameResolver, ProjectConfigurer configurer, boolean lazyTaskRealization) {
         this.taskNameResolver = taskNameResolver;
         this.gradle = gradle;
         this.configurer = configurer;
+        this.lazyTaskRealization = lazyTaskRealization;
     }
 
     public TaskSelection getSelection(String path) {
@@ -59,7 +61,14 @@ public class TaskSelector {
             configurer.configure(targetProject);
             if (taskNameResolver.tryFindUnqualifiedTaskCheaply(taskPath.getTaskName(), taskPath.getProject())) {
                 // An exact match in the target project - can just filter tasks by path to avoid configuring sub-projects at this point
-                return new TaskPathSpec(targetProject, taskPath.getTaskName());
+                return new TaskPathSpec(targetProject, taskPath.getTaskName(), true);
+            }
+        }
+
+        if (lazyTaskRealization) {
+            Spec<Task> filter = getFilterForRegisteredTasks(taskPath);
+            if (filter != null) {
+                return filter;
             }
         }
 
@@ -71,6 +80,29 @@ public class TaskSelector {
         };
     }
 
+    /**
+     * Matches the excluded tasks by name and project, using the names of the registered tasks, so that the excluded tasks do not need to be created.
+     * Returns null when no registered task matches, for example when the task is created by a rule.
+     */
+    @Nullable
+    private Spec<Task> getFilterForRegisteredTasks(ResolvedTaskPath taskPath) {
+        ProjectInternal targetProject = taskPath.getProject();
+        if (taskPath.isQualified()) {
+            configurer.configure(targetProject);
+        } else {
+            configurer.configureHierarchy(targetProject);
+        }
+        Set<String> taskNames = taskNameResolver.selectAll(targetProject, !taskPath.isQualified()).keySet();
+        String taskName = taskPath.getTaskName();
+        if (!taskNames.contains(taskName)) {
+            taskName = new NameMatcher().find(taskName, taskNames);
+            if (taskName == null) {
+                return null;
+            }
+        }
+        return new TaskPathSpec(targetProject, taskName, !taskPath.isQualified());
+    }
+
     public TaskSelection getSelection(@Nullable String projectPath, @Nullable File root, String path) {
         if (root != null) {
             ensureNotFromIncludedBuild(root);
@@ -145,16 +177,21 @@ public class TaskSelector {
     private static class TaskPathSpec implements Spec<Task> {
         private final ProjectInternal targetProject;
         private final String taskName;
+        private final boolean includeSubProjects;
 
-        public TaskPathSpec(ProjectInternal targetProject, String taskName) {
+        public TaskPathSpec(ProjectInternal targetProject, String taskName, boolean includeSubProjects) {
             this.targetProject = targetProject;
             this.taskName = taskName;
+            this.includeSubProjects = includeSubProjects;
         }
 
         public boolean isSatisfiedBy(Task element) {
             if (!element.getName().equals(taskName)) {
                 return true;
             }
+            if (!includeSubProjects) {
+                return !element.getProject().equals(targetProject);
+            }
             for (Project current = element.getProject(); current != null; current = current.getParent()) {
                 if (current.equals(targetProject)) {
                     return false;
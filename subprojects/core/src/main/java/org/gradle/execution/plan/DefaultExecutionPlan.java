@@ -94,20 +94,23 @@ public class DefaultExecutionPlan implements ExecutionPlan {
 
     private final Set<Node> runningNodes = Sets.newIdentityHashSet();
     private final Set<Node> filteredNodes = Sets.newIdentityHashSet();
+    private final Set<LocalTaskNode> nodesWithDeferredOrdering = Sets.newLinkedHashSet();
     private final Map<Node, MutationInfo> mutations = Maps.newIdentityHashMap();
     private final Map<File, String> canonicalizedFileCache = Maps.newIdentityHashMap();
     private final Map<Pair<Node, Node>, Boolean> reachableCache = Maps.newHashMap();
     private final Set<Node> dependenciesCompleteCache = Sets.newHashSet();
     private final WorkerLeaseService workerLeaseService;
     private final GradleInternal gradle;
+    private final boolean lazyTaskRealization;
 
     private boolean buildCancelled;
 
-    public DefaultExecutionPlan(WorkerLeaseService workerLeaseService, GradleInternal gradle, TaskNodeFactory taskNodeFactory, TaskDependencyResolver dependencyResolver) {
+    public DefaultExecutionPlan(WorkerLeaseService workerLeaseService, GradleInternal gradle, TaskNodeFactory taskNodeFactory, TaskDependencyResolver dependencyResolver, boolean lazyTaskRealization) {
         this.workerLeaseService = workerLeaseService;
         this.gradle = gradle;
         this.taskNodeFactory = taskNodeFactory;
         this.dependencyResolver = dependencyResolver;
+        this.lazyTaskRealization = lazyTaskRealization;
     }
 
     @Override
@@ -165,6 +168,10 @@ public class DefaultExecutionPlan implements ExecutionPlan {
                 // node in the queue
                 // Make sure it has been configured
                 node.prepareForExecution();
+                if (lazyTaskRealization && node instanceof LocalTaskNode) {
+                    ((LocalTaskNode) node).deferOrderingOnRegisteredTasks();
+                    nodesWithDeferredOrdering.add((LocalTaskNode) node);
+                }
                 node.resolveDependencies(dependencyResolver, new Action<Node>() {
                     @Override
                     public void execute(Node targetNode) {
@@ -240,7 +247,19 @@ public class DefaultExecutionPlan implements ExecutionPlan {
         }
     }
 
+    /**
+     * Adds the ordering edges towards registered tasks which have been created while the graph was built.
+     */
+    private void resolveDeferredOrdering() {
+        for (LocalTaskNode node : nodesWithDeferredOrdering) {
+            node.resolveDeferredOrdering(dependencyResolver);
+        }
+        nodesWithDeferredOrdering.clear();
+    }
+
     public void determineExecutionPlan() {
+        resolveDeferredOrdering();
+
         List<NodeInVisitingSegment> nodeQueue = Lists.newArrayList(Iterables.transform(entryTasks, new Function<TaskNode, NodeInVisitingSegment>() {
             private int index;
 
@@ -503,6 +522,7 @@ public class DefaultExecutionPlan implements ExecutionPlan {
         taskNodeFactory.clear();
         dependencyResolver.clear();
         entryTasks.clear();
+        nodesWithDeferredOrdering.clear();
         nodeMapping.clear();
         executionQueue.clear();
         projectLocks.clear();
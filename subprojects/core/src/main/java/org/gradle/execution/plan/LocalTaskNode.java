@@ -17,12 +17,20 @@
 package org.gradle.execution.plan;
 
 import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import org.gradle.api.Action;
 import org.gradle.api.Task;
 import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.tasks.DefaultTaskDependency;
+import org.gradle.api.internal.tasks.RegisteredTaskProvider;
 import org.gradle.api.internal.tasks.TaskContainerInternal;
+import org.gradle.api.tasks.TaskDependency;
 import org.gradle.internal.ImmutableActionSet;
 
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -31,6 +39,9 @@ import java.util.Set;
 public class LocalTaskNode extends TaskNode {
     private final TaskInternal task;
     private ImmutableActionSet<Task> postAction = ImmutableActionSet.empty();
+    private boolean deferOrderingOnRegisteredTasks;
+    private List<RegisteredTaskProvider<?>> deferredMustRunAfter;
+    private List<RegisteredTaskProvider<?>> deferredShouldRunAfter;
 
     public LocalTaskNode(TaskInternal task) {
         this.task = task;
@@ -65,6 +76,14 @@ public class LocalTaskNode extends TaskNode {
         task.getState().rethrowFailure();
     }
 
+    /**
+     * Leaves the registered tasks which have not been created out of the tasks this task must or should run after, when its dependencies are resolved.
+     * Those tasks are ordered before this task by {@link #resolveDeferredOrdering(TaskDependencyResolver)} once they have been created.
+     */
+    public void deferOrderingOnRegisteredTasks() {
+        deferOrderingOnRegisteredTasks = true;
+    }
+
     @Override
     public void prepareForExecution() {
         ((TaskContainerInternal) task.getProject().getTasks()).prepareForExecution(task);
@@ -107,13 +126,68 @@ public class LocalTaskNode extends TaskNode {
     }
 
     private Set<Node> getMustRunAfter(TaskDependencyResolver dependencyResolver) {
+        if (deferOrderingOnRegisteredTasks) {
+            deferredMustRunAfter = Lists.newArrayList();
+            return resolveCreatedTasks(dependencyResolver, task.getMustRunAfter(), deferredMustRunAfter);
+        }
         return dependencyResolver.resolveDependenciesFor(task, task.getMustRunAfter());
     }
 
     private Set<Node> getShouldRunAfter(TaskDependencyResolver dependencyResolver) {
+        if (deferOrderingOnRegisteredTasks) {
+            deferredShouldRunAfter = Lists.newArrayList();
+            return resolveCreatedTasks(dependencyResolver, task.getShouldRunAfter(), deferredShouldRunAfter);
+        }
         return dependencyResolver.resolveDependenciesFor(task, task.getShouldRunAfter());
     }
 
+    /**
+     * Resolves the tasks of the given ordering dependency, leaving out the registered tasks which have not been created. Those are collected into the given list instead.
+     */
+    private Set<Node> resolveCreatedTasks(TaskDependencyResolver dependencyResolver, TaskDependency ordering, List<RegisteredTaskProvider<?>> notCreated) {
+        if (!(ordering instanceof DefaultTaskDependency)) {
+            return dependencyResolver.resolveDependenciesFor(task, ordering);
+        }
+        ImmutableSet.Builder<Object> created = ImmutableSet.builder();
+        for (Object value : ((DefaultTaskDependency) ordering).getMutableValues()) {
+            if (value instanceof RegisteredTaskProvider && !((RegisteredTaskProvider<?>) value).isRealized()) {
+                notCreated.add((RegisteredTaskProvider<?>) value);
+            } else {
+                created.add(value);
+            }
+        }
+        TaskContainerInternal taskResolver = (TaskContainerInternal) task.getProject().getTasks();
+        return dependencyResolver.resolveDependenciesFor(task, new DefaultTaskDependency(taskResolver, created.build()));
+    }
+
+    /**
+     * Orders this task after the registered tasks it must or should run after that have been created since its dependencies were resolved.
+     * Only has an effect when {@link #deferOrderingOnRegisteredTasks() ordering on registered tasks is deferred}.
+     */
+    public void resolveDeferredOrdering(TaskDependencyResolver dependencyResolver) {
+        for (Node targetNode : resolveDeferred(dependencyResolver, deferredMustRunAfter)) {
+            addMustSuccessor(targetNode);
+        }
+        for (Node targetNode : resolveDeferred(dependencyResolver, deferredShouldRunAfter)) {
+            addShouldSuccessor(targetNode);
+        }
+        deferredMustRunAfter = null;
+        deferredShouldRunAfter = null;
+    }
+
+    private Set<Node> resolveDeferred(TaskDependencyResolver dependencyResolver, @Nullable List<RegisteredTaskProvider<?>> deferred) {
+        if (deferred == null || deferred.isEmpty()) {
+            return Collections.emptySet();
+        }
+        ImmutableSet.Builder<Object> created = ImmutableSet.builder();
+        for (RegisteredTaskProvider<?> provider : deferred) {
+            if (provider.isRealized()) {
+                created.add(provider);
+            }
+        }
+        return dependencyResolver.resolveDependenciesFor(task, new DefaultTaskDependency(null, created.build()));
+    }
+
     @Override
     @SuppressWarnings("NullableProblems")
     public int compareTo(Node other) {
@@ -20,10 +20,12 @@ import groovy.lang.Script;
 import org.codehaus.groovy.ast.ClassNode;
 import org.gradle.api.Action;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderId;
+import org.gradle.cache.internal.ProducerGuard;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.internal.Cast;
+import org.gradle.internal.Factory;
 
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This in-memory cache is responsible for caching compiled build scripts during a build.
@@ -31,11 +33,15 @@ import java.util.Map;
  * which will use the delegate script class compiler in case of a miss. The lookup in this cache is
  * more efficient than looking in the global cache, as we do not check the script's hash code here,
  * assuming that it did not change during the build.
+ *
+ * <p>Scripts can be compiled concurrently, for example when build scripts are compiled ahead of the evaluation of their project.
+ * A script is only compiled once, and concurrent requests for the same script wait for that compilation.</p>
  */
 public class BuildScopeInMemoryCachingScriptClassCompiler implements ScriptClassCompiler {
     private final CrossBuildInMemoryCachingScriptClassCache cache;
     private final ScriptClassCompiler scriptClassCompiler;
-    private final Map<ScriptCacheKey, CompiledScript<?, ?>> cachedCompiledScripts = Maps.newHashMap();
+    private final ConcurrentMap<ScriptCacheKey, CompiledScript<?, ?>> cachedCompiledScripts = Maps.newConcurrentMap();
+    private final ProducerGuard<ScriptCacheKey> compilationGuard = ProducerGuard.adaptive();
 
     public BuildScopeInMemoryCachingScriptClassCompiler(CrossBuildInMemoryCachingScriptClassCache cache, ScriptClassCompiler scriptClassCompiler) {
         this.cache = cache;
@@ -43,14 +49,23 @@ public class BuildScopeInMemoryCachingScriptClassCompiler implements ScriptClass
     }
 
     @Override
-    public <T extends Script, M> CompiledScript<T, M> compile(ScriptSource source, ClassLoader classLoader, ClassLoaderId classLoaderId, CompileOperation<M> operation, Class<T> scriptBaseClass, Action<? super ClassNode> verifier) {
-        ScriptCacheKey key = new ScriptCacheKey(source.getClassName(), classLoader, operation.getId());
+    public <T extends Script, M> CompiledScript<T, M> compile(final ScriptSource source, final ClassLoader classLoader, final ClassLoaderId classLoaderId, final CompileOperation<M> operation, final Class<T> scriptBaseClass, final Action<? super ClassNode> verifier) {
+        final ScriptCacheKey key = new ScriptCacheKey(source.getClassName(), classLoader, operation.getId());
         CompiledScript<T, M> compiledScript = Cast.uncheckedCast(cachedCompiledScripts.get(key));
-        if (compiledScript == null) {
-            compiledScript = cache.getOrCompile(source, classLoader, classLoaderId, operation, scriptBaseClass, verifier, scriptClassCompiler);
-            cachedCompiledScripts.put(key, compiledScript);
+        if (compiledScript != null) {
+            return compiledScript;
         }
-        return compiledScript;
+        return compilationGuard.guardByKey(key, new Factory<CompiledScript<T, M>>() {
+            @Override
+            public CompiledScript<T, M> create() {
+                CompiledScript<T, M> compiledScript = Cast.uncheckedCast(cachedCompiledScripts.get(key));
+                if (compiledScript == null) {
+                    compiledScript = cache.getOrCompile(source, classLoader, classLoaderId, operation, scriptBaseClass, verifier, scriptClassCompiler);
+                    cachedCompiledScripts.put(key, compiledScript);
+                }
+                return compiledScript;
+            }
+        });
     }
 
 }
@@ -28,6 +28,7 @@ import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.SettingsInternal;
 import org.gradle.composite.internal.IncludedBuildControllers;
 import org.gradle.configuration.BuildConfigurer;
+import org.gradle.configuration.ConfigurationCache;
 import org.gradle.execution.BuildConfigurationActionExecuter;
 import org.gradle.execution.BuildExecuter;
 import org.gradle.execution.MultipleBuildFailures;
@@ -74,6 +75,7 @@ public class DefaultGradleLauncher implements GradleLauncher {
     private final SettingsLoader settingsLoader;
     private final BuildLoader buildLoader;
     private final BuildConfigurer buildConfigurer;
+    private final ConfigurationCache configurationCache;
     private final ExceptionAnalyser exceptionAnalyser;
     private final BuildListener buildListener;
     private final ModelConfigurationListener modelConfigurationListener;
@@ -90,7 +92,7 @@ public class DefaultGradleLauncher implements GradleLauncher {
     private Stage stage;
 
     public DefaultGradleLauncher(GradleInternal gradle, InitScriptHandler initScriptHandler, SettingsLoader settingsLoader, BuildLoader buildLoader,
-                                 BuildConfigurer buildConfigurer, ExceptionAnalyser exceptionAnalyser,
+                                 BuildConfigurer buildConfigurer, ConfigurationCache configurationCache, ExceptionAnalyser exceptionAnalyser,
                                  BuildListener buildListener, ModelConfigurationListener modelConfigurationListener,
                                  BuildCompletionListener buildCompletionListener, BuildOperationExecutor operationExecutor,
                                  BuildConfigurationActionExecuter buildConfigurationActionExecuter, BuildExecuter buildExecuter,
@@ -100,6 +102,7 @@ public class DefaultGradleLauncher implements GradleLauncher {
         this.settingsLoader = settingsLoader;
         this.buildLoader = buildLoader;
         this.buildConfigurer = buildConfigurer;
+        this.configurationCache = configurationCache;
         this.exceptionAnalyser = exceptionAnalyser;
         this.buildListener = buildListener;
         this.modelConfigurationListener = modelConfigurationListener;
@@ -148,7 +151,7 @@ public class DefaultGradleLauncher implements GradleLauncher {
             if (upTo == Stage.LoadSettings) {
                 return;
             }
-            configureBuild();
+            configureBuild(upTo != Stage.Configure);
             if (upTo == Stage.Configure) {
                 return;
             }
@@ -205,9 +208,9 @@ public class DefaultGradleLauncher implements GradleLauncher {
         }
     }
 
-    private void configureBuild() {
+    private void configureBuild(boolean tasksWillBeScheduled) {
         if (stage == Stage.LoadSettings) {
-            buildOperationExecutor.run(new ConfigureBuild());
+            buildOperationExecutor.run(new ConfigureBuild(tasksWillBeScheduled));
 
             stage = Stage.Configure;
         }
@@ -296,9 +299,19 @@ public class DefaultGradleLauncher implements GradleLauncher {
     }
 
     private class ConfigureBuild implements RunnableBuildOperation {
+        private final boolean tasksWillBeScheduled;
+
+        ConfigureBuild(boolean tasksWillBeScheduled) {
+            this.tasksWillBeScheduled = tasksWillBeScheduled;
+        }
+
         @Override
         public void run(BuildOperationContext context) {
             buildLoader.load(settings, gradle);
+            if (tasksWillBeScheduled) {
+                // Models built from the configured build need all projects to be configured
+                configurationCache.load(gradle);
+            }
             buildConfigurer.configure(gradle);
 
             if (!isConfigureOnDemand()) {
@@ -338,6 +351,7 @@ public class DefaultGradleLauncher implements GradleLauncher {
 
             final TaskExecutionGraphInternal taskGraph = gradle.getTaskGraph();
             taskGraph.populate();
+            configurationCache.store(gradle);
 
             includedBuildControllers.populateTaskGraphs();
 
@@ -421,7 +435,7 @@ public class DefaultGradleLauncher implements GradleLauncher {
     }
 
     private boolean isConfigureOnDemand() {
-        return gradle.getStartParameter().isConfigureOnDemand();
+        return gradle.getStartParameter().isConfigureOnDemand() || configurationCache.isHit();
     }
 
     private void projectsEvaluated() {
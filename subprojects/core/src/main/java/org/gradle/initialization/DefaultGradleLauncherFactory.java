@@ -25,6 +25,7 @@ import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.logging.configuration.ShowStacktrace;
 import org.gradle.composite.internal.IncludedBuildControllers;
 import org.gradle.configuration.BuildConfigurer;
+import org.gradle.configuration.ConfigurationCache;
 import org.gradle.deployment.internal.DefaultDeploymentRegistry;
 import org.gradle.execution.BuildConfigurationActionExecuter;
 import org.gradle.execution.BuildExecuter;
@@ -147,6 +148,7 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
             settingsLoader,
             serviceRegistry.get(BuildLoader.class),
             serviceRegistry.get(BuildConfigurer.class),
+            serviceRegistry.get(ConfigurationCache.class),
             serviceRegistry.get(ExceptionAnalyser.class),
             gradle.getBuildListenerBroadcaster(),
             listenerManager.getBroadcaster(ModelConfigurationListener.class),
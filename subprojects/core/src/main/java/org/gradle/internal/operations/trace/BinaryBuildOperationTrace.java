@@ -0,0 +1,335 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace;
+
+import com.google.common.base.Charsets;
+import org.gradle.StartParameter;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationListener;
+import org.gradle.internal.operations.BuildOperationListenerManager;
+import org.gradle.internal.operations.BuildOperationType;
+import org.gradle.internal.operations.OperationFinishEvent;
+import org.gradle.internal.operations.OperationIdentifier;
+import org.gradle.internal.operations.OperationProgressEvent;
+import org.gradle.internal.operations.OperationStartEvent;
+import org.gradle.util.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes a compact binary trace of the build operations of a build, for analyzing the performance of large builds.
+ * Can be enabled for any build with `-Dorg.gradle.internal.operations.trace.binary=«path-base»`, which creates the file «path-base»-trace.bin.
+ *
+ * Imposes no overhead when not enabled.
+ *
+ * Unlike {@link BuildOperationTrace}, only the structure and timing of the operations is recorded: their id, parent, display name, type, start and end time,
+ * and whether they failed. The type of an operation is the {@link BuildOperationType} its details belong to. Progress events are not recorded.
+ *
+ * The listener only hands the events to a lock-free ring buffer. A single background thread interns the strings and appends the records to the
+ * trace file through memory mapped regions. The trace can be read with {@link BinaryBuildOperationTraceReader} and summarized with
+ * {@link BinaryBuildOperationTraceAnalysis}.
+ *
+ * The trace file starts with a magic number and a format version, followed by records that each start with a tag byte:
+ *
+ * - string: int id, int length, UTF-8 bytes. Defines the string referred to by the following records using its id.
+ * - start: long id, long parent id (-1 for none), long start time, int display name string id, int type string id (-1 for none)
+ * - finish: long id, long end time, byte failed (0 or 1)
+ *
+ * A zero tag, or the end of the file, ends the trace.
+ */
+public class BinaryBuildOperationTrace implements Stoppable {
+
+    public static final String SYSPROP = "org.gradle.internal.operations.trace.binary";
+
+    static final int MAGIC = 0x474f5054;
+    static final int VERSION = 1;
+    static final byte END_TAG = 0;
+    static final byte STRING_TAG = 1;
+    static final byte START_TAG = 2;
+    static final byte FINISH_TAG = 3;
+    static final long NO_PARENT = -1;
+    static final int NO_STRING = -1;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryBuildOperationTrace.class);
+    private static final int BUFFER_CAPACITY = 64 * 1024;
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final BuildOperationListenerManager buildOperationListenerManager;
+    private final OperationEventRingBuffer<Object> events;
+    private final ManagedExecutor writerExecutor;
+    private final BuildOperationListener listener = new RecordingListener();
+    private volatile boolean stopped;
+
+    public BinaryBuildOperationTrace(StartParameter startParameter, BuildOperationListenerManager buildOperationListenerManager, ExecutorFactory executorFactory) {
+        this.buildOperationListenerManager = buildOperationListenerManager;
+
+        String basePath = startParameter.getSystemPropertiesArgs().get(SYSPROP);
+        if (basePath == null) {
+            basePath = System.getProperty(SYSPROP);
+        }
+        if (basePath == null || basePath.equals(Boolean.FALSE.toString())) {
+            this.events = null;
+            this.writerExecutor = null;
+            return;
+        }
+
+        File traceFile = traceFile(basePath);
+        MappedTraceFileWriter writer;
+        try {
+            GFileUtils.mkdirs(traceFile.getParentFile());
+            writer = new MappedTraceFileWriter(traceFile);
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+
+        this.events = new OperationEventRingBuffer<Object>(BUFFER_CAPACITY);
+        this.writerExecutor = executorFactory.create("Build operation trace writer");
+        writerExecutor.execute(new TraceWriter(writer, traceFile));
+        buildOperationListenerManager.addListener(listener);
+    }
+
+    @Override
+    public void stop() {
+        if (writerExecutor != null) {
+            buildOperationListenerManager.removeListener(listener);
+            stopped = true;
+            writerExecutor.stop();
+        }
+    }
+
+    public static File traceFile(@Nullable String basePath) {
+        return new File((basePath == null || basePath.trim().isEmpty() ? "operations" : basePath) + "-trace.bin").getAbsoluteFile();
+    }
+
+    /**
+     * Returns the name of the build operation type the given details belong to, or the name of the details type when it does not belong to one.
+     */
+    static String operationTypeName(Class<?> detailsType) {
+        for (Class<?> type = detailsType; type != null; type = type.getSuperclass()) {
+            if (isBuildOperationType(type.getEnclosingClass())) {
+                return type.getEnclosingClass().getName();
+            }
+            for (Class<?> detailsInterface : type.getInterfaces()) {
+                if (isBuildOperationType(detailsInterface.getEnclosingClass())) {
+                    return detailsInterface.getEnclosingClass().getName();
+                }
+            }
+        }
+        return detailsType.getName();
+    }
+
+    private static boolean isBuildOperationType(@Nullable Class<?> type) {
+        return type != null && BuildOperationType.class.isAssignableFrom(type);
+    }
+
+    private class RecordingListener implements BuildOperationListener {
+        @Override
+        public void started(BuildOperationDescriptor buildOperation, OperationStartEvent startEvent) {
+            Object details = buildOperation.getDetails();
+            OperationIdentifier parentId = buildOperation.getParentId();
+            events.put(new StartEvent(
+                buildOperation.getId().getId(),
+                parentId == null ? NO_PARENT : parentId.getId(),
+                startEvent.getStartTime(),
+                buildOperation.getDisplayName(),
+                details == null ? null : details.getClass()
+            ));
+        }
+
+        @Override
+        public void progress(OperationIdentifier operationIdentifier, OperationProgressEvent progressEvent) {
+        }
+
+        @Override
+        public void finished(BuildOperationDescriptor buildOperation, OperationFinishEvent finishEvent) {
+            events.put(new FinishEvent(buildOperation.getId().getId(), finishEvent.getEndTime(), finishEvent.getFailure() != null));
+        }
+    }
+
+    private class TraceWriter implements Runnable {
+        private final MappedTraceFileWriter writer;
+        private final File traceFile;
+        private boolean failed;
+
+        TraceWriter(MappedTraceFileWriter writer, File traceFile) {
+            this.writer = writer;
+            this.traceFile = traceFile;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Object event = events.poll();
+                if (event == null) {
+                    if (stopped && events.isEmpty()) {
+                        break;
+                    }
+                    LockSupport.parkNanos(IDLE_NANOS);
+                } else if (!failed) {
+                    write(event);
+                }
+            }
+            try {
+                writer.close();
+            } catch (IOException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        private void write(Object event) {
+            try {
+                if (event instanceof StartEvent) {
+                    writer.started((StartEvent) event);
+                } else {
+                    writer.finished((FinishEvent) event);
+                }
+            } catch (IOException e) {
+                // Keep draining the events, so that the build is not blocked by a full buffer
+                failed = true;
+                LOGGER.error("Could not write build operation trace to {}.", traceFile, e);
+            }
+        }
+    }
+
+    private static class MappedTraceFileWriter {
+        private static final int REGION_SIZE = 16 * 1024 * 1024;
+
+        private final RandomAccessFile file;
+        private final FileChannel channel;
+        private final Map<String, Integer> strings = new HashMap<String, Integer>();
+        private final Map<Class<?>, Integer> types = new HashMap<Class<?>, Integer>();
+        private MappedByteBuffer region;
+        private long regionStart;
+        private ByteBuffer record = ByteBuffer.allocate(1024);
+
+        MappedTraceFileWriter(File traceFile) throws IOException {
+            file = new RandomAccessFile(traceFile, "rw");
+            file.setLength(0);
+            channel = file.getChannel();
+            region = channel.map(FileChannel.MapMode.READ_WRITE, 0, REGION_SIZE);
+            region.putInt(MAGIC);
+            region.putInt(VERSION);
+        }
+
+        void started(StartEvent event) throws IOException {
+            int displayName = intern(event.displayName);
+            int type = event.detailsType == null ? NO_STRING : internType(event.detailsType);
+            record.clear();
+            record.put(START_TAG).putLong(event.id).putLong(event.parentId).putLong(event.startTime).putInt(displayName).putInt(type);
+            append();
+        }
+
+        void finished(FinishEvent event) throws IOException {
+            record.clear();
+            record.put(FINISH_TAG).putLong(event.id).putLong(event.endTime).put((byte) (event.failed ? 1 : 0));
+            append();
+        }
+
+        private int internType(Class<?> detailsType) throws IOException {
+            Integer id = types.get(detailsType);
+            if (id == null) {
+                id = intern(operationTypeName(detailsType));
+                types.put(detailsType, id);
+            }
+            return id;
+        }
+
+        private int intern(String value) throws IOException {
+            Integer id = strings.get(value);
+            if (id == null) {
+                id = strings.size();
+                strings.put(value, id);
+                byte[] bytes = value.getBytes(Charsets.UTF_8);
+                if (record.capacity() < bytes.length + 9) {
+                    record = ByteBuffer.allocate(bytes.length + 9);
+                }
+                record.clear();
+                record.put(STRING_TAG).putInt(id).putInt(bytes.length).put(bytes);
+                append();
+            }
+            return id;
+        }
+
+        private void append() throws IOException {
+            record.flip();
+            if (region.remaining() < record.remaining()) {
+                long position = regionStart + region.position();
+                region = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(REGION_SIZE, record.remaining()));
+                regionStart = position;
+            }
+            region.put(record);
+        }
+
+        void close() throws IOException {
+            long length = regionStart + region.position();
+            try {
+                region.force();
+                try {
+                    channel.truncate(length);
+                } catch (IOException e) {
+                    // Some platforms cannot truncate a mapped file. Readers stop at the zero padding instead.
+                }
+            } finally {
+                file.close();
+            }
+        }
+    }
+
+    private static class StartEvent {
+        final long id;
+        final long parentId;
+        final long startTime;
+        final String displayName;
+        final Class<?> detailsType;
+
+        StartEvent(long id, long parentId, long startTime, String displayName, @Nullable Class<?> detailsType) {
+            this.id = id;
+            this.parentId = parentId;
+            this.startTime = startTime;
+            this.displayName = displayName;
+            this.detailsType = detailsType;
+        }
+    }
+
+    private static class FinishEvent {
+        final long id;
+        final long endTime;
+        final boolean failed;
+
+        FinishEvent(long id, long endTime, boolean failed) {
+            this.id = id;
+            this.endTime = endTime;
+            this.failed = failed;
+        }
+    }
+}
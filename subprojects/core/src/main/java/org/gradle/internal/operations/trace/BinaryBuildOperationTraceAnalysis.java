@@ -0,0 +1,277 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.util.CollectionUtils;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Summarizes a trace written by {@link BinaryBuildOperationTrace} in a single pass, keeping only the running operations in memory.
+ *
+ * The summary contains:
+ *
+ * - the critical path: starting from the root operation that finished last, the chain of nested operations that finished last within their parent.
+ * - the count, total duration and self duration of the operations of each type. The self duration excludes the time spent in nested operations.
+ * - how much the operations of each type overlap: the sum of their durations divided by the time during which at least one of them was running.
+ *
+ * Can be run from the command line with the trace file as argument, to print the summary.
+ */
+public class BinaryBuildOperationTraceAnalysis implements BinaryBuildOperationTraceReader.Visitor {
+    static final String UNTYPED = "(no details)";
+
+    private final Map<Long, RunningOperation> running = new HashMap<Long, RunningOperation>();
+    private final Map<String, OperationTypeStatistics> types = new HashMap<String, OperationTypeStatistics>();
+    private List<CriticalPathEntry> criticalPath = Collections.emptyList();
+    private long criticalPathEndTime = Long.MIN_VALUE;
+
+    public static BinaryBuildOperationTraceAnalysis analyze(File traceFile) {
+        BinaryBuildOperationTraceAnalysis analysis = new BinaryBuildOperationTraceAnalysis();
+        new BinaryBuildOperationTraceReader().read(traceFile, analysis);
+        return analysis;
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Usage: BinaryBuildOperationTraceAnalysis <trace file>");
+            System.exit(1);
+        }
+        analyze(new File(args[0])).printTo(System.out);
+    }
+
+    @Override
+    public void started(long id, long parentId, long startTime, String displayName, @Nullable String type) {
+        OperationTypeStatistics statistics = statisticsFor(type == null ? UNTYPED : type);
+        statistics.started(startTime);
+        running.put(id, new RunningOperation(parentId, startTime, displayName, statistics));
+    }
+
+    @Override
+    public void finished(long id, long endTime, boolean failed) {
+        RunningOperation operation = running.remove(id);
+        if (operation == null) {
+            return;
+        }
+        long duration = endTime - operation.startTime;
+        operation.statistics.finished(endTime, duration, Math.max(0, duration - operation.nestedTime));
+
+        ImmutableList.Builder<CriticalPathEntry> path = ImmutableList.builder();
+        path.add(new CriticalPathEntry(operation.displayName, operation.statistics.type, operation.startTime, endTime, failed));
+        path.addAll(operation.lastFinishedChildPath);
+
+        RunningOperation parent = running.get(operation.parentId);
+        if (parent != null) {
+            parent.nestedTime += duration;
+            if (endTime >= parent.lastFinishedChildEndTime) {
+                parent.lastFinishedChildEndTime = endTime;
+                parent.lastFinishedChildPath = path.build();
+            }
+        } else if (endTime >= criticalPathEndTime) {
+            criticalPathEndTime = endTime;
+            criticalPath = path.build();
+        }
+    }
+
+    /**
+     * Returns the critical path, outermost operation first.
+     */
+    public List<CriticalPathEntry> getCriticalPath() {
+        return criticalPath;
+    }
+
+    /**
+     * Returns the statistics of each operation type, longest total duration first.
+     */
+    public List<OperationTypeStatistics> getOperationTypes() {
+        return CollectionUtils.sort(types.values(), new Comparator<OperationTypeStatistics>() {
+            @Override
+            public int compare(OperationTypeStatistics o1, OperationTypeStatistics o2) {
+                int diff = Long.compare(o2.totalDuration, o1.totalDuration);
+                return diff != 0 ? diff : o1.type.compareTo(o2.type);
+            }
+        });
+    }
+
+    public void printTo(PrintStream output) {
+        output.println("Critical path:");
+        for (int i = 0; i < criticalPath.size(); i++) {
+            CriticalPathEntry entry = criticalPath.get(i);
+            StringBuilder line = new StringBuilder();
+            for (int indent = 0; indent < i; indent++) {
+                line.append("  ");
+            }
+            line.append(entry.getDisplayName()).append(" [").append(entry.getDuration()).append("ms]");
+            if (entry.isFailed()) {
+                line.append(" FAILED");
+            }
+            output.println(line);
+        }
+        output.println();
+        output.println("Operation types:");
+        output.println("count\ttotal ms\tself ms\tbusy ms\toverlap\ttype");
+        for (OperationTypeStatistics statistics : getOperationTypes()) {
+            output.println(String.format(Locale.US, "%d\t%d\t%d\t%d\t%.2f\t%s",
+                statistics.getCount(), statistics.getTotalDuration(), statistics.getSelfDuration(), statistics.getBusyTime(), statistics.getOverlap(), statistics.getType()));
+        }
+    }
+
+    private OperationTypeStatistics statisticsFor(String type) {
+        OperationTypeStatistics statistics = types.get(type);
+        if (statistics == null) {
+            statistics = new OperationTypeStatistics(type);
+            types.put(type, statistics);
+        }
+        return statistics;
+    }
+
+    private static class RunningOperation {
+        final long parentId;
+        final long startTime;
+        final String displayName;
+        final OperationTypeStatistics statistics;
+        long nestedTime;
+        long lastFinishedChildEndTime = Long.MIN_VALUE;
+        List<CriticalPathEntry> lastFinishedChildPath = Collections.emptyList();
+
+        RunningOperation(long parentId, long startTime, String displayName, OperationTypeStatistics statistics) {
+            this.parentId = parentId;
+            this.startTime = startTime;
+            this.displayName = displayName;
+            this.statistics = statistics;
+        }
+    }
+
+    public static class CriticalPathEntry {
+        private final String displayName;
+        private final String type;
+        private final long startTime;
+        private final long endTime;
+        private final boolean failed;
+
+        CriticalPathEntry(String displayName, String type, long startTime, long endTime, boolean failed) {
+            this.displayName = displayName;
+            this.type = type;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.failed = failed;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public long getEndTime() {
+            return endTime;
+        }
+
+        public long getDuration() {
+            return endTime - startTime;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    public static class OperationTypeStatistics {
+        private final String type;
+        private int count;
+        private long totalDuration;
+        private long selfDuration;
+        private long busyTime;
+        private int active;
+        private long busyStartTime;
+
+        OperationTypeStatistics(String type) {
+            this.type = type;
+        }
+
+        void started(long startTime) {
+            if (active == 0) {
+                busyStartTime = startTime;
+            }
+            active++;
+        }
+
+        void finished(long endTime, long duration, long selfDuration) {
+            count++;
+            totalDuration += duration;
+            this.selfDuration += selfDuration;
+            active--;
+            if (active == 0) {
+                busyTime += Math.max(0, endTime - busyStartTime);
+            }
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getTotalDuration() {
+            return totalDuration;
+        }
+
+        public long getSelfDuration() {
+            return selfDuration;
+        }
+
+        /**
+         * The time during which at least one operation of this type was running.
+         */
+        public long getBusyTime() {
+            return busyTime;
+        }
+
+        /**
+         * The average number of operations of this type that were running at the same time, while at least one was running.
+         */
+        public double getOverlap() {
+            return busyTime == 0 ? 0 : (double) totalDuration / busyTime;
+        }
+
+        @Override
+        public String toString() {
+            return type;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace;
+
+import com.google.common.base.Charsets;
+import org.gradle.internal.UncheckedException;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a trace written by {@link BinaryBuildOperationTrace}, streaming the operation events to a visitor in the order they were recorded.
+ *
+ * Only the interned strings are kept in memory while reading, so traces much larger than the heap can be read.
+ * Reading stops at the end of the trace, or at the partial record a build that did not stop may have left at its end.
+ */
+public class BinaryBuildOperationTraceReader {
+
+    public interface Visitor {
+        /**
+         * @param parentId the id of the parent operation, or a negative value for root operations.
+         * @param type the name of the operation type, or null when the operation has no details.
+         */
+        void started(long id, long parentId, long startTime, String displayName, @Nullable String type);
+
+        void finished(long id, long endTime, boolean failed);
+    }
+
+    public void read(File traceFile, Visitor visitor) {
+        try {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(traceFile), 64 * 1024));
+            try {
+                read(input, visitor, traceFile);
+            } catch (EOFException e) {
+                // The trace of a build that did not stop may end with a partial record
+            } finally {
+                input.close();
+            }
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private void read(DataInputStream input, Visitor visitor, File traceFile) throws IOException {
+        if (input.readInt() != BinaryBuildOperationTrace.MAGIC) {
+            throw new IllegalArgumentException(traceFile + " is not a build operation trace.");
+        }
+        int version = input.readInt();
+        if (version != BinaryBuildOperationTrace.VERSION) {
+            throw new IllegalArgumentException(traceFile + " uses unsupported trace format version " + version + ".");
+        }
+        List<String> strings = new ArrayList<String>();
+        while (true) {
+            int tag = input.readByte();
+            switch (tag) {
+                case BinaryBuildOperationTrace.END_TAG:
+                    return;
+                case BinaryBuildOperationTrace.STRING_TAG:
+                    int id = input.readInt();
+                    byte[] bytes = new byte[input.readInt()];
+                    input.readFully(bytes);
+                    assert id == strings.size() : "unexpected string id " + id;
+                    strings.add(new String(bytes, Charsets.UTF_8));
+                    break;
+                case BinaryBuildOperationTrace.START_TAG:
+                    long operationId = input.readLong();
+                    long parentId = input.readLong();
+                    long startTime = input.readLong();
+                    String displayName = strings.get(input.readInt());
+                    int type = input.readInt();
+                    visitor.started(operationId, parentId, startTime, displayName, type == BinaryBuildOperationTrace.NO_STRING ? null : strings.get(type));
+                    break;
+                case BinaryBuildOperationTrace.FINISH_TAG:
+                    visitor.finished(input.readLong(), input.readLong(), input.readByte() != 0);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unexpected record tag " + tag + " in " + traceFile + ".");
+            }
+        }
+    }
+}
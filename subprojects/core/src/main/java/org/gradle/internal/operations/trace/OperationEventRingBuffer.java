@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded ring buffer which can be written by any number of threads without locking, and is read by a single thread.
+ *
+ * <p>Each writer claims a sequence number and publishes its item into the slot of that sequence number. The reader consumes the slots in sequence order,
+ * so items are read in the order their sequence numbers were claimed. When the buffer is full, writers wait for the reader to catch up.</p>
+ */
+class OperationEventRingBuffer<T> {
+    private static final long WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final AtomicLong nextToClaim = new AtomicLong();
+    // Only written by the reader
+    private volatile long nextToRead;
+
+    /**
+     * @param capacity the number of slots, which must be a power of 2.
+     */
+    OperationEventRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of 2, but was " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<T>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Adds the given item, waiting for a free slot when the buffer is full.
+     */
+    void put(T item) {
+        long sequence = nextToClaim.getAndIncrement();
+        while (sequence - nextToRead >= slots.length()) {
+            LockSupport.parkNanos(WAIT_NANOS);
+        }
+        slots.lazySet((int) (sequence & mask), item);
+    }
+
+    /**
+     * Removes the next item, or returns null when it has not been published yet. Must only be called by the reader.
+     */
+    @Nullable
+    T poll() {
+        long sequence = nextToRead;
+        int index = (int) (sequence & mask);
+        T item = slots.get(index);
+        if (item == null) {
+            return null;
+        }
+        slots.lazySet(index, null);
+        nextToRead = sequence + 1;
+        return item;
+    }
+
+    /**
+     * Returns true when all claimed slots have been read.
+     */
+    boolean isEmpty() {
+        return nextToRead == nextToClaim.get();
+    }
+}
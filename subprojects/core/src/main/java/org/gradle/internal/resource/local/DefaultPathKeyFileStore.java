@@ -202,6 +202,16 @@ public class DefaultPathKeyFileStore implements PathKeyFileStore {
         }
     }
 
+    @Override
+    public LocallyAvailableResource getIfComplete(String... path) {
+        File file = getFile(path);
+        if (file.exists() && !getInProgressMarkerFile(file).exists()) {
+            return new DefaultLocallyAvailableResource(file);
+        } else {
+            return null;
+        }
+    }
+
     @SuppressWarnings("ResultOfMethodCallIgnored")
     private static void deleteFileQuietly(File file) {
         file.delete();
@@ -20,6 +20,7 @@ import org.apache.tools.ant.DirectoryScanner;
 import org.gradle.StartParameter;
 import org.gradle.api.Action;
 import org.gradle.api.internal.FeaturePreviews;
+import org.gradle.api.internal.InternalFlags;
 import org.gradle.api.internal.attributes.DefaultImmutableAttributesFactory;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.changedetection.state.BuildScopeFileTimeStampInspector;
@@ -227,6 +228,10 @@ public class BuildSessionScopeServices extends DefaultServiceRegistry {
         return new FeaturePreviews();
     }
 
+    InternalFlags createInternalFlags() {
+        return InternalFlags.fromSystemProperties();
+    }
+
     CleanupActionFactory createCleanupActionFactory(BuildOperationExecutor buildOperationExecutor) {
         return new CleanupActionFactory(buildOperationExecutor);
     }
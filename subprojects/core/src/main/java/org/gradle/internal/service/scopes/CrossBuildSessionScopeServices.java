@@ -38,6 +38,7 @@ import org.gradle.internal.operations.logging.LoggingBuildOperationProgressBroad
 import org.gradle.internal.operations.notify.BuildOperationNotificationBridge;
 import org.gradle.internal.operations.notify.BuildOperationNotificationListenerRegistrar;
 import org.gradle.internal.operations.notify.BuildOperationNotificationValve;
+import org.gradle.internal.operations.trace.BinaryBuildOperationTrace;
 import org.gradle.internal.operations.trace.BuildOperationTrace;
 import org.gradle.internal.resources.ResourceLockCoordinationService;
 import org.gradle.internal.service.DefaultServiceRegistry;
@@ -64,6 +65,7 @@ import java.io.IOException;
 public class CrossBuildSessionScopeServices implements Closeable {
 
     private final BuildOperationTrace buildOperationTrace;
+    private final BinaryBuildOperationTrace binaryBuildOperationTrace;
     private final BuildOperationNotificationBridge buildOperationNotificationBridge;
     private final LoggingBuildOperationProgressBroadcaster loggingBuildOperationProgressBroadcaster;
     private final BuildOperationListenerManager buildOperationListenerManager;
@@ -77,6 +79,7 @@ public class CrossBuildSessionScopeServices implements Closeable {
 
         ListenerManager generalListenerManager = parent.get(ListenerManager.class);
         this.buildOperationTrace = new BuildOperationTrace(startParameter, buildOperationListenerManager, generalListenerManager);
+        this.binaryBuildOperationTrace = new BinaryBuildOperationTrace(startParameter, buildOperationListenerManager, parent.get(ExecutorFactory.class));
         this.buildOperationNotificationBridge = new BuildOperationNotificationBridge(buildOperationListenerManager, generalListenerManager);
         this.loggingBuildOperationProgressBroadcaster = new LoggingBuildOperationProgressBroadcaster(parent.get(OutputEventListenerManager.class), buildOperationListenerManager.getBroadcaster());
     }
@@ -118,6 +121,7 @@ public class CrossBuildSessionScopeServices implements Closeable {
     public void close() throws IOException {
         new CompositeStoppable().add(
             buildOperationTrace,
+            binaryBuildOperationTrace,
             buildOperationNotificationBridge,
             loggingBuildOperationProgressBroadcaster,
             services
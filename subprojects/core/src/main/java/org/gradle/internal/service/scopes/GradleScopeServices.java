@@ -20,6 +20,7 @@ import org.gradle.api.execution.TaskExecutionGraphListener;
 import org.gradle.api.execution.TaskExecutionListener;
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.InstantiatorFactory;
+import org.gradle.api.internal.InternalFlags;
 import org.gradle.api.internal.artifacts.dsl.dependencies.ProjectFinder;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.plugins.DefaultPluginManager;
@@ -126,8 +127,8 @@ public class GradleScopeServices extends DefaultServiceRegistry {
         }
     }
 
-    TaskSelector createTaskSelector(GradleInternal gradle, ProjectConfigurer projectConfigurer) {
-        return new TaskSelector(gradle, projectConfigurer);
+    TaskSelector createTaskSelector(GradleInternal gradle, ProjectConfigurer projectConfigurer, InternalFlags internalFlags) {
+        return new TaskSelector(gradle, projectConfigurer, internalFlags.isEnabled(InternalFlags.Flag.LAZY_TASK_REALIZATION));
     }
 
     OptionReader createOptionReader() {
@@ -203,9 +204,11 @@ public class GradleScopeServices extends DefaultServiceRegistry {
         TaskNodeFactory taskNodeFactory,
         TaskDependencyResolver dependencyResolver,
         ListenerBroadcast<TaskExecutionListener> taskListeners,
-        ListenerBroadcast<TaskExecutionGraphListener> graphListeners
+        ListenerBroadcast<TaskExecutionGraphListener> graphListeners,
+        InternalFlags internalFlags
     ) {
-        return new DefaultTaskExecutionGraph(planExecutor, nodeExecutors, buildOperationExecutor, listenerBuildOperationDecorator, workerLeaseService, coordinationService, gradleInternal, taskNodeFactory, dependencyResolver, graphListeners, taskListeners);
+        return new DefaultTaskExecutionGraph(planExecutor, nodeExecutors, buildOperationExecutor, listenerBuildOperationDecorator, workerLeaseService, coordinationService, gradleInternal, taskNodeFactory, dependencyResolver, graphListeners, taskListeners,
+            internalFlags.isEnabled(InternalFlags.Flag.LAZY_TASK_REALIZATION));
     }
 
     ServiceRegistryFactory createServiceRegistryFactory(final ServiceRegistry services) {
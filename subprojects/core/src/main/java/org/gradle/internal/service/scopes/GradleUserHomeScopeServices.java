@@ -17,9 +17,12 @@
 package org.gradle.internal.service.scopes;
 
 import org.apache.tools.ant.DirectoryScanner;
+import org.gradle.api.internal.AbstractClassGenerator;
 import org.gradle.api.internal.ClassPathRegistry;
 import org.gradle.api.internal.DefaultClassPathProvider;
 import org.gradle.api.internal.DefaultClassPathRegistry;
+import org.gradle.api.internal.InternalFlags;
+import org.gradle.api.internal.PersistentGeneratedClassCache;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.changedetection.state.CachingFileHasher;
 import org.gradle.api.internal.changedetection.state.CrossBuildFileHashCache;
@@ -91,6 +94,8 @@ import org.gradle.internal.snapshot.WellKnownFileLocations;
 import org.gradle.internal.snapshot.impl.DefaultFileSystemMirror;
 import org.gradle.internal.snapshot.impl.DefaultFileSystemSnapshotter;
 import org.gradle.internal.snapshot.impl.DefaultValueSnapshotter;
+import org.gradle.process.internal.ClassDataSharingArchives;
+import org.gradle.process.internal.ExecHandleFactory;
 import org.gradle.process.internal.JavaExecHandleFactory;
 import org.gradle.process.internal.health.memory.MemoryManager;
 import org.gradle.process.internal.worker.DefaultWorkerProcessFactory;
@@ -115,6 +120,12 @@ public class GradleUserHomeScopeServices {
         File userHomeDir = userHomeDirProvider.getGradleUserHomeDirectory();
         registration.addProvider(new CacheRepositoryServices(userHomeDir, null));
         registration.addProvider(new GradleUserHomeCleanupServices());
+        // The services of the Gradle user home outlive the build, so they use the flags of the build which created them
+        InternalFlags internalFlags = InternalFlags.fromSystemProperties();
+        registration.add(InternalFlags.class, internalFlags);
+        if (internalFlags.isEnabled(InternalFlags.Flag.PERSISTENT_GENERATED_CLASSES)) {
+            AbstractClassGenerator.usePersistentCache(new PersistentGeneratedClassCache(userHomeDir));
+        }
         for (PluginServiceRegistry plugin : globalServices.getAll(PluginServiceRegistry.class)) {
             plugin.registerGradleUserHomeServices(registration);
         }
@@ -223,7 +234,8 @@ public class GradleUserHomeScopeServices {
 
     WorkerProcessFactory createWorkerProcessFactory(LoggingManagerInternal loggingManagerInternal, MessagingServer messagingServer, ClassPathRegistry classPathRegistry,
                                                     TemporaryFileProvider temporaryFileProvider, JavaExecHandleFactory execHandleFactory, JvmVersionDetector jvmVersionDetector,
-                                                    MemoryManager memoryManager, GradleUserHomeDirProvider gradleUserHomeDirProvider, OutputEventListener outputEventListener) {
+                                                    MemoryManager memoryManager, GradleUserHomeDirProvider gradleUserHomeDirProvider, OutputEventListener outputEventListener,
+                                                    ClassDataSharingArchives classDataSharingArchives) {
         return new DefaultWorkerProcessFactory(
             loggingManagerInternal,
             messagingServer,
@@ -234,10 +246,15 @@ public class GradleUserHomeScopeServices {
             execHandleFactory,
             jvmVersionDetector,
             outputEventListener,
-            memoryManager
+            memoryManager,
+            classDataSharingArchives
         );
     }
 
+    ClassDataSharingArchives createClassDataSharingArchives(CacheRepository cacheRepository, JvmVersionDetector jvmVersionDetector, ExecHandleFactory execHandleFactory, InternalFlags internalFlags) {
+        return new ClassDataSharingArchives(cacheRepository, jvmVersionDetector, execHandleFactory, internalFlags.isEnabled(InternalFlags.Flag.CLASS_DATA_SHARING));
+    }
+
     ClassPathRegistry createClassPathRegistry(ModuleRegistry moduleRegistry, WorkerProcessClassPathProvider workerProcessClassPathProvider) {
         return new DefaultClassPathRegistry(
             new DefaultClassPathProvider(moduleRegistry),
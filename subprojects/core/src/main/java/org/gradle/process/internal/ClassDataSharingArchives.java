@@ -0,0 +1,346 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.gradle.api.JavaVersion;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.internal.LeastRecentlyUsedCacheCleanup;
+import org.gradle.cache.internal.SingleDepthFilesFinder;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.io.NullOutputStream;
+import org.gradle.internal.jvm.inspection.JvmVersionDetector;
+import org.gradle.internal.resource.local.FileAccessTimeJournal;
+import org.gradle.internal.resource.local.ModificationTimeFileAccessTimeJournal;
+import org.gradle.util.CollectionUtils;
+import org.gradle.util.GFileUtils;
+import org.gradle.util.GradleVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.gradle.cache.internal.LeastRecentlyUsedCacheCleanup.DEFAULT_MAX_AGE_IN_DAYS_FOR_RECREATABLE_CACHE_ENTRIES;
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Provides the JVM arguments to share the class data of Gradle processes, such as the daemon and worker processes, through a class data sharing archive.
+ *
+ * <p>The archives are kept in the Gradle user home, per Gradle version, and are keyed by the Java executable, the classpath of the process and the content
+ * of the jars whose classes are archived, so that a new archive is generated when the distribution or the dependencies change. Archives are only
+ * generated for Java 13 and later, so processes running on earlier Java versions are started without any additional argument. Archives that
+ * have not been used for a while are removed by the cleanup of the cache.</p>
+ *
+ * <ul>
+ *     <li>The first daemon started for a given key dumps the classes it loaded into a dynamic archive when it exits, and the daemons started after
+ *     that map the archive at startup. This covers the classes the daemon loads from the jars of the distribution through Gradle's own class loaders.
+ *     The daemon holds a lock on its claim of the generation while it runs, so that the generation is retried as soon as a daemon has exited
+ *     without dumping the archive.</li>
+ *     <li>Worker processes load the classes under test from directories, which dynamic archives reject. The first worker started for a given key records
+ *     the classes it loaded, and the next worker start dumps a static archive of the classes recorded from the jars of the classpath, leaving out
+ *     the classes found in directories.</li>
+ * </ul>
+ */
+public class ClassDataSharingArchives implements Closeable {
+    private static final String GENERATION_CLAIM = "org.gradle.internal.class.data.sharing.claim";
+    private static final String CACHE_KEY = "cds";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClassDataSharingArchives.class);
+    // Enough for a process to start and lock its claim, or to dump a static archive
+    private static final long STALE_GENERATION_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static FileLock heldClaim;
+
+    private final File archivesDir;
+    private final JvmVersionDetector jvmVersionDetector;
+    private final ExecHandleFactory execHandleFactory;
+    private final FileAccessTimeJournal fileAccessTimeJournal = new ModificationTimeFileAccessTimeJournal();
+    private final PersistentCache cache;
+    private final boolean enabled;
+
+    /**
+     * Creates the archives used by the daemon client, which leaves the cleanup of the archives to the daemon.
+     */
+    public ClassDataSharingArchives(File gradleUserHomeDir, JvmVersionDetector jvmVersionDetector, ExecHandleFactory execHandleFactory, boolean enabled) {
+        this.archivesDir = new File(gradleUserHomeDir, "caches/" + GradleVersion.current().getVersion() + "/" + CACHE_KEY);
+        this.jvmVersionDetector = jvmVersionDetector;
+        this.execHandleFactory = execHandleFactory;
+        this.cache = null;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Creates the archives in the given cache repository, removing the archives not used for a while when closed.
+     */
+    public ClassDataSharingArchives(CacheRepository cacheRepository, JvmVersionDetector jvmVersionDetector, ExecHandleFactory execHandleFactory, boolean enabled) {
+        this.cache = cacheRepository
+            .cache(CACHE_KEY)
+            .withDisplayName("class data sharing archives")
+            .withLockOptions(mode(FileLockManager.LockMode.None))
+            .withCleanup(new LeastRecentlyUsedCacheCleanup(new SingleDepthFilesFinder(1), fileAccessTimeJournal, DEFAULT_MAX_AGE_IN_DAYS_FOR_RECREATABLE_CACHE_ENTRIES))
+            .open();
+        this.archivesDir = cache.getBaseDir();
+        this.jvmVersionDetector = jvmVersionDetector;
+        this.execHandleFactory = execHandleFactory;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Locks the claim of the generation of the archive of the current process, if any, until the process exits.
+     */
+    public static synchronized void holdGenerationClaim() {
+        String claim = System.getProperty(GENERATION_CLAIM);
+        if (claim == null || heldClaim != null) {
+            return;
+        }
+        try {
+            // Released by the operating system once the process has exited, which is after the archive has been dumped
+            heldClaim = new RandomAccessFile(claim, "rw").getChannel().lock();
+        } catch (IOException e) {
+            LOGGER.debug("Could not lock the claim of the generation of class data sharing archive {}.", claim, e);
+        }
+    }
+
+    /**
+     * Returns the JVM arguments to use or generate the archive for a daemon running the given Java executable with the given classpath, which loads
+     * the rest of the Gradle runtime from the given jars. Returns an empty list when the daemon cannot share class data.
+     */
+    public List<String> getDaemonJvmArgs(Collection<File> classpath, Collection<File> runtimeJars, String javaExecutable) {
+        if (!isSupported(javaExecutable)) {
+            return Collections.emptyList();
+        }
+        File archive = archiveFor("daemon", classpath, runtimeJars, javaExecutable);
+        if (archive.isFile()) {
+            return useArchive(archive);
+        }
+        File claim = claimFor(archive);
+        if (claimGeneration(claim)) {
+            LOGGER.debug("Generating class data sharing archive {}.", archive);
+            return Arrays.asList("-XX:ArchiveClassesAtExit=" + archive.getAbsolutePath(), "-Xlog:cds*=off", "-D" + GENERATION_CLAIM + "=" + claim.getAbsolutePath());
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns the JVM arguments to use or generate the archive for a worker process running the given Java executable with the given classpath.
+     * Returns an empty list when the worker cannot share class data.
+     */
+    public List<String> getWorkerJvmArgs(Collection<File> classpath, String javaExecutable) {
+        if (!isSupported(javaExecutable)) {
+            return Collections.emptyList();
+        }
+        File archive = archiveFor("worker", classpath, Collections.<File>emptyList(), javaExecutable);
+        if (archive.isFile()) {
+            return useArchive(archive);
+        }
+        String baseName = Files.getNameWithoutExtension(archive.getName());
+        File classList = new File(archivesDir, baseName + ".classlist");
+        File failedMarker = new File(archivesDir, baseName + ".failed");
+        if (failedMarker.isFile()) {
+            // Retried once the cleanup of the cache has removed the marker
+            return Collections.emptyList();
+        }
+        if (!classList.isFile()) {
+            if (claimGeneration(claimFor(classList))) {
+                LOGGER.debug("Recording the classes to archive in class data sharing archive {}.", archive);
+                return Arrays.asList("-XX:DumpLoadedClassList=" + classList.getAbsolutePath(), "-Xlog:cds*=off");
+            }
+            return Collections.emptyList();
+        }
+        // The worker which records the classes may still be running, but the classes it loaded at startup have been recorded
+        File claim = claimFor(archive);
+        if (claimGeneration(claim)) {
+            try {
+                if (!dumpStaticArchive(archive, classList, classpath, javaExecutable)) {
+                    GFileUtils.touch(failedMarker);
+                }
+            } finally {
+                GFileUtils.deleteQuietly(claim);
+            }
+            if (archive.isFile()) {
+                return useArchive(archive);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void close() {
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    private boolean isSupported(String javaExecutable) {
+        // Dynamic archives and static archives of classes from directories on the classpath need Java 13 or later
+        return enabled && jvmVersionDetector.getJavaVersion(javaExecutable) == JavaVersion.VERSION_HIGHER;
+    }
+
+    private List<String> useArchive(File archive) {
+        fileAccessTimeJournal.setLastAccessTime(archive, System.currentTimeMillis());
+        return Arrays.asList("-XX:SharedArchiveFile=" + archive.getAbsolutePath(), "-Xshare:auto", "-Xlog:cds*=off");
+    }
+
+    @VisibleForTesting
+    File archiveFor(String processKind, Collection<File> classpath, Collection<File> archivedJars, String javaExecutable) {
+        Hasher hasher = Hashing.newHasher();
+        hasher.putString(javaExecutable);
+        for (File file : classpath) {
+            hasher.putString(file.getAbsolutePath());
+            if (isJar(file)) {
+                // The content of directories is left out of the archives, so only their location matters
+                hasher.putLong(file.length());
+                hasher.putLong(file.lastModified());
+            }
+        }
+        for (File file : archivedJars) {
+            hasher.putString(file.getAbsolutePath());
+            hasher.putLong(file.length());
+            hasher.putLong(file.lastModified());
+        }
+        return new File(archivesDir, processKind + "-" + hasher.hash().toString() + ".jsa");
+    }
+
+    private static boolean isJar(File file) {
+        return file.isFile() && file.getName().endsWith(".jar");
+    }
+
+    private static File claimFor(File archive) {
+        return new File(archive.getParentFile(), archive.getName() + ".lock");
+    }
+
+    /**
+     * Claims the generation of an archive, so that only one process generates it. A claim which has not produced an archive is retried once
+     * the process which holds it has exited, or after a minute for processes which do not hold their claim.
+     */
+    private boolean claimGeneration(File claim) {
+        try {
+            GFileUtils.mkdirs(archivesDir);
+            if (claim.createNewFile()) {
+                return true;
+            }
+            if (System.currentTimeMillis() - claim.lastModified() > STALE_GENERATION_MILLIS && !isHeld(claim) && claim.delete()) {
+                return claim.createNewFile();
+            }
+            return false;
+        } catch (IOException e) {
+            LOGGER.debug("Could not claim the generation of class data sharing archive {}.", claim, e);
+            return false;
+        }
+    }
+
+    private static boolean isHeld(File claim) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(claim, "rw");
+        try {
+            FileChannel channel = file.getChannel();
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                return true;
+            }
+            lock.release();
+            return false;
+        } catch (OverlappingFileLockException e) {
+            // Held by the current process
+            return true;
+        } finally {
+            file.close();
+        }
+    }
+
+    private boolean dumpStaticArchive(File archive, File classList, Collection<File> classpath, String javaExecutable) {
+        LOGGER.debug("Dumping class data sharing archive {}.", archive);
+        File jarClassList = new File(archivesDir, classList.getName() + ".jars");
+        try {
+            writeJarClassList(classList, jarClassList, classpath);
+            List<String> commandLine = new ArrayList<String>();
+            commandLine.add(javaExecutable);
+            commandLine.add("-Xshare:dump");
+            commandLine.add("-XX:SharedClassListFile=" + jarClassList.getAbsolutePath());
+            commandLine.add("-XX:SharedArchiveFile=" + archive.getAbsolutePath());
+            commandLine.add("-cp");
+            commandLine.add(CollectionUtils.join(File.pathSeparator, classpath));
+            ExecHandleBuilder builder = execHandleFactory.newExec();
+            builder.setWorkingDir(archivesDir);
+            builder.setCommandLine(commandLine);
+            builder.setStandardOutput(NullOutputStream.INSTANCE);
+            builder.setErrorOutput(NullOutputStream.INSTANCE);
+            builder.setIgnoreExitValue(true);
+            if (builder.build().start().waitForFinish().getExitValue() == 0 && archive.isFile()) {
+                return true;
+            }
+            LOGGER.debug("Could not dump class data sharing archive {}.", archive);
+        } catch (Exception e) {
+            LOGGER.debug("Could not dump class data sharing archive {}.", archive, e);
+        } finally {
+            GFileUtils.deleteQuietly(jarClassList);
+        }
+        GFileUtils.deleteQuietly(archive);
+        return false;
+    }
+
+    /**
+     * Writes the recorded classes which are not found in a directory of the classpath, as a static archive cannot hold classes from directories.
+     */
+    private static void writeJarClassList(File classList, File jarClassList, Collection<File> classpath) throws IOException {
+        List<File> directories = new ArrayList<File>();
+        for (File file : classpath) {
+            if (file.isDirectory()) {
+                directories.add(file);
+            }
+        }
+        BufferedWriter writer = Files.newWriter(jarClassList, Charsets.UTF_8);
+        try {
+            for (String line : Files.readLines(classList, Charsets.UTF_8)) {
+                // Skips comments, and the lambda proxies which may refer to classes from directories
+                if (line.isEmpty() || line.startsWith("#") || line.startsWith("@") || isInDirectory(line, directories)) {
+                    continue;
+                }
+                writer.write(line);
+                writer.newLine();
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static boolean isInDirectory(String className, List<File> directories) {
+        for (File directory : directories) {
+            if (new File(directory, className + ".class").isFile()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
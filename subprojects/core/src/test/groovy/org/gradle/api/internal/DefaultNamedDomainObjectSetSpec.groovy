@@ -16,8 +16,10 @@
 
 package org.gradle.api.internal
 
+import org.gradle.api.Named
 import org.gradle.api.Namer
 import org.gradle.api.UnknownDomainObjectException
+import org.gradle.api.internal.provider.ProviderInternal
 import org.gradle.api.specs.Spec
 import org.gradle.internal.reflect.DirectInstantiator
 import org.gradle.internal.reflect.Instantiator
@@ -353,6 +355,87 @@ class DefaultNamedDomainObjectSetSpec extends AbstractNamedDomainObjectCollectio
         }
     }
 
+    def "filtered collection by type reflects elements added and removed after it was first queried"() {
+        def a = new BeanSub1("a")
+        def b = new BeanSub2("b")
+        def c = new BeanSub1("c")
+        def filtered = container.withType(BeanSub1)
+
+        when:
+        container.add(a)
+        container.add(b)
+
+        then:
+        filtered as List == [a]
+        filtered.names as List == ["a"]
+
+        when:
+        container.add(c)
+        container.remove(a)
+
+        then:
+        filtered as List == [c]
+        filtered.names as List == ["c"]
+        filtered.asMap == [c: c]
+        filtered.findByName("a") == null
+
+        when:
+        def iterator = container.iterator()
+        iterator.next()
+        iterator.next()
+        iterator.remove()
+
+        then:
+        container as List == [b]
+        filtered.empty
+        filtered.names.empty
+        container.withType(BeanSub2) as List == [b]
+
+        when:
+        container.clear()
+        container.add(a)
+
+        then:
+        filtered as List == [a]
+        container.withType(BeanSub2).empty
+    }
+
+    def "filtered collection by type does not realize pending elements when querying names"() {
+        def provider1 = namedProvider("a", BeanSub1)
+        def provider2 = namedProvider("b", BeanSub2)
+        def c = new BeanSub1("c")
+
+        container.addLater(provider1)
+        container.addLater(provider2)
+        container.add(c)
+
+        when:
+        def names1 = container.withType(BeanSub1).names
+        def names2 = container.withType(BeanSub2).names
+        def missing = container.withType(BeanSub2).findByName("a")
+        def matchingNames = container.withType(BeanSub1).matching { it.name != "c" }.names
+
+        then:
+        names1 as List == ["a", "c"]
+        names2 as List == ["b"]
+        missing == null
+        matchingNames as List == ["a"]
+        0 * provider1.get()
+        0 * provider1.getOrNull()
+        0 * provider2.get()
+        0 * provider2.getOrNull()
+    }
+
+    def namedProvider(String name, Class<? extends Bean> type) {
+        def provider = Mock(NamedBeanProvider)
+        _ * provider.name >> name
+        _ * provider.type >> type
+        return provider
+    }
+
+    interface NamedBeanProvider extends ProviderInternal<Bean>, Named {
+    }
+
     static class Bean {
         public final String name
         String beanProperty
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal
+
+import org.gradle.internal.classanalysis.AsmConstants
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import org.objectweb.asm.ClassReader
+import org.objectweb.asm.ClassVisitor
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import spock.lang.Specification
+
+class PersistentGeneratedClassCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def cache = new PersistentGeneratedClassCache(tmpDir.file("user-home"))
+
+    def cleanup() {
+        AbstractClassGenerator.usePersistentCache(null)
+    }
+
+    def "loads stored class bytes"() {
+        def bytes = [1, 2, 3] as byte[]
+
+        expect:
+        cache.load("key") == null
+
+        when:
+        cache.store("key", bytes)
+
+        then:
+        cache.load("key") == bytes
+        cache.load("other") == null
+    }
+
+    def "key depends on the generator and on the type"() {
+        expect:
+        def key = cache.keyFor(AsmBackedClassGenerator, PersistentBean)
+        key != null
+        key == cache.keyFor(AsmBackedClassGenerator, PersistentBean)
+        key != cache.keyFor(AsmBackedClassGenerator, OtherPersistentBean)
+        key != cache.keyFor(AbstractClassGenerator, PersistentBean)
+    }
+
+    def "does not cache types without a class file"() {
+        def type = new GroovyClassLoader(getClass().classLoader).parseClass("class ScriptBean { String prop }")
+
+        expect:
+        cache.keyFor(AsmBackedClassGenerator, type) == null
+    }
+
+    def "stores the classes generated while the cache is in use"() {
+        given:
+        AbstractClassGenerator.usePersistentCache(cache)
+
+        when:
+        def generated = new AsmBackedClassGenerator().generate(PersistentBean)
+
+        then:
+        generated.name == PersistentBean.name + "_Decorated"
+        def entry = cache.entryFileFor(cache.keyFor(AsmBackedClassGenerator, PersistentBean))
+        entry.file
+        cache.load(cache.keyFor(AsmBackedClassGenerator, PersistentBean)).length == entry.length()
+    }
+
+    def "defines the generated class from the stored byte code"() {
+        given:
+        AbstractClassGenerator.usePersistentCache(cache)
+        def key = generateAndRewriteEntry { ClassVisitor visitor -> new MarkerFieldAdder(visitor) }
+
+        when:
+        def type = isolatedBean()
+        def generated = new AsmBackedClassGenerator().generate(type)
+
+        then:
+        cache.keyFor(AsmBackedClassGenerator, type) == key
+        generated.superclass.is(type)
+        generated.classLoader.is(type.classLoader)
+        generated.declaredFields*.name.contains(MarkerFieldAdder.FIELD_NAME)
+        generated.newInstance().prop == null
+    }
+
+    def "generates the class again when the stored byte code cannot be linked"() {
+        given:
+        AbstractClassGenerator.usePersistentCache(cache)
+        def key = generateAndRewriteEntry { ClassVisitor visitor -> new MarkerFieldAdder(new SuperClassReplacer(visitor)) }
+
+        when:
+        def type = isolatedBean()
+        def generated = new AsmBackedClassGenerator().generate(type)
+
+        then:
+        generated.superclass.is(type)
+        !generated.declaredFields*.name.contains(MarkerFieldAdder.FIELD_NAME)
+
+        and:
+        def classBytes = cache.load(key)
+        !new String(classBytes, "ISO-8859-1").contains(MarkerFieldAdder.FIELD_NAME)
+        !new String(classBytes, "ISO-8859-1").contains(SuperClassReplacer.MISSING_CLASS_NAME)
+    }
+
+    /**
+     * Generates the class for a copy of {@link PersistentBean} and rewrites the byte code stored for it, returning its key.
+     */
+    private String generateAndRewriteEntry(Closure<ClassVisitor> transformer) {
+        def type = isolatedBean()
+        new AsmBackedClassGenerator().generate(type)
+        def key = cache.keyFor(AsmBackedClassGenerator, type)
+        def writer = new ClassWriter(0)
+        new ClassReader(cache.load(key)).accept(transformer.call(writer), 0)
+        cache.entryFileFor(key).bytes = writer.toByteArray()
+        return key
+    }
+
+    /**
+     * Defines a copy of {@link PersistentBean} from the same class file, which has the same cache key but has not been generated yet.
+     */
+    private Class<?> isolatedBean() {
+        return new IsolatingClassLoader(getClass().classLoader, PersistentBean.name).loadClass(PersistentBean.name)
+    }
+
+    static class IsolatingClassLoader extends ClassLoader {
+        private final String isolatedClassName
+
+        IsolatingClassLoader(ClassLoader parent, String isolatedClassName) {
+            super(parent)
+            this.isolatedClassName = isolatedClassName
+        }
+
+        @Override
+        protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name != isolatedClassName) {
+                return super.loadClass(name, resolve)
+            }
+            def loaded = findLoadedClass(name)
+            if (loaded == null) {
+                def classBytes = getResourceAsStream(name.replace('.', '/') + ".class").bytes
+                loaded = defineClass(name, classBytes, 0, classBytes.length)
+            }
+            return loaded
+        }
+    }
+
+    static class MarkerFieldAdder extends ClassVisitor {
+        static final String FIELD_NAME = "definedFromStoredByteCode"
+
+        MarkerFieldAdder(ClassVisitor visitor) {
+            super(AsmConstants.ASM_LEVEL, visitor)
+        }
+
+        @Override
+        void visitEnd() {
+            cv.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, FIELD_NAME, "Z", null, null).visitEnd()
+            super.visitEnd()
+        }
+    }
+
+    static class SuperClassReplacer extends ClassVisitor {
+        static final String MISSING_CLASS_NAME = "org/gradle/api/internal/NoLongerExists"
+
+        SuperClassReplacer(ClassVisitor visitor) {
+            super(AsmConstants.ASM_LEVEL, visitor)
+        }
+
+        @Override
+        void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            super.visit(version, access, name, signature, MISSING_CLASS_NAME, interfaces)
+        }
+    }
+}
+
+class PersistentBean {
+    String prop
+}
+
+class OtherPersistentBean {
+    String prop
+}
@@ -16,10 +16,12 @@
 package org.gradle.api.internal.project
 
 import org.gradle.api.ProjectConfigurationException
+import org.gradle.internal.resources.ProjectLeaseRegistry
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
 import org.gradle.util.ConfigureUtil
-import spock.lang.Specification
 
-class ProjectStateInternalSpec extends Specification {
+class ProjectStateInternalSpec extends ConcurrentSpec {
+    def failOnWait = [withoutProjectLock: { throw new AssertionError("should not wait") }] as ProjectLeaseRegistry
 
     def "to string representation"() {
         expect:
@@ -31,6 +33,78 @@ class ProjectStateInternalSpec extends Specification {
         stateString { failed(new ProjectConfigurationException("bang", [])); configured() } == "FAILED (bang)"
     }
 
+    def "only one thread claims the configuration of a project"() {
+        def state = new ProjectStateInternal()
+
+        expect:
+        state.startConfiguring()
+        !state.startConfiguring()
+    }
+
+    def "does not wait for a project configured by the current thread"() {
+        def state = new ProjectStateInternal()
+        state.startConfiguring()
+
+        when:
+        state.awaitConfigured(failOnWait)
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "waits for a project configured by another thread"() {
+        def state = new ProjectStateInternal()
+
+        when:
+        async {
+            start {
+                state.startConfiguring()
+                instant.claimed
+                thread.block()
+                state.configured()
+                instant.finishing
+                state.finishConfiguring()
+            }
+            start {
+                thread.blockUntil.claimed
+                state.awaitConfigured([withoutProjectLock: { Runnable action -> action.run() }] as ProjectLeaseRegistry)
+                instant.waited
+            }
+        }
+
+        then:
+        instant.waited > instant.finishing
+    }
+
+    def "does not wait for a project whose configuring thread waits for a project configured by the current thread"() {
+        def a = new ProjectStateInternal()
+        def b = new ProjectStateInternal()
+
+        when:
+        async {
+            start {
+                a.startConfiguring()
+                instant.aClaimed
+                thread.blockUntil.bWaiting
+                b.awaitConfigured(failOnWait)
+                instant.aDone
+                a.configured()
+                a.finishConfiguring()
+            }
+            start {
+                thread.blockUntil.aClaimed
+                b.startConfiguring()
+                a.awaitConfigured([withoutProjectLock: { Runnable action -> instant.bWaiting; action.run() }] as ProjectLeaseRegistry)
+                instant.bDone
+                b.configured()
+                b.finishConfiguring()
+            }
+        }
+
+        then:
+        instant.bDone > instant.aDone
+    }
+
     String stateString(@DelegatesTo(ProjectStateInternal) Closure closure) {
         def state = ConfigureUtil.configure(closure, new ProjectStateInternal())
         def matcher = state.toString() =~ /^project state '(.*?)'$/
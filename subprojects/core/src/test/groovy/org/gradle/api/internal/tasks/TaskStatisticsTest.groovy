@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks
+
+import spock.lang.Specification
+
+class TaskStatisticsTest extends Specification {
+
+    def "realizing caller is the first frame outside of the Gradle internals and the runtime"() {
+        def stack = [
+            frame("org.gradle.api.internal.tasks.DefaultTaskContainer", "realize"),
+            frame("org.gradle.internal.reflect.JavaMethod", "invoke"),
+            frame("sun.reflect.NativeMethodAccessorImpl", "invoke0"),
+            frame("org.codehaus.groovy.runtime.callsite.CallSiteArray", "defaultCall"),
+            frame("build_1234", "run"),
+            frame("org.gradle.configuration.DefaultScriptPluginFactory", "apply")
+        ]
+
+        expect:
+        TaskStatistics.realizingCaller(stack as StackTraceElement[]) == "build_1234.run(build.gradle:12)"
+    }
+
+    def "realizing caller can be a public Gradle API or a Gradle plugin"() {
+        def stack = [
+            frame("org.gradle.api.internal.DefaultDomainObjectCollection", "all"),
+            frame("org.gradle.api.plugins.JavaBasePlugin", "apply")
+        ]
+
+        expect:
+        TaskStatistics.realizingCaller(stack as StackTraceElement[]) == "org.gradle.api.plugins.JavaBasePlugin.apply(build.gradle:12)"
+    }
+
+    def "realizing caller is unknown when the whole stack is internal"() {
+        def stack = [
+            frame("org.gradle.internal.operations.DefaultBuildOperationExecutor", "run"),
+            frame("java.lang.Thread", "run")
+        ]
+
+        expect:
+        TaskStatistics.realizingCaller(stack as StackTraceElement[]) == "unknown"
+        TaskStatistics.realizingCaller(new StackTraceElement[0]) == "unknown"
+    }
+
+    private static StackTraceElement frame(String className, String methodName) {
+        return new StackTraceElement(className, methodName, "build.gradle", 12)
+    }
+}
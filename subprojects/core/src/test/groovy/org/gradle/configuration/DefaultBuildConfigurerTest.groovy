@@ -28,7 +28,8 @@ class DefaultBuildConfigurerTest extends Specification {
     private rootProject = Mock(ProjectInternal)
     private projectConfigurer = Mock(ProjectConfigurer)
     private buildRegistry = Mock(BuildStateRegistry)
-    private configurer = new DefaultBuildConfigurer(projectConfigurer, buildRegistry)
+    private configurationCache = Mock(ConfigurationCache)
+    private configurer = new DefaultBuildConfigurer(projectConfigurer, buildRegistry, configurationCache)
 
     def setup() {
         gradle.startParameter >> startParameter
@@ -51,4 +52,25 @@ class DefaultBuildConfigurerTest extends Specification {
         startParameter.isConfigureOnDemand() >> true
         1 * projectConfigurer.configure(rootProject)
     }
+
+    def "configures only the projects of the remembered task graph and their parents"() {
+        def parent = Mock(ProjectInternal)
+        def child = Mock(ProjectInternal)
+        child.parent >> parent
+        parent.parent >> rootProject
+
+        when:
+        configurer.configure(gradle)
+
+        then:
+        configurationCache.hit >> true
+        configurationCache.projectPaths >> ([":parent:child"] as Set)
+        rootProject.findProject(":parent:child") >> child
+
+        and:
+        1 * projectConfigurer.configure(rootProject)
+        1 * projectConfigurer.configure(parent)
+        1 * projectConfigurer.configure(child)
+        0 * projectConfigurer.configureHierarchy(_)
+    }
 }
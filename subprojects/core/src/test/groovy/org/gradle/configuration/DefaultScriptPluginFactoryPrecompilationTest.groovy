@@ -0,0 +1,142 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration
+
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory
+import org.gradle.api.internal.initialization.ClassLoaderScope
+import org.gradle.api.internal.initialization.RootClassLoaderScope
+import org.gradle.api.internal.initialization.ScriptHandlerFactory
+import org.gradle.api.internal.initialization.ScriptHandlerInternal
+import org.gradle.api.internal.initialization.loadercache.DummyClassLoaderCache
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectScript
+import org.gradle.api.provider.ProviderFactory
+import org.gradle.groovy.scripts.DefaultScriptCompilerFactory
+import org.gradle.groovy.scripts.ScriptRunner
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.groovy.scripts.internal.BuildScopeInMemoryCachingScriptClassCompiler
+import org.gradle.groovy.scripts.internal.BuildScriptData
+import org.gradle.groovy.scripts.internal.CompiledScript
+import org.gradle.groovy.scripts.internal.CrossBuildInMemoryCachingScriptClassCache
+import org.gradle.groovy.scripts.internal.ScriptClassCompiler
+import org.gradle.groovy.scripts.internal.ScriptRunnerFactory
+import org.gradle.internal.Factory
+import org.gradle.internal.hash.FileHasher
+import org.gradle.internal.hash.StreamHasher
+import org.gradle.internal.logging.LoggingManagerInternal
+import org.gradle.internal.reflect.Instantiator
+import org.gradle.internal.resource.TextResource
+import org.gradle.internal.resource.TextResourceLoader
+import org.gradle.model.internal.inspect.ModelRuleSourceDetector
+import org.gradle.plugin.management.internal.DefaultPluginRequests
+import org.gradle.plugin.management.internal.PluginRequests
+import org.gradle.plugin.management.internal.autoapply.AutoAppliedPluginHandler
+import org.gradle.plugin.use.internal.PluginRequestApplicator
+import org.gradle.process.internal.ExecFactory
+import spock.lang.Specification
+
+/**
+ * Compiles a build script ahead of time and then evaluates it, using the build scoped in-memory script cache and real class loader scopes.
+ */
+class DefaultScriptPluginFactoryPrecompilationTest extends Specification {
+    def crossBuildCache = Mock(CrossBuildInMemoryCachingScriptClassCache)
+    def scriptRunnerFactory = Stub(ScriptRunnerFactory) {
+        create(_, _, _) >> { CompiledScript compiledScript, ScriptSource source, ClassLoader classLoader ->
+            Stub(ScriptRunner) {
+                getData() >> compiledScript.data
+                getRunDoesSomething() >> compiledScript.runDoesSomething
+                getHasMethods() >> compiledScript.hasMethods
+            }
+        }
+    }
+    def scriptCompilerFactory = new DefaultScriptCompilerFactory(new BuildScopeInMemoryCachingScriptClassCompiler(crossBuildCache, Stub(ScriptClassCompiler)), scriptRunnerFactory)
+    def pluginRequestApplicator = Stub(PluginRequestApplicator) {
+        // Like the real applicator, locks the scope of the script once the plugins have been applied
+        applyPlugins(_, _, _, _) >> { requests, scriptHandler, pluginManager, ClassLoaderScope targetScope -> targetScope.lock() }
+    }
+    def loggingManagerFactory = Stub(Factory) {
+        create() >> Stub(LoggingManagerInternal)
+    }
+    def factory = new DefaultScriptPluginFactory(scriptCompilerFactory, loggingManagerFactory, Stub(Instantiator), Stub(ScriptHandlerFactory), pluginRequestApplicator, TestFiles.fileLookup(),
+        Stub(DirectoryFileTreeFactory), Stub(DocumentationRegistry), new ModelRuleSourceDetector(), Stub(ProviderFactory), Stub(TextResourceLoader),
+        Stub(StreamHasher), Stub(FileHasher), Stub(ExecFactory), Stub(AutoAppliedPluginHandler))
+
+    def rootScope = new RootClassLoaderScope(getClass().classLoader, getClass().classLoader, new DummyClassLoaderCache())
+    def parentProjectScope = rootScope.createChild("parent").lock()
+    def scriptSource = Stub(ScriptSource) {
+        getClassName() >> "build_child"
+        getFileName() >> "child/build.gradle"
+        getResource() >> Stub(TextResource) {
+            isContentCached() >> true
+        }
+    }
+    def project = Stub(ProjectInternal) {
+        getBuildScriptSource() >> scriptSource
+    }
+
+    def "evaluation of a build script compiled ahead of time finds both passes in the in-memory script cache"() {
+        def targetScope = parentProjectScope.createChild("buildscript")
+
+        when:
+        factory.precompileBuildScript(project, parentProjectScope)
+
+        then:
+        1 * crossBuildCache.getOrCompile(scriptSource, parentProjectScope.exportClassLoader, _, { it.id == "cp_proj" }, ProjectScript, _, _) >> compiledScript(new DefaultPluginRequests([]))
+        1 * crossBuildCache.getOrCompile(scriptSource, parentProjectScope.exportClassLoader, _, { it.id == "proj" }, ProjectScript, _, _) >> compiledScript(new BuildScriptData(true))
+        0 * crossBuildCache._
+
+        when:
+        factory.create(scriptSource, Stub(ScriptHandlerInternal), targetScope, parentProjectScope, true).apply(project)
+
+        then:
+        0 * crossBuildCache._
+
+        and:
+        targetScope.localClassLoader.is(parentProjectScope.exportClassLoader)
+    }
+
+    def "evaluation of a build script which declares plugins only finds the first pass in the in-memory script cache"() {
+        def targetScope = parentProjectScope.createChild("buildscript")
+        def plugins = Stub(PluginRequests) {
+            isEmpty() >> false
+        }
+
+        when:
+        factory.precompileBuildScript(project, parentProjectScope)
+
+        then:
+        1 * crossBuildCache.getOrCompile(scriptSource, parentProjectScope.exportClassLoader, _, { it.id == "cp_proj" }, ProjectScript, _, _) >> compiledScript(plugins)
+        0 * crossBuildCache._
+
+        when:
+        factory.create(scriptSource, Stub(ScriptHandlerInternal), targetScope, parentProjectScope, true).apply(project)
+
+        then:
+        1 * crossBuildCache.getOrCompile(scriptSource, { it.is(targetScope.localClassLoader) }, _, { it.id == "proj" }, ProjectScript, _, _) >> compiledScript(new BuildScriptData(true))
+        0 * crossBuildCache._
+    }
+
+    def compiledScript(Object data) {
+        return Stub(CompiledScript) {
+            getData() >> data
+            getRunDoesSomething() >> false
+            getHasMethods() >> false
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.project
+
+import org.gradle.api.internal.initialization.ClassLoaderScope
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectStateInternal
+import org.gradle.configuration.DefaultScriptPluginFactory
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.work.NoAvailableWorkerLeaseException
+import org.gradle.internal.work.WorkerLeaseRegistry
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class BuildScriptPrecompilerTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def scriptPluginFactory = Mock(DefaultScriptPluginFactory)
+    def executorFactory = new DefaultExecutorFactory()
+    def childLease = Mock(WorkerLeaseRegistry.WorkerLeaseCompletion)
+    def parentLease = Mock(WorkerLeaseRegistry.WorkerLease) {
+        _ * startChild() >> childLease
+    }
+    def workerLeaseRegistry = Stub(WorkerLeaseRegistry) {
+        getCurrentWorkerLease() >> parentLease
+    }
+    def precompiler = new BuildScriptPrecompiler(scriptPluginFactory, executorFactory, workerLeaseRegistry, 2)
+    def scope = Stub(ClassLoaderScope) {
+        isLocked() >> true
+    }
+    def parent = Stub(ProjectInternal) {
+        getClassLoaderScope() >> scope
+    }
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "compiles the build scripts of unconfigured children against the class loader of their parent"() {
+        def child1 = child("child1", "build.gradle")
+        def child2 = child("child2", "child2.gradle")
+        parent.getChildProjects() >> [child1: child1, child2: child2]
+
+        when:
+        precompiler.precompileChildrenOf(parent)
+        precompiler.stop()
+
+        then:
+        1 * scriptPluginFactory.precompileBuildScript(child1, scope)
+        1 * scriptPluginFactory.precompileBuildScript(child2, scope)
+    }
+
+    def "compiles each build script under a child of the worker lease of the thread which configured the parent"() {
+        def child = child("child", "build.gradle")
+        parent.getChildProjects() >> [child: child]
+
+        when:
+        precompiler.precompileChildrenOf(parent)
+        precompiler.stop()
+
+        then:
+        1 * parentLease.startChild() >> childLease
+
+        then:
+        1 * scriptPluginFactory.precompileBuildScript(child, scope)
+
+        then:
+        1 * childLease.leaseFinish()
+    }
+
+    def "does not compile build scripts when the parent was not configured by a thread holding a worker lease"() {
+        def child = child("child", "build.gradle")
+        parent.getChildProjects() >> [child: child]
+
+        when:
+        new BuildScriptPrecompiler(scriptPluginFactory, executorFactory, Stub(WorkerLeaseRegistry) {
+            getCurrentWorkerLease() >> { throw new NoAvailableWorkerLeaseException("no lease") }
+        }, 2).precompileChildrenOf(parent)
+
+        then:
+        0 * scriptPluginFactory._
+    }
+
+    def "does not compile build scripts which cannot be compiled ahead of time"() {
+        def missing = child("missing", "build.gradle", false)
+        def kotlin = child("kotlin", "build.gradle.kts")
+        def configured = child("configured", "build.gradle", true, false)
+        def otherScope = child("other", "build.gradle", true, true, Stub(ClassLoaderScope))
+        parent.getChildProjects() >> [missing: missing, kotlin: kotlin, configured: configured, other: otherScope]
+
+        when:
+        precompiler.precompileChildrenOf(parent)
+        precompiler.stop()
+
+        then:
+        0 * scriptPluginFactory._
+    }
+
+    def "does not compile the build script of a child which started to be configured while waiting for a worker lease"() {
+        def buildFile = tmpDir.file("child", "build.gradle").createFile()
+        def state = Stub(ProjectStateInternal) {
+            isUnconfigured() >>> [true, true, false]
+        }
+        def child = Stub(ProjectInternal) {
+            getBuildFile() >> buildFile
+            getBaseClassLoaderScope() >> scope
+            getState() >> state
+        }
+        parent.getChildProjects() >> [child: child]
+
+        when:
+        precompiler.precompileChildrenOf(parent)
+        precompiler.stop()
+
+        then:
+        1 * parentLease.startChild() >> childLease
+        0 * scriptPluginFactory._
+        1 * childLease.leaseFinish()
+    }
+
+    def "ignores failures to compile a build script"() {
+        def child = child("child", "build.gradle")
+        parent.getChildProjects() >> [child: child]
+
+        when:
+        precompiler.precompileChildrenOf(parent)
+        precompiler.stop()
+
+        then:
+        1 * parentLease.startChild() >> childLease
+        1 * scriptPluginFactory.precompileBuildScript(child, scope) >> { throw new RuntimeException("broken") }
+        1 * childLease.leaseFinish()
+        noExceptionThrown()
+    }
+
+    def child(String name, String buildFileName, boolean exists = true, boolean unconfigured = true, ClassLoaderScope baseScope = scope) {
+        def buildFile = tmpDir.file(name, buildFileName)
+        if (exists) {
+            buildFile.createFile()
+        }
+        def state = Stub(ProjectStateInternal) {
+            isUnconfigured() >> unconfigured
+        }
+        return Stub(ProjectInternal) {
+            getBuildFile() >> buildFile
+            getBaseClassLoaderScope() >> baseScope
+            getState() >> state
+        }
+    }
+}
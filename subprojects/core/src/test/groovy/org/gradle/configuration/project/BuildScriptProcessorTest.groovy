@@ -32,7 +32,8 @@ public class BuildScriptProcessorTest extends Specification {
     def targetScope = Mock(ClassLoaderScope)
     def baseScope = Mock(ClassLoaderScope)
     def projectState = Mock(ProjectState)
-    def BuildScriptProcessor buildScriptProcessor = new BuildScriptProcessor(configurerFactory)
+    def precompiler = Mock(BuildScriptPrecompiler)
+    def BuildScriptProcessor buildScriptProcessor = new BuildScriptProcessor(configurerFactory, precompiler)
     private ScriptHandler scriptHandler;
 
     def "setup"() {
@@ -46,11 +47,23 @@ public class BuildScriptProcessorTest extends Specification {
     }
 
     def configuresProjectUsingBuildScript() {
+        when:
+        new BuildScriptProcessor(configurerFactory, null).execute(project)
+
+        then:
+        1 * configurerFactory.create(scriptSource, scriptHandler, targetScope, baseScope, true) >> scriptPlugin
+        1 * scriptPlugin.apply(project)
+    }
+
+    def precompilesChildBuildScriptsWhenEnabled() {
         when:
         buildScriptProcessor.execute(project)
 
         then:
         1 * configurerFactory.create(scriptSource, scriptHandler, targetScope, baseScope, true) >> scriptPlugin
         1 * scriptPlugin.apply(project)
+
+        then:
+        1 * precompiler.precompileChildrenOf(project)
     }
 }
@@ -24,6 +24,7 @@ import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.api.internal.project.ProjectState
 import org.gradle.api.internal.project.ProjectStateInternal
 import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.resources.ProjectLeaseRegistry
 import org.gradle.util.Path
 import spock.lang.Specification
 
@@ -33,8 +34,9 @@ class LifecycleProjectEvaluatorTest extends Specification {
     private gradle = Mock(GradleInternal)
     private listener = Mock(ProjectEvaluationListener)
     private delegate = Mock(ProjectEvaluator)
+    private projectLeaseRegistry = Mock(ProjectLeaseRegistry)
     private buildOperationExecutor = new TestBuildOperationExecutor()
-    private evaluator = new LifecycleProjectEvaluator(buildOperationExecutor, delegate)
+    private evaluator = new LifecycleProjectEvaluator(buildOperationExecutor, delegate, projectLeaseRegistry, false)
     private state = new ProjectStateInternal()
     private mutationState = Mock(ProjectState)
 
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.execution
+
+import org.gradle.StartParameter
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.util.Path
+import spock.lang.Specification
+
+class ParallelProjectConfigurerTest extends Specification {
+    def delegate = Mock(ProjectConfigurer)
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def startParameter = new StartParameter()
+    def configurer = new ParallelProjectConfigurer(delegate, buildOperationExecutor)
+    def root = project(":")
+    def a = project(":a")
+    def b = project(":b")
+    def child = project(":a:child")
+
+    def setup() {
+        root.childProjects >> [a: a, b: b]
+        a.childProjects >> [child: child]
+        b.childProjects >> [:]
+        child.childProjects >> [:]
+    }
+
+    def "configures each project after its parent"() {
+        given:
+        startParameter.parallelProjectExecutionEnabled = true
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        1 * delegate.configure(root)
+
+        then:
+        1 * delegate.configure(a)
+
+        then:
+        1 * delegate.configure(child)
+        1 * delegate.configure(b)
+        0 * delegate._
+
+        and:
+        buildOperationExecutor.log.records*.descriptor*.displayName == [
+            "Parallel configuration of project :a",
+            "Parallel configuration of project :a:child",
+            "Parallel configuration of project :b"
+        ]
+    }
+
+    def "does not configure the children of a project which fails to configure"() {
+        given:
+        startParameter.parallelProjectExecutionEnabled = true
+        def failure = new RuntimeException()
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        1 * delegate.configure(root)
+        1 * delegate.configure(a) >> { throw failure }
+        0 * delegate.configure(child)
+        def e = thrown(RuntimeException)
+        e == failure
+    }
+
+    def "configures projects sequentially when parallel project execution is not enabled"() {
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        1 * delegate.configureHierarchy(root)
+        0 * delegate._
+
+        and:
+        buildOperationExecutor.log.records.empty
+    }
+
+    def project(String path) {
+        def gradle = Stub(GradleInternal) {
+            getStartParameter() >> startParameter
+        }
+        def project = Mock(ProjectInternal)
+        project.gradle >> gradle
+        project.identityPath >> Path.path(path)
+        return project
+    }
+}
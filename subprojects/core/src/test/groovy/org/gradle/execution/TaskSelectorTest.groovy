@@ -34,7 +34,7 @@ class TaskSelectorTest extends AbstractProjectBuilderSpec {
     }
     def resolver = Mock(TaskNameResolver)
     def projectConfigurer = Mock(ProjectConfigurer)
-    def selector = new TaskSelector(gradle, resolver, projectConfigurer)
+    def selector = new TaskSelector(gradle, resolver, projectConfigurer, false)
 
     def "qualified exclude filter configures target project and selects exact match on task name"() {
         def excluded = Stub(Task)
@@ -135,6 +135,44 @@ class TaskSelectorTest extends AbstractProjectBuilderSpec {
         filter.isSatisfiedBy(notExcluded)
     }
 
+    def "exclude filter matches registered task names without creating tasks when lazy task realization is enabled"() {
+        selector = new TaskSelector(gradle, resolver, projectConfigurer, true)
+        def selectionResult = Mock(TaskSelectionResult)
+
+        when:
+        def filter = selector.getFilter(":a:b")
+
+        then:
+        1 * projectConfigurer.configure(projectA)
+        1 * resolver.selectAll(projectA, false) >> [b: selectionResult]
+        0 * _
+
+        and:
+        !filter.isSatisfiedBy(task(projectA, "b"))
+        filter.isSatisfiedBy(task(projectA, "other"))
+        filter.isSatisfiedBy(task(projectB, "b"))
+    }
+
+    def "unqualified exclude filter matches abbreviated registered task names in subprojects when lazy task realization is enabled"() {
+        selector = new TaskSelector(gradle, resolver, projectConfigurer, true)
+
+        when:
+        def filter = selector.getFilter("cT")
+
+        then:
+        1 * projectConfigurer.configure(projectB)
+        1 * resolver.tryFindUnqualifiedTaskCheaply("cT", projectB) >> false
+        1 * projectConfigurer.configureHierarchy(projectB)
+        1 * resolver.selectAll(projectB, true) >> [compileTest: Stub(TaskSelectionResult), other: Stub(TaskSelectionResult)]
+        0 * _
+
+        and:
+        !filter.isSatisfiedBy(task(projectB, "compileTest"))
+        !filter.isSatisfiedBy(task(projectBChild, "compileTest"))
+        filter.isSatisfiedBy(task(projectA, "compileTest"))
+        filter.isSatisfiedBy(task(projectB, "other"))
+    }
+
     def task(ProjectInternal project, String name) {
         def task = Stub(TaskInternal) {
             getProject() >> project
@@ -23,12 +23,14 @@ import org.gradle.api.internal.TaskInputsInternal
 import org.gradle.api.internal.TaskInternal
 import org.gradle.api.internal.TaskOutputsInternal
 import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.tasks.DefaultTaskDependency
 import org.gradle.api.internal.tasks.TaskDestroyablesInternal
 import org.gradle.api.internal.tasks.TaskLocalStateInternal
 import org.gradle.api.internal.tasks.TaskStateInternal
 import org.gradle.api.specs.Spec
 import org.gradle.api.tasks.TaskDependency
 import org.gradle.api.tasks.TaskDestroyables
+import org.gradle.api.tasks.TaskProvider
 import org.gradle.composite.internal.IncludedBuildTaskGraph
 import org.gradle.internal.resources.ResourceLock
 import org.gradle.internal.resources.ResourceLockState
@@ -45,17 +47,18 @@ import static org.gradle.util.TextUtil.toPlatformLineSeparators
 import static org.gradle.util.WrapUtil.toList
 
 class DefaultExecutionPlanTest extends AbstractProjectBuilderSpec {
-
     DefaultExecutionPlan executionPlan
     ProjectInternal root
+    TaskNodeFactory taskNodeFactory
+    TaskDependencyResolver dependencyResolver
     def workerLeaseService = Mock(WorkerLeaseService)
     def workerLease = Mock(WorkerLeaseRegistry.WorkerLease)
 
     def setup() {
         root = createRootProject(temporaryFolder.testDirectory)
-        def taskNodeFactory = new TaskNodeFactory(root.gradle, Stub(IncludedBuildTaskGraph))
-        def dependencyResolver = new TaskDependencyResolver([new TaskNodeDependencyResolver(taskNodeFactory)])
-        executionPlan = new DefaultExecutionPlan(workerLeaseService, root.gradle, taskNodeFactory, dependencyResolver)
+        taskNodeFactory = new TaskNodeFactory(root.gradle, Stub(IncludedBuildTaskGraph))
+        dependencyResolver = new TaskDependencyResolver([new TaskNodeDependencyResolver(taskNodeFactory)])
+        executionPlan = new DefaultExecutionPlan(workerLeaseService, root.gradle, taskNodeFactory, dependencyResolver, false)
         _ * workerLeaseService.getProjectLock(_, _) >> Mock(ResourceLock) {
             _ * isLocked() >> false
             _ * tryLock() >> true
@@ -848,6 +851,92 @@ class DefaultExecutionPlanTest extends AbstractProjectBuilderSpec {
         filtered(b)
     }
 
+    @Unroll
+    def "orders a task after a registered task which is created while the graph is built when #orderingRule is deferred"() {
+        given:
+        withLazyTaskRealization()
+        def provider = root.tasks.register("b")
+        Task a = taskWithOrdering("a", orderingRule, provider)
+
+        when:
+        executionPlan.addEntryTasks([a])
+
+        then:
+        !provider.realized
+
+        when:
+        Task b = provider.get()
+        executionPlan.addEntryTasks([b])
+        executionPlan.determineExecutionPlan()
+
+        then:
+        executes(b, a)
+
+        where:
+        orderingRule << ['mustRunAfter', 'shouldRunAfter']
+    }
+
+    @Unroll
+    def "does not create a registered task which is only referenced by #orderingRule when ordering is deferred"() {
+        given:
+        withLazyTaskRealization()
+        def provider = root.tasks.register("b")
+        Task a = taskWithOrdering("a", orderingRule, provider)
+
+        when:
+        addToGraphAndPopulate([a])
+
+        then:
+        executes(a)
+        !provider.realized
+
+        where:
+        orderingRule << ['mustRunAfter', 'shouldRunAfter']
+    }
+
+    @Unroll
+    def "creates a registered task referenced by #orderingRule when ordering is not deferred"() {
+        given:
+        def provider = root.tasks.register("b")
+        Task a = taskWithOrdering("a", orderingRule, provider)
+
+        when:
+        executionPlan.addEntryTasks([a])
+
+        then:
+        provider.realized
+
+        when:
+        executionPlan.addEntryTasks([provider.get()])
+        executionPlan.determineExecutionPlan()
+
+        then:
+        executes(provider.get(), a)
+
+        where:
+        orderingRule << ['mustRunAfter', 'shouldRunAfter']
+    }
+
+    def "clear discards the deferred ordering"() {
+        given:
+        withLazyTaskRealization()
+        def provider = root.tasks.register("b")
+        Task a = taskWithOrdering("a", "mustRunAfter", provider)
+        executionPlan.addEntryTasks([a])
+        executionPlan.clear()
+
+        when:
+        Task b = provider.get()
+        addToGraphAndPopulate([b])
+
+        then:
+        executes(b)
+    }
+
+    private void withLazyTaskRealization() {
+        executionPlan = new DefaultExecutionPlan(workerLeaseService, root.gradle, taskNodeFactory, dependencyResolver, true)
+    }
+
     private void addToGraphAndPopulate(List tasks) {
         executionPlan.addEntryTasks(tasks)
         executionPlan.determineExecutionPlan()
@@ -950,6 +1039,23 @@ class DefaultExecutionPlanTest extends AbstractProjectBuilderSpec {
         finalizedBy(task, options.finalizedBy ?: [])
     }
 
+    private TaskInternal taskWithOrdering(String name, String orderingRule, TaskProvider<?> orderedAfter) {
+        def task = createTask(name)
+        def ordering = new DefaultTaskDependency(root.tasks)
+        ordering.add(orderedAfter)
+        dependsOn(task, [])
+        finalizedBy(task, [])
+        if (orderingRule == 'mustRunAfter') {
+            task.getMustRunAfter() >> ordering
+            shouldRunAfter(task, [])
+        } else {
+            mustRunAfter(task, [])
+            task.getShouldRunAfter() >> ordering
+        }
+        task.getDidWork() >> true
+        return task
+    }
+
     private TaskInternal filteredTask(final String name) {
         def task = createTask(name)
         task.getTaskDependencies() >> brokenDependencies()
@@ -29,6 +29,7 @@ import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.api.internal.project.ProjectRegistry
 import org.gradle.composite.internal.IncludedBuildControllers
 import org.gradle.configuration.BuildConfigurer
+import org.gradle.configuration.ConfigurationCache
 import org.gradle.execution.BuildConfigurationActionExecuter
 import org.gradle.execution.BuildExecuter
 import org.gradle.execution.MultipleBuildFailures
@@ -59,6 +60,7 @@ class DefaultGradleLauncherSpec extends Specification {
     def buildExecuter = Mock(BuildExecuter)
     def buildConfigurationActionExecuter = Mock(BuildConfigurationActionExecuter.class)
     def buildScopeServices = Mock(ServiceRegistry)
+    def configurationCache = Mock(ConfigurationCache)
     def cacheAccess = Mock(ExecutionHistoryCacheAccess)
 
     private ProjectInternal expectedRootProject
@@ -130,7 +132,7 @@ class DefaultGradleLauncherSpec extends Specification {
 
     DefaultGradleLauncher launcher() {
         return new DefaultGradleLauncher(gradleMock, initScriptHandlerMock, settingsLoaderMock, buildLoaderMock,
-            buildConfigurerMock, exceptionAnalyserMock, buildBroadcaster,
+            buildConfigurerMock, configurationCache, exceptionAnalyserMock, buildBroadcaster,
             modelListenerMock, buildCompletionListener, buildOperationExecutor, buildConfigurationActionExecuter, buildExecuter,
             buildServices, [otherService], includedBuildControllers, null)
     }
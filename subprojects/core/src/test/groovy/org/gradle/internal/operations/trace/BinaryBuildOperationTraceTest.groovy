@@ -0,0 +1,161 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace
+
+import org.gradle.StartParameter
+import org.gradle.api.internal.plugins.ApplyPluginBuildOperationType
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.BuildOperationDescriptor
+import org.gradle.internal.operations.DefaultBuildOperationListenerManager
+import org.gradle.internal.operations.OperationFinishEvent
+import org.gradle.internal.operations.OperationIdentifier
+import org.gradle.internal.operations.OperationStartEvent
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class BinaryBuildOperationTraceTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+
+    def listenerManager = new DefaultBuildOperationListenerManager()
+    def executorFactory = new DefaultExecutorFactory()
+    def basePath = temp.file("operations").absolutePath
+    def descriptors = [:]
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "does not register a listener when not enabled"() {
+        when:
+        def trace = new BinaryBuildOperationTrace(new StartParameter(), listenerManager, executorFactory)
+        start(1, null, 0)
+        finish(1, 10)
+        trace.stop()
+
+        then:
+        !BinaryBuildOperationTrace.traceFile(basePath).exists()
+    }
+
+    def "summarizes recorded operations"() {
+        def trace = createTrace()
+
+        when:
+        start(1, null, 0, "Run build")
+        start(2, 1, 10, "Apply plugin a", applyPlugin())
+        start(3, 1, 20, "Configure b")
+        start(4, 3, 30, "Apply plugin c", applyPlugin())
+        finish(2, 40)
+        finish(4, 80)
+        finish(3, 90, new RuntimeException("broken"))
+        finish(1, 100)
+        trace.stop()
+        def analysis = BinaryBuildOperationTraceAnalysis.analyze(BinaryBuildOperationTrace.traceFile(basePath))
+
+        then:
+        analysis.criticalPath*.displayName == ["Run build", "Configure b", "Apply plugin c"]
+        analysis.criticalPath*.failed == [false, true, false]
+        analysis.criticalPath*.duration == [100, 70, 50]
+
+        and:
+        def types = analysis.operationTypes
+        types*.type == [BinaryBuildOperationTraceAnalysis.UNTYPED, ApplyPluginBuildOperationType.name]
+        with(types[0]) {
+            count == 2
+            totalDuration == 170
+            selfDuration == 20
+            busyTime == 100
+        }
+        with(types[1]) {
+            count == 2
+            totalDuration == 80
+            selfDuration == 80
+            busyTime == 70
+            overlap == 80d / 70
+        }
+    }
+
+    def "records operations from concurrent threads"() {
+        def trace = createTrace()
+
+        when:
+        def threads = (0..<4).collect { thread ->
+            Thread.start {
+                1000.times {
+                    long id = thread * 1000 + it + 1
+                    start(id, null, it, "Operation ${it % 10}")
+                    finish(id, it + 1)
+                }
+            }
+        }
+        threads*.join()
+        trace.stop()
+        def analysis = BinaryBuildOperationTraceAnalysis.analyze(BinaryBuildOperationTrace.traceFile(basePath))
+
+        then:
+        analysis.operationTypes.size() == 1
+        analysis.operationTypes[0].count == 4000
+        analysis.operationTypes[0].totalDuration == 4000
+    }
+
+    def "reads the trace up to a partial record"() {
+        def trace = createTrace()
+        def file = BinaryBuildOperationTrace.traceFile(basePath)
+        start(1, null, 0, "Run build")
+        finish(1, 100)
+        trace.stop()
+        file.bytes = file.bytes + ([BinaryBuildOperationTrace.START_TAG, 0, 0] as byte[])
+
+        when:
+        def analysis = BinaryBuildOperationTraceAnalysis.analyze(file)
+
+        then:
+        analysis.criticalPath*.displayName == ["Run build"]
+    }
+
+    def "uses the build operation type as type of the details"() {
+        expect:
+        BinaryBuildOperationTrace.operationTypeName(applyPlugin().getClass()) == ApplyPluginBuildOperationType.name
+        BinaryBuildOperationTrace.operationTypeName(String) == String.name
+    }
+
+    private BinaryBuildOperationTrace createTrace() {
+        def startParameter = new StartParameter()
+        startParameter.systemPropertiesArgs[BinaryBuildOperationTrace.SYSPROP] = basePath
+        return new BinaryBuildOperationTrace(startParameter, listenerManager, executorFactory)
+    }
+
+    private ApplyPluginBuildOperationType.Details applyPlugin() {
+        return Stub(ApplyPluginBuildOperationType.Details)
+    }
+
+    private void start(long id, Long parentId, long startTime, String displayName = "operation", Object details = null) {
+        def descriptor = BuildOperationDescriptor.displayName(displayName).details(details).build(new OperationIdentifier(id), parentId == null ? null : new OperationIdentifier(parentId))
+        synchronized (descriptors) {
+            descriptors[id] = descriptor
+        }
+        listenerManager.broadcaster.started(descriptor, new OperationStartEvent(startTime))
+    }
+
+    private void finish(long id, long endTime, Throwable failure = null) {
+        def descriptor
+        synchronized (descriptors) {
+            descriptor = descriptors.remove(id)
+        }
+        listenerManager.broadcaster.finished(descriptor, new OperationFinishEvent(0, endTime, failure, null))
+    }
+}
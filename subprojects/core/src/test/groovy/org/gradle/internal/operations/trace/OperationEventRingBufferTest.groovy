@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace
+
+import spock.lang.Specification
+
+class OperationEventRingBufferTest extends Specification {
+
+    def "reads items in the order they were added"() {
+        def buffer = new OperationEventRingBuffer<String>(4)
+
+        when:
+        buffer.put("a")
+        buffer.put("b")
+
+        then:
+        !buffer.empty
+        buffer.poll() == "a"
+        buffer.poll() == "b"
+        buffer.poll() == null
+        buffer.empty
+    }
+
+    def "writers wait for the reader when the buffer is full"() {
+        def buffer = new OperationEventRingBuffer<Integer>(4)
+        def writers = (0..<4).collect { writer ->
+            Thread.start {
+                100.times {
+                    buffer.put(writer * 100 + it)
+                }
+            }
+        }
+        def read = []
+
+        when:
+        while (read.size() < 400) {
+            def item = buffer.poll()
+            if (item == null) {
+                Thread.yield()
+            } else {
+                read << item
+            }
+        }
+        writers*.join()
+
+        then:
+        buffer.empty
+        read.sort(false) == (0..<400).toList()
+        (0..<4).every { writer ->
+            def written = read.findAll { it.intdiv(100) == writer }
+            written == written.sort(false)
+        }
+    }
+
+    def "capacity must be a power of 2"() {
+        when:
+        new OperationEventRingBuffer<String>(3)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -17,6 +17,7 @@ package org.gradle.internal.service.scopes
 
 import org.gradle.StartParameter
 import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.InternalFlags
 import org.gradle.api.internal.artifacts.DependencyManagementServices
 import org.gradle.api.internal.plugins.PluginRegistry
 import org.gradle.api.internal.project.ProjectInternal
@@ -89,6 +90,7 @@ public class GradleScopeServicesTest extends Specification {
         parent.get(ParallelismConfigurationManager) >> new ParallelismConfigurationManagerFixture(DefaultParallelismConfiguration.DEFAULT)
         parent.get(StyledTextOutputFactory) >> new TestStyledTextOutputFactory()
         parent.get(ProjectStateRegistry) >> Stub(ProjectStateRegistry)
+        parent.get(InternalFlags) >> new InternalFlags(EnumSet.noneOf(InternalFlags.Flag))
         gradle.getStartParameter() >> startParameter
         pluginRegistryParent.createChild(_, _, _) >> pluginRegistryChild
         gradle.services >> registry
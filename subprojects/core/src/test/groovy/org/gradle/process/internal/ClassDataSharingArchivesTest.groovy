@@ -0,0 +1,184 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal
+
+import org.gradle.api.JavaVersion
+import org.gradle.internal.jvm.inspection.JvmVersionDetector
+import org.gradle.process.ExecResult
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class ClassDataSharingArchivesTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def jvmVersionDetector = Stub(JvmVersionDetector) {
+        getJavaVersion("java13") >> JavaVersion.VERSION_HIGHER
+        getJavaVersion("java11") >> JavaVersion.VERSION_11
+    }
+    def execHandleFactory = Mock(ExecHandleFactory)
+    def archives = new ClassDataSharingArchives(tmpDir.file("user-home"), jvmVersionDetector, execHandleFactory, true)
+    def classpath = [tmpDir.file("lib/launcher.jar").createFile()]
+    def runtimeJars = [tmpDir.file("lib/a.jar").createFile(), tmpDir.file("lib/b.jar").createFile()]
+
+    def "generates the daemon archive on first use and uses it afterwards"() {
+        def archive = archives.archiveFor("daemon", classpath, runtimeJars, "java13")
+        def claim = new File(archive.parentFile, archive.name + ".lock")
+
+        expect:
+        archives.getDaemonJvmArgs(classpath, runtimeJars, "java13") == [
+            "-XX:ArchiveClassesAtExit=${archive.absolutePath}".toString(),
+            "-Xlog:cds*=off",
+            "-Dorg.gradle.internal.class.data.sharing.claim=${claim.absolutePath}".toString()
+        ]
+        archives.getDaemonJvmArgs(classpath, runtimeJars, "java13").empty
+
+        when:
+        archive.createFile()
+
+        then:
+        archives.getDaemonJvmArgs(classpath, runtimeJars, "java13") == ["-XX:SharedArchiveFile=${archive.absolutePath}".toString(), "-Xshare:auto", "-Xlog:cds*=off"]
+    }
+
+    def "retries the generation of the daemon archive once the claim is stale and no longer held"() {
+        def archive = archives.archiveFor("daemon", classpath, runtimeJars, "java13")
+        def claim = new File(archive.parentFile, archive.name + ".lock")
+        archives.getDaemonJvmArgs(classpath, runtimeJars, "java13")
+
+        when:
+        claim.lastModified = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(2)
+        def channel = new RandomAccessFile(claim, "rw").channel
+        def lock = channel.lock()
+
+        then:
+        archives.getDaemonJvmArgs(classpath, runtimeJars, "java13").empty
+
+        when:
+        lock.release()
+        channel.close()
+        claim.lastModified = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(2)
+
+        then:
+        archives.getDaemonJvmArgs(classpath, runtimeJars, "java13").contains("-XX:ArchiveClassesAtExit=${archive.absolutePath}".toString())
+    }
+
+    def "uses a different daemon archive when the classpath, the runtime jars or the process changes"() {
+        def archive = archives.archiveFor("daemon", classpath, runtimeJars, "java13")
+
+        when:
+        runtimeJars[0].text = "changed"
+
+        then:
+        archives.archiveFor("daemon", classpath, runtimeJars, "java13") != archive
+        archives.archiveFor("daemon", classpath + tmpDir.file("lib/other.jar").createFile(), runtimeJars, "java13") != archives.archiveFor("daemon", classpath, runtimeJars, "java13")
+        archives.archiveFor("worker", classpath, runtimeJars, "java13") != archives.archiveFor("daemon", classpath, runtimeJars, "java13")
+        archives.archiveFor("daemon", classpath, runtimeJars, "other") != archives.archiveFor("daemon", classpath, runtimeJars, "java13")
+    }
+
+    def "records the classes of a worker with directories on its classpath and then dumps the classes from jars"() {
+        def classesDir = tmpDir.file("classes")
+        classesDir.file("org/gradle/Test.class").createFile()
+        def workerClasspath = runtimeJars + classesDir
+        def archive = archives.archiveFor("worker", workerClasspath, [], "java13")
+        def classList = new File(archive.parentFile, archive.name.replace(".jsa", ".classlist"))
+        def builder = Mock(ExecHandleBuilder)
+        def handle = Mock(ExecHandle)
+        def dumpedClasses = null
+
+        expect:
+        archives.getWorkerJvmArgs(workerClasspath, "java13") == ["-XX:DumpLoadedClassList=${classList.absolutePath}".toString(), "-Xlog:cds*=off"]
+        archives.getWorkerJvmArgs(workerClasspath, "java13").empty
+
+        when:
+        classList.text = """# comment
+java/lang/Object
+org/gradle/Test
+org/gradle/FromJar
+@lambda-proxy org/gradle/Test run
+"""
+        def args = archives.getWorkerJvmArgs(workerClasspath, "java13")
+
+        then:
+        1 * execHandleFactory.newExec() >> builder
+        1 * builder.setCommandLine({ it[0] == "java13" && it.contains("-Xshare:dump") && it.contains("-XX:SharedArchiveFile=${archive.absolutePath}".toString()) })
+        1 * builder.build() >> handle
+        1 * handle.start() >> handle
+        1 * handle.waitForFinish() >> {
+            def jarClassList = archive.parentFile.listFiles().find { it.name.endsWith(".classlist.jars") }
+            dumpedClasses = jarClassList.readLines()
+            archive.createFile()
+            Stub(ExecResult) { getExitValue() >> 0 }
+        }
+
+        and:
+        dumpedClasses == ["java/lang/Object", "org/gradle/FromJar"]
+        args == ["-XX:SharedArchiveFile=${archive.absolutePath}".toString(), "-Xshare:auto", "-Xlog:cds*=off"]
+    }
+
+    def "does not retry to dump a worker archive which could not be dumped"() {
+        def archive = archives.archiveFor("worker", runtimeJars, [], "java13")
+        new File(archive.parentFile, archive.name.replace(".jsa", ".classlist")).text = "java/lang/Object\n"
+        def builder = Mock(ExecHandleBuilder)
+        def handle = Mock(ExecHandle)
+
+        when:
+        def args = archives.getWorkerJvmArgs(runtimeJars, "java13")
+
+        then:
+        1 * execHandleFactory.newExec() >> builder
+        1 * builder.build() >> handle
+        1 * handle.start() >> handle
+        1 * handle.waitForFinish() >> Stub(ExecResult) { getExitValue() >> 1 }
+        args.empty
+
+        when:
+        args = archives.getWorkerJvmArgs(runtimeJars, "java13")
+
+        then:
+        0 * execHandleFactory._
+        args.empty
+    }
+
+    def "uses the same worker archive when the content of a directory on the classpath changes"() {
+        def classesDir = tmpDir.createDir("classes")
+        def workerClasspath = runtimeJars + classesDir
+        def archive = archives.archiveFor("worker", workerClasspath, [], "java13")
+
+        when:
+        classesDir.file("org/gradle/Test.class").createFile()
+
+        then:
+        archives.archiveFor("worker", workerClasspath, [], "java13") == archive
+    }
+
+    def "does not share class data when not supported"() {
+        expect:
+        archives.getDaemonJvmArgs(classpath, runtimeJars, "java11").empty
+        archives.getWorkerJvmArgs(runtimeJars, "java11").empty
+    }
+
+    def "does not share class data when not enabled"() {
+        archives = new ClassDataSharingArchives(tmpDir.file("user-home"), jvmVersionDetector, execHandleFactory, false)
+
+        expect:
+        archives.getDaemonJvmArgs(classpath, runtimeJars, "java13").empty
+        archives.getWorkerJvmArgs(runtimeJars, "java13").empty
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache.dynamicversions;
+
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.StaticVersionComparator;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.Version;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionRangeSelector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares selecting the newest version of a module matching a version range by sorting the listed versions for every selector,
+ * as done without a version index, with a lookup in a previously computed {@link ModuleVersionIndex}.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ModuleVersionIndexBenchmark {
+    private final VersionParser versionParser = new VersionParser();
+    private final Comparator<Version> comparator = new StaticVersionComparator();
+
+    @Param({"1000", "5000"})
+    int versionCount;
+
+    Set<String> listedVersions;
+    ModuleVersionIndex index;
+    VersionRangeSelector range;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(1234L);
+        listedVersions = new LinkedHashSet<String>();
+        while (listedVersions.size() < versionCount) {
+            String version = random.nextInt(20) + "." + random.nextInt(50) + "." + random.nextInt(100);
+            if (random.nextInt(10) == 0) {
+                version += "-rc-" + random.nextInt(5);
+            }
+            listedVersions.add(version);
+        }
+        index = ModuleVersionIndex.of(listedVersions, versionParser, comparator);
+        range = new VersionRangeSelector("[5.0,10.0)", comparator, versionParser);
+    }
+
+    @Benchmark
+    public String sortListingForEachSelector() {
+        List<Version> versions = new ArrayList<Version>(listedVersions.size());
+        for (String version : listedVersions) {
+            versions.add(versionParser.transform(version));
+        }
+        Collections.sort(versions, Collections.reverseOrder(comparator));
+        for (Version version : versions) {
+            if (range.accept(version)) {
+                return version.getSource();
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public String lookupRangeInIndex() {
+        int first = index.indexOfLatestBelow(range.getUpperBoundVersion(), range.isUpperInclusive());
+        int end = index.indexOfLatestBelow(range.getLowerBoundVersion(), !range.isLowerInclusive());
+        return first < end ? index.getVersions().get(first) : null;
+    }
+
+    @Benchmark
+    public ModuleVersionIndex buildIndex() {
+        return ModuleVersionIndex.of(listedVersions, versionParser, comparator);
+    }
+}
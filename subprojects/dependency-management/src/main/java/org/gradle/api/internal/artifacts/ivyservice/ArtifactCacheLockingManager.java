@@ -20,6 +20,8 @@ import org.gradle.cache.CacheAccess;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.internal.serialize.Serializer;
 
+import javax.annotation.Nullable;
+
 /**
  * Provides synchronized access to the artifact cache.
  */
@@ -33,4 +35,25 @@ public interface ArtifactCacheLockingManager extends CacheAccess {
      *
      */
     <K, V> PersistentIndexedCache<K, V> createCache(String cacheName, Serializer<K> keySerializer, Serializer<V> valueSerializer);
+
+    /**
+     * Runs a lookup of entries that are expected to already be present in the caches created by this manager.
+     *
+     * <p>When lock-free reads are enabled, the lookup is first run without holding the cache lock, and the caches serve entries from
+     * their published entry files. When that attempt returns {@code null}, the lookup is run again while holding the lock.
+     * Otherwise, the lookup is run once from {@link #useCache(org.gradle.internal.Factory)}.</p>
+     */
+    @Nullable
+    <T> T lookup(CacheLookup<T> lookup);
+
+    interface CacheLookup<T> {
+        /**
+         * Performs the lookup.
+         *
+         * @param locked whether the cache lock is held. When not held, the lookup must not evict entries that look inconsistent,
+         * but return {@code null} so that it is run again while holding the lock.
+         */
+        @Nullable
+        T lookup(boolean locked);
+    }
 }
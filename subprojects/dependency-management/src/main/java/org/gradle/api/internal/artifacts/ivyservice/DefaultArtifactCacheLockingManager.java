@@ -32,19 +32,37 @@ import org.gradle.cache.internal.UsedGradleVersions;
 import org.gradle.internal.Factory;
 import org.gradle.internal.resource.cached.ExternalResourceFileStore;
 import org.gradle.internal.resource.local.FileAccessTimeJournal;
+import org.gradle.internal.resource.local.ModificationTimeFileAccessTimeJournal;
 import org.gradle.internal.serialize.Serializer;
 
 import javax.annotation.Nullable;
 import java.io.Closeable;
+import java.io.File;
 
 import static org.gradle.cache.internal.LeastRecentlyUsedCacheCleanup.DEFAULT_MAX_AGE_IN_DAYS_FOR_EXTERNAL_CACHE_ENTRIES;
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 public class DefaultArtifactCacheLockingManager implements ArtifactCacheLockingManager, Closeable {
     private final PersistentCache cache;
+    private final File entriesDir;
+    // Marks entry files as used by touching them, so that lock-free lookups do not need the lock of a shared journal
+    private final FileAccessTimeJournal entryFileAccessTimeJournal = new ModificationTimeFileAccessTimeJournal();
+    private final boolean lockFreeReads;
 
     public DefaultArtifactCacheLockingManager(CacheRepository cacheRepository, ArtifactCacheMetadata cacheMetaData, FileAccessTimeJournal fileAccessTimeJournal,
                                               UsedGradleVersions usedGradleVersions) {
+        this(cacheRepository, cacheMetaData, fileAccessTimeJournal, usedGradleVersions, false);
+    }
+
+    /**
+     * Creates a manager which looks up cached entries without holding the cache lock when {@code lockFreeReads} is true. The entries are always published
+     * as entry files, so that entries written by processes without lock-free lookups are visible to them too. Lookups of entries which have not been published,
+     * for example because they are missing or were written by an older Gradle version, still take the lock.
+     */
+    public DefaultArtifactCacheLockingManager(CacheRepository cacheRepository, ArtifactCacheMetadata cacheMetaData, FileAccessTimeJournal fileAccessTimeJournal,
+                                              UsedGradleVersions usedGradleVersions, boolean lockFreeReads) {
+        this.lockFreeReads = lockFreeReads;
+        this.entriesDir = new File(cacheMetaData.getMetaDataStoreDirectory().getParentFile(), "entries");
         cache = cacheRepository
                 .cache(cacheMetaData.getCacheDir())
                 .withCrossVersionCache(CacheBuilder.LockTarget.CacheDirectory)
@@ -64,6 +82,8 @@ public class DefaultArtifactCacheLockingManager implements ArtifactCacheLockingM
                 .add(cacheMetaData.getFileStoreDirectory(),
                     UnusedVersionsCacheCleanup.create(CacheLayout.FILE_STORE.getName(), CacheLayout.FILE_STORE.getVersionMapping(), usedGradleVersions),
                     new LeastRecentlyUsedCacheCleanup(new SingleDepthFilesFinder(ArtifactIdentifierFileStore.FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP), fileAccessTimeJournal, maxAgeInDays))
+                .add(entriesDir,
+                    new LeastRecentlyUsedCacheCleanup(new SingleDepthFilesFinder(ImmutableCacheEntryFiles.FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP), entryFileAccessTimeJournal, maxAgeInDays))
                 .add(cacheMetaData.getMetaDataStoreDirectory().getParentFile(),
                     UnusedVersionsCacheCleanup.create(CacheLayout.META_DATA.getName(), CacheLayout.META_DATA.getVersionMapping(), usedGradleVersions))
                 .build();
@@ -94,37 +114,80 @@ public class DefaultArtifactCacheLockingManager implements ArtifactCacheLockingM
         cache.useCache(action);
     }
 
+    @Nullable
+    @Override
+    public <T> T lookup(final CacheLookup<T> lookup) {
+        if (lockFreeReads) {
+            T result = lookup.lookup(false);
+            if (result != null) {
+                return result;
+            }
+        }
+        return cache.useCache(new Factory<T>() {
+            @Override
+            public T create() {
+                return lookup.lookup(true);
+            }
+        });
+    }
+
     @Override
     public <K, V> PersistentIndexedCache<K, V> createCache(String cacheName, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
         String cacheFileInMetaDataStore = CacheLayout.META_DATA.getKey() + "/" + cacheName;
         final PersistentIndexedCache<K, V> persistentCache = cache.createCache(PersistentIndexedCacheParameters.of(cacheFileInMetaDataStore, keySerializer, valueSerializer));
-        return new CacheLockingPersistentCache<K, V>(persistentCache);
+        ImmutableCacheEntryFiles<K, V> entryFiles = new ImmutableCacheEntryFiles<K, V>(new File(entriesDir, cacheName), keySerializer, valueSerializer, entryFileAccessTimeJournal);
+        return new EntryPublishingPersistentCache<K, V>(persistentCache, entryFiles);
     }
 
-    private class CacheLockingPersistentCache<K, V> implements PersistentIndexedCache<K, V> {
+    /**
+     * Applies every write to the underlying cache and publishes it as an entry file while holding the lock. When lock-free reads are enabled,
+     * reads are served from the published entry files, and only take the cache lock for entries that have not been published yet.
+     */
+    private class EntryPublishingPersistentCache<K, V> implements PersistentIndexedCache<K, V> {
         private final PersistentIndexedCache<K, V> persistentCache;
+        private final ImmutableCacheEntryFiles<K, V> entryFiles;
 
-        public CacheLockingPersistentCache(PersistentIndexedCache<K, V> persistentCache) {
+        EntryPublishingPersistentCache(PersistentIndexedCache<K, V> persistentCache, ImmutableCacheEntryFiles<K, V> entryFiles) {
             this.persistentCache = persistentCache;
+            this.entryFiles = entryFiles;
         }
 
         @Nullable
         @Override
         public V get(final K key) {
+            if (lockFreeReads) {
+                V published = entryFiles.read(key);
+                if (published != null) {
+                    return published;
+                }
+            }
             return cache.useCache(new Factory<V>() {
                 @Override
                 public V create() {
-                    return persistentCache.get(key);
+                    V value = persistentCache.get(key);
+                    if (value != null && lockFreeReads) {
+                        // Written before entry files were published, or their entry file was cleaned up
+                        entryFiles.publish(key, value);
+                    }
+                    return value;
                 }
             });
         }
 
         @Override
         public V get(final K key, final Transformer<? extends V, ? super K> producer) {
+            if (lockFreeReads) {
+                V published = entryFiles.read(key);
+                if (published != null) {
+                    return published;
+                }
+            }
             return cache.useCache(new Factory<V>() {
                 @Override
                 public V create() {
-                    return persistentCache.get(key, producer);
+                    V value = persistentCache.get(key, producer);
+                    entryFiles.publish(key, value);
+                    return value;
                 }
             });
         }
@@ -135,6 +198,7 @@ public class DefaultArtifactCacheLockingManager implements ArtifactCacheLockingM
                 @Override
                 public void run() {
                     persistentCache.put(key, value);
+                    entryFiles.publish(key, value);
                 }
             });
         }
@@ -145,6 +209,7 @@ public class DefaultArtifactCacheLockingManager implements ArtifactCacheLockingM
                 @Override
                 public void run() {
                     persistentCache.remove(key);
+                    entryFiles.remove(key);
                 }
             });
         }
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.resource.local.FileAccessTimeJournal;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Stores each entry of a cache as its own file, which can be read by any process without holding the cache lock.
+ *
+ * <p>An entry file is never modified once written. Writers, which must hold the cache lock, write a new entry into a temporary file
+ * and atomically rename it over the previous entry file, so that readers see either the old or the new entry in full.
+ * Each entry file also contains the serialized key, which guards against collisions of the key hashes used as file names.</p>
+ *
+ * <p>Entry files are marked as used when read, so that they can be removed by the cleanup of the cache once unused. A removed entry file
+ * is published again the next time the entry is looked up while holding the lock.</p>
+ */
+class ImmutableCacheEntryFiles<K, V> {
+    /**
+     * The depth of the entry files below the directory holding the entry files of all caches.
+     */
+    static final int FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP = 3;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImmutableCacheEntryFiles.class);
+
+    private final File baseDir;
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final FileAccessTimeJournal fileAccessTimeJournal;
+
+    ImmutableCacheEntryFiles(File baseDir, Serializer<K> keySerializer, Serializer<V> valueSerializer, FileAccessTimeJournal fileAccessTimeJournal) {
+        this.baseDir = baseDir;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.fileAccessTimeJournal = fileAccessTimeJournal;
+    }
+
+    /**
+     * Reads the published entry for the given key, or returns null when there is none.
+     */
+    @Nullable
+    V read(K key) {
+        byte[] keyBytes = serializeKey(key);
+        File entryFile = entryFileFor(keyBytes);
+        byte[] content;
+        try {
+            content = Files.readAllBytes(entryFile.toPath());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOGGER.debug("Could not read cache entry file {}.", entryFile, e);
+            return null;
+        }
+        try {
+            KryoBackedDecoder decoder = new KryoBackedDecoder(new ByteArrayInputStream(content));
+            try {
+                if (!Arrays.equals(keyBytes, decoder.readBinary())) {
+                    return null;
+                }
+                V value = valueSerializer.read(decoder);
+                fileAccessTimeJournal.setLastAccessTime(entryFile, System.currentTimeMillis());
+                return value;
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not decode cache entry file {}.", entryFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * Publishes the given entry, replacing any previously published entry for the same key. The cache lock must be held.
+     */
+    void publish(K key, V value) {
+        byte[] keyBytes = serializeKey(key);
+        File entryFile = entryFileFor(keyBytes);
+        GFileUtils.parentMkdirs(entryFile);
+        try {
+            File tempFile = File.createTempFile(entryFile.getName(), ".tmp", entryFile.getParentFile());
+            try {
+                KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(tempFile));
+                try {
+                    encoder.writeBinary(keyBytes);
+                    valueSerializer.write(encoder, value);
+                } finally {
+                    encoder.close();
+                }
+                moveAtomically(tempFile, entryFile);
+            } finally {
+                Files.deleteIfExists(tempFile.toPath());
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    /**
+     * Removes the published entry for the given key, if any. The cache lock must be held.
+     */
+    void remove(K key) {
+        try {
+            Files.deleteIfExists(entryFileFor(serializeKey(key)).toPath());
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static void moveAtomically(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Some file systems can only replace the target atomically without the flag
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private File entryFileFor(byte[] keyBytes) {
+        String hash = Hashing.hashBytes(keyBytes).toString();
+        return new File(new File(baseDir, hash.substring(0, 2)), hash + ".bin");
+    }
+
+    private byte[] serializeKey(K key) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream);
+        try {
+            keySerializer.write(encoder, key);
+            encoder.flush();
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        return outputStream.toByteArray();
+    }
+}
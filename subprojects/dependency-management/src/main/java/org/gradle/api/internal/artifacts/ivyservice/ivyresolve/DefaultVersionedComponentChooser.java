@@ -24,7 +24,9 @@ import org.gradle.api.internal.artifacts.ComponentSelectionRulesInternal;
 import org.gradle.api.internal.artifacts.DefaultComponentSelection;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionComparator;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionRangeSelector;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelector;
+import org.gradle.api.internal.artifacts.ivyservice.modulecache.dynamicversions.ModuleVersionIndex;
 import org.gradle.api.internal.attributes.AttributeContainerInternal;
 import org.gradle.api.internal.attributes.AttributesSchemaInternal;
 import org.gradle.api.internal.attributes.ImmutableAttributes;
@@ -76,10 +78,38 @@ class DefaultVersionedComponentChooser implements VersionedComponentChooser {
     }
 
     public void selectNewestMatchingComponent(Collection<? extends ModuleComponentResolveState> versions, ComponentSelectionContext result, VersionSelector requestedVersionMatcher, VersionSelector rejectedVersionSelector, ImmutableAttributes consumerAttributes) {
+        List<ModuleComponentResolveState> candidates = sortLatestFirst(versions);
+        selectNewestMatchingComponent(candidates, 0, candidates.size(), result, requestedVersionMatcher, rejectedVersionSelector, consumerAttributes);
+    }
+
+    public void selectNewestMatchingComponent(ModuleVersionIndex versionIndex, List<? extends ModuleComponentResolveState> candidates, ComponentSelectionContext result, VersionSelector requestedVersionMatcher, VersionSelector rejectedVersionSelector, ImmutableAttributes consumerAttributes) {
+        int firstCandidate = 0;
+        int endOfCandidates = candidates.size();
+        if (requestedVersionMatcher instanceof VersionRangeSelector) {
+            // Only the candidates within the bounds of the range can match, so locate them using a binary search
+            VersionRangeSelector range = (VersionRangeSelector) requestedVersionMatcher;
+            if (range.getUpperBound() != null) {
+                firstCandidate = versionIndex.indexOfLatestBelow(range.getUpperBoundVersion(), range.isUpperInclusive());
+            }
+            if (range.getLowerBound() != null) {
+                endOfCandidates = Math.max(firstCandidate, versionIndex.indexOfLatestBelow(range.getLowerBoundVersion(), !range.isLowerInclusive()));
+            }
+        }
+        selectNewestMatchingComponent(candidates, firstCandidate, endOfCandidates, result, requestedVersionMatcher, rejectedVersionSelector, consumerAttributes);
+    }
+
+    /**
+     * Selects the newest matching component from the given candidates, sorted by LATEST first. Only the candidates from {@code firstCandidate} up to
+     * {@code endOfCandidates} are considered, the other ones are known not to match the requested version.
+     */
+    private void selectNewestMatchingComponent(List<? extends ModuleComponentResolveState> candidates, int firstCandidate, int endOfCandidates, ComponentSelectionContext result, VersionSelector requestedVersionMatcher, VersionSelector rejectedVersionSelector, ImmutableAttributes consumerAttributes) {
         Collection<SpecRuleAction<? super ComponentSelection>> rules = componentSelectionRules.getRules();
 
-        // Loop over all listed versions, sorted by LATEST first
-        for (ModuleComponentResolveState candidate : sortLatestFirst(versions)) {
+        for (int i = 0; i < firstCandidate; i++) {
+            result.notMatched(candidates.get(i).getId(), requestedVersionMatcher);
+        }
+
+        for (ModuleComponentResolveState candidate : candidates.subList(firstCandidate, endOfCandidates)) {
             DefaultMetadataProvider metadataProvider = createMetadataProvider(candidate);
 
             boolean versionMatches = versionMatches(requestedVersionMatcher, candidate, metadataProvider);
@@ -116,6 +146,11 @@ class DefaultVersionedComponentChooser implements VersionedComponentChooser {
             }
         }
 
+        // Candidates are only skipped for version ranges, which never stop at the first rejected candidate
+        for (int i = endOfCandidates; i < candidates.size(); i++) {
+            result.notMatched(candidates.get(i).getId(), requestedVersionMatcher);
+        }
+
         // if we reach this point, no match was found, either because there are no versions matching the selector
         // or all of them were rejected
         result.noMatchFound();
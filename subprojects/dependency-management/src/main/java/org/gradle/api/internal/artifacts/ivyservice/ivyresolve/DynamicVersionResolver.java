@@ -31,6 +31,8 @@ import org.gradle.api.internal.artifacts.dependencies.DefaultImmutableVersionCon
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.Version;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelector;
+import org.gradle.api.internal.artifacts.ivyservice.modulecache.dynamicversions.ModuleVersionIndex;
+import org.gradle.api.internal.artifacts.ivyservice.modulecache.dynamicversions.ModuleVersionIndexCache;
 import org.gradle.api.internal.attributes.AttributeContainerInternal;
 import org.gradle.api.internal.attributes.ImmutableAttributes;
 import org.gradle.api.internal.attributes.ImmutableAttributesFactory;
@@ -76,15 +78,17 @@ public class DynamicVersionResolver {
     private final List<String> repositoryNames = new ArrayList<String>();
     private final VersionedComponentChooser versionedComponentChooser;
     private final VersionParser versionParser;
+    private final ModuleVersionIndexCache versionIndexCache;
     private final Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory;
     private final ImmutableAttributesFactory attributesFactory;
     private final ComponentMetadataProcessorFactory componentMetadataProcessor;
     private final ComponentMetadataSupplierRuleExecutor componentMetadataSupplierRuleExecutor;
     private final CachePolicy cachePolicy;
 
-    public DynamicVersionResolver(VersionedComponentChooser versionedComponentChooser, VersionParser versionParser, Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory, ImmutableAttributesFactory attributesFactory, ComponentMetadataProcessorFactory componentMetadataProcessor, ComponentMetadataSupplierRuleExecutor componentMetadataSupplierRuleExecutor, CachePolicy cachePolicy) {
+    public DynamicVersionResolver(VersionedComponentChooser versionedComponentChooser, VersionParser versionParser, ModuleVersionIndexCache versionIndexCache, Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory, ImmutableAttributesFactory attributesFactory, ComponentMetadataProcessorFactory componentMetadataProcessor, ComponentMetadataSupplierRuleExecutor componentMetadataSupplierRuleExecutor, CachePolicy cachePolicy) {
         this.versionedComponentChooser = versionedComponentChooser;
         this.versionParser = versionParser;
+        this.versionIndexCache = versionIndexCache;
         this.metaDataFactory = metaDataFactory;
         this.attributesFactory = attributesFactory;
         this.componentMetadataProcessor = componentMetadataProcessor;
@@ -104,7 +108,7 @@ public class DynamicVersionResolver {
 
         List<RepositoryResolveState> resolveStates = Lists.newArrayListWithCapacity(repositories.size());
         for (ModuleComponentRepository repository : repositories) {
-            resolveStates.add(new RepositoryResolveState(versionedComponentChooser, dependency, repository, versionSelector, rejectedVersionSelector, versionParser, consumerAttributes, attributesFactory, componentMetadataProcessor, componentMetadataSupplierRuleExecutor, cachePolicy));
+            resolveStates.add(new RepositoryResolveState(versionedComponentChooser, dependency, repository, versionSelector, rejectedVersionSelector, versionParser, versionIndexCache, consumerAttributes, attributesFactory, componentMetadataProcessor, componentMetadataSupplierRuleExecutor, cachePolicy));
         }
 
         final RepositoryChainModuleResolution latestResolved = findLatestModule(resolveStates, errors);
@@ -247,6 +251,7 @@ public class DynamicVersionResolver {
         private final VersionSelector versionSelector;
         private final VersionSelector rejectedVersionSelector;
         private final VersionParser versionParser;
+        private final ModuleVersionIndexCache versionIndexCache;
         private final ImmutableAttributes consumerAttributes;
         private final ComponentMetadataProcessorFactory componentMetadataProcessorFactory;
         private final ImmutableAttributesFactory attributesFactory;
@@ -255,13 +260,14 @@ public class DynamicVersionResolver {
         private ModuleComponentIdentifier firstRejected = null;
 
 
-        public RepositoryResolveState(VersionedComponentChooser versionedComponentChooser, ModuleDependencyMetadata dependency, ModuleComponentRepository repository, VersionSelector versionSelector, VersionSelector rejectedVersionSelector, VersionParser versionParser, AttributeContainer consumerAttributes, ImmutableAttributesFactory attributesFactory, ComponentMetadataProcessorFactory componentMetadataProcessorFactory, ComponentMetadataSupplierRuleExecutor metadataSupplierRuleExecutor, CachePolicy cachePolicy) {
+        public RepositoryResolveState(VersionedComponentChooser versionedComponentChooser, ModuleDependencyMetadata dependency, ModuleComponentRepository repository, VersionSelector versionSelector, VersionSelector rejectedVersionSelector, VersionParser versionParser, ModuleVersionIndexCache versionIndexCache, AttributeContainer consumerAttributes, ImmutableAttributesFactory attributesFactory, ComponentMetadataProcessorFactory componentMetadataProcessorFactory, ComponentMetadataSupplierRuleExecutor metadataSupplierRuleExecutor, CachePolicy cachePolicy) {
             this.versionedComponentChooser = versionedComponentChooser;
             this.dependency = dependency;
             this.versionSelector = versionSelector;
             this.rejectedVersionSelector = rejectedVersionSelector;
             this.repository = repository;
             this.versionParser = versionParser;
+            this.versionIndexCache = versionIndexCache;
             this.componentMetadataProcessorFactory = componentMetadataProcessorFactory;
             this.attributesFactory = attributesFactory;
             this.metadataSupplierRuleExecutor = metadataSupplierRuleExecutor;
@@ -299,7 +305,8 @@ public class DynamicVersionResolver {
 
         private void selectMatchingVersionAndResolve() {
             // TODO - reuse metaData if it was already fetched to select the component from the version list
-            versionedComponentChooser.selectNewestMatchingComponent(candidates(), this, versionSelector, rejectedVersionSelector, consumerAttributes);
+            ModuleVersionIndex versionIndex = versionIndexCache.getIndex(repository, dependency.getSelector().getModuleIdentifier(), versionListingResult.result.getVersions());
+            versionedComponentChooser.selectNewestMatchingComponent(versionIndex, candidates(versionIndex), this, versionSelector, rejectedVersionSelector, consumerAttributes);
         }
 
         @Override
@@ -342,9 +349,9 @@ public class DynamicVersionResolver {
             rejectedVersions.add(new RejectedBySelectorVersion(id, versionSelector));
         }
 
-        private List<CandidateResult> candidates() {
-            List<CandidateResult> candidates = new ArrayList<CandidateResult>();
-            for (String version : versionListingResult.result.getVersions()) {
+        private List<CandidateResult> candidates(ModuleVersionIndex versionIndex) {
+            List<CandidateResult> candidates = new ArrayList<CandidateResult>(versionIndex.size());
+            for (String version : versionIndex.getVersions()) {
                 CandidateResult candidateResult = candidateComponents.get(version);
                 if (candidateResult == null) {
                     candidateResult = new CandidateResult(dependency, version, repository, attemptCollector, versionParser, componentMetadataProcessorFactory, attributesFactory, metadataSupplierRuleExecutor, cachePolicy);
@@ -376,7 +383,9 @@ public class DynamicVersionResolver {
         private final ModuleComponentRepository repository;
         private final AttemptCollector attemptCollector;
         private final ModuleDependencyMetadata dependencyMetadata;
-        private final Version version;
+        private final String version;
+        private final VersionParser versionParser;
+        private Version parsedVersion;
         private final ComponentMetadataProcessorFactory componentMetadataProcessorFactory;
         private final ImmutableAttributesFactory attributesFactory;
         private final ComponentMetadataSupplierRuleExecutor supplierRuleExecutor;
@@ -391,7 +400,8 @@ public class DynamicVersionResolver {
             this.attributesFactory = attributesFactory;
             this.supplierRuleExecutor = supplierRuleExecutor;
             this.cachePolicy = cachePolicy;
-            this.version = versionParser.transform(version);
+            this.version = version;
+            this.versionParser = versionParser;
             this.repository = repository;
             this.attemptCollector = attemptCollector;
             ModuleComponentSelector requested = dependencyMetadata.getSelector();
@@ -405,7 +415,11 @@ public class DynamicVersionResolver {
 
         @Override
         public Version getVersion() {
-            return version;
+            // Only parsed when needed, as candidates outside of a version range are never looked at
+            if (parsedVersion == null) {
+                parsedVersion = versionParser.transform(version);
+            }
+            return parsedVersion;
         }
 
         public BuildableModuleComponentMetaDataResolveResult resolve() {
@@ -453,7 +467,7 @@ public class DynamicVersionResolver {
         }
 
         private void process(ModuleComponentRepositoryAccess access, DefaultBuildableModuleComponentMetaDataResolveResult result) {
-            DependencyMetadata dependency = dependencyMetadata.withRequestedVersion(new DefaultImmutableVersionConstraint(version.getSource()));
+            DependencyMetadata dependency = dependencyMetadata.withRequestedVersion(new DefaultImmutableVersionConstraint(version));
             access.resolveComponentMetaData(identifier, DefaultComponentOverrideMetadata.forDependency(dependency), result);
             attemptCollector.execute(result);
         }
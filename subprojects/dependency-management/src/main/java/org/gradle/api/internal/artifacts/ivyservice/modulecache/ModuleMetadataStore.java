@@ -28,6 +28,7 @@ import org.gradle.internal.resource.local.PathKeyFileStore;
 import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -65,6 +66,34 @@ public class ModuleMetadataStore {
         return null;
     }
 
+    /**
+     * Reads the descriptor without holding the cache lock. Returns null when the descriptor is missing, or is being written while reading it.
+     */
+    @Nullable
+    public MutableModuleComponentResolveMetadata getModuleDescriptorIfComplete(ModuleComponentAtRepositoryKey component) {
+        String[] filePath = getFilePath(component);
+        LocallyAvailableResource resource = metaDataStore.getIfComplete(filePath);
+        if (resource == null) {
+            return null;
+        }
+        MutableModuleComponentResolveMetadata metadata;
+        try {
+            StringDeduplicatingDecoder decoder = new StringDeduplicatingDecoder(new KryoBackedDecoder(new FileInputStream(resource.getFile())), stringInterner);
+            try {
+                metadata = moduleMetadataSerializer.read(decoder, moduleIdentifierFactory);
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            return null;
+        }
+        if (metaDataStore.getIfComplete(filePath) == null) {
+            // Replaced while reading
+            return null;
+        }
+        return metadata;
+    }
+
     public LocallyAvailableResource putModuleDescriptor(ModuleComponentAtRepositoryKey component, final ModuleComponentResolveMetadata metadata) {
         String[] filePath = getFilePath(component);
         return metaDataStore.add(PATH_JOINER.join(filePath), new Action<File>() {
@@ -26,7 +26,6 @@ import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.Compone
 import org.gradle.api.internal.artifacts.repositories.metadata.IvyMutableModuleMetadataFactory;
 import org.gradle.api.internal.artifacts.repositories.metadata.MavenMutableModuleMetadataFactory;
 import org.gradle.cache.PersistentIndexedCache;
-import org.gradle.internal.Factory;
 import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
 import org.gradle.internal.component.external.model.MutableModuleComponentResolveMetadata;
 import org.gradle.internal.resource.local.DefaultPathKeyFileStore;
@@ -68,9 +67,9 @@ public class PersistentModuleMetadataCache extends AbstractModuleMetadataCache {
     @Override
     protected CachedMetadata get(ModuleComponentAtRepositoryKey key) {
         final PersistentIndexedCache<ModuleComponentAtRepositoryKey, ModuleMetadataCacheEntry> cache = getCache();
-        return artifactCacheLockingManager.useCache(new Factory<CachedMetadata>() {
+        return artifactCacheLockingManager.lookup(new ArtifactCacheLockingManager.CacheLookup<CachedMetadata>() {
             @Override
-            public CachedMetadata create() {
+            public CachedMetadata lookup(boolean locked) {
                 ModuleMetadataCacheEntry entry = cache.get(key);
                 if (entry == null) {
                     return null;
@@ -78,10 +77,18 @@ public class PersistentModuleMetadataCache extends AbstractModuleMetadataCache {
                 if (entry.isMissing()) {
                     return new DefaultCachedMetadata(entry, null, timeProvider);
                 }
-                MutableModuleComponentResolveMetadata metadata = moduleMetadataStore.getModuleDescriptor(key);
+                MutableModuleComponentResolveMetadata metadata;
+                if (locked) {
+                    metadata = moduleMetadataStore.getModuleDescriptor(key);
+                } else {
+                    // The descriptor may be in the middle of being rewritten by another process
+                    metadata = moduleMetadataStore.getModuleDescriptorIfComplete(key);
+                }
                 if (metadata == null) {
-                    // Descriptor file has been deleted - ignore the entry
-                    cache.remove(key);
+                    if (locked) {
+                        // Descriptor file has been deleted - ignore the entry
+                        cache.remove(key);
+                    }
                     return null;
                 }
                 return new DefaultCachedMetadata(entry, entry.configure(metadata), timeProvider);
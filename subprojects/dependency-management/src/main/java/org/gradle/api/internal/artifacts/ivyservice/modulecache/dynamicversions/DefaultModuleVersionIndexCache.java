@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.modulecache.dynamicversions;
+
+import com.google.common.collect.Maps;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
+import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheLockingManager;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.Version;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the version indexes in memory for the duration of the build, and persists their ordering next to the module version listings.
+ * A persisted ordering is only reused while the listing it was computed from is unchanged.
+ */
+public class DefaultModuleVersionIndexCache implements ModuleVersionIndexCache {
+    private final Map<ModuleAtRepositoryKey, ModuleVersionIndex> inMemoryCache = Maps.newConcurrentMap();
+    private final ArtifactCacheLockingManager artifactCacheLockingManager;
+    private final ImmutableModuleIdentifierFactory moduleIdentifierFactory;
+    private final VersionParser versionParser;
+    private final Comparator<Version> versionComparator;
+
+    private PersistentIndexedCache<ModuleAtRepositoryKey, List<String>> cache;
+
+    public DefaultModuleVersionIndexCache(ArtifactCacheLockingManager artifactCacheLockingManager, ImmutableModuleIdentifierFactory moduleIdentifierFactory, VersionParser versionParser, Comparator<Version> versionComparator) {
+        this.artifactCacheLockingManager = artifactCacheLockingManager;
+        this.moduleIdentifierFactory = moduleIdentifierFactory;
+        this.versionParser = versionParser;
+        this.versionComparator = versionComparator;
+    }
+
+    private PersistentIndexedCache<ModuleAtRepositoryKey, List<String>> getCache() {
+        if (cache == null) {
+            cache = initCache();
+        }
+        return cache;
+    }
+
+    private PersistentIndexedCache<ModuleAtRepositoryKey, List<String>> initCache() {
+        return artifactCacheLockingManager.createCache("module-version-index", new DefaultModuleVersionsCache.ModuleKeySerializer(moduleIdentifierFactory), new SortedVersionsSerializer());
+    }
+
+    @Override
+    public ModuleVersionIndex getIndex(ModuleComponentRepository repository, ModuleIdentifier moduleId, Set<String> listedVersions) {
+        ModuleAtRepositoryKey key = new ModuleAtRepositoryKey(repository.getId(), moduleId);
+        ModuleVersionIndex index = inMemoryCache.get(key);
+        if (index != null && index.isIndexOf(listedVersions)) {
+            return index;
+        }
+
+        List<String> storedVersions = getCache().get(key);
+        if (storedVersions != null) {
+            index = new ModuleVersionIndex(storedVersions, versionParser, versionComparator);
+            if (index.isIndexOf(listedVersions)) {
+                inMemoryCache.put(key, index);
+                return index;
+            }
+        }
+
+        index = ModuleVersionIndex.of(listedVersions, versionParser, versionComparator);
+        getCache().put(key, index.getVersions());
+        inMemoryCache.put(key, index);
+        return index;
+    }
+
+    private static class SortedVersionsSerializer extends AbstractSerializer<List<String>> {
+
+        public void write(Encoder encoder, List<String> versions) throws Exception {
+            encoder.writeSmallInt(versions.size());
+            for (String version : versions) {
+                encoder.writeString(version);
+            }
+        }
+
+        public List<String> read(Decoder decoder) throws Exception {
+            int size = decoder.readSmallInt();
+            List<String> versions = new ArrayList<String>(size);
+            for (int i = 0; i < size; i++) {
+                versions.add(decoder.readString());
+            }
+            return versions;
+        }
+    }
+}
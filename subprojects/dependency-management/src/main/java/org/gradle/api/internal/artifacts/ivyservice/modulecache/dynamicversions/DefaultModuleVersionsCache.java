@@ -60,10 +60,10 @@ public class DefaultModuleVersionsCache extends AbstractModuleVersionsCache {
         return getCache().get(key);
     }
 
-    private static class ModuleKeySerializer extends AbstractSerializer<ModuleAtRepositoryKey> {
+    static class ModuleKeySerializer extends AbstractSerializer<ModuleAtRepositoryKey> {
         private final ImmutableModuleIdentifierFactory moduleIdentifierFactory;
 
-        private ModuleKeySerializer(ImmutableModuleIdentifierFactory moduleIdentifierFactory) {
+        ModuleKeySerializer(ImmutableModuleIdentifierFactory moduleIdentifierFactory) {
             this.moduleIdentifierFactory = moduleIdentifierFactory;
         }
 
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache.dynamicversions;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.Version;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The versions listed for a module in a repository, ordered latest first.
+ *
+ * <p>Versions are only parsed when they are used, so that locating the bounds of a version range only parses the versions
+ * visited by the binary search.</p>
+ */
+public class ModuleVersionIndex {
+    private final List<String> versions;
+    private final Set<String> versionSet;
+    private final VersionParser versionParser;
+    private final Comparator<Version> comparator;
+    private final AtomicReferenceArray<Version> parsedVersions;
+
+    ModuleVersionIndex(List<String> versionsLatestFirst, VersionParser versionParser, Comparator<Version> comparator) {
+        this.versions = ImmutableList.copyOf(versionsLatestFirst);
+        this.versionSet = ImmutableSet.copyOf(versionsLatestFirst);
+        this.versionParser = versionParser;
+        this.comparator = comparator;
+        this.parsedVersions = new AtomicReferenceArray<Version>(versions.size());
+    }
+
+    /**
+     * Creates an index of the given versions, ordered using the given comparator.
+     */
+    public static ModuleVersionIndex of(Collection<String> versions, VersionParser versionParser, Comparator<Version> comparator) {
+        List<Version> parsed = new ArrayList<Version>(versions.size());
+        for (String version : versions) {
+            parsed.add(versionParser.transform(version));
+        }
+        Collections.sort(parsed, Collections.reverseOrder(comparator));
+        List<String> sorted = new ArrayList<String>(parsed.size());
+        for (Version version : parsed) {
+            sorted.add(version.getSource());
+        }
+        ModuleVersionIndex index = new ModuleVersionIndex(sorted, versionParser, comparator);
+        for (int i = 0; i < parsed.size(); i++) {
+            index.parsedVersions.set(i, parsed.get(i));
+        }
+        return index;
+    }
+
+    /**
+     * Returns the versions, latest first.
+     */
+    public List<String> getVersions() {
+        return versions;
+    }
+
+    public int size() {
+        return versions.size();
+    }
+
+    /**
+     * Returns the parsed version at the given position.
+     */
+    public Version getVersion(int index) {
+        Version version = parsedVersions.get(index);
+        if (version == null) {
+            version = versionParser.transform(versions.get(index));
+            parsedVersions.set(index, version);
+        }
+        return version;
+    }
+
+    /**
+     * Returns true when this index contains exactly the given versions.
+     */
+    public boolean isIndexOf(Set<String> listedVersions) {
+        return listedVersions.size() == versionSet.size() && versionSet.containsAll(listedVersions);
+    }
+
+    /**
+     * Returns the position of the latest version that is lower than the given version, or equal to it when {@code inclusive} is true.
+     * Returns {@link #size()} when there is no such version.
+     */
+    public int indexOfLatestBelow(Version bound, boolean inclusive) {
+        int low = 0;
+        int high = versions.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = comparator.compare(getVersion(middle), bound);
+            if (comparison < 0 || inclusive && comparison == 0) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.modulecache.dynamicversions;
+
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository;
+
+import java.util.Set;
+
+/**
+ * Caches the ordering of the versions listed for a module in a repository, so that it is not recomputed for every dynamic version selector.
+ */
+public interface ModuleVersionIndexCache {
+
+    /**
+     * Returns the index of the given listed versions, reusing a previously computed index when the listing has not changed.
+     */
+    ModuleVersionIndex getIndex(ModuleComponentRepository repository, ModuleIdentifier moduleId, Set<String> listedVersions);
+}
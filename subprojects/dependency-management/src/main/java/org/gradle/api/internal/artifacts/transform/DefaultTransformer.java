@@ -18,6 +18,8 @@ package org.gradle.api.internal.artifacts.transform;
 
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.artifacts.transform.ArtifactTransform;
+import org.gradle.api.artifacts.transform.IncrementalArtifactTransform;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.isolation.Isolatable;
 import org.gradle.internal.reflect.Instantiator;
@@ -42,12 +44,28 @@ public class DefaultTransformer implements Transformer {
 
     @Override
     public List<File> transform(File primaryInput, File outputDir) {
+        if (isIncremental()) {
+            return transformIncrementally(primaryInput, outputDir, new FullRebuildInputs(primaryInput));
+        }
         ArtifactTransform transformer = newTransformer();
         transformer.setOutputDirectory(outputDir);
         List<File> outputs = transformer.transform(primaryInput);
         return validateOutputs(primaryInput, outputDir, outputs);
     }
 
+    @Override
+    public boolean isIncremental() {
+        return IncrementalArtifactTransform.class.isAssignableFrom(implementationClass);
+    }
+
+    @Override
+    public List<File> transformIncrementally(File primaryInput, File outputDir, IncrementalTaskInputs inputChanges) {
+        IncrementalArtifactTransform transformer = (IncrementalArtifactTransform) newTransformer();
+        transformer.setOutputDirectory(outputDir);
+        List<File> outputs = transformer.transform(primaryInput, inputChanges);
+        return validateOutputs(primaryInput, outputDir, outputs);
+    }
+
     private List<File> validateOutputs(File primaryInput, File outputDir, @Nullable List<File> outputs) {
         if (outputs == null) {
             throw new InvalidUserDataException("Transform returned null result.");
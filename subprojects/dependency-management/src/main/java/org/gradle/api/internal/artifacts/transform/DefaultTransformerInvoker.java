@@ -22,13 +22,18 @@ import org.gradle.api.Describable;
 import org.gradle.api.artifacts.transform.TransformInvocationException;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.changedetection.changes.ChangesOnlyIncrementalTaskInputs;
+import org.gradle.api.internal.changedetection.changes.RebuildIncrementalTaskInputs;
 import org.gradle.api.internal.file.collections.ImmutableFileCollection;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.caching.BuildCacheKey;
 import org.gradle.caching.internal.origin.OriginMetadata;
 import org.gradle.internal.Try;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.change.Change;
+import org.gradle.internal.change.ChangeDetectorVisitor;
 import org.gradle.internal.change.ChangeVisitor;
+import org.gradle.internal.change.CollectingChangeVisitor;
 import org.gradle.internal.change.SummarizingChangeContainer;
 import org.gradle.internal.execution.CacheHandler;
 import org.gradle.internal.execution.UnitOfWork;
@@ -52,6 +57,7 @@ import org.gradle.internal.snapshot.FileSystemSnapshotter;
 import org.gradle.internal.snapshot.impl.ImplementationSnapshot;
 import org.gradle.util.GFileUtils;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -112,6 +118,14 @@ public class DefaultTransformerInvoker implements TransformerInvoker {
 
     private TransformationIdentity getImmutableTransformationIdentity(File primaryInput, Transformer transformer) {
         FileSystemLocationSnapshot snapshot = fileSystemSnapshotter.snapshot(primaryInput);
+        if (transformer.isIncremental()) {
+            return new IncrementalTransformationIdentity(
+                primaryInput.getName(),
+                snapshot.getAbsolutePath(),
+                snapshot.getHash(),
+                transformer.getSecondaryInputHash()
+            );
+        }
         return new ImmutableTransformationIdentity(
             primaryInput.getName(),
             snapshot.getAbsolutePath(),
@@ -159,14 +173,29 @@ public class DefaultTransformerInvoker implements TransformerInvoker {
 
         @Override
         public boolean execute() {
-            GFileUtils.cleanDirectory(outputDir);
+            // Detected before the results file is deleted, which would otherwise count as a modified output
+            IncrementalTaskInputs inputChanges = transformer.isIncremental() ? getInputChanges(getChangesSincePreviousExecution()) : null;
             GFileUtils.deleteFileQuietly(resultsFile);
-            ImmutableList<File> result = ImmutableList.copyOf(transformer.transform(primaryInput, outputDir));
+            ImmutableList<File> result;
+            if (inputChanges != null) {
+                result = ImmutableList.copyOf(transformer.transformIncrementally(primaryInput, outputDir, inputChanges));
+            } else {
+                GFileUtils.cleanDirectory(outputDir);
+                result = ImmutableList.copyOf(transformer.transform(primaryInput, outputDir));
+            }
             writeResultsFile(outputDir, resultsFile, result);
 
             return true;
         }
 
+        private IncrementalTaskInputs getInputChanges(Optional<ExecutionStateChanges> changes) {
+            if (!changes.isPresent() || changes.get().isRebuildRequired()) {
+                GFileUtils.cleanDirectory(outputDir);
+                return RebuildIncrementalTaskInputs.of(this, inputFileFingerprints.values());
+            }
+            return new ChangesOnlyIncrementalTaskInputs(changes.get().getInputFilesChanges());
+        }
+
         private void writeResultsFile(File outputDir, File resultsFile, ImmutableList<File> result) {
             String outputDirPrefix = outputDir.getPath() + File.separator;
             String inputFilePrefix = primaryInput.getPath() + File.separator;
@@ -323,7 +352,9 @@ public class DefaultTransformerInvoker implements TransformerInvoker {
 
             @Override
             public Iterable<Change> getInputFilesChanges() {
-                return ImmutableList.of();
+                CollectingChangeVisitor visitor = new CollectingChangeVisitor();
+                inputFileChanges.accept(visitor);
+                return visitor.getChanges();
             }
 
             @Override
@@ -333,7 +364,13 @@ public class DefaultTransformerInvoker implements TransformerInvoker {
 
             @Override
             public boolean isRebuildRequired() {
-                return true;
+                if (!transformer.isIncremental()) {
+                    return true;
+                }
+                // Outputs which were modified since the previous transformation cannot be updated incrementally
+                ChangeDetectorVisitor visitor = new ChangeDetectorVisitor();
+                outputFileChanges.accept(visitor);
+                return visitor.hasAnyChanges();
             }
 
             @Override
@@ -382,6 +419,11 @@ public class DefaultTransformerInvoker implements TransformerInvoker {
             return hasher.hash().toString();
         }
 
+        @Override
+        public boolean isMutable() {
+            return false;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) {
@@ -412,4 +454,66 @@ public class DefaultTransformerInvoker implements TransformerInvoker {
             return result;
         }
     }
+
+    /**
+     * Identifies the transformation of an input location by an incremental transformer.
+     *
+     * <p>The content of the input is not part of the {@link #getIdentity() identity}, so that the workspace and the execution history of the
+     * previous transformation are reused when the input changes. It is still part of equality, so that results are not shared in memory between different contents.</p>
+     */
+    public static class IncrementalTransformationIdentity implements TransformationIdentity {
+        private final String initialSubjectFileName;
+        private final String primaryInputAbsolutePath;
+        private final HashCode primaryInputHash;
+        private final HashCode secondaryInputHash;
+
+        public IncrementalTransformationIdentity(String initialSubjectFileName, String primaryInputAbsolutePath, HashCode primaryInputHash, HashCode secondaryInputHash) {
+            this.initialSubjectFileName = initialSubjectFileName;
+            this.primaryInputAbsolutePath = primaryInputAbsolutePath;
+            this.primaryInputHash = primaryInputHash;
+            this.secondaryInputHash = secondaryInputHash;
+        }
+
+        @Override
+        public String getInitialSubjectFileName() {
+            return initialSubjectFileName;
+        }
+
+        @Override
+        public String getIdentity() {
+            Hasher hasher = Hashing.newHasher();
+            hasher.putHash(secondaryInputHash);
+            hasher.putString(primaryInputAbsolutePath);
+            return hasher.hash().toString();
+        }
+
+        @Override
+        public boolean isMutable() {
+            return true;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            IncrementalTransformationIdentity that = (IncrementalTransformationIdentity) o;
+
+            return primaryInputHash.equals(that.primaryInputHash)
+                && secondaryInputHash.equals(that.secondaryInputHash)
+                && initialSubjectFileName.equals(that.initialSubjectFileName)
+                && primaryInputAbsolutePath.equals(that.primaryInputAbsolutePath);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = primaryInputHash.hashCode();
+            result = 31 * result + secondaryInputHash.hashCode();
+            return result;
+        }
+    }
 }
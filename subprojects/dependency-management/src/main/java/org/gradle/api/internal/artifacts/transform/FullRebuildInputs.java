@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.transform;
+
+import org.gradle.api.Action;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.api.tasks.incremental.InputFileDetails;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * The changes for a transformation from scratch, reporting the input and every file below it as out-of-date.
+ */
+class FullRebuildInputs implements IncrementalTaskInputs {
+    private final File input;
+    private boolean outOfDateProcessed;
+    private boolean removedProcessed;
+
+    FullRebuildInputs(File input) {
+        this.input = input;
+    }
+
+    @Override
+    public boolean isIncremental() {
+        return false;
+    }
+
+    @Override
+    public void outOfDate(Action<? super InputFileDetails> outOfDateAction) {
+        if (outOfDateProcessed) {
+            throw new IllegalStateException("Cannot process outOfDate files multiple times");
+        }
+        outOfDateProcessed = true;
+        visit(input, outOfDateAction);
+    }
+
+    @Override
+    public void removed(Action<? super InputFileDetails> removedAction) {
+        if (!outOfDateProcessed) {
+            throw new IllegalStateException("Must first process outOfDate files before processing removed files");
+        }
+        if (removedProcessed) {
+            throw new IllegalStateException("Cannot process removed files multiple times");
+        }
+        removedProcessed = true;
+    }
+
+    private static void visit(File file, Action<? super InputFileDetails> action) {
+        if (!file.exists()) {
+            return;
+        }
+        action.execute(new OutOfDateFile(file));
+        File[] children = file.listFiles();
+        if (children != null) {
+            Arrays.sort(children);
+            for (File child : children) {
+                visit(child, action);
+            }
+        }
+    }
+}
@@ -20,7 +20,9 @@ import com.google.common.collect.ImmutableList;
 import org.gradle.cache.CacheBuilder;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.CleanupAction;
+import org.gradle.cache.FileLock;
 import org.gradle.cache.FileLockManager;
+import org.gradle.cache.LockOptions;
 import org.gradle.cache.PersistentCache;
 import org.gradle.cache.internal.CompositeCleanupAction;
 import org.gradle.cache.internal.LeastRecentlyUsedCacheCleanup;
@@ -29,6 +31,7 @@ import org.gradle.cache.internal.SingleDepthFilesFinder;
 import org.gradle.internal.Try;
 import org.gradle.internal.resource.local.FileAccessTimeJournal;
 import org.gradle.internal.resource.local.SingleDepthFileAccessTracker;
+import org.gradle.util.GFileUtils;
 
 import java.io.Closeable;
 import java.io.File;
@@ -41,13 +44,16 @@ import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 public class GradleUserHomeWorkspaceProvider implements TransformerWorkspaceProvider, Closeable {
     private static final int FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP = 2;
+    private static final LockOptions MUTABLE_WORKSPACE_LOCK_OPTIONS = mode(FileLockManager.LockMode.Exclusive).useCrossVersionImplementation();
 
     private final SingleDepthFileAccessTracker fileAccessTracker;
     private final File filesOutputDirectory;
     private final PersistentCache cache;
-    private final ProducerGuard<TransformationIdentity> producing = ProducerGuard.adaptive();
+    private final FileLockManager fileLockManager;
+    private final ProducerGuard<File> producing = ProducerGuard.adaptive();
 
-    public GradleUserHomeWorkspaceProvider(File transformsStoreDirectory, CacheRepository cacheRepository, FileAccessTimeJournal fileAccessTimeJournal) {
+    public GradleUserHomeWorkspaceProvider(File transformsStoreDirectory, CacheRepository cacheRepository, FileAccessTimeJournal fileAccessTimeJournal, FileLockManager fileLockManager) {
+        this.fileLockManager = fileLockManager;
         filesOutputDirectory = new File(transformsStoreDirectory, TRANSFORMS_STORE.getKey());
         cache = cacheRepository
             .cache(transformsStoreDirectory)
@@ -67,11 +73,22 @@ public class GradleUserHomeWorkspaceProvider implements TransformerWorkspaceProv
 
     @Override
     public Try<ImmutableList<File>> withWorkspace(TransformationIdentity identity, BiFunction<String, File, Try<ImmutableList<File>>> useWorkspace) {
-        return producing.guardByKey(identity, () -> {
-            String identityString = identity.getIdentity();
-            File workspace = new File(filesOutputDirectory, identity.getInitialSubjectFileName() + "/" + identityString);
+        String identityString = identity.getIdentity();
+        File workspace = new File(filesOutputDirectory, identity.getInitialSubjectFileName() + "/" + identityString);
+        // Different identities can share a mutable workspace, so guard on the workspace itself
+        return producing.guardByKey(workspace, () -> {
             fileAccessTracker.markAccessed(workspace);
-            return useWorkspace.apply(identityString, workspace);
+            if (!identity.isMutable()) {
+                return useWorkspace.apply(identityString, workspace);
+            }
+            // Other processes may update the same workspace for a different content of the primary input
+            GFileUtils.mkdirs(workspace);
+            FileLock lock = fileLockManager.lock(workspace, MUTABLE_WORKSPACE_LOCK_OPTIONS, "artifact transform workspace " + workspace);
+            try {
+                return useWorkspace.apply(identityString, workspace);
+            } finally {
+                lock.close();
+            }
         });
     }
 
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.transform;
+
+import org.gradle.api.tasks.incremental.InputFileDetails;
+
+import java.io.File;
+
+/**
+ * A file reported as out-of-date without knowing how it changed.
+ */
+class OutOfDateFile implements InputFileDetails {
+    private final File file;
+
+    OutOfDateFile(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public boolean isAdded() {
+        return false;
+    }
+
+    @Override
+    public boolean isModified() {
+        return false;
+    }
+
+    @Override
+    public boolean isRemoved() {
+        return false;
+    }
+
+    @Override
+    public File getFile() {
+        return file;
+    }
+}
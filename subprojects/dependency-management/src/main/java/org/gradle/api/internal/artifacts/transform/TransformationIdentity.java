@@ -19,4 +19,9 @@ package org.gradle.api.internal.artifacts.transform;
 public interface TransformationIdentity {
     String getInitialSubjectFileName();
     String getIdentity();
+
+    /**
+     * Whether the workspace identified by {@link #getIdentity()} is reused when the content of the primary input changes, and is then updated in place.
+     */
+    boolean isMutable();
 }
@@ -16,9 +16,11 @@
 
 package org.gradle.api.internal.artifacts.transform;
 
+import com.google.common.collect.ImmutableList;
 import org.gradle.internal.operations.BuildOperationCategory;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationQueue;
 import org.gradle.internal.operations.RunnableBuildOperation;
 
 import java.io.File;
@@ -35,6 +37,22 @@ class TransformationOperation implements RunnableBuildOperation {
         this.subject = subject;
     }
 
+    /**
+     * Adds the transformation to the given queue.
+     *
+     * <p>The steps of a {@link TransformationChain} are added as separate operations, each one once the previous step has completed,
+     * so that the steps for different subjects are interleaved on all workers instead of running the whole chain on a single worker.</p>
+     */
+    void schedule(BuildOperationQueue<RunnableBuildOperation> queue) {
+        if (transformation instanceof TransformationChain) {
+            ImmutableList.Builder<TransformationStep> steps = ImmutableList.builder();
+            transformation.visitTransformationSteps(steps::add);
+            queue.add(new StepOperation(steps.build(), 0, subject, queue));
+        } else {
+            queue.add(this);
+        }
+    }
+
     @Override
     public void run(@Nullable BuildOperationContext context) {
         result = transformation.transform(subject);
@@ -42,10 +60,7 @@ class TransformationOperation implements RunnableBuildOperation {
 
     @Override
     public BuildOperationDescriptor.Builder description() {
-        String displayName = "Transform " + subject.getDisplayName() + " with " + transformation.getDisplayName();
-        return BuildOperationDescriptor.displayName(displayName)
-            .progressDisplayName(displayName)
-            .operationType(BuildOperationCategory.UNCATEGORIZED);
+        return describe(subject, transformation);
     }
 
     @Nullable
@@ -57,4 +72,46 @@ class TransformationOperation implements RunnableBuildOperation {
     public List<File> getResult() {
         return result.getFiles();
     }
+
+    private static BuildOperationDescriptor.Builder describe(TransformationSubject subject, Transformation transformation) {
+        String displayName = "Transform " + subject.getDisplayName() + " with " + transformation.getDisplayName();
+        return BuildOperationDescriptor.displayName(displayName)
+            .progressDisplayName(displayName)
+            .operationType(BuildOperationCategory.UNCATEGORIZED);
+    }
+
+    private class StepOperation implements RunnableBuildOperation {
+        private final List<TransformationStep> steps;
+        private final int index;
+        private final TransformationSubject input;
+        private final BuildOperationQueue<RunnableBuildOperation> queue;
+
+        StepOperation(List<TransformationStep> steps, int index, TransformationSubject input, BuildOperationQueue<RunnableBuildOperation> queue) {
+            this.steps = steps;
+            this.index = index;
+            this.input = input;
+            this.queue = queue;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            TransformationSubject output = steps.get(index).transform(input);
+            int next = index + 1;
+            // Cached results are cheap to retrieve, so there is no point in scheduling them
+            while (next < steps.size() && steps.get(next).hasCachedResult(output)) {
+                output = steps.get(next).transform(output);
+                next++;
+            }
+            if (next < steps.size() && output.getFailure() == null) {
+                queue.add(new StepOperation(steps, next, output, queue));
+            } else {
+                result = output;
+            }
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return describe(input, steps.get(index));
+        }
+    }
 }
@@ -18,6 +18,7 @@ package org.gradle.api.internal.artifacts.transform;
 
 import org.gradle.api.Describable;
 import org.gradle.api.artifacts.transform.ArtifactTransform;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.internal.hash.HashCode;
 
 import java.io.File;
@@ -33,6 +34,17 @@ public interface Transformer extends Describable {
 
     List<File> transform(File file, File file2);
 
+    /**
+     * Whether the transformer processes the changes to its primary input incrementally, using {@link #transformIncrementally(File, File, IncrementalTaskInputs)}.
+     */
+    boolean isIncremental();
+
+    /**
+     * Transforms the primary input, given the changes to it since the previous transformation into the same output directory.
+     * Only called when {@link #isIncremental()} returns {@code true}.
+     */
+    List<File> transformIncrementally(File primaryInput, File outputDir, IncrementalTaskInputs inputChanges);
+
     /**
      * The hash of the secondary inputs of the transformer.
      *
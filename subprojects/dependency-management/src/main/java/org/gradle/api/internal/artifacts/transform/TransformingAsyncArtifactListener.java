@@ -71,7 +71,7 @@ class TransformingAsyncArtifactListener implements ResolvedArtifactSet.AsyncArti
         if (transformation.hasCachedResult(initialSubject)) {
             operation.run(null);
         } else {
-            actions.add(operation);
+            operation.schedule(actions);
         }
     }
 }
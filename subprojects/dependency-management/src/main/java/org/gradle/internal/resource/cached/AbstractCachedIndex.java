@@ -18,7 +18,6 @@ package org.gradle.internal.resource.cached;
 
 import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheLockingManager;
 import org.gradle.cache.PersistentIndexedCache;
-import org.gradle.internal.Factory;
 import org.gradle.internal.resource.local.FileAccessTracker;
 import org.gradle.internal.serialize.Serializer;
 
@@ -56,15 +55,17 @@ public abstract class AbstractCachedIndex<K, V extends CachedItem> {
     public V lookup(final K key) {
         assertKeyNotNull(key);
 
-        V result = artifactCacheLockingManager.useCache(new Factory<V>() {
-            public V create() {
+        V result = artifactCacheLockingManager.lookup(new ArtifactCacheLockingManager.CacheLookup<V>() {
+            public V lookup(boolean locked) {
                 V found = getPersistentCache().get(key);
                 if (found == null) {
                     return null;
                 } else if (found.isMissing() || found.getCachedFile().exists()) {
                     return found;
                 } else {
-                    clear(key);
+                    if (locked) {
+                        clear(key);
+                    }
                     return null;
                 }
             }
@@ -63,8 +63,13 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
     private final ExternalResourceCachePolicy externalResourceCachePolicy;
     private final ProducerGuard<ExternalResourceName> producerGuard;
     private final FileResourceRepository fileResourceRepository;
+    private final ExternalResourceDownloadScheduler downloadScheduler;
 
     public DefaultCacheAwareExternalResourceAccessor(ExternalResourceRepository delegate, CachedExternalResourceIndex<String> cachedExternalResourceIndex, BuildCommencedTimeProvider timeProvider, TemporaryFileProvider temporaryFileProvider, ArtifactCacheLockingManager artifactCacheLockingManager, ExternalResourceCachePolicy externalResourceCachePolicy, ProducerGuard<ExternalResourceName> producerGuard, FileResourceRepository fileResourceRepository) {
+        this(delegate, cachedExternalResourceIndex, timeProvider, temporaryFileProvider, artifactCacheLockingManager, externalResourceCachePolicy, producerGuard, fileResourceRepository, ExternalResourceDownloadScheduler.IMMEDIATE);
+    }
+
+    public DefaultCacheAwareExternalResourceAccessor(ExternalResourceRepository delegate, CachedExternalResourceIndex<String> cachedExternalResourceIndex, BuildCommencedTimeProvider timeProvider, TemporaryFileProvider temporaryFileProvider, ArtifactCacheLockingManager artifactCacheLockingManager, ExternalResourceCachePolicy externalResourceCachePolicy, ProducerGuard<ExternalResourceName> producerGuard, FileResourceRepository fileResourceRepository, ExternalResourceDownloadScheduler downloadScheduler) {
         this.delegate = delegate;
         this.cachedExternalResourceIndex = cachedExternalResourceIndex;
         this.timeProvider = timeProvider;
@@ -73,6 +78,7 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
         this.externalResourceCachePolicy = externalResourceCachePolicy;
         this.producerGuard = producerGuard;
         this.fileResourceRepository = fileResourceRepository;
+        this.downloadScheduler = downloadScheduler;
     }
 
     @Nullable
@@ -86,7 +92,7 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
 
                 // If we have no caching options, just get the thing directly
                 if (cached == null && (additionalCandidates == null || additionalCandidates.isNone())) {
-                    return copyToCache(location, fileStore, delegate.withProgressLogging().resource(location));
+                    return scheduleCopyToCache(location, fileStore, null, delegate.withProgressLogging().resource(location));
                 }
 
                 // We might be able to use a cached/locally available version
@@ -151,7 +157,7 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
                 }
 
                 // All local/cached options failed, get directly
-                return copyToCache(location, fileStore, delegate.withProgressLogging().resource(location, revalidate));
+                return scheduleCopyToCache(location, fileStore, remoteMetaData, delegate.withProgressLogging().resource(location, revalidate));
             }
         });
     }
@@ -192,6 +198,15 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
         }
     }
 
+    private LocallyAvailableExternalResource scheduleCopyToCache(final ExternalResourceName location, final ResourceFileStore fileStore, @Nullable ExternalResourceMetaData knownMetaData, final ExternalResource resource) {
+        return downloadScheduler.download(location, knownMetaData, new Factory<LocallyAvailableExternalResource>() {
+            @Override
+            public LocallyAvailableExternalResource create() {
+                return copyToCache(location, fileStore, resource);
+            }
+        });
+    }
+
     private LocallyAvailableExternalResource copyToCache(final ExternalResourceName source, final ResourceFileStore fileStore, final ExternalResource resource) {
         // Download to temporary location
         DownloadAction downloadAction = new DownloadAction(source);
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transfer;
+
+import org.gradle.internal.operations.BuildOperationType;
+
+/**
+ * A download of an external resource from a repository, scheduled by a host limiting {@link ExternalResourceDownloadScheduler}.
+ *
+ * @since 5.1
+ */
+public final class DownloadFromRepositoryBuildOperationType implements BuildOperationType<DownloadFromRepositoryBuildOperationType.Details, DownloadFromRepositoryBuildOperationType.Result> {
+
+    public interface Details {
+
+        /**
+         * The name of the repository the resource is downloaded from.
+         */
+        String getRepositoryName();
+
+        /**
+         * The host the resource is downloaded from.
+         */
+        String getHost();
+
+        /**
+         * The location of the resource.
+         * A valid URI.
+         */
+        String getLocation();
+
+        /**
+         * The expected size of the resource in bytes, or -1 when unknown.
+         */
+        long getExpectedSize();
+
+    }
+
+    public interface Result {
+
+        /**
+         * The number of bytes that were downloaded.
+         */
+        long getBytesDownloaded();
+
+        /**
+         * The time spent waiting for a download slot on the host, in milliseconds.
+         */
+        long getQueuedTimeMillis();
+
+        /**
+         * The time spent downloading, in milliseconds.
+         */
+        long getDownloadTimeMillis();
+
+        /**
+         * The download throughput in bytes per second, or 0 when nothing was downloaded.
+         */
+        long getBytesPerSecond();
+
+    }
+
+    private DownloadFromRepositoryBuildOperationType() {
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transfer;
+
+import org.gradle.internal.Factory;
+import org.gradle.internal.resource.ExternalResourceName;
+import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
+import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
+
+import javax.annotation.Nullable;
+
+/**
+ * Decides when a download of an external resource from a repository may start.
+ */
+public interface ExternalResourceDownloadScheduler {
+    /**
+     * Runs every download immediately, in the calling thread.
+     */
+    ExternalResourceDownloadScheduler IMMEDIATE = new ExternalResourceDownloadScheduler() {
+        @Override
+        public LocallyAvailableExternalResource download(ExternalResourceName location, @Nullable ExternalResourceMetaData knownMetaData, Factory<LocallyAvailableExternalResource> download) {
+            return download.create();
+        }
+    };
+
+    /**
+     * Runs the given download in the calling thread, once the scheduler allows it to start.
+     *
+     * @param location the location of the resource to download.
+     * @param knownMetaData the meta-data of the resource, when already fetched from the repository. Used to estimate the size of the download.
+     * @param download performs the actual download.
+     * @return the result of the download.
+     */
+    @Nullable
+    LocallyAvailableExternalResource download(ExternalResourceName location, @Nullable ExternalResourceMetaData knownMetaData, Factory<LocallyAvailableExternalResource> download);
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transfer;
+
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.CallableBuildOperation;
+import org.gradle.internal.resource.ExternalResourceName;
+import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
+import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
+
+import javax.annotation.Nullable;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Creates {@link ExternalResourceDownloadScheduler} instances that share a budget of concurrent downloads per host.
+ *
+ * <p>When more downloads are waiting for a host than the budget allows, the download with the largest expected size is started first,
+ * so that large artifacts do not end up as the tail of a resolution. Each scheduled download is reported as a
+ * {@link DownloadFromRepositoryBuildOperationType} build operation, which carries the repository name and the achieved throughput.</p>
+ *
+ * <p>Scheduling is disabled unless the {@value #MAX_CONCURRENT_DOWNLOADS_PER_HOST} system property is set to a positive value.</p>
+ */
+public class HostLimitingDownloadSchedulerFactory {
+    public static final String MAX_CONCURRENT_DOWNLOADS_PER_HOST = "org.gradle.internal.repository.max.concurrent.downloads.per.host";
+
+    private final int maxConcurrentDownloadsPerHost;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final ConcurrentMap<String, HostDownloadSlots> hosts = new ConcurrentHashMap<String, HostDownloadSlots>();
+
+    public HostLimitingDownloadSchedulerFactory(BuildOperationExecutor buildOperationExecutor) {
+        this(Integer.getInteger(MAX_CONCURRENT_DOWNLOADS_PER_HOST, 0), buildOperationExecutor);
+    }
+
+    public HostLimitingDownloadSchedulerFactory(int maxConcurrentDownloadsPerHost, BuildOperationExecutor buildOperationExecutor) {
+        this.maxConcurrentDownloadsPerHost = maxConcurrentDownloadsPerHost;
+        this.buildOperationExecutor = buildOperationExecutor;
+    }
+
+    public boolean isEnabled() {
+        return maxConcurrentDownloadsPerHost > 0;
+    }
+
+    public ExternalResourceDownloadScheduler forRepository(String repositoryName) {
+        if (!isEnabled()) {
+            return ExternalResourceDownloadScheduler.IMMEDIATE;
+        }
+        return new RepositoryDownloadScheduler(repositoryName);
+    }
+
+    private HostDownloadSlots slotsFor(String host) {
+        HostDownloadSlots slots = hosts.get(host);
+        if (slots == null) {
+            slots = new HostDownloadSlots(maxConcurrentDownloadsPerHost);
+            HostDownloadSlots previous = hosts.putIfAbsent(host, slots);
+            if (previous != null) {
+                slots = previous;
+            }
+        }
+        return slots;
+    }
+
+    private static String hostOf(ExternalResourceName location) {
+        String host = location.getUri().getHost();
+        return host == null ? "" : host;
+    }
+
+    private class RepositoryDownloadScheduler implements ExternalResourceDownloadScheduler {
+        private final String repositoryName;
+
+        RepositoryDownloadScheduler(String repositoryName) {
+            this.repositoryName = repositoryName;
+        }
+
+        @Nullable
+        @Override
+        public LocallyAvailableExternalResource download(final ExternalResourceName location, @Nullable ExternalResourceMetaData knownMetaData, final Factory<LocallyAvailableExternalResource> download) {
+            final String host = hostOf(location);
+            final long expectedSize = knownMetaData == null ? -1 : knownMetaData.getContentLength();
+            return buildOperationExecutor.call(new CallableBuildOperation<LocallyAvailableExternalResource>() {
+                @Override
+                public LocallyAvailableExternalResource call(BuildOperationContext context) {
+                    HostDownloadSlots slots = slotsFor(host);
+                    Timer timer = Time.startTimer();
+                    slots.acquire(expectedSize);
+                    long queuedTime = timer.getElapsedMillis();
+                    LocallyAvailableExternalResource resource;
+                    try {
+                        timer.reset();
+                        resource = download.create();
+                    } finally {
+                        slots.release();
+                    }
+                    long bytesDownloaded = resource == null ? 0 : resource.getFile().length();
+                    context.setResult(new DownloadResult(bytesDownloaded, queuedTime, timer.getElapsedMillis()));
+                    return resource;
+                }
+
+                @Override
+                public BuildOperationDescriptor.Builder description() {
+                    return BuildOperationDescriptor.displayName("Download " + location.getDisplayName() + " from " + repositoryName)
+                        .progressDisplayName(location.getShortDisplayName())
+                        .details(new DownloadDetails(repositoryName, host, location.getUri().toASCIIString(), expectedSize));
+                }
+            });
+        }
+    }
+
+    /**
+     * The download slots of a single host. Waiting downloads are granted a slot largest expected size first, and in arrival order for equal sizes.
+     */
+    private static class HostDownloadSlots {
+        private final int maxConcurrentDownloads;
+        private final PriorityQueue<PendingDownload> pending = new PriorityQueue<PendingDownload>();
+        private int activeDownloads;
+        private long nextSequenceNumber;
+
+        HostDownloadSlots(int maxConcurrentDownloads) {
+            this.maxConcurrentDownloads = maxConcurrentDownloads;
+        }
+
+        synchronized void acquire(long expectedSize) {
+            PendingDownload download = new PendingDownload(expectedSize, nextSequenceNumber++);
+            pending.add(download);
+            try {
+                while (activeDownloads >= maxConcurrentDownloads || pending.peek() != download) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                pending.remove(download);
+                notifyAll();
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            pending.poll();
+            activeDownloads++;
+            // The next pending download may be able to start as well
+            notifyAll();
+        }
+
+        synchronized void release() {
+            activeDownloads--;
+            notifyAll();
+        }
+    }
+
+    private static class PendingDownload implements Comparable<PendingDownload> {
+        private final long expectedSize;
+        private final long sequenceNumber;
+
+        PendingDownload(long expectedSize, long sequenceNumber) {
+            this.expectedSize = expectedSize;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        @Override
+        public int compareTo(PendingDownload other) {
+            int diff = Long.compare(other.expectedSize, expectedSize);
+            if (diff != 0) {
+                return diff;
+            }
+            return Long.compare(sequenceNumber, other.sequenceNumber);
+        }
+    }
+
+    private static class DownloadDetails implements DownloadFromRepositoryBuildOperationType.Details {
+        private final String repositoryName;
+        private final String host;
+        private final String location;
+        private final long expectedSize;
+
+        DownloadDetails(String repositoryName, String host, String location, long expectedSize) {
+            this.repositoryName = repositoryName;
+            this.host = host;
+            this.location = location;
+            this.expectedSize = expectedSize;
+        }
+
+        @Override
+        public String getRepositoryName() {
+            return repositoryName;
+        }
+
+        @Override
+        public String getHost() {
+            return host;
+        }
+
+        @Override
+        public String getLocation() {
+            return location;
+        }
+
+        @Override
+        public long getExpectedSize() {
+            return expectedSize;
+        }
+
+        @Override
+        public String toString() {
+            return "DownloadFromRepositoryBuildOperationType.Details{repositoryName=" + repositoryName + ", location=" + location + '}';
+        }
+    }
+
+    private static class DownloadResult implements DownloadFromRepositoryBuildOperationType.Result {
+        private final long bytesDownloaded;
+        private final long queuedTimeMillis;
+        private final long downloadTimeMillis;
+
+        DownloadResult(long bytesDownloaded, long queuedTimeMillis, long downloadTimeMillis) {
+            this.bytesDownloaded = bytesDownloaded;
+            this.queuedTimeMillis = queuedTimeMillis;
+            this.downloadTimeMillis = downloadTimeMillis;
+        }
+
+        @Override
+        public long getBytesDownloaded() {
+            return bytesDownloaded;
+        }
+
+        @Override
+        public long getQueuedTimeMillis() {
+            return queuedTimeMillis;
+        }
+
+        @Override
+        public long getDownloadTimeMillis() {
+            return downloadTimeMillis;
+        }
+
+        @Override
+        public long getBytesPerSecond() {
+            if (bytesDownloaded == 0) {
+                return 0;
+            }
+            return bytesDownloaded * 1000 / Math.max(1, downloadTimeMillis);
+        }
+
+        @Override
+        public String toString() {
+            return "DownloadFromRepositoryBuildOperationType.Result{bytesDownloaded=" + bytesDownloaded + ", bytesPerSecond=" + getBytesPerSecond() + '}';
+        }
+    }
+}
@@ -26,6 +26,8 @@ import spock.lang.AutoCleanup
 import spock.lang.Specification
 import spock.lang.Subject
 
+import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER
+
 class DefaultArtifactCacheLockingManagerTest extends Specification {
     @Rule TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
 
@@ -101,4 +103,88 @@ class DefaultArtifactCacheLockingManagerTest extends Specification {
         then:
         oldCacheDir.assertDoesNotExist()
     }
+
+    def "serves lookups from published entry files when lock-free reads are enabled"() {
+        given:
+        def writer = new DefaultArtifactCacheLockingManager(cacheRepository, artifactCacheMetadata, fileAccessTimeJournal, usedGradleVersions, true)
+        def reader = new DefaultArtifactCacheLockingManager(cacheRepository, artifactCacheMetadata, fileAccessTimeJournal, usedGradleVersions, true)
+        writer.createCache("entries", STRING_SERIALIZER, STRING_SERIALIZER).put("key", "value")
+
+        when:
+        def result = reader.lookup({ boolean locked -> [locked, reader.createCache("entries", STRING_SERIALIZER, STRING_SERIALIZER).get("key")] } as ArtifactCacheLockingManager.CacheLookup)
+
+        then:
+        result == [false, "value"]
+        metaDataDir.file("entries/entries").listFiles().length == 1
+    }
+
+    def "publishes entries written without lock-free reads"() {
+        given:
+        cacheLockingManager.createCache("entries", STRING_SERIALIZER, STRING_SERIALIZER).put("key", "value")
+        def lockFree = new DefaultArtifactCacheLockingManager(cacheRepository, artifactCacheMetadata, fileAccessTimeJournal, usedGradleVersions, true)
+
+        when:
+        def result = lockFree.lookup({ boolean locked -> [locked, lockFree.createCache("entries", STRING_SERIALIZER, STRING_SERIALIZER).get("key")] } as ArtifactCacheLockingManager.CacheLookup)
+
+        then:
+        result == [false, "value"]
+
+        when:
+        cacheLockingManager.createCache("entries", STRING_SERIALIZER, STRING_SERIALIZER).remove("key")
+
+        then:
+        lockFree.createCache("entries", STRING_SERIALIZER, STRING_SERIALIZER).get("key") == null
+    }
+
+    def "publishes entries again when looked up after their entry file was removed"() {
+        given:
+        def lockFree = new DefaultArtifactCacheLockingManager(cacheRepository, artifactCacheMetadata, fileAccessTimeJournal, usedGradleVersions, true)
+        def cache = lockFree.createCache("entries", STRING_SERIALIZER, STRING_SERIALIZER)
+        cache.put("key", "value")
+        def entryFile = metaDataDir.file("entries/entries").listFiles()[0].listFiles()[0]
+        entryFile.delete()
+
+        expect:
+        cache.get("key") == "value"
+        entryFile.assertExists()
+    }
+
+    def "cleans up unused entry files"() {
+        given:
+        cacheLockingManager.createCache("entries", STRING_SERIALIZER, STRING_SERIALIZER).put("used", "value")
+        cacheLockingManager.createCache("entries", STRING_SERIALIZER, STRING_SERIALIZER).put("unused", "value")
+        def entryFiles = metaDataDir.file("entries/entries").listFiles().collect { it.listFiles().toList() }.flatten()
+        entryFiles.each { it.lastModified = 0 }
+        def lockFree = new DefaultArtifactCacheLockingManager(cacheRepository, artifactCacheMetadata, fileAccessTimeJournal, usedGradleVersions, true)
+        lockFree.createCache("entries", STRING_SERIALIZER, STRING_SERIALIZER).get("used")
+
+        when:
+        cacheLockingManager.close()
+
+        then:
+        entryFiles.findAll { it.exists() }.size() == 1
+    }
+
+    def "runs lookups while holding the lock when the lock-free attempt finds nothing"() {
+        given:
+        def lockFree = new DefaultArtifactCacheLockingManager(cacheRepository, artifactCacheMetadata, fileAccessTimeJournal, usedGradleVersions, true)
+        def attempts = []
+
+        when:
+        def result = lockFree.lookup({ boolean locked -> attempts << locked; locked ? "found" : null } as ArtifactCacheLockingManager.CacheLookup)
+
+        then:
+        result == "found"
+        attempts == [false, true]
+    }
+
+    def "always holds the lock for lookups when lock-free reads are disabled"() {
+        def attempts = []
+
+        when:
+        cacheLockingManager.lookup({ boolean locked -> attempts << locked; null } as ArtifactCacheLockingManager.CacheLookup)
+
+        then:
+        attempts == [true]
+    }
 }
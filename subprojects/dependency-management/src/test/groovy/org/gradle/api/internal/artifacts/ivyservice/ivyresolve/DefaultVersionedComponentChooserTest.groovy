@@ -24,6 +24,7 @@ import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser
+import org.gradle.api.internal.artifacts.ivyservice.modulecache.dynamicversions.ModuleVersionIndex
 import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.DefaultCachePolicy
 import org.gradle.api.internal.attributes.DefaultAttributesSchema
 import org.gradle.api.internal.attributes.ImmutableAttributes
@@ -271,6 +272,49 @@ class DefaultVersionedComponentChooserTest extends Specification {
 
     }
 
+    def "only checks candidates within bounds of version range when candidates are indexed"() {
+        given:
+        def a = component('1.2')
+        def b = component('1.3')
+        def c = component('2.0')
+        def d = component('1.1')
+        def index = ModuleVersionIndex.of(['1.2', '1.3', '2.0', '1.1'], versionParser, versionComparator.asVersionComparator())
+        def candidates = [c, b, a, d]
+        def selector = versionSelectorScheme.parseSelector("[1.1,1.3)")
+        def selectedComponentResult = Mock(ComponentSelectionContext)
+
+        when:
+        chooser.selectNewestMatchingComponent(index, candidates, selectedComponentResult, selector, null, consumerAttributes)
+
+        then:
+        _ * componentSelectionRules.rules >> []
+        1 * selectedComponentResult.notMatched(c.id, selector)
+        1 * selectedComponentResult.notMatched(b.id, selector)
+        1 * selectedComponentResult.matches(a.id)
+        0 * _
+    }
+
+    def "reports candidates outside of version range as not matched when candidates are indexed"() {
+        given:
+        def a = component('1.2')
+        def b = component('1.3')
+        def c = component('2.0')
+        def index = ModuleVersionIndex.of(['1.2', '1.3', '2.0'], versionParser, versionComparator.asVersionComparator())
+        def selector = versionSelectorScheme.parseSelector("]1.2,1.3[")
+        def selectedComponentResult = Mock(ComponentSelectionContext)
+
+        when:
+        chooser.selectNewestMatchingComponent(index, [c, b, a], selectedComponentResult, selector, null, consumerAttributes)
+
+        then:
+        _ * componentSelectionRules.rules >> []
+        1 * selectedComponentResult.notMatched(c.id, selector)
+        1 * selectedComponentResult.notMatched(b.id, selector)
+        1 * selectedComponentResult.notMatched(a.id, selector)
+        1 * selectedComponentResult.noMatchFound()
+        0 * _
+    }
+
     def "returns no match when no versions match without metadata"() {
         given:
         def a = component('1.2')
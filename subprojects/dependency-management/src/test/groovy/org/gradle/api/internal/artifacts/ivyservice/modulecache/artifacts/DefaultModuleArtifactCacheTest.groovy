@@ -18,7 +18,6 @@ package org.gradle.api.internal.artifacts.ivyservice.modulecache.artifacts
 
 import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheLockingManager
 import org.gradle.cache.PersistentIndexedCache
-import org.gradle.internal.Factory
 import org.gradle.internal.component.external.model.ModuleComponentArtifactIdentifier
 import org.gradle.internal.resource.local.FileAccessTracker
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
@@ -122,7 +121,7 @@ class DefaultModuleArtifactCacheTest extends Specification {
 
     def createEntryInPersistentCache() {
         1 * cacheLockingManager.createCache(persistentCacheFile, _, _) >> persistentIndexedCache
-        1 * cacheLockingManager.useCache(_) >> { Factory<?> factory -> factory.create()}
+        1 * cacheLockingManager.lookup(_) >> { ArtifactCacheLockingManager.CacheLookup<?> lookup -> lookup.lookup(true) }
         def key = new ArtifactAtRepositoryKey("RepoID", Stub(ModuleComponentArtifactIdentifier))
         1 * persistentIndexedCache.get(key) >> cachedArtifact
         key
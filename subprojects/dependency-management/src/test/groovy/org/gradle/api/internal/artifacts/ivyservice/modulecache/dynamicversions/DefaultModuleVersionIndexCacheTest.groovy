@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache.dynamicversions
+
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory
+import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheLockingManager
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.StaticVersionComparator
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser
+import org.gradle.cache.PersistentIndexedCache
+import spock.lang.Specification
+
+class DefaultModuleVersionIndexCacheTest extends Specification {
+    def persistentCache = Mock(PersistentIndexedCache)
+    def lockingManager = Stub(ArtifactCacheLockingManager) {
+        createCache("module-version-index", _, _) >> persistentCache
+    }
+    def repository = Stub(ModuleComponentRepository) {
+        getId() >> "repo"
+    }
+    def moduleId = DefaultModuleIdentifier.newId("group", "module")
+    def cache = new DefaultModuleVersionIndexCache(lockingManager, Stub(ImmutableModuleIdentifierFactory), new VersionParser(), new StaticVersionComparator())
+
+    def "computes and stores index when none is stored"() {
+        when:
+        def index = cache.getIndex(repository, moduleId, ["1.0", "2.0"] as Set)
+
+        then:
+        index.versions == ["2.0", "1.0"]
+        1 * persistentCache.get(_) >> null
+        1 * persistentCache.put(_, ["2.0", "1.0"])
+        0 * persistentCache._
+
+        when:
+        def second = cache.getIndex(repository, moduleId, ["2.0", "1.0"] as Set)
+
+        then:
+        second.is(index)
+        0 * persistentCache._
+    }
+
+    def "reuses stored ordering of the same versions"() {
+        when:
+        def index = cache.getIndex(repository, moduleId, ["1.0", "2.0"] as Set)
+
+        then:
+        index.versions == ["2.0", "1.0"]
+        1 * persistentCache.get(_) >> ["2.0", "1.0"]
+        0 * persistentCache._
+    }
+
+    def "recomputes index when listed versions have changed"() {
+        when:
+        def index = cache.getIndex(repository, moduleId, ["1.0", "2.0", "3.0"] as Set)
+
+        then:
+        index.versions == ["3.0", "2.0", "1.0"]
+        1 * persistentCache.get(_) >> ["2.0", "1.0"]
+        1 * persistentCache.put(_, ["3.0", "2.0", "1.0"])
+        0 * persistentCache._
+    }
+}
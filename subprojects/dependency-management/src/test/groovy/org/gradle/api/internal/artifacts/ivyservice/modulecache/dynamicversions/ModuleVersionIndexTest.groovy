@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache.dynamicversions
+
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.StaticVersionComparator
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class ModuleVersionIndexTest extends Specification {
+    def versionParser = new VersionParser()
+    def comparator = new StaticVersionComparator()
+
+    def "orders versions latest first"() {
+        when:
+        def index = ModuleVersionIndex.of(["1.10", "1.2", "2.0-rc-1", "1.9", "2.0"] as LinkedHashSet, versionParser, comparator)
+
+        then:
+        index.versions == ["2.0", "2.0-rc-1", "1.10", "1.9", "1.2"]
+        index.size() == 5
+        index.getVersion(2).source == "1.10"
+    }
+
+    def "is index of the same set of versions only"() {
+        def index = ModuleVersionIndex.of(["1.0", "2.0"], versionParser, comparator)
+
+        expect:
+        index.isIndexOf(["2.0", "1.0"] as Set)
+        !index.isIndexOf(["1.0"] as Set)
+        !index.isIndexOf(["1.0", "2.0", "3.0"] as Set)
+        !index.isIndexOf(["1.0", "3.0"] as Set)
+    }
+
+    def "parses versions of a stored ordering on demand"() {
+        def index = new ModuleVersionIndex(["3.0", "2.0", "1.0"], versionParser, comparator)
+
+        expect:
+        index.getVersion(1).source == "2.0"
+        index.getVersion(1).is(index.getVersion(1))
+    }
+
+    @Unroll
+    def "locates latest version below #bound (inclusive: #inclusive)"() {
+        def index = ModuleVersionIndex.of(["1.0", "1.1", "1.2", "2.0", "3.0"], versionParser, comparator)
+
+        expect:
+        index.indexOfLatestBelow(versionParser.transform(bound), inclusive) == expected
+
+        where:
+        bound | inclusive | expected
+        "4.0" | true      | 0
+        "3.0" | true      | 0
+        "3.0" | false     | 1
+        "1.5" | true      | 2
+        "1.5" | false     | 2
+        "1.0" | true      | 4
+        "1.0" | false     | 5
+        "0.1" | true      | 5
+    }
+
+    def "locates bounds in empty index"() {
+        def index = ModuleVersionIndex.of([], versionParser, comparator)
+
+        expect:
+        index.indexOfLatestBelow(versionParser.transform("1.0"), true) == 0
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.transform
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class FullRebuildInputsTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
+
+    def "reports every file of the input as out-of-date"() {
+        def input = temporaryFolder.createDir("input")
+        input.createFile("a.txt")
+        input.createFile("dir/b.txt")
+        def inputs = new FullRebuildInputs(input)
+        def outOfDate = []
+        def removed = []
+
+        when:
+        inputs.outOfDate { outOfDate << it.file }
+        inputs.removed { removed << it.file }
+
+        then:
+        !inputs.incremental
+        outOfDate == [input, input.file("a.txt"), input.file("dir"), input.file("dir/b.txt")]
+        removed.empty
+    }
+
+    def "reports nothing for a missing input"() {
+        def inputs = new FullRebuildInputs(temporaryFolder.file("missing"))
+        def outOfDate = []
+
+        when:
+        inputs.outOfDate { outOfDate << it.file }
+
+        then:
+        outOfDate.empty
+    }
+
+    def "processes the out-of-date files before the removed files"() {
+        def inputs = new FullRebuildInputs(temporaryFolder.createDir("input"))
+
+        when:
+        inputs.removed {}
+
+        then:
+        thrown(IllegalStateException)
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.transform
+
+import com.google.common.collect.ImmutableList
+import com.google.common.collect.ImmutableSortedMap
+import org.gradle.api.artifacts.transform.ArtifactTransform
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs
+import org.gradle.caching.internal.origin.OriginMetadata
+import org.gradle.internal.execution.UnitOfWork
+import org.gradle.internal.execution.WorkExecutor
+import org.gradle.internal.execution.history.AfterPreviousExecutionState
+import org.gradle.internal.execution.history.impl.DefaultAfterPreviousExecutionState
+import org.gradle.internal.execution.impl.steps.UpToDateResult
+import org.gradle.internal.file.TreeType
+import org.gradle.internal.fingerprint.impl.OutputFileCollectionFingerprinter
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.hash.TestFileHasher
+import org.gradle.internal.id.UniqueId
+import org.gradle.internal.snapshot.WellKnownFileLocations
+import org.gradle.internal.snapshot.impl.DefaultFileSystemMirror
+import org.gradle.internal.snapshot.impl.DefaultFileSystemSnapshotter
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.function.BiFunction
+
+class IncrementalTransformerInvocationTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def input = tmpDir.file("input")
+    Map<String, AfterPreviousExecutionState> history = [:]
+    List<Invocation> invocations = []
+
+    def historyRepository = [
+        getPreviousExecution: { String identity -> Optional.ofNullable(history[identity]) },
+        persist: { String identity, OriginMetadata originMetadata, implementation, inputFingerprints, outputFingerprints, boolean successful ->
+            history[identity] = new DefaultAfterPreviousExecutionState(originMetadata, implementation, ImmutableList.of(), ImmutableSortedMap.of(), inputFingerprints, outputFingerprints, successful)
+        },
+        hasCachedResult: { TransformationIdentity identity -> false },
+        withWorkspace: { TransformationIdentity identity, BiFunction action ->
+            action.apply(identity.identity, tmpDir.file("workspaces", identity.identity))
+        }
+    ] as TransformerExecutionHistoryRepository
+
+    def setup() {
+        input.createDir()
+    }
+
+    def "transforms all input files on the first run"() {
+        input.file("a.txt").text = "a"
+        input.file("b.txt").text = "b"
+
+        when:
+        def result = invoke(transformer())
+
+        then:
+        !invocations[0].incremental
+        invocations[0].outOfDate == ["a.txt", "b.txt"]
+        invocations[0].removed.empty
+        result.size() == 1
+        result[0].list().sort() == ["a.txt", "b.txt"]
+    }
+
+    def "transforms only the changed input files when the input changes"() {
+        input.file("a.txt").text = "a"
+        input.file("b.txt").text = "b"
+        input.file("c.txt").text = "c"
+        def transformer = transformer()
+        invoke(transformer)
+
+        when:
+        input.file("a.txt").text = "changed"
+        input.file("c.txt").delete()
+        input.file("d.txt").text = "d"
+        def result = invoke(transformer)
+
+        then:
+        invocations[1].incremental
+        invocations[1].outOfDate == ["a.txt", "d.txt"]
+        invocations[1].removed == ["c.txt"]
+
+        and:
+        def outputDir = result[0]
+        outputDir.list().sort() == ["a.txt", "b.txt", "d.txt"]
+        new File(outputDir, "a.txt").text == "changed"
+    }
+
+    def "transforms all input files into a new workspace when the secondary inputs change"() {
+        input.file("a.txt").text = "a"
+        input.file("b.txt").text = "b"
+        def firstResult = invoke(transformer(HashCode.fromInt(1234)))
+
+        when:
+        input.file("a.txt").text = "changed"
+        def result = invoke(transformer(HashCode.fromInt(4321)))
+
+        then:
+        !invocations[1].incremental
+        invocations[1].outOfDate == ["a.txt", "b.txt"]
+        result[0] != firstResult[0]
+    }
+
+    def "cleans stale outputs and transforms all input files when the outputs were modified since the previous run"() {
+        input.file("a.txt").text = "a"
+        def transformer = transformer()
+        def outputDir = invoke(transformer)[0]
+
+        when:
+        new File(outputDir, "stale.txt").text = "stale"
+        input.file("b.txt").text = "b"
+        invoke(transformer)
+
+        then:
+        !invocations[1].incremental
+        invocations[1].outOfDate == ["a.txt", "b.txt"]
+        outputDir.list().sort() == ["a.txt", "b.txt"]
+    }
+
+    private List<File> invoke(Transformer transformer) {
+        // A new snapshotter for each invocation, so that changes to the input are seen
+        def snapshotter = new DefaultFileSystemSnapshotter(new TestFileHasher(), new StringInterner(), TestFiles.fileSystem(), new DefaultFileSystemMirror(Stub(WellKnownFileLocations)))
+        def fingerprinter = new OutputFileCollectionFingerprinter(new StringInterner(), snapshotter)
+        def invoker = new DefaultTransformerInvoker(workExecutor(), snapshotter, Stub(ArtifactTransformListener), historyRepository, fingerprinter)
+        return invoker.invoke(new TransformerInvocation(transformer, input, Stub(TransformationSubject))).get()
+    }
+
+    private WorkExecutor<UpToDateResult> workExecutor() {
+        def originMetadata = OriginMetadata.fromCurrentBuild(UniqueId.generate(), 0)
+        def result = Stub(UpToDateResult)
+        return { UnitOfWork work ->
+            work.visitOutputs({ String name, TreeType type, roots ->
+                roots.each { root -> type == TreeType.DIRECTORY ? root.mkdirs() : root.parentFile.mkdirs() }
+            } as UnitOfWork.OutputVisitor)
+            work.changesSincePreviousExecution
+            work.execute()
+            work.persistResult(work.snapshotAfterOutputsGenerated(), true, originMetadata)
+            return result
+        } as WorkExecutor
+    }
+
+    private Transformer transformer(HashCode secondaryInputHash = HashCode.fromInt(1234)) {
+        return Stub(Transformer) {
+            isIncremental() >> true
+            getSecondaryInputHash() >> secondaryInputHash
+            getImplementationClass() >> ArtifactTransform
+            getDisplayName() >> "transform"
+            transformIncrementally(_, _, _) >> { File primaryInput, File outputDir, IncrementalTaskInputs inputChanges ->
+                def invocation = new Invocation(incremental: inputChanges.incremental)
+                invocations << invocation
+                inputChanges.outOfDate {
+                    if (it.file.file) {
+                        invocation.outOfDate << it.file.name
+                        new File(outputDir, it.file.name).text = it.file.text
+                    }
+                }
+                inputChanges.removed {
+                    invocation.removed << it.file.name
+                    new File(outputDir, it.file.name).delete()
+                }
+                invocation.outOfDate.sort()
+                return [outputDir]
+            }
+        }
+    }
+
+    static class Invocation {
+        boolean incremental
+        List<String> outOfDate = []
+        List<String> removed = []
+    }
+}
@@ -59,6 +59,7 @@ class TransformerInvokerTest extends Specification {
         and:
         1 * workExecutor.execute(_) >> { throw failure }
         1 * transformer.implementationClass >> ArtifactTransform
+        1 * transformer.incremental >> false
         1 * transformer.getSecondaryInputHash() >> HashCode.fromInt(1234)
         1 * historyRepository.withWorkspace(_, _) >> { TransformationIdentity identity, action ->
             action.apply(identity.getIdentity(), new File("workspace"))
@@ -67,6 +68,27 @@ class TransformerInvokerTest extends Specification {
         0 * _
     }
 
+    def "workspace of incremental transformation does not depend on the content of the input"() {
+        def first = new DefaultTransformerInvoker.IncrementalTransformationIdentity("source", "/input/source", HashCode.fromInt(1), HashCode.fromInt(1234))
+        def changed = new DefaultTransformerInvoker.IncrementalTransformationIdentity("source", "/input/source", HashCode.fromInt(2), HashCode.fromInt(1234))
+        def otherLocation = new DefaultTransformerInvoker.IncrementalTransformationIdentity("source", "/other/source", HashCode.fromInt(1), HashCode.fromInt(1234))
+        def otherParameters = new DefaultTransformerInvoker.IncrementalTransformationIdentity("source", "/input/source", HashCode.fromInt(1), HashCode.fromInt(4321))
+
+        expect:
+        changed.identity == first.identity
+        changed != first
+        otherLocation.identity != first.identity
+        otherParameters.identity != first.identity
+    }
+
+    def "workspace of non-incremental transformation depends on the content of the input"() {
+        def first = new DefaultTransformerInvoker.ImmutableTransformationIdentity("source", "/input/source", HashCode.fromInt(1), HashCode.fromInt(1234))
+        def changed = new DefaultTransformerInvoker.ImmutableTransformationIdentity("source", "/input/source", HashCode.fromInt(2), HashCode.fromInt(1234))
+
+        expect:
+        changed.identity != first.identity
+    }
+
     private TransformerInvocation createInvocation(File fileOne) {
         new TransformerInvocation(transformer, fileOne, sourceSubject)
     }
@@ -16,11 +16,14 @@
 
 package org.gradle.api.internal.artifacts.transform
 
+import com.google.common.collect.ImmutableList
 import com.google.common.collect.Maps
 import org.gradle.api.artifacts.component.ComponentArtifactIdentifier
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ResolvableArtifact
+import org.gradle.internal.Try
 import org.gradle.internal.operations.BuildOperation
 import org.gradle.internal.operations.BuildOperationQueue
+import org.gradle.internal.operations.RunnableBuildOperation
 import org.gradle.testing.internal.util.Specification
 
 class TransformingAsyncArtifactListenerTest extends Specification {
@@ -68,4 +71,48 @@ class TransformingAsyncArtifactListenerTest extends Specification {
         then:
         1 * transformation.transform({ it.files == [file] })
     }
+
+    def "schedules each step of a chain once the previous step has completed"() {
+        def transformerInvoker = Mock(TransformerInvoker)
+        def first = Stub(Transformer) { getDisplayName() >> "first" }
+        def second = Stub(Transformer) { getDisplayName() >> "second" }
+        def chain = new TransformationChain(new TransformationStep(first, transformerInvoker), new TransformationStep(second, transformerInvoker))
+        def artifactResults = Maps.newHashMap()
+        def chainListener = new TransformingAsyncArtifactListener(chain, null, operationQueue, artifactResults, Maps.newHashMap())
+        def sourceArtifact = Stub(ResolvableArtifact) {
+            getId() >> artifactId
+            getFile() >> artifactFile
+        }
+        def intermediateFile = new File("intermediate")
+        def outputFile = new File("output")
+        RunnableBuildOperation firstStep = null
+        RunnableBuildOperation secondStep = null
+
+        given:
+        transformerInvoker.hasCachedResult(_, _) >> false
+
+        when:
+        chainListener.artifactAvailable(sourceArtifact)
+
+        then:
+        1 * operationQueue.add(_ as BuildOperation) >> { RunnableBuildOperation operation -> firstStep = operation }
+        0 * transformerInvoker.invoke(_)
+
+        when:
+        firstStep.run(null)
+
+        then:
+        1 * transformerInvoker.invoke({ it.transformer == first && it.primaryInput == artifactFile }) >> Try.successful(ImmutableList.of(intermediateFile))
+        1 * operationQueue.add(_ as BuildOperation) >> { RunnableBuildOperation operation -> secondStep = operation }
+
+        when:
+        secondStep.run(null)
+
+        then:
+        1 * transformerInvoker.invoke({ it.transformer == second && it.primaryInput == intermediateFile }) >> Try.successful(ImmutableList.of(outputFile))
+        0 * operationQueue.add(_)
+
+        and:
+        artifactResults[artifactId].result == [outputFile]
+    }
 }
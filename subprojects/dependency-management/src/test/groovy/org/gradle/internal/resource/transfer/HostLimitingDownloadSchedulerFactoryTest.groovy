@@ -0,0 +1,163 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transfer
+
+import org.gradle.internal.Factory
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.resource.ExternalResourceName
+import org.gradle.internal.resource.local.LocallyAvailableExternalResource
+import org.gradle.internal.resource.metadata.ExternalResourceMetaData
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+
+class HostLimitingDownloadSchedulerFactoryTest extends ConcurrentSpec {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+
+    def "downloads immediately without build operations when not enabled"() {
+        def factory = new HostLimitingDownloadSchedulerFactory(0, buildOperationExecutor)
+        def resource = Stub(LocallyAvailableExternalResource)
+
+        expect:
+        !factory.enabled
+        factory.forRepository("repo").is(ExternalResourceDownloadScheduler.IMMEDIATE)
+        factory.forRepository("repo").download(location("http://host/thing"), null, { resource } as Factory) == resource
+        buildOperationExecutor.operations.empty
+    }
+
+    def "reports each download as a build operation with throughput"() {
+        def factory = new HostLimitingDownloadSchedulerFactory(2, buildOperationExecutor)
+        def file = tmpDir.file("thing.jar") << "12345"
+        def resource = Stub(LocallyAvailableExternalResource) {
+            getFile() >> file
+        }
+        def metaData = Stub(ExternalResourceMetaData) {
+            getContentLength() >> 5
+        }
+
+        when:
+        def result = factory.forRepository("repo").download(location("http://host/thing.jar"), metaData, { resource } as Factory)
+
+        then:
+        result == resource
+
+        and:
+        def details = buildOperationExecutor.log.mostRecentDetails(DownloadFromRepositoryBuildOperationType)
+        details.repositoryName == "repo"
+        details.host == "host"
+        details.location == "http://host/thing.jar"
+        details.expectedSize == 5
+        def opResult = buildOperationExecutor.log.mostRecentResult(DownloadFromRepositoryBuildOperationType)
+        opResult.bytesDownloaded == 5
+        opResult.bytesPerSecond > 0
+    }
+
+    def "limits concurrent downloads from the same host across repositories"() {
+        def factory = new HostLimitingDownloadSchedulerFactory(1, buildOperationExecutor)
+
+        when:
+        async {
+            start {
+                factory.forRepository("repo1").download(location("http://host/a"), null, {
+                    instant.download1Started
+                    thread.block()
+                    instant.download1Finished
+                    null
+                } as Factory)
+            }
+            start {
+                thread.blockUntil.download1Started
+                factory.forRepository("repo2").download(location("http://host/b"), null, {
+                    instant.download2Started
+                    null
+                } as Factory)
+            }
+        }
+
+        then:
+        instant.download2Started > instant.download1Finished
+    }
+
+    def "downloads from different hosts do not share a budget"() {
+        def factory = new HostLimitingDownloadSchedulerFactory(1, buildOperationExecutor)
+
+        when:
+        async {
+            start {
+                factory.forRepository("repo").download(location("http://host1/a"), null, {
+                    instant.download1Started
+                    thread.blockUntil.download2Started
+                    null
+                } as Factory)
+            }
+            start {
+                thread.blockUntil.download1Started
+                factory.forRepository("repo").download(location("http://host2/b"), null, {
+                    instant.download2Started
+                    null
+                } as Factory)
+            }
+        }
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "starts waiting downloads with the largest expected size first"() {
+        def factory = new HostLimitingDownloadSchedulerFactory(1, buildOperationExecutor)
+        def scheduler = factory.forRepository("repo")
+
+        when:
+        async {
+            start {
+                scheduler.download(location("http://host/first"), null, {
+                    instant.firstStarted
+                    thread.block()
+                    null
+                } as Factory)
+            }
+            start {
+                thread.blockUntil.firstStarted
+                scheduler.download(location("http://host/small"), size(10), {
+                    instant.smallStarted
+                    null
+                } as Factory)
+            }
+            start {
+                thread.blockUntil.firstStarted
+                scheduler.download(location("http://host/large"), size(1000), {
+                    instant.largeStarted
+                    null
+                } as Factory)
+            }
+        }
+
+        then:
+        instant.largeStarted < instant.smallStarted
+    }
+
+    def location(String uri) {
+        return new ExternalResourceName(new URI(uri))
+    }
+
+    def size(long contentLength) {
+        return Stub(ExternalResourceMetaData) {
+            getContentLength() >> contentLength
+        }
+    }
+}
@@ -35,6 +35,11 @@ class ArtifactCacheLockingManagerStub implements ArtifactCacheLockingManager {
         return result
     }
 
+    @Override
+    <T> T lookup(ArtifactCacheLockingManager.CacheLookup<T> lookup) {
+        lookup.lookup(true)
+    }
+
     @Override
     <T> T useCache(Factory<? extends T> action) {
         action.create()
@@ -15,11 +15,15 @@
  */
 package org.gradle.launcher.daemon.client;
 
+import org.gradle.api.internal.InternalFlags;
+import org.gradle.internal.jvm.inspection.JvmVersionDetector;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.launcher.daemon.configuration.DaemonParameters;
 import org.gradle.launcher.daemon.context.DaemonContextBuilder;
 import org.gradle.launcher.daemon.registry.DaemonDir;
 import org.gradle.launcher.daemon.registry.DaemonRegistryServices;
+import org.gradle.process.internal.ClassDataSharingArchives;
+import org.gradle.process.internal.ExecHandleFactory;
 
 import java.io.InputStream;
 
@@ -35,8 +39,11 @@ public class DaemonClientServices extends DaemonClientServicesSupport {
         addProvider(new DaemonRegistryServices(daemonParameters.getBaseDir()));
     }
 
-    DaemonStarter createDaemonStarter(DaemonDir daemonDir, DaemonParameters daemonParameters, DaemonGreeter daemonGreeter, JvmVersionValidator jvmVersionValidator) {
-        return new DefaultDaemonStarter(daemonDir, daemonParameters, daemonGreeter, jvmVersionValidator);
+    DaemonStarter createDaemonStarter(DaemonDir daemonDir, DaemonParameters daemonParameters, DaemonGreeter daemonGreeter, JvmVersionValidator jvmVersionValidator, JvmVersionDetector jvmVersionDetector,
+                                      ExecHandleFactory execHandleFactory, InternalFlags internalFlags) {
+        ClassDataSharingArchives classDataSharingArchives = new ClassDataSharingArchives(daemonParameters.getGradleUserHomeDir(), jvmVersionDetector, execHandleFactory,
+            internalFlags.isEnabled(InternalFlags.Flag.CLASS_DATA_SHARING));
+        return new DefaultDaemonStarter(daemonDir, daemonParameters, daemonGreeter, jvmVersionValidator, classDataSharingArchives);
     }
 
     protected void configureDaemonContextBuilder(DaemonContextBuilder builder) {
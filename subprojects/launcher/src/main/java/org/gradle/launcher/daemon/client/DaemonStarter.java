@@ -19,4 +19,9 @@ import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo;
 
 public interface DaemonStarter {
     DaemonStartupInfo startDaemon(boolean singleRun);
+
+    /**
+     * Starts a daemon which registers itself as idle rather than busy, so that it can be used by the next client that needs a daemon.
+     */
+    DaemonStartupInfo startSpareDaemon();
 }
@@ -44,6 +44,7 @@ import org.gradle.launcher.daemon.registry.DaemonStopEvents;
 import org.gradle.launcher.daemon.server.api.DaemonStateControl;
 import org.gradle.util.CollectionUtils;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Date;
 import java.util.LinkedList;
@@ -67,6 +68,7 @@ public class DefaultDaemonConnector implements DaemonConnector {
     private final ProgressLoggerFactory progressLoggerFactory;
     private final Serializer<Message> serializer;
     private long connectTimeout = DefaultDaemonConnector.DEFAULT_CONNECT_TIMEOUT;
+    private SpareDaemonStarter spareDaemonStarter;
 
     public DefaultDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector connector, DaemonStarter daemonStarter, DaemonStartListener startListener, ProgressLoggerFactory progressLoggerFactory, Serializer<Message> serializer) {
         this.serializer = serializer;
@@ -91,6 +93,13 @@ public class DefaultDaemonConnector implements DaemonConnector {
         return connectTimeout;
     }
 
+    /**
+     * Starts a spare daemon using the given starter whenever a client takes the last compatible idle daemon.
+     */
+    public void setSpareDaemonStarter(@Nullable SpareDaemonStarter spareDaemonStarter) {
+        this.spareDaemonStarter = spareDaemonStarter;
+    }
+
     public DaemonRegistry getDaemonRegistry() {
         return daemonRegistry;
     }
@@ -109,6 +118,14 @@ public class DefaultDaemonConnector implements DaemonConnector {
     }
 
     public DaemonClientConnection connect(ExplainingSpec<DaemonContext> constraint) {
+        DaemonClientConnection connection = connectToCompatibleDaemon(constraint);
+        if (spareDaemonStarter != null) {
+            spareDaemonStarter.maybeStartSpareDaemon(constraint, connection.getDaemon());
+        }
+        return connection;
+    }
+
+    private DaemonClientConnection connectToCompatibleDaemon(ExplainingSpec<DaemonContext> constraint) {
         final Pair<Collection<DaemonInfo>, Collection<DaemonInfo>> idleBusy = partitionByState(daemonRegistry.getAll(), Idle);
         final Collection<DaemonInfo> idleDaemons = idleBusy.getLeft();
         final Collection<DaemonInfo> busyDaemons = idleBusy.getRight();
@@ -38,6 +38,7 @@ import org.gradle.launcher.daemon.bootstrap.GradleDaemon;
 import org.gradle.launcher.daemon.configuration.DaemonParameters;
 import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo;
 import org.gradle.launcher.daemon.registry.DaemonDir;
+import org.gradle.process.internal.ClassDataSharingArchives;
 import org.gradle.process.internal.DefaultExecActionFactory;
 import org.gradle.process.internal.ExecHandle;
 import org.gradle.process.internal.streams.EncodedStream;
@@ -46,6 +47,7 @@ import org.gradle.util.GFileUtils;
 import org.gradle.util.GradleVersion;
 
 import java.io.File;
+import java.io.FileFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -56,20 +58,37 @@ import java.util.UUID;
 
 public class DefaultDaemonStarter implements DaemonStarter {
     private static final Logger LOGGER = Logging.getLogger(DefaultDaemonStarter.class);
+    private static final FileFilter JAR_FILTER = new FileFilter() {
+        @Override
+        public boolean accept(File file) {
+            return file.isFile() && file.getName().endsWith(".jar");
+        }
+    };
 
     private final DaemonDir daemonDir;
     private final DaemonParameters daemonParameters;
     private final DaemonGreeter daemonGreeter;
     private final JvmVersionValidator versionValidator;
+    private final ClassDataSharingArchives classDataSharingArchives;
 
-    public DefaultDaemonStarter(DaemonDir daemonDir, DaemonParameters daemonParameters, DaemonGreeter daemonGreeter, JvmVersionValidator versionValidator) {
+    public DefaultDaemonStarter(DaemonDir daemonDir, DaemonParameters daemonParameters, DaemonGreeter daemonGreeter, JvmVersionValidator versionValidator, ClassDataSharingArchives classDataSharingArchives) {
         this.daemonDir = daemonDir;
         this.daemonParameters = daemonParameters;
         this.daemonGreeter = daemonGreeter;
         this.versionValidator = versionValidator;
+        this.classDataSharingArchives = classDataSharingArchives;
     }
 
     public DaemonStartupInfo startDaemon(boolean singleUse) {
+        return startDaemon(singleUse, false);
+    }
+
+    @Override
+    public DaemonStartupInfo startSpareDaemon() {
+        return startDaemon(false, true);
+    }
+
+    private DaemonStartupInfo startDaemon(boolean singleUse, boolean spare) {
         String daemonUid = UUID.randomUUID().toString();
 
         GradleInstallation gradleInstallation = CurrentGradleInstallation.get();
@@ -96,10 +115,13 @@ public class DefaultDaemonStarter implements DaemonStarter {
 
         List<String> daemonArgs = new ArrayList<String>();
         daemonArgs.addAll(getPriorityArgs(daemonParameters.getPriority()));
-        daemonArgs.add(daemonParameters.getEffectiveJvm().getJavaExecutable().getAbsolutePath());
+        String javaExecutable = daemonParameters.getEffectiveJvm().getJavaExecutable().getAbsolutePath();
+        daemonArgs.add(javaExecutable);
 
         List<String> daemonOpts = daemonParameters.getEffectiveJvmArgs();
         daemonArgs.addAll(daemonOpts);
+        // Not part of the daemon opts, so that class data sharing does not affect daemon compatibility
+        daemonArgs.addAll(classDataSharingArchives.getDaemonJvmArgs(classpath.getAsFiles(), getRuntimeJars(gradleInstallation, classpath, searchClassPath), javaExecutable));
         daemonArgs.add("-cp");
         daemonArgs.add(CollectionUtils.join(File.pathSeparator, classpath.getAsFiles()));
 
@@ -121,6 +143,7 @@ public class DefaultDaemonStarter implements DaemonStarter {
             encoder.writeSmallInt(daemonParameters.getIdleTimeout());
             encoder.writeSmallInt(daemonParameters.getPeriodicCheckInterval());
             encoder.writeBoolean(singleUse);
+            encoder.writeBoolean(spare);
             encoder.writeString(daemonUid);
             encoder.writeSmallInt(daemonParameters.getPriority().ordinal());
             encoder.writeSmallInt(daemonOpts.size());
@@ -140,6 +163,26 @@ public class DefaultDaemonStarter implements DaemonStarter {
         return startProcess(daemonArgs, daemonDir.getVersionedDir(), stdInput);
     }
 
+    /**
+     * Returns the jars the daemon loads the Gradle runtime from, which are archived along with the classpath of the daemon.
+     */
+    private static List<File> getRuntimeJars(GradleInstallation gradleInstallation, ClassPath classpath, List<File> searchClassPath) {
+        List<File> runtimeJars = new ArrayList<File>();
+        if (gradleInstallation == null) {
+            runtimeJars.addAll(classpath.getAsFiles());
+            runtimeJars.addAll(searchClassPath);
+        } else {
+            for (File libDir : gradleInstallation.getLibDirs()) {
+                File[] jars = libDir.listFiles(JAR_FILTER);
+                if (jars != null) {
+                    Arrays.sort(jars);
+                    runtimeJars.addAll(Arrays.asList(jars));
+                }
+            }
+        }
+        return runtimeJars;
+    }
+
     private List<String> getPriorityArgs(DaemonParameters.Priority priority) {
         if (priority == DaemonParameters.Priority.NORMAL) {
             return Collections.emptyList();
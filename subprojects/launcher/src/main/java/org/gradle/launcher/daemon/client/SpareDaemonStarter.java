@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.client;
+
+import org.gradle.api.internal.specs.ExplainingSpec;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.launcher.daemon.context.DaemonConnectDetails;
+import org.gradle.launcher.daemon.context.DaemonContext;
+import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo;
+import org.gradle.launcher.daemon.registry.DaemonDir;
+import org.gradle.launcher.daemon.registry.DaemonInfo;
+import org.gradle.launcher.daemon.registry.DaemonRegistry;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Starts a spare daemon in the background when a client has taken the last compatible idle daemon, so that the next build does not have
+ * to wait for a daemon to start.
+ *
+ * <p>A newly started daemon registers itself as busy, so that it is not taken by another client before the client that started it
+ * connects. The spare daemon is told at startup to register itself as idle instead, so the client does not need to wait for it. Only one spare daemon is started at a time
+ * for a given daemon directory.</p>
+ */
+public class SpareDaemonStarter implements Stoppable {
+    private static final Logger LOGGER = Logging.getLogger(SpareDaemonStarter.class);
+    private static final int STARTUP_TIMEOUT_MILLIS = 60000;
+
+    private final DaemonRegistry daemonRegistry;
+    private final DaemonStarter daemonStarter;
+    private final ExecutorFactory executorFactory;
+    private final File startingMarkerFile;
+    private ManagedExecutor executor;
+
+    public SpareDaemonStarter(DaemonRegistry daemonRegistry, DaemonStarter daemonStarter, ExecutorFactory executorFactory, DaemonDir daemonDir) {
+        this.daemonRegistry = daemonRegistry;
+        this.daemonStarter = daemonStarter;
+        this.executorFactory = executorFactory;
+        this.startingMarkerFile = new File(daemonDir.getVersionedDir(), "spare-daemon-starting");
+    }
+
+    /**
+     * Starts a spare daemon in the background, unless there is another compatible idle daemon than the given daemon, which the client has just connected to.
+     */
+    public void maybeStartSpareDaemon(ExplainingSpec<DaemonContext> constraint, DaemonConnectDetails connectedDaemon) {
+        for (DaemonInfo daemon : daemonRegistry.getIdle()) {
+            if (!daemon.getUid().equals(connectedDaemon.getUid()) && constraint.isSatisfiedBy(daemon.getContext())) {
+                return;
+            }
+        }
+        if (!markStarting()) {
+            LOGGER.debug("A spare Gradle daemon is already being started.");
+            return;
+        }
+        synchronized (this) {
+            if (executor == null) {
+                executor = executorFactory.create("Spare daemon starter");
+            }
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    startSpareDaemon();
+                } catch (Exception e) {
+                    LOGGER.info("Could not start a spare Gradle daemon.", e);
+                } finally {
+                    startingMarkerFile.delete();
+                }
+            }
+        });
+    }
+
+    private void startSpareDaemon() {
+        DaemonStartupInfo startupInfo = daemonStarter.startSpareDaemon();
+        LOGGER.info("Started spare Gradle daemon {}.", startupInfo.getUid());
+    }
+
+    /**
+     * Claims the start of a spare daemon for this client. The claim of a client that did not finish starting its spare daemon is ignored after the startup timeout.
+     */
+    private boolean markStarting() {
+        try {
+            if (startingMarkerFile.createNewFile()) {
+                return true;
+            }
+            if (System.currentTimeMillis() - startingMarkerFile.lastModified() < STARTUP_TIMEOUT_MILLIS) {
+                return false;
+            }
+            startingMarkerFile.delete();
+            return startingMarkerFile.createNewFile();
+        } catch (IOException e) {
+            LOGGER.debug("Could not create {}.", startingMarkerFile, e);
+            return false;
+        }
+    }
+
+    /**
+     * Waits for a spare daemon that is being started to detach from this process, so that it has received its configuration. Does not wait
+     * for the daemon to finish starting, as the daemon registers itself as idle.
+     */
+    @Override
+    public void stop() {
+        ManagedExecutor executor;
+        synchronized (this) {
+            executor = this.executor;
+        }
+        CompositeStoppable.stoppable(executor).stop();
+    }
+}
@@ -34,4 +34,9 @@ public interface DaemonServerConfiguration {
     DaemonParameters.Priority getPriority();
 
     boolean isSingleUse();
+
+    /**
+     * Whether the daemon has been started in advance of the build that will use it, in which case it is advertised as idle as soon as it has started.
+     */
+    boolean isSpare();
 }
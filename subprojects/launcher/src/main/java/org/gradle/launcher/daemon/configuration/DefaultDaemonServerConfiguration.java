@@ -26,15 +26,21 @@ public class DefaultDaemonServerConfiguration implements DaemonServerConfigurati
     private final int idleTimeoutMs;
     private final int periodicCheckIntervalMs;
     private final boolean singleUse;
+    private final boolean spare;
     private final DaemonParameters.Priority priority;
     private final List<String> jvmOptions;
 
     public DefaultDaemonServerConfiguration(String daemonUid, File daemonBaseDir, int idleTimeoutMs, int periodicCheckIntervalMs, boolean singleUse, DaemonParameters.Priority priority, List<String> jvmOptions) {
+        this(daemonUid, daemonBaseDir, idleTimeoutMs, periodicCheckIntervalMs, singleUse, false, priority, jvmOptions);
+    }
+
+    public DefaultDaemonServerConfiguration(String daemonUid, File daemonBaseDir, int idleTimeoutMs, int periodicCheckIntervalMs, boolean singleUse, boolean spare, DaemonParameters.Priority priority, List<String> jvmOptions) {
         this.daemonUid = daemonUid;
         this.daemonBaseDir = daemonBaseDir;
         this.idleTimeoutMs = idleTimeoutMs;
         this.periodicCheckIntervalMs = periodicCheckIntervalMs;
         this.singleUse = singleUse;
+        this.spare = spare;
         this.priority = priority;
         this.jvmOptions = jvmOptions;
     }
@@ -72,4 +78,9 @@ public class DefaultDaemonServerConfiguration implements DaemonServerConfigurati
     public boolean isSingleUse() {
         return singleUse;
     }
+
+    @Override
+    public boolean isSpare() {
+        return spare;
+    }
 }
@@ -59,6 +59,7 @@ public class Daemon implements Stoppable {
     private final ScheduledExecutorService scheduledExecutorService;
     private final ExecutorFactory executorFactory;
     private final ListenerManager listenerManager;
+    private final boolean spare;
 
     private DaemonStateCoordinator stateCoordinator;
 
@@ -75,6 +76,13 @@ public class Daemon implements Stoppable {
      * @param daemonRegistry The registry that this daemon should advertise itself in
      */
     public Daemon(DaemonServerConnector connector, DaemonRegistry daemonRegistry, DaemonContext daemonContext, DaemonCommandExecuter commandExecuter, ExecutorFactory executorFactory, ListenerManager listenerManager) {
+        this(connector, daemonRegistry, daemonContext, commandExecuter, executorFactory, listenerManager, false);
+    }
+
+    /**
+     * @param spare whether the daemon is advertised as idle once started, rather than as busy waiting for the client that started it to connect
+     */
+    public Daemon(DaemonServerConnector connector, DaemonRegistry daemonRegistry, DaemonContext daemonContext, DaemonCommandExecuter commandExecuter, ExecutorFactory executorFactory, ListenerManager listenerManager, boolean spare) {
         this.connector = connector;
         this.daemonRegistry = daemonRegistry;
         this.daemonContext = daemonContext;
@@ -82,6 +90,7 @@ public class Daemon implements Stoppable {
         this.executorFactory = executorFactory;
         this.scheduledExecutorService = executorFactory.createScheduled("Daemon periodic checks", 1);
         this.listenerManager = listenerManager;
+        this.spare = spare;
     }
 
     public String getUid() {
@@ -168,7 +177,7 @@ public class Daemon implements Stoppable {
             };
             connectorAddress = connector.start(connectionHandler, connectionErrorHandler);
             LOGGER.debug("Daemon starting at: {}, with address: {}", new Date(), connectorAddress);
-            registryUpdater.onStart(connectorAddress);
+            registryUpdater.onStart(connectorAddress, spare ? DaemonStateControl.State.Idle : DaemonStateControl.State.Busy);
         } finally {
             lifecycleLock.unlock();
         }
@@ -25,6 +25,7 @@ import org.gradle.launcher.daemon.logging.DaemonMessages;
 import org.gradle.launcher.daemon.registry.DaemonInfo;
 import org.gradle.launcher.daemon.registry.DaemonRegistry;
 import org.gradle.launcher.daemon.registry.DaemonStopEvent;
+import org.gradle.launcher.daemon.server.api.DaemonStateControl;
 import org.gradle.launcher.daemon.server.expiry.DaemonExpirationStatus;
 
 import java.util.Date;
@@ -74,10 +75,14 @@ class DaemonRegistryUpdater implements Stoppable {
     }
 
     public void onStart(Address connectorAddress) {
+        onStart(connectorAddress, Busy);
+    }
+
+    public void onStart(Address connectorAddress, DaemonStateControl.State initialState) {
         LOGGER.info("{}{}", DaemonMessages.ADVERTISING_DAEMON, connectorAddress);
         LOGGER.debug("Advertised daemon context: {}", daemonContext);
         this.connectorAddress = connectorAddress;
-        daemonRegistry.store(new DaemonInfo(connectorAddress, daemonContext, token, Busy));
+        daemonRegistry.store(new DaemonInfo(connectorAddress, daemonContext, token, initialState));
     }
 
     public void onExpire(String reason, DaemonExpirationStatus status) {
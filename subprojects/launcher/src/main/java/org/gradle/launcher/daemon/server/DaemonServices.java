@@ -168,7 +168,8 @@ public class DaemonServices extends DefaultServiceRegistry {
             get(DaemonContext.class),
             new DaemonCommandExecuter(configuration, actions),
             get(ExecutorFactory.class),
-            get(ListenerManager.class)
+            get(ListenerManager.class),
+            configuration.isSpare()
         );
     }
 }
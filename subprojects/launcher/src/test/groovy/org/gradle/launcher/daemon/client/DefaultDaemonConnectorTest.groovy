@@ -175,6 +175,21 @@ class DefaultDaemonConnectorTest extends Specification {
         numAllDaemons == 2
     }
 
+    def "connect() starts a spare daemon after connecting when a spare daemon starter is set"() {
+        given:
+        def spareDaemonStarter = Mock(SpareDaemonStarter)
+        connector.spareDaemonStarter = spareDaemonStarter
+        startIdleDaemon()
+        def spec = ExplainingSpecs.satisfyAll()
+
+        when:
+        def connection = connector.connect(spec)
+
+        then:
+        1 * spareDaemonStarter.maybeStartSpareDaemon(spec, { it.uid == "0" })
+        connection.connection.num == 0
+    }
+
     def "connect() will fail early if newly started daemon fails the compatibility spec"() {
         when:
         connector.connect(ExplainingSpecs.satisfyNone())
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.client
+
+import org.gradle.api.internal.specs.ExplainingSpec
+import org.gradle.api.internal.specs.ExplainingSpecs
+import org.gradle.internal.remote.Address
+import org.gradle.launcher.daemon.configuration.DaemonParameters
+import org.gradle.launcher.daemon.context.DaemonContext
+import org.gradle.launcher.daemon.context.DefaultDaemonContext
+import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo
+import org.gradle.launcher.daemon.registry.DaemonDir
+import org.gradle.launcher.daemon.registry.DaemonInfo
+import org.gradle.launcher.daemon.registry.EmbeddedDaemonRegistry
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+
+import static org.gradle.launcher.daemon.server.api.DaemonStateControl.State.Idle
+
+class SpareDaemonStarterTest extends ConcurrentSpec {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def registry = new EmbeddedDaemonRegistry()
+    def daemonDir = new DaemonDir(tmpDir.testDirectory)
+    def daemonStarter = Mock(DaemonStarter)
+    def spareDaemonStarter = new SpareDaemonStarter(registry, daemonStarter, executorFactory, daemonDir)
+    def daemonCounter = 0
+
+    def "starts spare daemon when there is no other compatible idle daemon"() {
+        def connected = daemon(Idle)
+
+        when:
+        spareDaemonStarter.maybeStartSpareDaemon(ExplainingSpecs.satisfyAll(), connected)
+        spareDaemonStarter.stop()
+
+        then:
+        1 * daemonStarter.startSpareDaemon() >> { startupInfo(daemon(Idle)) }
+        0 * daemonStarter._
+
+        and:
+        registry.idle.size() == 2
+        !new File(daemonDir.versionedDir, "spare-daemon-starting").exists()
+    }
+
+    def "does not wait for spare daemon to register itself"() {
+        def connected = daemon(Idle)
+
+        when:
+        spareDaemonStarter.maybeStartSpareDaemon(ExplainingSpecs.satisfyAll(), connected)
+        spareDaemonStarter.stop()
+
+        then:
+        1 * daemonStarter.startSpareDaemon() >> { new DaemonStartupInfo("not-registered", null, null) }
+
+        and:
+        registry.notIdle.empty
+        !new File(daemonDir.versionedDir, "spare-daemon-starting").exists()
+    }
+
+    def "does not start spare daemon when there is another compatible idle daemon"() {
+        def connected = daemon(Idle)
+        daemon(Idle)
+
+        when:
+        spareDaemonStarter.maybeStartSpareDaemon(ExplainingSpecs.satisfyAll(), connected)
+        spareDaemonStarter.stop()
+
+        then:
+        0 * daemonStarter._
+    }
+
+    def "starts spare daemon when other idle daemons are not compatible"() {
+        def connected = daemon(Idle)
+        daemon(Idle)
+
+        when:
+        def constraint = Stub(ExplainingSpec) {
+            isSatisfiedBy(_) >> { DaemonContext context -> context.uid == connected.uid }
+        }
+        spareDaemonStarter.maybeStartSpareDaemon(constraint, connected)
+        spareDaemonStarter.stop()
+
+        then:
+        1 * daemonStarter.startSpareDaemon() >> { startupInfo(daemon(Idle)) }
+    }
+
+    def "does not start spare daemon while another one is being started"() {
+        def connected = daemon(Idle)
+        new File(daemonDir.versionedDir, "spare-daemon-starting").createNewFile()
+
+        when:
+        spareDaemonStarter.maybeStartSpareDaemon(ExplainingSpecs.satisfyAll(), connected)
+        spareDaemonStarter.stop()
+
+        then:
+        0 * daemonStarter._
+    }
+
+    def daemon(def state) {
+        def daemonNum = daemonCounter++
+        def context = new DefaultDaemonContext(daemonNum.toString(), tmpDir.testDirectory, tmpDir.testDirectory, daemonNum, 1000, [], DaemonParameters.Priority.NORMAL)
+        def address = Stub(Address) {
+            getDisplayName() >> "daemon $daemonNum"
+        }
+        def info = new DaemonInfo(address, context, "password".bytes, state)
+        registry.store(info)
+        return info
+    }
+
+    def startupInfo(DaemonInfo daemon) {
+        return new DaemonStartupInfo(daemon.uid, null, null)
+    }
+}
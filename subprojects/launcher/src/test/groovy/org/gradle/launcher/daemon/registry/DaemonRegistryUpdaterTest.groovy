@@ -54,6 +54,22 @@ public class DaemonRegistryUpdaterTest extends Specification {
         noExceptionThrown()
     }
 
+    def "registers as busy on start"() {
+        when:
+        updater.onStart(address)
+
+        then:
+        1 * registry.store({ it.state == Busy })
+    }
+
+    def "registers in the given state on start"() {
+        when:
+        updater.onStart(address, Idle)
+
+        then:
+        1 * registry.store({ it.state == Idle })
+    }
+
     def "marks busy"() {
         given:
         updater.onStart(address)
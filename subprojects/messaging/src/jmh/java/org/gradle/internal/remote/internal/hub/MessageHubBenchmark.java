@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.remote.internal.hub;
+
+import org.gradle.api.Action;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.remote.ConnectionAcceptor;
+import org.gradle.internal.remote.MessagingClient;
+import org.gradle.internal.remote.MessagingServer;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.internal.remote.services.MessagingServices;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of one-way messages and the latency of request-response round trips between two message hubs connected
+ * over a loopback connection.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class MessageHubBenchmark {
+    private static final int MESSAGES_PER_INVOCATION = 10000;
+
+    @Param({"16", "1024", "65536"})
+    int messageSize;
+
+    private MessagingServices messagingServices;
+    private ConnectionAcceptor acceptor;
+    private ObjectConnection serverConnection;
+    private ObjectConnection clientConnection;
+    private MessageReceiver sender;
+    private final CountingReceiver receiver = new CountingReceiver();
+    private final BlockingQueue<byte[]> replies = new LinkedBlockingQueue<byte[]>();
+    private byte[] message;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        message = new byte[messageSize];
+        Arrays.fill(message, (byte) 'x');
+        messagingServices = new MessagingServices();
+        final BlockingQueue<ObjectConnection> accepted = new ArrayBlockingQueue<ObjectConnection>(1);
+        acceptor = messagingServices.get(MessagingServer.class).accept(new Action<ObjectConnection>() {
+            @Override
+            public void execute(ObjectConnection connection) {
+                accepted.add(connection);
+            }
+        });
+        clientConnection = messagingServices.get(MessagingClient.class).getConnection(acceptor.getAddress());
+        serverConnection = accepted.take();
+
+        final MessageReceiver responder = serverConnection.addOutgoing(MessageReceiver.class);
+        receiver.replyTo(responder);
+        serverConnection.addIncoming(MessageReceiver.class, receiver);
+        sender = clientConnection.addOutgoing(MessageReceiver.class);
+        clientConnection.addIncoming(MessageReceiver.class, new MessageReceiver() {
+            @Override
+            public void receive(byte[] message, boolean reply) {
+                replies.add(message);
+            }
+        });
+        serverConnection.connect();
+        clientConnection.connect();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        CompositeStoppable.stoppable(clientConnection, serverConnection, acceptor, messagingServices).stop();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(MESSAGES_PER_INVOCATION)
+    public void sendMessages() throws InterruptedException {
+        receiver.expect(MESSAGES_PER_INVOCATION);
+        for (int i = 0; i < MESSAGES_PER_INVOCATION; i++) {
+            sender.receive(message, false);
+        }
+        receiver.await();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] roundTrip() throws InterruptedException {
+        receiver.expect(1);
+        sender.receive(message, true);
+        return replies.take();
+    }
+
+    public interface MessageReceiver {
+        void receive(byte[] message, boolean reply);
+    }
+
+    private static class CountingReceiver implements MessageReceiver {
+        private volatile CountDownLatch remaining;
+        private MessageReceiver responder;
+
+        void replyTo(MessageReceiver responder) {
+            this.responder = responder;
+        }
+
+        void expect(int messages) {
+            remaining = new CountDownLatch(messages);
+        }
+
+        void await() throws InterruptedException {
+            remaining.await();
+        }
+
+        @Override
+        public void receive(byte[] message, boolean reply) {
+            if (reply) {
+                responder.receive(message, false);
+            }
+            remaining.countDown();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.remote.internal.inet;
+
+import org.gradle.api.Action;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.id.UUIDGenerator;
+import org.gradle.internal.remote.ConnectionAcceptor;
+import org.gradle.internal.remote.internal.ConnectCompletion;
+import org.gradle.internal.remote.internal.RemoteConnection;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Serializers;
+import org.gradle.internal.serialize.StatefulSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the round-trip latency of a small message sent to an echo server on the local machine over a TCP loopback connection,
+ * which is the transport used between the daemon, its clients and the worker processes.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ConnectorRoundTripBenchmark {
+    private static final StatefulSerializer<String> SERIALIZER = Serializers.stateful(BaseSerializerFactory.STRING_SERIALIZER);
+
+    private DefaultExecutorFactory executorFactory;
+    private ConnectionAcceptor acceptor;
+    private RemoteConnection<String> connection;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        executorFactory = new DefaultExecutorFactory();
+        TcpIncomingConnector incomingConnector = new TcpIncomingConnector(executorFactory, new InetAddressFactory(), new UUIDGenerator());
+        acceptor = incomingConnector.accept(new Action<ConnectCompletion>() {
+            @Override
+            public void execute(ConnectCompletion completion) {
+                final RemoteConnection<String> serverConnection = completion.create(SERIALIZER);
+                executorFactory.create("echo").execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        String message;
+                        while ((message = serverConnection.receive()) != null) {
+                            serverConnection.dispatch(message);
+                            serverConnection.flush();
+                        }
+                        serverConnection.stop();
+                    }
+                });
+            }
+        }, false);
+        connection = new TcpOutgoingConnector().connect(acceptor.getAddress()).create(SERIALIZER);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        CompositeStoppable.stoppable(connection, acceptor, executorFactory).stop();
+    }
+
+    @Benchmark
+    public String roundTrip() {
+        connection.dispatch("ping");
+        connection.flush();
+        return connection.receive();
+    }
+}
@@ -45,6 +45,8 @@ public class MessageHub implements AsyncStoppable {
     private enum State {Running, Stopping, Stopped}
 
     private static final Discard DISCARD = new Discard();
+    // The maximum number of queued batches of messages written to a connection before it is flushed
+    private static final int MAX_BATCHES_PER_FLUSH = 16;
     private final ManagedExecutor workers;
     private final String displayName;
     private final Action<? super Throwable> errorHandler;
@@ -315,19 +317,26 @@ public class MessageHub implements AsyncStoppable {
                         } finally {
                             lock.unlock();
                         }
-                        for (InterHubMessage message : messages) {
+                        if (dispatchAll(messages)) {
+                            return;
+                        }
+                        // Messages queued while the previous batch was being written are written before flushing, so that
+                        // they go out in the same writes to the connection. The connection is flushed as soon as the queue is empty.
+                        for (int batches = 1; batches < MAX_BATCHES_PER_FLUSH; batches++) {
+                            lock.lock();
                             try {
-                                connection.dispatch(message);
-                            } catch (RecoverableMessageIOException e) {
-                                addToIncoming(new StreamFailureMessage(e));
+                                queue.drain(messages);
+                            } finally {
+                                lock.unlock();
                             }
-                            if (message instanceof EndOfStream) {
-                                connection.flush();
+                            if (messages.isEmpty()) {
+                                break;
+                            }
+                            if (dispatchAll(messages)) {
                                 return;
                             }
                         }
                         connection.flush();
-                        messages.clear();
                     }
                 } finally {
                     lock.lock();
@@ -341,6 +350,25 @@ public class MessageHub implements AsyncStoppable {
                 errorHandler.execute(t);
             }
         }
+
+        /**
+         * Writes the given messages to the connection and clears the list. Returns true when the end of the stream has been written.
+         */
+        private boolean dispatchAll(List<InterHubMessage> messages) {
+            for (InterHubMessage message : messages) {
+                try {
+                    connection.dispatch(message);
+                } catch (RecoverableMessageIOException e) {
+                    addToIncoming(new StreamFailureMessage(e));
+                }
+                if (message instanceof EndOfStream) {
+                    connection.flush();
+                    return true;
+                }
+            }
+            messages.clear();
+            return false;
+        }
     }
 
     private class ChannelDispatch<T> implements Dispatch<T> {
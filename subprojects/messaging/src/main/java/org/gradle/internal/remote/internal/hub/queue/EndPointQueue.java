@@ -55,6 +55,14 @@ public class EndPointQueue implements Dispatch<InterHubMessage> {
         queue.clear();
     }
 
+    /**
+     * Takes the messages currently queued for this end point, without waiting for more messages to arrive.
+     */
+    public void drain(Collection<InterHubMessage> drainTo) {
+        drainTo.addAll(queue);
+        queue.clear();
+    }
+
     public void stop() {
         owner.stopped(this);
     }
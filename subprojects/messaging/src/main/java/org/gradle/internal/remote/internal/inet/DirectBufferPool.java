@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.remote.internal.inet;
+
+import org.gradle.internal.io.BufferCaster;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of fixed size direct buffers, shared by the connections of this process.
+ *
+ * <p>Allocating a direct buffer is expensive and its memory is only released when the buffer is garbage collected, so the buffers
+ * used by a connection are returned to the pool when they are no longer needed rather than allocated for each connection.</p>
+ */
+class DirectBufferPool {
+    static final int BUFFER_SIZE = 32 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 64;
+
+    static final DirectBufferPool INSTANCE = new DirectBufferPool(BUFFER_SIZE, MAX_POOLED_BUFFERS);
+
+    private final int bufferSize;
+    private final int maxPooledBuffers;
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+    private final AtomicInteger pooledBuffers = new AtomicInteger();
+
+    DirectBufferPool(int bufferSize, int maxPooledBuffers) {
+        this.bufferSize = bufferSize;
+        this.maxPooledBuffers = maxPooledBuffers;
+    }
+
+    /**
+     * Returns an empty buffer, ready to be filled.
+     */
+    ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        pooledBuffers.decrementAndGet();
+        BufferCaster.cast(buffer).clear();
+        return buffer;
+    }
+
+    /**
+     * Returns the given buffer to the pool. The buffer must not be used by the caller afterwards.
+     */
+    void release(ByteBuffer buffer) {
+        if (pooledBuffers.incrementAndGet() > maxPooledBuffers) {
+            // Pool is full, let the buffer be collected
+            pooledBuffers.decrementAndGet();
+            return;
+        }
+        buffers.add(buffer);
+    }
+
+    int getPooledBufferCount() {
+        return pooledBuffers.get();
+    }
+}
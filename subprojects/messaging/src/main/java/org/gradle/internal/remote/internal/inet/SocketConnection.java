@@ -56,7 +56,7 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             // NOTE: we use non-blocking IO as there is no reliable way when using blocking IO to shutdown reads while
             // keeping writes active. For example, Socket.shutdownInput() does not work on Windows.
             socket.configureBlocking(false);
-            outstr = new SocketOutputStream(socket);
+            outstr = new SocketOutputStream(socket, DirectBufferPool.INSTANCE);
             instr = new SocketInputStream(socket);
         } catch (IOException e) {
             throw UncheckedException.throwAsUncheckedException(e);
@@ -214,16 +214,24 @@ public class SocketConnection<T> implements RemoteConnection<T> {
         }
     }
 
+    /**
+     * Collects the bytes written to the stream in direct buffers taken from a pool, and writes them to the socket with a single gathering
+     * write when the stream is flushed or when all of its buffers are full.
+     */
     private static class SocketOutputStream extends OutputStream {
         private static final int RETRIES_WHEN_BUFFER_FULL = 2;
+        private static final int MAX_BUFFERS = 8;
         private Selector selector;
         private final SocketChannel socket;
-        private final ByteBuffer buffer;
+        private final DirectBufferPool bufferPool;
+        private final ByteBuffer[] buffers = new ByteBuffer[MAX_BUFFERS];
+        private int bufferCount;
+        private boolean closed;
         private final byte[] writeBuffer = new byte[1];
 
-        public SocketOutputStream(SocketChannel socket) throws IOException {
+        public SocketOutputStream(SocketChannel socket, DirectBufferPool bufferPool) {
             this.socket = socket;
-            buffer = ByteBuffer.allocateDirect(32 * 1024);
+            this.bufferPool = bufferPool;
         }
 
         @Override
@@ -233,44 +241,68 @@ public class SocketConnection<T> implements RemoteConnection<T> {
         }
 
         @Override
-        public void write(byte[] src, int offset, int max) throws IOException {
+        public synchronized void write(byte[] src, int offset, int max) throws IOException {
             int remaining = max;
             int currentPos = offset;
             while (remaining > 0) {
+                ByteBuffer buffer = currentBuffer();
                 int count = Math.min(remaining, buffer.remaining());
-                if (count > 0) {
-                    buffer.put(src, currentPos, count);
-                    remaining -= count;
-                    currentPos += count;
-                }
-                while (buffer.remaining() == 0) {
-                    writeBufferToChannel();
-                }
+                buffer.put(src, currentPos, count);
+                remaining -= count;
+                currentPos += count;
             }
         }
 
         @Override
-        public void flush() throws IOException {
-            while (buffer.position() > 0) {
-                writeBufferToChannel();
+        public synchronized void flush() throws IOException {
+            // Buffers are filled in order, so there is nothing to write when the first buffer is empty
+            if (bufferCount > 0 && buffers[0].position() > 0) {
+                writeBuffersToChannel();
+            }
+        }
+
+        private ByteBuffer currentBuffer() throws IOException {
+            if (closed) {
+                throw new IOException("Socket output stream has been closed.");
+            }
+            if (bufferCount > 0 && buffers[bufferCount - 1].hasRemaining()) {
+                return buffers[bufferCount - 1];
             }
+            if (bufferCount == MAX_BUFFERS) {
+                writeBuffersToChannel();
+                return buffers[0];
+            }
+            ByteBuffer buffer = bufferPool.acquire();
+            buffers[bufferCount++] = buffer;
+            return buffer;
         }
 
-        private void writeBufferToChannel() throws IOException {
-            BufferCaster.cast(buffer).flip();
-            int count = writeWithNonBlockingRetry();
-            if (count == 0) {
-                // buffer was still full after non-blocking retries, now block
-                waitForWriteBufferToDrain();
+        private void writeBuffersToChannel() throws IOException {
+            for (int i = 0; i < bufferCount; i++) {
+                BufferCaster.cast(buffers[i]).flip();
+            }
+            ByteBuffer last = buffers[bufferCount - 1];
+            while (last.hasRemaining()) {
+                long count = writeWithNonBlockingRetry();
+                if (count == 0) {
+                    // buffer was still full after non-blocking retries, now block
+                    waitForWriteBufferToDrain();
+                }
+            }
+            // Keep a single buffer for the following writes
+            BufferCaster.cast(buffers[0]).clear();
+            for (int i = 1; i < bufferCount; i++) {
+                bufferPool.release(buffers[i]);
+                buffers[i] = null;
             }
-            buffer.compact();
+            bufferCount = 1;
         }
 
-        private int writeWithNonBlockingRetry() throws IOException {
-            int count = 0;
+        private long writeWithNonBlockingRetry() throws IOException {
+            long count = 0;
             int retryCount = 0;
             while (count == 0 && retryCount++ < RETRIES_WHEN_BUFFER_FULL) {
-                count = socket.write(buffer);
+                count = socket.write(buffers, 0, bufferCount);
                 if (count < 0) {
                     throw new EOFException();
                 } else if (count == 0) {
@@ -295,7 +327,16 @@ public class SocketConnection<T> implements RemoteConnection<T> {
         }
 
         @Override
-        public void close() throws IOException {
+        public synchronized void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (int i = 0; i < bufferCount; i++) {
+                bufferPool.release(buffers[i]);
+                buffers[i] = null;
+            }
+            bufferCount = 0;
             if (selector != null) {
                 selector.close();
                 selector = null;
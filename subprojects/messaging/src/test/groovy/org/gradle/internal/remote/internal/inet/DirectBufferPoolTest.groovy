@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.remote.internal.inet
+
+import spock.lang.Specification
+
+class DirectBufferPoolTest extends Specification {
+    def pool = new DirectBufferPool(16, 2)
+
+    def "allocates direct buffers when pool is empty"() {
+        when:
+        def buffer = pool.acquire()
+
+        then:
+        buffer.direct
+        buffer.capacity() == 16
+        buffer.position() == 0
+        buffer.limit() == 16
+    }
+
+    def "reuses released buffers"() {
+        def buffer = pool.acquire()
+        buffer.put(1 as byte)
+        buffer.flip()
+
+        when:
+        pool.release(buffer)
+        def reused = pool.acquire()
+
+        then:
+        reused.is(buffer)
+        reused.position() == 0
+        reused.limit() == 16
+        pool.pooledBufferCount == 0
+    }
+
+    def "discards released buffers when pool is full"() {
+        def buffers = (1..3).collect { pool.acquire() }
+
+        when:
+        buffers.each { pool.release(it) }
+
+        then:
+        pool.pooledBufferCount == 2
+        pool.acquire().is(buffers[0])
+        pool.acquire().is(buffers[1])
+        !pool.acquire().is(buffers[2])
+    }
+}
@@ -223,6 +223,32 @@ class TcpConnectorTest extends ConcurrentSpec {
         acceptor?.stop()
     }
 
+    def "can send messages larger than the connection write buffers"() {
+        def large = "x" * (1024 * 1024)
+
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            def connection = event.create(serializer)
+            connection.dispatch("small")
+            connection.dispatch(large)
+            100.times { connection.dispatch("message " + it) }
+            connection.flush()
+            connection.stop()
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+
+        then:
+        connection.receive() == "small"
+        connection.receive() == large
+        100.times { assert connection.receive() == "message " + it }
+        connection.receive() == null
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
     def "returns null on failure to receive due to truncated input"() {
         given:
         def incomingSerializer = { Encoder encoder, String value ->
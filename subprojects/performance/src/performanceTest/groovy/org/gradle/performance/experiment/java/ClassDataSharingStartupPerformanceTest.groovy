@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.performance.experiment.java
+
+import org.gradle.performance.AbstractCrossBuildPerformanceTest
+import org.gradle.performance.categories.PerformanceExperiment
+import org.junit.experimental.categories.Category
+import spock.lang.Unroll
+
+import static org.gradle.performance.generator.JavaTestProject.SMALL_JAVA_MULTI_PROJECT
+
+/**
+ * Measures the startup of a single use daemon, with and without class data sharing. Class data sharing needs Java 13 or later to have an effect.
+ * The first warm-up build dumps the archive of the classes loaded from the distribution when its daemon exits, and the later builds map that archive.
+ */
+@Category(PerformanceExperiment)
+class ClassDataSharingStartupPerformanceTest extends AbstractCrossBuildPerformanceTest {
+
+    @Unroll
+    def "help on #testProject with a single use daemon"() {
+        given:
+        // Daemon JVM args which differ from the client JVM args force a single use daemon to be started for each build
+        def daemonJvmArgs = "-Dorg.gradle.jvmargs=-Xms${testProject.daemonMemory} -Xmx${testProject.daemonMemory}"
+        runner.testGroup = "class data sharing"
+        runner.buildSpec {
+            warmUpCount = warmUpRuns
+            invocationCount = runs
+            projectName(testProject.projectName).displayName("class data sharing").invocation {
+                tasksToRun("help").args("--no-daemon", daemonJvmArgs).gradleOpts("-Dorg.gradle.internal.class.data.sharing=true")
+            }
+        }
+        runner.baseline {
+            warmUpCount = warmUpRuns
+            invocationCount = runs
+            projectName(testProject.projectName).displayName("no class data sharing").invocation {
+                tasksToRun("help").args("--no-daemon", daemonJvmArgs)
+            }
+        }
+
+        when:
+        def results = runner.run()
+
+        then:
+        results
+
+        where:
+        testProject              | warmUpRuns | runs
+        SMALL_JAVA_MULTI_PROJECT | 2          | 10
+    }
+}
@@ -24,4 +24,11 @@ import javax.annotation.Nullable;
 public interface PathKeyFileStore extends FileStore<String>, FileStoreSearcher<String> {
     @Nullable
     LocallyAvailableResource get(String... path);
+
+    /**
+     * Returns the entry at the given path when it exists and is not being written. Unlike {@link #get(String...)}, this
+     * method does not clean up partially written entries, so it can be used without holding the lock that guards the store.
+     */
+    @Nullable
+    LocallyAvailableResource getIfComplete(String... path);
 }
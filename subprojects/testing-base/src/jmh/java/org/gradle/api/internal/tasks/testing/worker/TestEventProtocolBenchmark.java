@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor;
+import org.gradle.api.internal.tasks.testing.DefaultTestDescriptor;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.api.tasks.testing.TestResult;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.id.CompositeIdGenerator;
+import org.gradle.internal.remote.ConnectionAcceptor;
+import org.gradle.internal.remote.MessagingClient;
+import org.gradle.internal.remote.MessagingServer;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.internal.remote.services.MessagingServices;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the number of test events per second sent from a test worker to the build process over a loopback connection, either as
+ * a message for each event or in {@link TestEventBatch} frames.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class TestEventProtocolBenchmark {
+    private static final int TESTS_PER_INVOCATION = 10000;
+    // Each test is started and completed, within a test class
+    private static final int EVENTS_PER_INVOCATION = 2 * TESTS_PER_INVOCATION + 2;
+    private static final String CLASS_NAME = "org.gradle.api.internal.tasks.testing.worker.SomeTest";
+
+    @Param({"messages", "batches"})
+    String protocol;
+
+    private MessagingServices messagingServices;
+    private DefaultExecutorFactory executorFactory;
+    private ConnectionAcceptor acceptor;
+    private ObjectConnection serverConnection;
+    private ObjectConnection clientConnection;
+    private BatchingTestResultProcessor batchingProcessor;
+    private TestResultProcessor sender;
+    private final CountingResultProcessor receiver = new CountingResultProcessor();
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        messagingServices = new MessagingServices();
+        executorFactory = new DefaultExecutorFactory();
+        final BlockingQueue<ObjectConnection> accepted = new ArrayBlockingQueue<ObjectConnection>(1);
+        acceptor = messagingServices.get(MessagingServer.class).accept(new Action<ObjectConnection>() {
+            @Override
+            public void execute(ObjectConnection connection) {
+                accepted.add(connection);
+            }
+        });
+        clientConnection = messagingServices.get(MessagingClient.class).getConnection(acceptor.getAddress());
+        serverConnection = accepted.take();
+
+        serverConnection.useParameterSerializers(TestEventSerializer.create());
+        serverConnection.addIncoming(TestResultProcessor.class, receiver);
+        serverConnection.addIncoming(TestEventBatchProcessor.class, new TestEventBatchReader(receiver));
+        clientConnection.useParameterSerializers(TestEventSerializer.create());
+        TestResultProcessor messages = clientConnection.addOutgoing(TestResultProcessor.class);
+        TestEventBatchProcessor batches = clientConnection.addOutgoing(TestEventBatchProcessor.class);
+        serverConnection.connect();
+        clientConnection.connect();
+
+        if (protocol.equals("batches")) {
+            batchingProcessor = new BatchingTestResultProcessor(batches, executorFactory);
+            sender = batchingProcessor;
+        } else {
+            sender = messages;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        CompositeStoppable.stoppable(batchingProcessor, clientConnection, serverConnection, acceptor, messagingServices, executorFactory).stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_INVOCATION)
+    public void sendTestEvents() throws InterruptedException {
+        receiver.expect(EVENTS_PER_INVOCATION);
+        long time = System.currentTimeMillis();
+        Object classId = nextId();
+        sender.started(new DefaultTestClassDescriptor(classId, CLASS_NAME), new TestStartEvent(time));
+        for (int i = 0; i < TESTS_PER_INVOCATION; i++) {
+            Object testId = nextId();
+            sender.started(new DefaultTestDescriptor(testId, CLASS_NAME, "test" + i), new TestStartEvent(time + i, classId));
+            sender.completed(testId, new TestCompleteEvent(time + i + 1, TestResult.ResultType.SUCCESS));
+        }
+        sender.completed(classId, new TestCompleteEvent(time + TESTS_PER_INVOCATION + 1));
+        receiver.await();
+    }
+
+    private Object nextId() {
+        return new CompositeIdGenerator.CompositeId(1L, nextId++);
+    }
+
+    private static class CountingResultProcessor implements TestResultProcessor {
+        private volatile CountDownLatch remaining;
+
+        void expect(int events) {
+            remaining = new CountDownLatch(events);
+        }
+
+        void await() throws InterruptedException {
+            remaining.await();
+        }
+
+        @Override
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+            remaining.countDown();
+        }
+
+        @Override
+        public void completed(Object testId, TestCompleteEvent event) {
+            remaining.countDown();
+        }
+
+        @Override
+        public void output(Object testId, TestOutputEvent event) {
+            remaining.countDown();
+        }
+
+        @Override
+        public void failure(Object testId, Throwable result) {
+            remaining.countDown();
+        }
+    }
+}
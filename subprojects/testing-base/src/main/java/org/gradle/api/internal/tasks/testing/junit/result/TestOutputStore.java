@@ -18,20 +18,38 @@ package org.gradle.api.internal.tasks.testing.junit.result;
 
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
-import com.google.common.collect.ImmutableMap;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestOutputEvent;
-import org.gradle.internal.io.RandomAccessFileInputStream;
 import org.gradle.internal.UncheckedException;
-import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.os.OperatingSystem;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Stores the output of tests in a single data file, with an index of the region of the data file that holds the output of each test class and test.
+ *
+ * <p>The index is loaded into a few arrays, and the data file is mapped into memory once per reader, except on Windows where mapped files
+ * cannot be replaced until the mapping has been garbage collected, and for data files too large to be mapped at once. The regions of these are
+ * read in windows of a fixed size instead. A reader can be used concurrently by multiple threads, and decodes the output directly into the target writer.</p>
+ */
 public class TestOutputStore {
+    // Boolean, two var longs and a var int
+    private static final int MAX_RECORD_HEADER_SIZE = 1 + 9 + 9 + 5;
+    private static final int READ_WINDOW_SIZE = 1024 * 1024;
+    private static final int CHAR_BUFFER_SIZE = 8192;
 
     private final File resultsDir;
     private final Charset messageStorageCharset;
@@ -49,18 +67,18 @@ public class TestOutputStore {
         return new File(resultsDir, getOutputsFile().getName() + ".idx");
     }
 
+    /**
+     * A region of the data file, from the start of the first record to the end of the last record.
+     */
     private static class Region {
-        long start;
-        long stop;
+        long start = -1;
+        long end = -1;
 
-        private Region() {
-            start = -1;
-            stop = -1;
-        }
-
-        private Region(long start, long stop) {
-            this.start = start;
-            this.stop = stop;
+        void add(long recordStart, long recordEnd) {
+            if (start < 0) {
+                start = recordStart;
+            }
+            end = recordEnd;
         }
     }
 
@@ -94,7 +112,7 @@ public class TestOutputStore {
 
         public void onOutput(long classId, long testId, TestOutputEvent outputEvent) {
             boolean stdout = outputEvent.getDestination() == TestOutputEvent.Destination.StdOut;
-            mark(classId, testId, stdout);
+            long start = output.getWritePosition();
 
             output.writeBoolean(stdout);
             output.writeSmallLong(classId);
@@ -108,28 +126,25 @@ public class TestOutputStore {
             }
             output.writeSmallInt(bytes.length);
             output.writeBytes(bytes, 0, bytes.length);
-        }
 
-        private void mark(long classId, long testId, boolean isStdout) {
-            if (!index.containsKey(classId)) {
-                index.put(classId, new LinkedHashMap<Long, TestCaseRegion>());
-            }
+            mark(classId, testId, stdout, start, output.getWritePosition());
+        }
 
+        private void mark(long classId, long testId, boolean isStdout, long start, long end) {
             Map<Long, TestCaseRegion> testCaseRegions = index.get(classId);
-            if (!testCaseRegions.containsKey(testId)) {
-                TestCaseRegion region = new TestCaseRegion();
-                testCaseRegions.put(testId, region);
+            if (testCaseRegions == null) {
+                testCaseRegions = new LinkedHashMap<Long, TestCaseRegion>();
+                index.put(classId, testCaseRegions);
             }
 
             TestCaseRegion region = testCaseRegions.get(testId);
+            if (region == null) {
+                region = new TestCaseRegion();
+                testCaseRegions.put(testId, region);
+            }
 
             Region streamRegion = isStdout ? region.stdOutRegion : region.stdErrRegion;
-
-            long total = output.getWritePosition();
-            if (streamRegion.start < 0) {
-                streamRegion.start = total;
-            }
-            streamRegion.stop = total;
+            streamRegion.add(start, end);
         }
 
         private void writeIndex() {
@@ -140,86 +155,159 @@ public class TestOutputStore {
                 throw new UncheckedIOException(e);
             }
 
-
             try {
                 indexOutput.writeInt(index.size(), true);
 
-                for (Map.Entry<Long, Map<Long, TestCaseRegion>> classEntry : index.entrySet()) {
-                    Long classId = classEntry.getKey();
-                    Map<Long, TestCaseRegion> regions = classEntry.getValue();
+                // Ids are written in ascending order, so that the reader can search them
+                for (Long classId : sorted(index.keySet())) {
+                    Map<Long, TestCaseRegion> regions = index.get(classId);
 
                     indexOutput.writeLong(classId, true);
                     indexOutput.writeInt(regions.size(), true);
 
-                    for (Map.Entry<Long, TestCaseRegion> testCaseEntry : regions.entrySet()) {
-                        long id = testCaseEntry.getKey();
-                        TestCaseRegion region = testCaseEntry.getValue();
-                        indexOutput.writeLong(id, true);
-                        indexOutput.writeLong(region.stdOutRegion.start);
-                        indexOutput.writeLong(region.stdOutRegion.stop);
-                        indexOutput.writeLong(region.stdErrRegion.start);
-                        indexOutput.writeLong(region.stdErrRegion.stop);
+                    for (Long testId : sorted(regions.keySet())) {
+                        TestCaseRegion region = regions.get(testId);
+                        indexOutput.writeLong(testId, true);
+                        writeRegion(indexOutput, region.stdOutRegion);
+                        writeRegion(indexOutput, region.stdErrRegion);
                     }
                 }
             } finally {
                 indexOutput.close();
             }
         }
+
+        private void writeRegion(Output indexOutput, Region region) {
+            indexOutput.writeLong(region.start + 1, true);
+            if (region.start >= 0) {
+                indexOutput.writeLong(region.end - region.start, true);
+            }
+        }
+
+        private List<Long> sorted(Iterable<Long> ids) {
+            List<Long> result = new ArrayList<Long>();
+            for (Long id : ids) {
+                result.add(id);
+            }
+            Collections.sort(result);
+            return result;
+        }
     }
 
     public Writer writer() {
         return new Writer();
     }
 
+    /**
+     * The regions of the data file, held in arrays sorted by class and test id. Each region takes 4 slots of a region array:
+     * the start and end of the standard output, followed by the start and end of the standard error. A start of -1 means there is no output.
+     */
     private static class Index {
-        final ImmutableMap<Long, Index> children;
-        final Region stdOut;
-        final Region stdErr;
-
-        private Index(Region stdOut, Region stdErr) {
-            this.children = ImmutableMap.of();
-            this.stdOut = stdOut;
-            this.stdErr = stdErr;
-        }
+        private static final int REGION_SLOTS = 4;
+
+        final long[] classIds;
+        final long[] classRegions;
+        final int[] firstTests;
+        final long[] testIds;
+        final long[] testRegions;
+
+        Index(Input input) {
+            int numClasses = input.readInt(true);
+            classIds = new long[numClasses];
+            classRegions = new long[numClasses * REGION_SLOTS];
+            firstTests = new int[numClasses + 1];
+            long[] testIds = new long[16];
+            long[] testRegions = new long[16 * REGION_SLOTS];
+            int numTests = 0;
+
+            for (int classIndex = 0; classIndex < numClasses; ++classIndex) {
+                classIds[classIndex] = input.readLong(true);
+                firstTests[classIndex] = numTests;
+                int classOffset = classIndex * REGION_SLOTS;
+                for (int slot = 0; slot < REGION_SLOTS; slot += 2) {
+                    classRegions[classOffset + slot] = -1;
+                    classRegions[classOffset + slot + 1] = -1;
+                }
 
-        private Index(ImmutableMap<Long, Index> children, Region stdOut, Region stdErr) {
-            this.children = children;
-            this.stdOut = stdOut;
-            this.stdErr = stdErr;
+                int numEntries = input.readInt(true);
+                for (int entryCounter = 0; entryCounter < numEntries; ++entryCounter, ++numTests) {
+                    if (numTests == testIds.length) {
+                        testIds = copyOf(testIds, testIds.length * 2);
+                        testRegions = copyOf(testRegions, testIds.length * REGION_SLOTS);
+                    }
+                    testIds[numTests] = input.readLong(true);
+                    int testOffset = numTests * REGION_SLOTS;
+                    for (int slot = 0; slot < REGION_SLOTS; slot += 2) {
+                        long start = input.readLong(true) - 1;
+                        long end = start < 0 ? -1 : start + input.readLong(true);
+                        testRegions[testOffset + slot] = start;
+                        testRegions[testOffset + slot + 1] = end;
+                        if (start >= 0) {
+                            // The region of the class spans the regions of all its tests
+                            if (classRegions[classOffset + slot] < 0 || start < classRegions[classOffset + slot]) {
+                                classRegions[classOffset + slot] = start;
+                            }
+                            if (end > classRegions[classOffset + slot + 1]) {
+                                classRegions[classOffset + slot + 1] = end;
+                            }
+                        }
+                    }
+                }
+            }
+            firstTests[numClasses] = numTests;
+            this.testIds = testIds;
+            this.testRegions = testRegions;
         }
-    }
 
-    private static class IndexBuilder {
-        final Region stdOut = new Region();
-        final Region stdErr = new Region();
-
-        private final ImmutableMap.Builder<Long, Index> children = ImmutableMap.builder();
+        /**
+         * Returns the offset of the region of the given class in {@link #classRegions}, or -1 when the class has no output.
+         */
+        int classRegion(long classId) {
+            int classIndex = binarySearch(classIds, 0, classIds.length, classId);
+            return classIndex < 0 ? -1 : classIndex * REGION_SLOTS;
+        }
 
-        void add(long key, Index index) {
-            if (stdOut.start < 0) {
-                stdOut.start = index.stdOut.start;
-            }
-            if (stdErr.start < 0) {
-                stdErr.start = index.stdErr.start;
-            }
-            if (index.stdOut.stop > stdOut.stop) {
-                stdOut.stop = index.stdOut.stop;
-            }
-            if (index.stdErr.stop > stdErr.stop) {
-                stdErr.stop = index.stdErr.stop;
+        /**
+         * Returns the offset of the region of the given test in {@link #testRegions}, or -1 when the test has no output.
+         */
+        int testRegion(long classId, long testId) {
+            int classIndex = binarySearch(classIds, 0, classIds.length, classId);
+            if (classIndex < 0) {
+                return -1;
             }
+            int testIndex = binarySearch(testIds, firstTests[classIndex], firstTests[classIndex + 1], testId);
+            return testIndex < 0 ? -1 : testIndex * REGION_SLOTS;
+        }
 
-            children.put(key, index);
+        private static int binarySearch(long[] ids, int from, int to, long id) {
+            int low = from;
+            int high = to - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                long candidate = ids[middle];
+                if (candidate < id) {
+                    low = middle + 1;
+                } else if (candidate > id) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -1;
         }
 
-        Index build() {
-            return new Index(children.build(), stdOut, stdErr);
+        private static long[] copyOf(long[] array, int length) {
+            long[] copy = new long[length];
+            System.arraycopy(array, 0, copy, 0, array.length);
+            return copy;
         }
     }
 
     public class Reader implements Closeable {
         private final Index index;
         private final RandomAccessFile dataFile;
+        private final FileChannel dataChannel;
+        private final ByteBuffer mappedData;
 
         public Reader() {
             File indexFile = getIndexFile();
@@ -237,36 +325,19 @@ public class TestOutputStore {
                     throw new UncheckedIOException(e);
                 }
 
-                IndexBuilder rootBuilder = null;
                 try {
-                    int numClasses = input.readInt(true);
-                    rootBuilder = new IndexBuilder();
-
-                    for (int classCounter = 0; classCounter < numClasses; ++classCounter) {
-                        long classId = input.readLong(true);
-                        IndexBuilder classBuilder = new IndexBuilder();
-
-                        int numEntries = input.readInt(true);
-                        for (int entryCounter = 0; entryCounter < numEntries; ++entryCounter) {
-                            long testId = input.readLong(true);
-                            Region stdOut = new Region(input.readLong(), input.readLong());
-                            Region stdErr = new Region(input.readLong(), input.readLong());
-                            classBuilder.add(testId, new Index(stdOut, stdErr));
-                        }
-
-                        rootBuilder.add(classId, classBuilder.build());
-                    }
+                    index = new Index(input);
                 } finally {
                     input.close();
                 }
 
-                index = rootBuilder.build();
-
                 try {
                     dataFile = new RandomAccessFile(getOutputsFile(), "r");
                 } catch (FileNotFoundException e) {
                     throw new UncheckedIOException(e);
                 }
+                dataChannel = dataFile.getChannel();
+                mappedData = map(dataChannel);
             } else { // no outputs file
                 if (indexFile.exists()) {
                     throw new IllegalStateException(String.format("Test outputs data file '%s' does not exist but the index file '%s' does", outputsFile, indexFile));
@@ -274,6 +345,20 @@ public class TestOutputStore {
 
                 index = null;
                 dataFile = null;
+                dataChannel = null;
+                mappedData = null;
+            }
+        }
+
+        private ByteBuffer map(FileChannel dataChannel) {
+            if (OperatingSystem.current().isWindows()) {
+                return null;
+            }
+            try {
+                long size = dataChannel.size();
+                return size <= Integer.MAX_VALUE ? dataChannel.map(FileChannel.MapMode.READ_ONLY, 0, size) : null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
         }
 
@@ -289,12 +374,11 @@ public class TestOutputStore {
                 return false;
             }
 
-            Index classIndex = index.children.get(classId);
-            if (classIndex == null) {
+            int regionOffset = index.classRegion(classId);
+            if (regionOffset < 0) {
                 return false;
             } else {
-                Region region = destination == TestOutputEvent.Destination.StdOut ? classIndex.stdOut : classIndex.stdErr;
-                return region.start >= 0;
+                return index.classRegions[regionOffset + slotOf(destination)] >= 0;
             }
         }
 
@@ -310,77 +394,138 @@ public class TestOutputStore {
             doRead(classId, testId, false, destination, writer);
         }
 
+        private int slotOf(TestOutputEvent.Destination destination) {
+            return destination == TestOutputEvent.Destination.StdOut ? 0 : 2;
+        }
+
         private void doRead(long classId, long testId, boolean allClassOutput, TestOutputEvent.Destination destination, java.io.Writer writer) {
             if (dataFile == null) {
                 return;
             }
 
-            Index targetIndex = index.children.get(classId);
-            if (targetIndex != null && testId != 0) {
-                targetIndex = targetIndex.children.get(testId);
+            // The output of a test, or the output of the class itself, is found in the region of the test or of test id 0
+            long[] regions;
+            int regionOffset;
+            if (allClassOutput) {
+                regions = index.classRegions;
+                regionOffset = index.classRegion(classId);
+            } else {
+                regions = index.testRegions;
+                regionOffset = index.testRegion(classId, testId);
             }
 
-            if (targetIndex == null) {
+            if (regionOffset < 0) {
                 return;
             }
 
             boolean stdout = destination == TestOutputEvent.Destination.StdOut;
-            Region region = stdout ? targetIndex.stdOut : targetIndex.stdErr;
+            long start = regions[regionOffset + slotOf(destination)];
+            long end = regions[regionOffset + slotOf(destination) + 1];
 
-            if (region.start < 0) {
+            if (start < 0) {
                 return;
             }
 
-            boolean ignoreClassLevel = !allClassOutput && testId != 0;
-            boolean ignoreTestLevel = !allClassOutput && testId == 0;
-
+            CharsetDecoder charsetDecoder = messageStorageCharset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
             try {
-                dataFile.seek(region.start);
-                long maxPos = region.stop - region.start;
-                KryoBackedDecoder decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile));
-                while (decoder.getReadPosition() <= maxPos) {
-                    boolean readStdout = decoder.readBoolean();
-                    long readClassId = decoder.readSmallLong();
-                    long readTestId = decoder.readSmallLong();
-                    int readLength = decoder.readSmallInt();
-
-                    boolean isClassLevel = readTestId == 0;
-
-                    if (stdout != readStdout || classId != readClassId) {
-                        decoder.skipBytes(readLength);
-                        continue;
+                long windowStart = start;
+                ByteBuffer window = readWindow(start, end);
+                long position = start;
+                while (position < end) {
+                    if (position - windowStart + MAX_RECORD_HEADER_SIZE > window.limit() && windowStart + window.limit() < end) {
+                        windowStart = position;
+                        window = readWindow(position, end);
                     }
+                    window.position((int) (position - windowStart));
+                    boolean readStdout = window.get() != 0;
+                    long readClassId = readVarLong(window);
+                    long readTestId = readVarLong(window);
+                    int readLength = (int) readVarLong(window);
+                    long messageStart = windowStart + window.position();
+                    position = messageStart + readLength;
 
-                    if (ignoreClassLevel && isClassLevel) {
-                        decoder.skipBytes(readLength);
+                    if (stdout != readStdout || classId != readClassId) {
                         continue;
                     }
-
-                    if (ignoreTestLevel && !isClassLevel) {
-                        decoder.skipBytes(readLength);
+                    if (!allClassOutput && testId != readTestId) {
                         continue;
                     }
 
-                    if (testId == 0 || testId == readTestId) {
-                        byte[] stringBytes = new byte[readLength];
-                        decoder.readBytes(stringBytes);
-                        String message;
-                        try {
-                            message = new String(stringBytes, messageStorageCharset.name());
-                        } catch (UnsupportedEncodingException e) {
-                            // shouldn't happen
-                            throw UncheckedException.throwAsUncheckedException(e);
-                        }
-
-                        writer.write(message);
+                    ByteBuffer message;
+                    if (position <= windowStart + window.limit()) {
+                        message = window.duplicate();
+                        message.limit((int) (position - windowStart));
                     } else {
-                        decoder.skipBytes(readLength);
+                        message = readRegion(messageStart, readLength);
                     }
+                    decode(message, charsetDecoder, chars, writer);
                 }
             } catch (IOException e1) {
                 throw new UncheckedIOException(e1);
             }
         }
+
+        private ByteBuffer readWindow(long position, long end) throws IOException {
+            // The whole region is a single window of a mapped data file
+            int windowSize = mappedData != null ? Integer.MAX_VALUE : READ_WINDOW_SIZE;
+            return readRegion(position, (int) Math.min(windowSize, end - position));
+        }
+
+        private ByteBuffer readRegion(long position, int length) throws IOException {
+            if (mappedData != null) {
+                // Duplicate the mapping, so that readers on other threads are not affected
+                ByteBuffer region = mappedData.duplicate();
+                region.limit((int) position + length);
+                region.position((int) position);
+                return region.slice();
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (dataChannel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException(String.format("Unexpected end of test outputs data file '%s'.", getOutputsFile()));
+                }
+            }
+            buffer.flip();
+            return buffer;
+        }
+
+        private void decode(ByteBuffer message, CharsetDecoder charsetDecoder, CharBuffer chars, java.io.Writer writer) throws IOException {
+            charsetDecoder.reset();
+            CoderResult result;
+            do {
+                result = charsetDecoder.decode(message, chars, true);
+                flush(chars, writer);
+            } while (result.isOverflow());
+            do {
+                result = charsetDecoder.flush(chars);
+                flush(chars, writer);
+            } while (result.isOverflow());
+        }
+
+        private void flush(CharBuffer chars, java.io.Writer writer) throws IOException {
+            if (chars.position() > 0) {
+                writer.write(chars.array(), 0, chars.position());
+                chars.clear();
+            }
+        }
+    }
+
+    /**
+     * Reads a variable length long, as written by {@link KryoBackedEncoder#writeSmallLong(long)} and {@link KryoBackedEncoder#writeSmallInt(int)}.
+     */
+    private static long readVarLong(ByteBuffer buffer) {
+        long result = 0;
+        for (int shift = 0; shift < 56; shift += 7) {
+            int b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        return result | (long) (buffer.get() & 0xFF) << 56;
     }
 
     // IMPORTANT: return must be closed when done with.
@@ -27,28 +27,38 @@ import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.dispatch.DispatchException;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
- * processors.
+ * processors, unless the durations of the test classes in a previous run are known. In that case, each test class
+ * is assigned to the processor with the least estimated work.
  */
 public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private final int maxProcessors;
     private final Factory<TestClassProcessor> factory;
     private final ActorFactory actorFactory;
+    private final TestClassDurationEstimates durations;
     private TestResultProcessor resultProcessor;
     private int pos;
     private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
     private List<TestClassProcessor> rawProcessors = new ArrayList<TestClassProcessor>();
     private List<Actor> actors = new ArrayList<Actor>();
+    private final List<Long> estimatedWork = new ArrayList<Long>();
     private Actor resultProcessorActor;
     private volatile boolean stoppedNow;
 
     public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory) {
+        this(maxProcessors, factory, actorFactory, Collections.<String, Long>emptyMap());
+    }
+
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory, Map<String, Long> previousDurations) {
         this.maxProcessors = maxProcessors;
         this.factory = factory;
         this.actorFactory = actorFactory;
+        this.durations = new TestClassDurationEstimates(previousDurations);
     }
 
     @Override
@@ -65,6 +75,7 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
         }
 
         TestClassProcessor processor;
+        int index;
         if (processors.size() < maxProcessors) {
             processor = factory.create();
             rawProcessors.add(processor);
@@ -72,14 +83,31 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
             processor = actor.getProxy(TestClassProcessor.class);
             actors.add(actor);
             processors.add(processor);
+            estimatedWork.add(0L);
             processor.startProcessing(resultProcessor);
-        } else {
+            index = processors.size() - 1;
+        } else if (durations.isEmpty()) {
+            index = pos;
             processor = processors.get(pos);
             pos = (pos + 1) % processors.size();
+        } else {
+            index = indexOfLeastEstimatedWork();
+            processor = processors.get(index);
         }
+        estimatedWork.set(index, estimatedWork.get(index) + durations.estimate(testClass.getTestClassName()));
         processor.processTestClass(testClass);
     }
 
+    private int indexOfLeastEstimatedWork() {
+        int index = 0;
+        for (int i = 1; i < estimatedWork.size(); i++) {
+            if (estimatedWork.get(i) < estimatedWork.get(index)) {
+                index = i;
+            }
+        }
+        return index;
+    }
+
     @Override
     public void stop() {
         try {
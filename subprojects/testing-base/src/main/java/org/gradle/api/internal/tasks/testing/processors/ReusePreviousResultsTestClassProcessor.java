@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor;
+import org.gradle.api.internal.tasks.testing.DefaultTestDescriptor;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
+import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult;
+import org.gradle.api.tasks.testing.TestResult;
+import org.gradle.internal.id.IdGenerator;
+import org.gradle.internal.time.Clock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Does not pass the test classes which have a reusable result from the previous run to its delegate, and reports the tests of these classes
+ * as skipped instead once the delegate has completed.
+ *
+ * <p>The tests are reported as skipped rather than with their previous result and duration, as they have not been executed by this run.</p>
+ */
+public class ReusePreviousResultsTestClassProcessor implements TestClassProcessor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReusePreviousResultsTestClassProcessor.class);
+
+    private final Map<String, TestClassResult> reusableResults;
+    private final IdGenerator<?> idGenerator;
+    private final Clock clock;
+    private final TestClassProcessor delegate;
+    private final List<TestClassResult> reusedResults = new ArrayList<TestClassResult>();
+    private TestResultProcessor resultProcessor;
+
+    public ReusePreviousResultsTestClassProcessor(Map<String, TestClassResult> reusableResults, IdGenerator<?> idGenerator, Clock clock, TestClassProcessor delegate) {
+        this.reusableResults = new HashMap<String, TestClassResult>(reusableResults);
+        this.idGenerator = idGenerator;
+        this.clock = clock;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        this.resultProcessor = resultProcessor;
+        delegate.startProcessing(resultProcessor);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        TestClassResult previousResult = reusableResults.remove(testClass.getTestClassName());
+        if (previousResult != null) {
+            reusedResults.add(previousResult);
+        } else {
+            delegate.processTestClass(testClass);
+        }
+    }
+
+    @Override
+    public void stop() {
+        delegate.stop();
+        // The delegate has completed, so the reused results are not interleaved with the results of the executed test classes
+        for (TestClassResult classResult : reusedResults) {
+            report(classResult);
+        }
+        if (!reusedResults.isEmpty()) {
+            LOGGER.info("Skipped {} test classes which passed in the previous run and are not affected by the changes since then.", reusedResults.size());
+        }
+    }
+
+    @Override
+    public void stopNow() {
+        delegate.stopNow();
+    }
+
+    private void report(TestClassResult classResult) {
+        Object classId = idGenerator.generateId();
+        long now = clock.getCurrentTime();
+        resultProcessor.started(new DefaultTestClassDescriptor(classId, classResult.getClassName(), classResult.getClassDisplayName()), new TestStartEvent(now));
+        for (TestMethodResult methodResult : classResult.getResults()) {
+            Object methodId = idGenerator.generateId();
+            DefaultTestDescriptor methodDescriptor = new DefaultTestDescriptor(methodId, classResult.getClassName(), methodResult.getName(), classResult.getClassDisplayName(), methodResult.getDisplayName());
+            resultProcessor.started(methodDescriptor, new TestStartEvent(now, classId));
+            resultProcessor.completed(methodId, new TestCompleteEvent(now, TestResult.ResultType.SKIPPED));
+        }
+        resultProcessor.completed(classId, new TestCompleteEvent(now));
+    }
+}
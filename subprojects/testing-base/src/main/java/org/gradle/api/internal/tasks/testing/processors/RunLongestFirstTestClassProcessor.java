@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import com.google.common.collect.TreeMultiset;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Passes test classes to its delegate longest first, using their durations in a previous run. Starting the longest test
+ * classes first avoids ending a parallel test run with a single worker still busy with a slow test class.
+ *
+ * <p>A test class is passed on as soon as no test class found later can be longer according to the previous run, so that the tests start
+ * while the test classes are still being found. As test classes without a previous duration may still be found, test classes shorter than
+ * the average are not passed on early. Test classes which may still be overtaken are held back, but never more than a bounded number
+ * of them, and the remaining ones are passed on when the processor is stopped.</p>
+ */
+public class RunLongestFirstTestClassProcessor implements TestClassProcessor {
+    static final int MAX_HELD_BACK_TEST_CLASSES = 100;
+
+    private final Map<String, Long> previousDurations;
+    private final TestClassDurationEstimates durations;
+    private final TestClassProcessor delegate;
+    private final int maxHeldBack;
+    // The estimated durations of the test classes of the previous run which have not been found yet
+    private final TreeMultiset<Long> pendingDurations = TreeMultiset.create();
+    private final PriorityQueue<HeldBackTestClass> heldBack = new PriorityQueue<HeldBackTestClass>();
+    private long found;
+
+    public RunLongestFirstTestClassProcessor(Map<String, Long> previousDurations, TestClassProcessor delegate) {
+        this(previousDurations, delegate, MAX_HELD_BACK_TEST_CLASSES);
+    }
+
+    RunLongestFirstTestClassProcessor(Map<String, Long> previousDurations, TestClassProcessor delegate, int maxHeldBack) {
+        this.previousDurations = previousDurations;
+        this.durations = new TestClassDurationEstimates(previousDurations);
+        this.delegate = delegate;
+        this.maxHeldBack = maxHeldBack;
+        for (String testClassName : previousDurations.keySet()) {
+            pendingDurations.add(durations.estimate(testClassName));
+        }
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        delegate.startProcessing(resultProcessor);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        String testClassName = testClass.getTestClassName();
+        long estimate = durations.estimate(testClassName);
+        if (previousDurations.containsKey(testClassName)) {
+            pendingDurations.remove(estimate);
+        }
+        heldBack.add(new HeldBackTestClass(testClass, estimate, found++));
+        // The longest a test class found later can take, including one without a previous duration
+        long longestPending = durations.getDefaultEstimate();
+        if (!pendingDurations.isEmpty()) {
+            longestPending = Math.max(longestPending, pendingDurations.lastEntry().getElement());
+        }
+        while (!heldBack.isEmpty() && (heldBack.size() > maxHeldBack || heldBack.peek().estimate >= longestPending)) {
+            delegate.processTestClass(heldBack.poll().testClass);
+        }
+    }
+
+    @Override
+    public void stop() {
+        while (!heldBack.isEmpty()) {
+            delegate.processTestClass(heldBack.poll().testClass);
+        }
+        delegate.stop();
+    }
+
+    @Override
+    public void stopNow() {
+        delegate.stopNow();
+    }
+
+    private static class HeldBackTestClass implements Comparable<HeldBackTestClass> {
+        private final TestClassRunInfo testClass;
+        private final long estimate;
+        private final long order;
+
+        HeldBackTestClass(TestClassRunInfo testClass, long estimate, long order) {
+            this.testClass = testClass;
+            this.estimate = estimate;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(HeldBackTestClass other) {
+            // Longest first, and test classes with the same duration in the order in which they were found
+            int result = Long.compare(other.estimate, estimate);
+            return result != 0 ? result : Long.compare(order, other.order);
+        }
+    }
+}
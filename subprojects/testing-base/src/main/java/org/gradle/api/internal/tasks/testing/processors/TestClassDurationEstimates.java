@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import java.util.Map;
+
+/**
+ * Estimates the duration of test classes from their durations in a previous run. Test classes without a previous duration,
+ * for example newly added ones, are estimated at the average duration.
+ */
+class TestClassDurationEstimates {
+    private final Map<String, Long> previousDurations;
+    private final long defaultDuration;
+
+    TestClassDurationEstimates(Map<String, Long> previousDurations) {
+        this.previousDurations = previousDurations;
+        long total = 0;
+        for (Long duration : previousDurations.values()) {
+            total += duration;
+        }
+        this.defaultDuration = previousDurations.isEmpty() ? 1 : Math.max(1, total / previousDurations.size());
+    }
+
+    boolean isEmpty() {
+        return previousDurations.isEmpty();
+    }
+
+    /**
+     * Returns the estimated duration of a test class without a previous duration.
+     */
+    long getDefaultEstimate() {
+        return defaultDuration;
+    }
+
+    long estimate(String testClassName) {
+        Long duration = previousDurations.get(testClassName);
+        return duration == null ? defaultDuration : Math.max(1, duration);
+    }
+}
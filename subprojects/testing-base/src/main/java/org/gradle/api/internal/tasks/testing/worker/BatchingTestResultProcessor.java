@@ -0,0 +1,208 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedScheduledExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.id.CompositeIdGenerator;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.SerializerRegistry;
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedEncoder;
+import org.gradle.process.internal.shutdown.ShutdownHooks;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes the test events of a test worker into {@link TestEventBatch} frames, instead of sending a message for each event.
+ *
+ * <p>A frame is sent when it reaches {@value #MAX_BATCH_SIZE} bytes, when a test suite or class completes, and otherwise at least every
+ * {@value #MAX_BATCH_DELAY_MILLIS}ms, so that the progress and output of long running tests is still reported while they run.
+ * The pending events are also sent when the worker JVM exits before the processor is stopped, for example because a test calls
+ * {@link System#exit(int)}.</p>
+ */
+public class BatchingTestResultProcessor implements TestResultProcessor, Stoppable {
+    static final int MAX_BATCH_SIZE = 32 * 1024;
+    static final long MAX_BATCH_DELAY_MILLIS = 50;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final TestEventBatchProcessor target;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(MAX_BATCH_SIZE * 2);
+    private final StringDeduplicatingKryoBackedEncoder encoder = new StringDeduplicatingKryoBackedEncoder(buffer);
+    private final Serializer<TestDescriptorInternal> descriptorSerializer;
+    private final Serializer<CompositeIdGenerator.CompositeId> idSerializer;
+    private final Serializer<Throwable> failureSerializer;
+    private final Map<Object, Integer> refs = new HashMap<Object, Integer>();
+    private final Set<Object> compositeIds = new HashSet<Object>();
+    private final ManagedScheduledExecutor flusher;
+    private final Runnable flushOnShutdown = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+    private int nextRef;
+    private long lastTime;
+    private int batchedEvents;
+    private long batchStart;
+
+    public BatchingTestResultProcessor(TestEventBatchProcessor target, ExecutorFactory executorFactory) {
+        this.target = target;
+        SerializerRegistry registry = TestEventSerializer.create();
+        this.descriptorSerializer = registry.build(TestDescriptorInternal.class);
+        this.idSerializer = registry.build(CompositeIdGenerator.CompositeId.class);
+        this.failureSerializer = registry.build(Throwable.class);
+        this.flusher = executorFactory.createScheduled("Test event batch flusher", 1);
+        flusher.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, MAX_BATCH_DELAY_MILLIS, MAX_BATCH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        ShutdownHooks.addShutdownHook(flushOnShutdown);
+    }
+
+    @Override
+    public synchronized void started(TestDescriptorInternal test, TestStartEvent event) {
+        try {
+            encoder.writeByte(TestEventBatch.STARTED);
+            descriptorSerializer.write(encoder, test);
+            writeTime(event.getStartTime());
+            writeRef(event.getParentId());
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        refs.put(test.getId(), nextRef++);
+        if (test.isComposite()) {
+            compositeIds.add(test.getId());
+        }
+        eventAdded(false);
+    }
+
+    @Override
+    public synchronized void completed(Object testId, TestCompleteEvent event) {
+        try {
+            encoder.writeByte(TestEventBatch.COMPLETED);
+            writeRef(testId);
+            writeTime(event.getEndTime());
+            encoder.writeByte(event.getResultType() == null ? (byte) 0 : (byte) (event.getResultType().ordinal() + 1));
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        refs.remove(testId);
+        eventAdded(compositeIds.remove(testId));
+    }
+
+    @Override
+    public synchronized void output(Object testId, TestOutputEvent event) {
+        try {
+            encoder.writeByte(TestEventBatch.OUTPUT);
+            writeRef(testId);
+            encoder.writeByte((byte) event.getDestination().ordinal());
+            // Output is rarely repeated, so it is not worth remembering for deduplication
+            encoder.writeBinary(event.getMessage().getBytes(UTF_8));
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        eventAdded(false);
+    }
+
+    @Override
+    public synchronized void failure(Object testId, Throwable result) {
+        try {
+            encoder.writeByte(TestEventBatch.FAILURE);
+            writeRef(testId);
+            failureSerializer.write(encoder, result);
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        eventAdded(false);
+    }
+
+    /**
+     * Sends the pending events, if any.
+     */
+    public synchronized void flush() {
+        if (batchedEvents == 0) {
+            return;
+        }
+        encoder.writeByte(TestEventBatch.END);
+        encoder.flush();
+        byte[] frame = buffer.toByteArray();
+        buffer.reset();
+        batchStart = encoder.getWritePosition();
+        batchedEvents = 0;
+        target.processEvents(new TestEventBatch(frame));
+    }
+
+    /**
+     * Sends the pending events and stops flushing periodically.
+     */
+    @Override
+    public void stop() {
+        try {
+            // Not holding the lock, as the flusher may be waiting for it
+            flusher.stop();
+        } finally {
+            flush();
+            try {
+                ShutdownHooks.removeShutdownHook(flushOnShutdown);
+            } catch (IllegalStateException e) {
+                // Already shutting down, and the events have been sent
+            }
+        }
+    }
+
+    private void eventAdded(boolean flushNow) {
+        batchedEvents++;
+        if (flushNow || encoder.getWritePosition() - batchStart >= MAX_BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    private void writeTime(long time) {
+        encoder.writeSmallLong(TestEventBatch.zigZag(time - lastTime));
+        lastTime = time;
+    }
+
+    private void writeRef(Object testId) throws Exception {
+        if (testId == null) {
+            encoder.writeSmallInt(TestEventBatch.NO_REF);
+            return;
+        }
+        Integer ref = refs.get(testId);
+        if (ref != null) {
+            encoder.writeSmallInt(ref + TestEventBatch.REF_OFFSET);
+        } else {
+            encoder.writeSmallInt(TestEventBatch.FULL_ID);
+            idSerializer.write(encoder, (CompositeIdGenerator.CompositeId) testId);
+        }
+    }
+}
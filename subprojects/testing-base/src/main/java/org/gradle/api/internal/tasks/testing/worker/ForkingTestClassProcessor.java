@@ -32,8 +32,10 @@ import org.gradle.process.internal.worker.WorkerProcessBuilder;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 import org.gradle.util.CollectionUtils;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -46,15 +48,26 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     private final Iterable<File> classPath;
     private final Action<WorkerProcessBuilder> buildConfigAction;
     private final ModuleRegistry moduleRegistry;
+    private final TestWorkerPool workerPool;
+    private final boolean batchEvents;
     private final Lock lock = new ReentrantLock();
     private RemoteTestClassProcessor remoteProcessor;
     private WorkerProcess workerProcess;
+    private PooledTestWorkerClient pooledWorker;
     private TestResultProcessor resultProcessor;
     private WorkerLeaseRegistry.WorkerLeaseCompletion completion;
     private DocumentationRegistry documentationRegistry;
     private boolean stoppedNow;
 
     public ForkingTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, DocumentationRegistry documentationRegistry) {
+        this(parentWorkerLease, workerFactory, processorFactory, options, classPath, buildConfigAction, moduleRegistry, documentationRegistry, null, false);
+    }
+
+    /**
+     * Creates a processor which executes the tests in a worker taken from the given pool, when not null. The test events of a worker which is not pooled
+     * are sent in batches when {@code batchEvents} is true.
+     */
+    public ForkingTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, DocumentationRegistry documentationRegistry, @Nullable TestWorkerPool workerPool, boolean batchEvents) {
         this.currentWorkerLease = parentWorkerLease;
         this.workerFactory = workerFactory;
         this.processorFactory = processorFactory;
@@ -63,6 +76,8 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         this.buildConfigAction = buildConfigAction;
         this.moduleRegistry = moduleRegistry;
         this.documentationRegistry = documentationRegistry;
+        this.workerPool = workerPool;
+        this.batchEvents = batchEvents;
     }
 
     @Override
@@ -81,7 +96,7 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
             if (remoteProcessor == null) {
                 completion = currentWorkerLease.startChild();
                 try {
-                    remoteProcessor = forkProcess();
+                    remoteProcessor = workerPool != null ? reservePooledProcess() : forkProcess();
                 } catch (RuntimeException e) {
                     completion.leaseFinish();
                     completion = null;
@@ -96,26 +111,75 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     }
 
     RemoteTestClassProcessor forkProcess() {
-        WorkerProcessBuilder builder = workerFactory.create(new TestWorker(processorFactory));
-        builder.setBaseName("Gradle Test Executor");
-        builder.setImplementationClasspath(getTestWorkerImplementationClasspath());
-        builder.applicationClasspath(classPath);
-        options.copyTo(builder.getJavaCommand());
-        builder.getJavaCommand().jvmArgs("-Dorg.gradle.native=false");
-        buildConfigAction.execute(builder);
+        WorkerProcessBuilder builder = workerFactory.create(new TestWorker(processorFactory, batchEvents));
+        configure(builder, classPath);
 
         workerProcess = builder.build();
         workerProcess.start();
 
         ObjectConnection connection = workerProcess.getConnection();
         connection.useParameterSerializers(TestEventSerializer.create());
-        connection.addIncoming(TestResultProcessor.class, resultProcessor);
+        if (batchEvents) {
+            connection.addIncoming(TestEventBatchProcessor.class, new TestEventBatchReader(resultProcessor));
+        } else {
+            connection.addIncoming(TestResultProcessor.class, resultProcessor);
+        }
         RemoteTestClassProcessor remoteProcessor = connection.addOutgoing(RemoteTestClassProcessor.class);
         connection.connect();
         remoteProcessor.startProcessing();
         return remoteProcessor;
     }
 
+    /**
+     * Runs the tests in a pooled worker. The jars of the test runtime classpath are loaded by the worker's system ClassLoader, so that a worker
+     * can be reused by any test task with the same jars. The class directories, which usually change between executions, are loaded in a separate
+     * ClassLoader for each test task. See {@link PooledTestWorker} for the state shared by the test tasks using the same worker.
+     */
+    RemoteTestClassProcessor reservePooledProcess() {
+        List<File> sharedClasspath = new ArrayList<File>();
+        List<File> sessionClasspath = new ArrayList<File>();
+        for (File file : classPath) {
+            if (file.isDirectory()) {
+                sessionClasspath.add(file);
+            } else {
+                sharedClasspath.add(file);
+            }
+        }
+
+        WorkerProcessBuilder builder = workerFactory.create(new PooledTestWorker());
+        configure(builder, sharedClasspath);
+        TestWorkerPool.Key key = TestWorkerPool.keyFor(builder);
+        pooledWorker = workerPool.reserveIdleWorker(key);
+        if (pooledWorker == null) {
+            pooledWorker = startPooledWorker(key, builder);
+            workerPool.register(pooledWorker);
+        }
+        workerProcess = pooledWorker.getWorkerProcess();
+
+        try {
+            RemoteTestClassProcessor remoteProcessor = pooledWorker.startSession(processorFactory, sessionClasspath, resultProcessor);
+            remoteProcessor.startProcessing();
+            return remoteProcessor;
+        } catch (RuntimeException e) {
+            workerPool.discard(pooledWorker);
+            workerProcess.stopNow();
+            throw e;
+        }
+    }
+
+    PooledTestWorkerClient startPooledWorker(TestWorkerPool.Key key, WorkerProcessBuilder builder) {
+        return PooledTestWorkerClient.start(key, builder.build());
+    }
+
+    private void configure(WorkerProcessBuilder builder, Iterable<File> applicationClasspath) {
+        builder.setBaseName("Gradle Test Executor");
+        builder.setImplementationClasspath(getTestWorkerImplementationClasspath());
+        builder.applicationClasspath(applicationClasspath);
+        options.copyTo(builder.getJavaCommand());
+        builder.getJavaCommand().jvmArgs("-Dorg.gradle.native=false");
+        buildConfigAction.execute(builder);
+    }
+
     List<URL> getTestWorkerImplementationClasspath() {
         return CollectionUtils.flattenCollections(URL.class,
             moduleRegistry.getModule("gradle-core-api").getImplementationClasspath().getAsURLs(),
@@ -153,7 +217,14 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
                 } finally {
                     lock.unlock();
                 }
-                workerProcess.waitForStop();
+                if (pooledWorker == null) {
+                    workerProcess.waitForStop();
+                } else if (!stoppedNow && pooledWorker.waitForSessionEnd()) {
+                    workerPool.release(pooledWorker);
+                } else {
+                    workerPool.discard(pooledWorker);
+                    workerProcess.waitForStop();
+                }
             }
         } catch (ExecException e) {
             if (!stoppedNow) {
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.dispatch.ContextClassLoaderProxy;
+import org.gradle.internal.id.IdGenerator;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.internal.service.DefaultServiceRegistry;
+import org.gradle.internal.time.Clock;
+import org.gradle.process.internal.worker.WorkerProcessContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.Serializable;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.AccessControlException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A test worker which stays alive after the tests of a test task have been executed, so that it can execute the tests of other test tasks.
+ *
+ * <p>The classpath shared by the test tasks using this worker is loaded by the system ClassLoader. The remaining classpath of each test task
+ * is loaded into a new ClassLoader for each session, which is discarded at the end of the session.</p>
+ *
+ * <p>The following state is reset at the end of each session: the system properties, the SecurityManager, the default Locale and the default
+ * TimeZone. All other state of the JVM is shared by the test tasks using this worker, in particular the static state of the classes loaded from the
+ * shared classpath, such as the test framework and the libraries used by the tests, as well as any threads started by the tests.</p>
+ */
+public class PooledTestWorker implements Action<WorkerProcessContext>, RemotePooledTestWorker, Serializable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PooledTestWorker.class);
+    private transient CountDownLatch completed;
+    private transient WorkerProcessContext workerProcessContext;
+    private transient DefaultServiceRegistry testServices;
+    private transient PooledTestResultProcessor resultProcessor;
+    private transient Session session;
+
+    @Override
+    public void execute(WorkerProcessContext workerProcessContext) {
+        LOGGER.info("{} started executing tests.", workerProcessContext.getDisplayName());
+
+        this.workerProcessContext = workerProcessContext;
+        completed = new CountDownLatch(1);
+        System.setProperty(TestWorker.WORKER_ID_SYS_PROPERTY, workerProcessContext.getWorkerId().toString());
+        testServices = new TestWorker.TestFrameworkServiceRegistry(workerProcessContext);
+
+        ObjectConnection serverConnection = workerProcessContext.getServerConnection();
+        serverConnection.useParameterSerializers(TestEventSerializer.create());
+        resultProcessor = serverConnection.addOutgoing(PooledTestResultProcessor.class);
+        serverConnection.addIncoming(RemotePooledTestWorker.class, this);
+        serverConnection.connect();
+
+        try {
+            try {
+                completed.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        } finally {
+            LOGGER.info("{} finished executing tests.", workerProcessContext.getDisplayName());
+            testServices.close();
+        }
+    }
+
+    @Override
+    public void startSession(WorkerTestClassProcessorFactory factory, List<File> sessionClasspath) {
+        Thread.currentThread().setName("Test worker");
+        session = new Session(sessionClasspath, workerProcessContext.getApplicationClassLoader());
+        TestClassProcessor targetProcessor = factory.create(testServices);
+        IdGenerator<Object> idGenerator = testServices.get(IdGenerator.class);
+        targetProcessor = new WorkerTestClassProcessor(targetProcessor, idGenerator.generateId(),
+            workerProcessContext.getDisplayName(), testServices.get(Clock.class));
+        session.processor = new ContextClassLoaderProxy<TestClassProcessor>(TestClassProcessor.class, targetProcessor, session.classLoader).getSource();
+        session.processor.startProcessing(resultProcessor);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        Thread.currentThread().setName("Test worker");
+        try {
+            session.processor.processTestClass(testClass);
+        } catch (AccessControlException e) {
+            completed.countDown();
+            throw e;
+        } finally {
+            // Clean the interrupted status
+            Thread.interrupted();
+        }
+    }
+
+    @Override
+    public void stopSession() {
+        Thread.currentThread().setName("Test worker");
+        try {
+            session.processor.stop();
+        } finally {
+            session.restore();
+            session = null;
+            // Clean the interrupted status
+            // because some test class processors do work here, e.g. JUnitPlatform
+            Thread.interrupted();
+            resultProcessor.sessionStopped();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        completed.countDown();
+    }
+
+    static class Session {
+        private final SecurityManager securityManager = System.getSecurityManager();
+        private final Properties systemProperties = (Properties) System.getProperties().clone();
+        private final Locale locale = Locale.getDefault();
+        private final TimeZone timeZone = TimeZone.getDefault();
+        final URLClassLoader classLoader;
+        private TestClassProcessor processor;
+
+        Session(List<File> sessionClasspath, ClassLoader applicationClassLoader) {
+            URL[] urls = new URL[sessionClasspath.size()];
+            for (int i = 0; i < urls.length; i++) {
+                try {
+                    urls[i] = sessionClasspath.get(i).toURI().toURL();
+                } catch (MalformedURLException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+            classLoader = new URLClassLoader(urls, applicationClassLoader);
+        }
+
+        void restore() {
+            if (System.getSecurityManager() != securityManager) {
+                try {
+                    // Reset security manager the tests seem to have installed
+                    System.setSecurityManager(securityManager);
+                } catch (SecurityException e) {
+                    LOGGER.warn("Unable to reset SecurityManager. Continuing anyway...", e);
+                }
+            }
+            System.setProperties(systemProperties);
+            Locale.setDefault(locale);
+            TimeZone.setDefault(timeZone);
+            CompositeStoppable.stoppable(classLoader).stop();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.dispatch.StreamCompletion;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.process.internal.worker.WorkerProcess;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * The daemon side of a {@link PooledTestWorker}.
+ */
+class PooledTestWorkerClient {
+    private final TestWorkerPool.Key key;
+    private final WorkerProcess workerProcess;
+    private final RemotePooledTestWorker worker;
+    private final SessionResultProcessor results = new SessionResultProcessor();
+
+    private PooledTestWorkerClient(TestWorkerPool.Key key, WorkerProcess workerProcess) {
+        this.key = key;
+        this.workerProcess = workerProcess;
+        ObjectConnection connection = workerProcess.getConnection();
+        connection.useParameterSerializers(TestEventSerializer.create());
+        connection.addIncoming(PooledTestResultProcessor.class, results);
+        this.worker = connection.addOutgoing(RemotePooledTestWorker.class);
+        connection.connect();
+    }
+
+    static PooledTestWorkerClient start(TestWorkerPool.Key key, WorkerProcess workerProcess) {
+        workerProcess.start();
+        return new PooledTestWorkerClient(key, workerProcess);
+    }
+
+    TestWorkerPool.Key getKey() {
+        return key;
+    }
+
+    WorkerProcess getWorkerProcess() {
+        return workerProcess;
+    }
+
+    boolean isAlive() {
+        return results.isAlive();
+    }
+
+    /**
+     * Starts a session which executes tests using the given processor factory and classpath and sends their results to the given result processor.
+     */
+    RemoteTestClassProcessor startSession(final WorkerTestClassProcessorFactory factory, final List<File> sessionClasspath, TestResultProcessor resultProcessor) {
+        results.startSession(resultProcessor);
+        return new RemoteTestClassProcessor() {
+            @Override
+            public void startProcessing() {
+                worker.startSession(factory, sessionClasspath);
+            }
+
+            @Override
+            public void processTestClass(TestClassRunInfo testClass) {
+                worker.processTestClass(testClass);
+            }
+
+            @Override
+            public void stop() {
+                worker.stopSession();
+            }
+        };
+    }
+
+    /**
+     * Waits until the worker has sent all results of the current session.
+     *
+     * @return true if the worker can be used for another session, false if the worker process has gone away.
+     */
+    boolean waitForSessionEnd() {
+        return results.waitForSessionEnd();
+    }
+
+    void stop() {
+        worker.shutdown();
+        workerProcess.waitForStop();
+    }
+
+    private static class SessionResultProcessor implements PooledTestResultProcessor, StreamCompletion {
+        private volatile TestResultProcessor delegate;
+        private volatile CountDownLatch sessionEnd;
+        private volatile boolean streamEnded;
+
+        void startSession(TestResultProcessor delegate) {
+            this.delegate = delegate;
+            this.sessionEnd = new CountDownLatch(1);
+        }
+
+        boolean isAlive() {
+            return !streamEnded;
+        }
+
+        boolean waitForSessionEnd() {
+            try {
+                sessionEnd.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            return !streamEnded;
+        }
+
+        @Override
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+            delegate.started(test, event);
+        }
+
+        @Override
+        public void completed(Object testId, TestCompleteEvent event) {
+            delegate.completed(testId, event);
+        }
+
+        @Override
+        public void output(Object testId, TestOutputEvent event) {
+            delegate.output(testId, event);
+        }
+
+        @Override
+        public void failure(Object testId, Throwable result) {
+            delegate.failure(testId, result);
+        }
+
+        @Override
+        public void sessionStopped() {
+            sessionEnd.countDown();
+        }
+
+        @Override
+        public void endStream() {
+            streamEnded = true;
+            CountDownLatch sessionEnd = this.sessionEnd;
+            if (sessionEnd != null) {
+                sessionEnd.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * A test worker process which can execute the tests of several test tasks, one session at a time.
+ *
+ * @see PooledTestWorker
+ */
+public interface RemotePooledTestWorker {
+    /**
+     * Starts executing the tests of a test task, loading the given classpath into a new ClassLoader. Does not block.
+     */
+    void startSession(WorkerTestClassProcessorFactory factory, List<File> sessionClasspath);
+
+    /**
+     * Does not block.
+     */
+    void processTestClass(TestClassRunInfo testClass);
+
+    /**
+     * Finishes the current session. The worker signals {@link PooledTestResultProcessor#sessionStopped()} once all results have been sent. Does not block.
+     */
+    void stopSession();
+
+    /**
+     * Stops the worker process. Does not block.
+     */
+    void shutdown();
+}
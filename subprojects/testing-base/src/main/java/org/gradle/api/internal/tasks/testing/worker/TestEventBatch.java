@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+/**
+ * A frame of test events sent from a test worker to the build process by a {@link BatchingTestResultProcessor} and decoded by a {@link TestEventBatchReader}.
+ *
+ * <p>A frame is a sequence of events, each starting with its type, and ends with {@link #END}. A test is identified by a small number from the
+ * point where its descriptor is sent, and strings are only sent once for the whole stream of frames.</p>
+ */
+public class TestEventBatch {
+    static final byte END = 0;
+    static final byte STARTED = 1;
+    static final byte COMPLETED = 2;
+    static final byte OUTPUT = 3;
+    static final byte FAILURE = 4;
+
+    // References to test ids: no id, an id which follows in full, or the number assigned to the test plus REF_OFFSET
+    static final int NO_REF = 0;
+    static final int FULL_ID = 1;
+    static final int REF_OFFSET = 2;
+
+    private final byte[] frame;
+
+    public TestEventBatch(byte[] frame) {
+        this.frame = frame;
+    }
+
+    public byte[] getFrame() {
+        return frame;
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.api.tasks.testing.TestResult;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.id.CompositeIdGenerator;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.SerializerRegistry;
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedDecoder;
+
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes the {@link TestEventBatch} frames of a test worker and passes the events to a {@link TestResultProcessor}.
+ * The frames of a worker must be passed to the same reader, in the order they were sent.
+ */
+public class TestEventBatchReader implements TestEventBatchProcessor {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final TestResult.ResultType[] RESULT_TYPES = TestResult.ResultType.values();
+    private static final TestOutputEvent.Destination[] DESTINATIONS = TestOutputEvent.Destination.values();
+
+    private final TestResultProcessor delegate;
+    private final FrameInputStream frames = new FrameInputStream();
+    private final StringDeduplicatingKryoBackedDecoder decoder = new StringDeduplicatingKryoBackedDecoder(frames);
+    private final Serializer<TestDescriptorInternal> descriptorSerializer;
+    private final Serializer<CompositeIdGenerator.CompositeId> idSerializer;
+    private final Serializer<Throwable> failureSerializer;
+    private final List<Object> ids = new ArrayList<Object>();
+    private long lastTime;
+
+    public TestEventBatchReader(TestResultProcessor delegate) {
+        this.delegate = delegate;
+        SerializerRegistry registry = TestEventSerializer.create();
+        this.descriptorSerializer = registry.build(TestDescriptorInternal.class);
+        this.idSerializer = registry.build(CompositeIdGenerator.CompositeId.class);
+        this.failureSerializer = registry.build(Throwable.class);
+    }
+
+    @Override
+    public void processEvents(TestEventBatch batch) {
+        frames.setFrame(batch.getFrame());
+        try {
+            for (byte type = decoder.readByte(); type != TestEventBatch.END; type = decoder.readByte()) {
+                switch (type) {
+                    case TestEventBatch.STARTED:
+                        started();
+                        break;
+                    case TestEventBatch.COMPLETED:
+                        completed();
+                        break;
+                    case TestEventBatch.OUTPUT:
+                        output();
+                        break;
+                    case TestEventBatch.FAILURE:
+                        failure();
+                        break;
+                    default:
+                        throw new IllegalStateException("Unexpected test event type " + type + ".");
+                }
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private void started() throws Exception {
+        TestDescriptorInternal test = descriptorSerializer.read(decoder);
+        long startTime = readTime();
+        Object parentId = resolve(decoder.readSmallInt());
+        ids.add(test.getId());
+        delegate.started(test, new TestStartEvent(startTime, parentId));
+    }
+
+    private void completed() throws Exception {
+        int ref = decoder.readSmallInt();
+        Object testId = resolve(ref);
+        long endTime = readTime();
+        byte resultType = decoder.readByte();
+        if (ref >= TestEventBatch.REF_OFFSET) {
+            // The worker does not refer to a completed test by its number
+            ids.set(ref - TestEventBatch.REF_OFFSET, null);
+        }
+        delegate.completed(testId, new TestCompleteEvent(endTime, resultType == 0 ? null : RESULT_TYPES[resultType - 1]));
+    }
+
+    private void output() throws Exception {
+        Object testId = resolve(decoder.readSmallInt());
+        TestOutputEvent.Destination destination = DESTINATIONS[decoder.readByte()];
+        String message = new String(decoder.readBinary(), UTF_8);
+        delegate.output(testId, new DefaultTestOutputEvent(destination, message));
+    }
+
+    private void failure() throws Exception {
+        Object testId = resolve(decoder.readSmallInt());
+        Throwable failure = failureSerializer.read(decoder);
+        delegate.failure(testId, failure);
+    }
+
+    private long readTime() throws Exception {
+        lastTime += TestEventBatch.unZigZag(decoder.readSmallLong());
+        return lastTime;
+    }
+
+    private Object resolve(int ref) throws Exception {
+        if (ref == TestEventBatch.NO_REF) {
+            return null;
+        }
+        if (ref == TestEventBatch.FULL_ID) {
+            return idSerializer.read(decoder);
+        }
+        return ids.get(ref - TestEventBatch.REF_OFFSET);
+    }
+
+    /**
+     * Provides the bytes of the current frame to the decoder, which keeps its state between frames.
+     */
+    private static class FrameInputStream extends InputStream {
+        private byte[] frame = new byte[0];
+        private int position;
+
+        void setFrame(byte[] frame) {
+            this.frame = frame;
+            this.position = 0;
+        }
+
+        @Override
+        public int read() {
+            return position < frame.length ? frame[position++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position >= frame.length) {
+                return -1;
+            }
+            int count = Math.min(length, frame.length - position);
+            System.arraycopy(frame, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+    }
+}
@@ -47,12 +47,22 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
     private static final Logger LOGGER = LoggerFactory.getLogger(TestWorker.class);
     public static final String WORKER_ID_SYS_PROPERTY = "org.gradle.test.worker";
     private final WorkerTestClassProcessorFactory factory;
+    private final boolean batchEvents;
     private CountDownLatch completed;
     private TestClassProcessor processor;
     private TestResultProcessor resultProcessor;
+    private BatchingTestResultProcessor batchingResultProcessor;
 
     public TestWorker(WorkerTestClassProcessorFactory factory) {
+        this(factory, false);
+    }
+
+    /**
+     * Creates a worker which sends its test events in {@link TestEventBatch} frames when {@code batchEvents} is true.
+     */
+    public TestWorker(WorkerTestClassProcessorFactory factory, boolean batchEvents) {
         this.factory = factory;
+        this.batchEvents = batchEvents;
     }
 
     @Override
@@ -75,6 +85,7 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
             }
         } finally {
             LOGGER.info("{} finished executing tests.", workerProcessContext.getDisplayName());
+            stopBatchingEvents();
 
             if (System.getSecurityManager() != securityManager) {
                 try {
@@ -100,7 +111,12 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
 
         ObjectConnection serverConnection = workerProcessContext.getServerConnection();
         serverConnection.useParameterSerializers(TestEventSerializer.create());
-        this.resultProcessor = serverConnection.addOutgoing(TestResultProcessor.class);
+        if (batchEvents) {
+            batchingResultProcessor = new BatchingTestResultProcessor(serverConnection.addOutgoing(TestEventBatchProcessor.class), testServices.get(ExecutorFactory.class));
+            this.resultProcessor = batchingResultProcessor;
+        } else {
+            this.resultProcessor = serverConnection.addOutgoing(TestResultProcessor.class);
+        }
         serverConnection.addIncoming(RemoteTestClassProcessor.class, this);
         serverConnection.connect();
     }
@@ -117,8 +133,13 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         try {
             processor.processTestClass(testClass);
         } catch (AccessControlException e) {
+            stopBatchingEvents();
             completed.countDown();
             throw e;
+        } catch (RuntimeException e) {
+            // Send the events of the failed test class before the failure is reported
+            flushEvents();
+            throw e;
         } finally {
             // Clean the interrupted status
             Thread.interrupted();
@@ -129,7 +150,11 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
     public void stop() {
         Thread.currentThread().setName("Test worker");
         try {
-            processor.stop();
+            try {
+                processor.stop();
+            } finally {
+                stopBatchingEvents();
+            }
         } finally {
             completed.countDown();
             // Clean the interrupted status
@@ -138,7 +163,19 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         }
     }
 
-    private static class TestFrameworkServiceRegistry extends DefaultServiceRegistry {
+    private void flushEvents() {
+        if (batchingResultProcessor != null) {
+            batchingResultProcessor.flush();
+        }
+    }
+
+    private void stopBatchingEvents() {
+        if (batchingResultProcessor != null) {
+            batchingResultProcessor.stop();
+        }
+    }
+
+    static class TestFrameworkServiceRegistry extends DefaultServiceRegistry {
         private final WorkerProcessContext workerProcessContext;
 
         public TestFrameworkServiceRegistry(WorkerProcessContext workerProcessContext) {
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.process.internal.JavaExecHandleBuilder;
+import org.gradle.process.internal.worker.WorkerProcessSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Keeps test workers alive between test tasks and builds, so that a later test task with a compatible worker configuration
+ * can reuse a warm worker process instead of starting a new one.
+ *
+ * <p>A worker can be reused when its JVM options, environment, working directory, shared application classpath and shared packages
+ * match those of the test task. The application classpath is matched by file path, size and modification time, as the classes loaded from it
+ * stay loaded in the worker.</p>
+ */
+public class TestWorkerPool implements Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TestWorkerPool.class);
+
+    private final int maxIdleWorkers;
+    private final LinkedList<PooledTestWorkerClient> idleWorkers = new LinkedList<PooledTestWorkerClient>();
+    private final List<PooledTestWorkerClient> busyWorkers = new ArrayList<PooledTestWorkerClient>();
+    private boolean stopped;
+
+    public TestWorkerPool() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    TestWorkerPool(int maxIdleWorkers) {
+        this.maxIdleWorkers = maxIdleWorkers;
+    }
+
+    /**
+     * Takes an idle worker started with the given key out of the pool, or returns null when there is none.
+     */
+    @Nullable
+    synchronized PooledTestWorkerClient reserveIdleWorker(Key key) {
+        Iterator<PooledTestWorkerClient> iterator = idleWorkers.iterator();
+        while (iterator.hasNext()) {
+            PooledTestWorkerClient worker = iterator.next();
+            if (!worker.isAlive()) {
+                iterator.remove();
+            } else if (worker.getKey().equals(key)) {
+                iterator.remove();
+                busyWorkers.add(worker);
+                return worker;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a newly started worker to the pool. The worker is considered busy until it is released.
+     */
+    synchronized void register(PooledTestWorkerClient worker) {
+        busyWorkers.add(worker);
+    }
+
+    /**
+     * Returns a busy worker to the pool, so that it can be reused by a later test task.
+     */
+    void release(PooledTestWorkerClient worker) {
+        List<PooledTestWorkerClient> toStop = new ArrayList<PooledTestWorkerClient>();
+        synchronized (this) {
+            busyWorkers.remove(worker);
+            if (stopped) {
+                toStop.add(worker);
+            } else {
+                // Most recently used workers are kept, as they are the most likely to be reused
+                idleWorkers.addFirst(worker);
+                while (idleWorkers.size() > maxIdleWorkers) {
+                    toStop.add(idleWorkers.removeLast());
+                }
+            }
+        }
+        stopAll(toStop);
+    }
+
+    /**
+     * Removes a busy worker from the pool, for example because it has failed or was stopped.
+     */
+    synchronized void discard(PooledTestWorkerClient worker) {
+        busyWorkers.remove(worker);
+    }
+
+    @Override
+    public void stop() {
+        List<PooledTestWorkerClient> toStop;
+        synchronized (this) {
+            stopped = true;
+            toStop = new ArrayList<PooledTestWorkerClient>(idleWorkers);
+            idleWorkers.clear();
+        }
+        stopAll(toStop);
+    }
+
+    private static void stopAll(List<PooledTestWorkerClient> workers) {
+        for (PooledTestWorkerClient worker : workers) {
+            try {
+                worker.stop();
+            } catch (Exception e) {
+                LOGGER.debug("Could not stop pooled test worker.", e);
+            }
+        }
+    }
+
+    /**
+     * Creates the key of a worker started using the given settings.
+     */
+    static Key keyFor(WorkerProcessSettings settings) {
+        List<Object> parts = new ArrayList<Object>();
+        JavaExecHandleBuilder javaCommand = settings.getJavaCommand();
+        parts.add(javaCommand.getExecutable());
+        parts.add(javaCommand.getAllJvmArgs());
+        parts.add(asStrings(javaCommand.getEnvironment()));
+        parts.add(javaCommand.getWorkingDir());
+        List<String> applicationClasspath = new ArrayList<String>();
+        for (File file : settings.getApplicationClasspath()) {
+            applicationClasspath.add(file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified());
+        }
+        parts.add(applicationClasspath);
+        parts.add(new TreeSet<String>(settings.getSharedPackages()));
+        parts.add(settings.getLogLevel());
+        return new Key(parts);
+    }
+
+    private static Map<String, String> asStrings(Map<String, Object> environment) {
+        Map<String, String> result = new TreeMap<String, String>();
+        for (Map.Entry<String, Object> entry : environment.entrySet()) {
+            result.put(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        return result;
+    }
+
+    static class Key {
+        private final List<Object> parts;
+
+        private Key(List<Object> parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            return parts.equals(((Key) o).parts);
+        }
+
+        @Override
+        public int hashCode() {
+            return parts.hashCode();
+        }
+    }
+}
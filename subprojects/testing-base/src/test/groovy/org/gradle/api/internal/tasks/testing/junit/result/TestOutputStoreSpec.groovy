@@ -145,6 +145,59 @@ class TestOutputStoreSpec extends WorkspaceTest {
         reader.close()
     }
 
+    def "reads output of tests with large ids and long or non-ascii messages"() {
+        def longMessage = "x" * 100000
+        def unicodeMessage = "\u00e9\u4e2d\ud83d\ude00" * 5000
+
+        when:
+        def writer = output.writer()
+        writer.onOutput(300, 100000, output(StdOut, "[out-1]"))
+        writer.onOutput(1, 1, output(StdOut, longMessage))
+        writer.onOutput(300, 100000, output(StdOut, unicodeMessage))
+        writer.onOutput(300, 7, output(StdOut, "[out-2]"))
+        writer.onOutput(Long.MAX_VALUE, 1, output(StdErr, "[out-3]"))
+        writer.close()
+        def reader = output.reader()
+
+        then:
+        collectOutput(reader, 300, 100000, StdOut) == "[out-1]" + unicodeMessage
+        collectOutput(reader, 300, 7, StdOut) == "[out-2]"
+        collectAllOutput(reader, 300, StdOut) == "[out-1]" + unicodeMessage + "[out-2]"
+        collectAllOutput(reader, 1, StdOut) == longMessage
+        collectAllOutput(reader, Long.MAX_VALUE, StdErr) == "[out-3]"
+
+        cleanup:
+        reader.close()
+    }
+
+    def "reader can be used by multiple threads"() {
+        when:
+        def writer = output.writer()
+        100.times { classId ->
+            10.times { testId ->
+                writer.onOutput(classId, testId + 1, output(StdOut, "[$classId-$testId]"))
+            }
+        }
+        writer.close()
+        def reader = output.reader()
+        def results = Collections.synchronizedMap([:])
+        def threads = (0..<4).collect { thread ->
+            Thread.start {
+                100.times { classId ->
+                    results[classId] = collectAllOutput(reader, classId, StdOut)
+                }
+            }
+        }
+        threads*.join()
+
+        then:
+        results.size() == 100
+        results.every { classId, text -> text == (0..<10).collect { "[$classId-$it]" }.join("") }
+
+        cleanup:
+        reader.close()
+    }
+
     def "can open empty reader"() {
         // neither file
         expect:
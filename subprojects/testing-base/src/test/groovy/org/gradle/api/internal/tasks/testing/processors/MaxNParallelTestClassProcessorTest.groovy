@@ -168,6 +168,41 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         1 * asyncProcessor2.processTestClass(test)
     }
 
+    def assignsTestClassesToProcessorWithLeastEstimatedWorkWhenDurationsAreKnown() {
+        def balancingProcessor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, [Slow: 100L, Fast1: 10L, Fast2: 10L, Fast3: 10L])
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        TestClassProcessor asyncProcessor1 = Mock()
+        TestClassProcessor asyncProcessor2 = Mock()
+        Actor actor1 = Mock()
+        Actor actor2 = Mock()
+
+        given:
+        actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        factory.create() >>> [processor1, processor2]
+        actorFactory.createActor(processor1) >> actor1
+        actorFactory.createActor(processor2) >> actor2
+        actor1.getProxy(TestClassProcessor) >> asyncProcessor1
+        actor2.getProxy(TestClassProcessor) >> asyncProcessor2
+        balancingProcessor.startProcessing(resultProcessor)
+
+        when:
+        ['Slow', 'Fast1', 'Fast2', 'Fast3'].each { balancingProcessor.processTestClass(testClass(it)) }
+
+        then:
+        1 * asyncProcessor1.processTestClass({ it.testClassName == 'Slow' })
+        1 * asyncProcessor2.processTestClass({ it.testClassName == 'Fast1' })
+        1 * asyncProcessor2.processTestClass({ it.testClassName == 'Fast2' })
+        1 * asyncProcessor2.processTestClass({ it.testClassName == 'Fast3' })
+    }
+
+    def testClass(String name) {
+        return Stub(TestClassRunInfo) {
+            getTestClassName() >> name
+        }
+    }
+
     def "stopNow propagates to factory created processors"() {
         TestClassRunInfo test = Mock()
         TestClassProcessor processor1 = Mock()
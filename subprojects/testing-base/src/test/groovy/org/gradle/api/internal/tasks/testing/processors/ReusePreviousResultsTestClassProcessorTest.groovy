@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult
+import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.internal.id.LongIdGenerator
+import org.gradle.internal.time.Clock
+import spock.lang.Specification
+
+class ReusePreviousResultsTestClassProcessorTest extends Specification {
+    TestClassProcessor delegate = Mock()
+    TestResultProcessor resultProcessor = Mock()
+    Clock clock = Stub() {
+        getCurrentTime() >> 1000
+    }
+
+    def "passes test classes without a reusable result to the delegate"() {
+        def previousResult = new TestClassResult(1, 'Class2', 100).add(new TestMethodResult(2, 'ok', TestResult.ResultType.SUCCESS, 10, 120))
+        def processor = new ReusePreviousResultsTestClassProcessor([Class2: previousResult], new LongIdGenerator(), clock, delegate)
+
+        when:
+        processor.startProcessing(resultProcessor)
+        ['Class1', 'Class2', 'Class3'].each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+
+        then:
+        1 * delegate.startProcessing(resultProcessor)
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class1'))
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class3'))
+        0 * delegate._
+    }
+
+    def "reports the tests of the reused classes as skipped after the delegate has completed"() {
+        def previousResult = new TestClassResult(1, 'Class1', 100)
+            .add(new TestMethodResult(2, 'ok', TestResult.ResultType.SUCCESS, 10, 120))
+            .add(new TestMethodResult(3, 'ignored', TestResult.ResultType.SKIPPED, 0, 130))
+        def processor = new ReusePreviousResultsTestClassProcessor([Class1: previousResult], new LongIdGenerator(), clock, delegate)
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(new DefaultTestClassRunInfo('Class1'))
+
+        when:
+        processor.stop()
+
+        then:
+        1 * delegate.stop()
+
+        then:
+        1 * resultProcessor.started({ it.className == 'Class1' && it.composite && it.id == 1L }, { it.startTime == 1000 && it.parentId == null })
+
+        then:
+        1 * resultProcessor.started({ it.name == 'ok' && !it.composite && it.id == 2L }, { it.startTime == 1000 && it.parentId == 1L })
+        1 * resultProcessor.completed(2L, { it.endTime == 1000 && it.resultType == TestResult.ResultType.SKIPPED })
+
+        then:
+        1 * resultProcessor.started({ it.name == 'ignored' && it.id == 3L }, { it.parentId == 1L })
+        1 * resultProcessor.completed(3L, { it.endTime == 1000 && it.resultType == TestResult.ResultType.SKIPPED })
+
+        then:
+        1 * resultProcessor.completed(1L, { it.endTime == 1000 && it.resultType == null })
+        0 * resultProcessor._
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.api.tasks.testing.TestOutputEvent
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedScheduledExecutor
+import org.gradle.internal.id.CompositeIdGenerator
+import spock.lang.Specification
+
+class BatchingTestResultProcessorTest extends Specification {
+    def executorFactory = Stub(ExecutorFactory) {
+        createScheduled(_, _) >> Stub(ManagedScheduledExecutor)
+    }
+    def frames = []
+    def resultProcessor = Mock(TestResultProcessor)
+    def reader = new TestEventBatchReader(resultProcessor)
+    def target = { TestEventBatch batch ->
+        frames << batch.frame
+        reader.processEvents(batch)
+    } as TestEventBatchProcessor
+    def processor = new BatchingTestResultProcessor(target, executorFactory)
+
+    def cleanup() {
+        processor.stop()
+    }
+
+    def "sends the events of a test class in one frame when the class completes"() {
+        def classId = id(1)
+        def methodId = id(2)
+        def failure = new RuntimeException("broken")
+
+        when:
+        processor.started(new DefaultTestClassDescriptor(classId, "SomeTest"), new TestStartEvent(1000))
+        processor.started(new DefaultTestDescriptor(methodId, "SomeTest", "someMethod"), new TestStartEvent(1010, classId))
+        processor.output(methodId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "some output ☃"))
+        processor.failure(methodId, failure)
+        processor.completed(methodId, new TestCompleteEvent(1020, TestResult.ResultType.FAILURE))
+
+        then:
+        frames.empty
+        0 * resultProcessor._
+
+        when:
+        processor.completed(classId, new TestCompleteEvent(1030))
+
+        then:
+        frames.size() == 1
+
+        then:
+        1 * resultProcessor.started({ it.id == classId && it.className == "SomeTest" }, { it.startTime == 1000 && it.parentId == null })
+        then:
+        1 * resultProcessor.started({ it.id == methodId && it.name == "someMethod" }, { it.startTime == 1010 && it.parentId == classId })
+        then:
+        1 * resultProcessor.output(methodId, { it.destination == TestOutputEvent.Destination.StdOut && it.message == "some output ☃" })
+        then:
+        1 * resultProcessor.failure(methodId, { it instanceof RuntimeException && it.message == "broken" })
+        then:
+        1 * resultProcessor.completed(methodId, { it.endTime == 1020 && it.resultType == TestResult.ResultType.FAILURE })
+        then:
+        1 * resultProcessor.completed(classId, { it.endTime == 1030 && it.resultType == null })
+        0 * resultProcessor._
+    }
+
+    def "sends pending events when flushed"() {
+        def classId = id(1)
+
+        when:
+        processor.started(new DefaultTestClassDescriptor(classId, "SomeTest"), new TestStartEvent(1000))
+        processor.flush()
+        processor.flush()
+
+        then:
+        frames.size() == 1
+        1 * resultProcessor.started({ it.id == classId }, { it.startTime == 1000 })
+
+        when:
+        processor.output(classId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdErr, "error"))
+        processor.stop()
+
+        then:
+        frames.size() == 2
+        1 * resultProcessor.output(classId, { it.destination == TestOutputEvent.Destination.StdErr && it.message == "error" })
+    }
+
+    def "refers to tests which are not known by their full id"() {
+        def unknownId = id(12)
+        def classId = id(1)
+
+        when:
+        processor.started(new DefaultTestClassDescriptor(classId, "SomeTest"), new TestStartEvent(1000, unknownId))
+        processor.completed(classId, new TestCompleteEvent(900))
+        processor.output(classId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "late output"))
+        processor.flush()
+
+        then:
+        1 * resultProcessor.started({ it.id == classId }, { it.parentId == unknownId })
+        1 * resultProcessor.completed(classId, { it.endTime == 900 })
+        1 * resultProcessor.output(classId, { it.message == "late output" })
+    }
+
+    def "sends repeated strings only once"() {
+        def classId = id(1)
+        def className = "org.gradle.api.internal.tasks.testing.worker.SomeTestClassWithAVeryLongNameInADeepPackage"
+        processor.started(new DefaultTestClassDescriptor(classId, className), new TestStartEvent(1000))
+
+        when:
+        (2..101).each {
+            processor.started(new DefaultTestDescriptor(id(it), className, "test"), new TestStartEvent(1000 + it, classId))
+            processor.completed(id(it), new TestCompleteEvent(1001 + it, TestResult.ResultType.SUCCESS))
+        }
+        processor.completed(classId, new TestCompleteEvent(2000))
+
+        then:
+        frames.size() == 1
+        frames[0].length < 100 * className.length()
+        100 * resultProcessor.started({ it.className == className && it.name == "test" }, { it.parentId == classId })
+        101 * resultProcessor.completed(_, _)
+    }
+
+    def "sends a frame when it reaches the maximum size"() {
+        def classId = id(1)
+        def output = "x" * 1024
+
+        when:
+        processor.started(new DefaultTestClassDescriptor(classId, "SomeTest"), new TestStartEvent(1000))
+        (BatchingTestResultProcessor.MAX_BATCH_SIZE.intdiv(1024) + 1).times {
+            processor.output(classId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, output))
+        }
+
+        then:
+        frames.size() == 1
+    }
+
+    def id(long id) {
+        return new CompositeIdGenerator.CompositeId(1L, id)
+    }
+}
@@ -22,6 +22,7 @@ import org.gradle.api.internal.classpath.Module
 import org.gradle.api.internal.classpath.ModuleRegistry
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
+import org.gradle.api.logging.LogLevel
 import org.gradle.internal.classpath.ClassPath
 import org.gradle.internal.remote.ObjectConnection
 import org.gradle.internal.work.WorkerLeaseRegistry
@@ -123,6 +124,139 @@ class ForkingTestClassProcessorTest extends Specification {
         notThrown(ExecException)
     }
 
+    def "reuses the pooled worker of a previous test task"() {
+        def pool = new TestWorkerPool(2)
+        def first = pooledProcessor(pool)
+        def second = pooledProcessor(pool)
+        def worker = pooledWorker()
+
+        when:
+        first.processTestClass(Mock(TestClassRunInfo))
+        first.stop()
+        second.processTestClass(Mock(TestClassRunInfo))
+        second.stop()
+
+        then:
+        1 * first.startPooledWorker(pooledWorkerKey(), _) >> worker
+        0 * second.startPooledWorker(_, _)
+        2 * worker.startSession(_, [], _) >> Stub(RemoteTestClassProcessor)
+        0 * worker.stop()
+    }
+
+    def "starts another pooled worker for a test task with a different worker configuration"() {
+        def pool = new TestWorkerPool(2)
+        def first = pooledProcessor(pool)
+        def second = pooledProcessor(pool, ["-Xmx64m"])
+        def worker1 = pooledWorker()
+        def worker2 = pooledWorker(["-Xmx64m"])
+
+        when:
+        first.processTestClass(Mock(TestClassRunInfo))
+        first.stop()
+        second.processTestClass(Mock(TestClassRunInfo))
+        second.stop()
+
+        then:
+        1 * first.startPooledWorker(_, _) >> worker1
+        1 * second.startPooledWorker(_, _) >> worker2
+    }
+
+    def "does not return a pooled worker to the pool when its process has gone away"() {
+        def pool = new TestWorkerPool(2)
+        def processor = pooledProcessor(pool)
+        def worker = pooledWorker([], false)
+        processor.startPooledWorker(_, _) >> worker
+
+        when:
+        processor.processTestClass(Mock(TestClassRunInfo))
+        processor.stop()
+
+        then:
+        1 * worker.workerProcess.waitForStop()
+        pool.reserveIdleWorker(pooledWorkerKey()) == null
+    }
+
+    def "does not return a pooled worker to the pool when the test task is stopped"() {
+        def pool = new TestWorkerPool(2)
+        def processor = pooledProcessor(pool)
+        def worker = pooledWorker()
+        processor.startPooledWorker(_, _) >> worker
+
+        when:
+        processor.processTestClass(Mock(TestClassRunInfo))
+        processor.stopNow()
+        processor.stop()
+
+        then:
+        1 * worker.workerProcess.stopNow()
+        pool.reserveIdleWorker(pooledWorkerKey()) == null
+    }
+
+    def "stops a pooled worker which cannot start a session"() {
+        def pool = new TestWorkerPool(2)
+        def processor = pooledProcessor(pool)
+        def worker = pooledWorker()
+        def failure = new RuntimeException("broken")
+        processor.startPooledWorker(_, _) >> worker
+
+        when:
+        processor.processTestClass(Mock(TestClassRunInfo))
+
+        then:
+        1 * worker.startSession(_, _, _) >> Stub(RemoteTestClassProcessor) {
+            startProcessing() >> { throw failure }
+        }
+        def e = thrown(RuntimeException)
+        e == failure
+        1 * worker.workerProcess.stopNow()
+        pool.reserveIdleWorker(pooledWorkerKey()) == null
+    }
+
+    def pooledProcessor(TestWorkerPool pool, List<String> jvmArgs = []) {
+        def builder = pooledWorkerBuilder(jvmArgs)
+        def factory = Stub(WorkerProcessFactory) {
+            create(_) >> builder
+        }
+        def modules = Stub(ModuleRegistry) {
+            getModule(_) >> { module(it[0]) }
+            getExternalModule(_) >> { module(it[0]) }
+        }
+        def lease = Stub(WorkerLeaseRegistry.WorkerLease) {
+            startChild() >> Stub(WorkerLeaseRegistry.WorkerLeaseCompletion)
+        }
+        return Spy(ForkingTestClassProcessor, constructorArgs: [lease, factory, Mock(WorkerTestClassProcessorFactory), options, [new File("classpath.jar")], Mock(Action), modules, documentationRegistry, pool, false])
+    }
+
+    def pooledWorkerBuilder(List<String> jvmArgs) {
+        def javaCommand = Stub(JavaExecHandleBuilder) {
+            getExecutable() >> "java"
+            getAllJvmArgs() >> jvmArgs
+            getEnvironment() >> [:]
+            getWorkingDir() >> new File("work")
+        }
+        return Stub(WorkerProcessBuilder) {
+            getJavaCommand() >> javaCommand
+            getApplicationClasspath() >> ([new File("classpath.jar")] as Set)
+            getSharedPackages() >> (["org.junit"] as Set)
+            getLogLevel() >> LogLevel.LIFECYCLE
+        }
+    }
+
+    def pooledWorkerKey(List<String> jvmArgs = []) {
+        return TestWorkerPool.keyFor(pooledWorkerBuilder(jvmArgs))
+    }
+
+    def pooledWorker(List<String> jvmArgs = [], boolean sessionEnds = true) {
+        def process = Mock(WorkerProcess)
+        def worker = Mock(PooledTestWorkerClient)
+        _ * worker.getKey() >> pooledWorkerKey(jvmArgs)
+        _ * worker.isAlive() >> sessionEnds
+        _ * worker.getWorkerProcess() >> process
+        _ * worker.startSession(_, _, _) >> Stub(RemoteTestClassProcessor)
+        _ * worker.waitForSessionEnd() >> sessionEnds
+        return worker
+    }
+
     def module(String module) {
         return Stub(Module) {
             _ * getImplementationClasspath() >> {
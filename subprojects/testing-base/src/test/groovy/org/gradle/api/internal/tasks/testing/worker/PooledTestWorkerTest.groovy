@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+class PooledTestWorkerTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    @Rule SetSystemProperties systemProperties = new SetSystemProperties()
+
+    def "restores the system properties, the default locale and the default time zone at the end of a session"() {
+        def locale = Locale.default
+        def timeZone = TimeZone.default
+        System.setProperty("shared", "value")
+        def session = new PooledTestWorker.Session([], getClass().classLoader)
+
+        when:
+        System.setProperty("shared", "changed")
+        System.setProperty("added", "value")
+        Locale.default = locale == Locale.GERMANY ? Locale.FRANCE : Locale.GERMANY
+        TimeZone.default = TimeZone.getTimeZone(timeZone.ID == "Asia/Tokyo" ? "Europe/Paris" : "Asia/Tokyo")
+        session.restore()
+
+        then:
+        System.getProperty("shared") == "value"
+        System.getProperty("added") == null
+        Locale.default == locale
+        TimeZone.default == timeZone
+    }
+
+    def "loads the classpath of each session in a new ClassLoader which is closed at the end of the session"() {
+        def classesDir = tmpDir.createDir("classes")
+        classesDir.file("resource.txt").text = "content"
+        def first = new PooledTestWorker.Session([classesDir], getClass().classLoader)
+        def second = new PooledTestWorker.Session([classesDir], getClass().classLoader)
+
+        expect:
+        first.classLoader != second.classLoader
+        first.classLoader.getResource("resource.txt") != null
+
+        when:
+        first.restore()
+
+        then:
+        first.classLoader.getResource("resource.txt") == null
+        second.classLoader.getResource("resource.txt") != null
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.logging.LogLevel
+import org.gradle.process.internal.JavaExecHandleBuilder
+import org.gradle.process.internal.worker.WorkerProcessSettings
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class TestWorkerPoolTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def pool = new TestWorkerPool(2)
+
+    def "reuses an idle worker with the same key"() {
+        def key = TestWorkerPool.keyFor(settings(["-Xmx64m"], [tmpDir.file("lib.jar") << "lib"]))
+        def worker = worker(key)
+
+        when:
+        pool.register(worker)
+
+        then:
+        pool.reserveIdleWorker(key) == null
+
+        when:
+        pool.release(worker)
+
+        then:
+        pool.reserveIdleWorker(key) == worker
+        pool.reserveIdleWorker(key) == null
+    }
+
+    def "does not reuse an idle worker with a different key"() {
+        def jar = tmpDir.file("lib.jar") << "lib"
+        def key = TestWorkerPool.keyFor(settings(["-Xmx64m"], [jar]))
+        def worker = worker(key)
+        pool.register(worker)
+        pool.release(worker)
+
+        expect:
+        pool.reserveIdleWorker(TestWorkerPool.keyFor(settings(["-Xmx128m"], [jar]))) == null
+        pool.reserveIdleWorker(TestWorkerPool.keyFor(settings(["-Xmx64m"], [tmpDir.file("other.jar") << "other"]))) == null
+
+        when:
+        jar.setLastModified(jar.lastModified() - 10000)
+
+        then:
+        pool.reserveIdleWorker(TestWorkerPool.keyFor(settings(["-Xmx64m"], [jar]))) == null
+    }
+
+    def "does not reuse an idle worker whose process has gone away"() {
+        def key = TestWorkerPool.keyFor(settings([], []))
+        def worker = worker(key, false)
+        pool.register(worker)
+        pool.release(worker)
+
+        expect:
+        pool.reserveIdleWorker(key) == null
+    }
+
+    def "stops least recently used idle workers when there are too many"() {
+        def key = TestWorkerPool.keyFor(settings([], []))
+        def worker1 = worker(key)
+        def worker2 = worker(key)
+        def worker3 = worker(key)
+        [worker1, worker2, worker3].each { pool.register(it) }
+
+        when:
+        pool.release(worker1)
+        pool.release(worker2)
+
+        then:
+        0 * _.stop()
+
+        when:
+        pool.release(worker3)
+
+        then:
+        1 * worker1.stop()
+        0 * _.stop()
+    }
+
+    def "stops idle workers and workers released after the pool has been stopped"() {
+        def key = TestWorkerPool.keyFor(settings([], []))
+        def worker1 = worker(key)
+        def worker2 = worker(key)
+        pool.register(worker1)
+        pool.register(worker2)
+        pool.release(worker1)
+
+        when:
+        pool.stop()
+
+        then:
+        1 * worker1.stop()
+        0 * _.stop()
+
+        when:
+        pool.release(worker2)
+
+        then:
+        1 * worker2.stop()
+    }
+
+    def worker(TestWorkerPool.Key key, boolean alive = true) {
+        def worker = Mock(PooledTestWorkerClient)
+        _ * worker.key >> key
+        _ * worker.alive >> alive
+        return worker
+    }
+
+    def settings(List<String> jvmArgs, List<File> classpath) {
+        def javaCommand = Stub(JavaExecHandleBuilder) {
+            getExecutable() >> "java"
+            getAllJvmArgs() >> jvmArgs
+            getEnvironment() >> [:]
+            getWorkingDir() >> tmpDir.testDirectory
+        }
+        return Stub(WorkerProcessSettings) {
+            getJavaCommand() >> javaCommand
+            getApplicationClasspath() >> (classpath as Set)
+            getSharedPackages() >> (["org.junit"] as Set)
+            getLogLevel() >> LogLevel.LIFECYCLE
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.testing
+
+import org.gradle.api.internal.InternalFlags
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+class TestWorkerReuseIntegrationTest extends AbstractIntegrationSpec {
+
+    def "test tasks share a worker and the state of the classes loaded from jars"() {
+        settingsFile << "include 'lib'"
+        buildFile << """
+            allprojects {
+                apply plugin: 'java'
+                ${jcenterRepository()}
+            }
+            dependencies {
+                testCompile project(':lib')
+                testCompile 'junit:junit:4.12'
+            }
+            test {
+                include '**/FirstTest.class'
+            }
+            task otherTest(type: Test) {
+                testClassesDirs = sourceSets.test.output.classesDirs
+                classpath = sourceSets.test.runtimeClasspath
+                include '**/SecondTest.class'
+                mustRunAfter test
+            }
+        """
+        file("lib/src/main/java/LibraryState.java") << """
+            public class LibraryState {
+                public static String value;
+            }
+        """
+        file("src/test/java/TestState.java") << """
+            public class TestState {
+                public static String value;
+            }
+        """
+        file("src/test/java/FirstTest.java") << """
+            import org.junit.Test;
+            import java.io.File;
+            import java.lang.management.ManagementFactory;
+            import java.nio.file.Files;
+
+            public class FirstTest {
+                @Test
+                public void changesState() throws Exception {
+                    Files.write(new File("${file("first.process").toURI().path}").toPath(), ManagementFactory.getRuntimeMXBean().getName().getBytes());
+                    System.setProperty("changed.by.first", "true");
+                    TestState.value = "first";
+                    LibraryState.value = "first";
+                }
+            }
+        """
+        file("src/test/java/SecondTest.java") << """
+            import org.junit.Test;
+            import java.io.File;
+            import java.lang.management.ManagementFactory;
+            import java.nio.file.Files;
+            import static org.junit.Assert.*;
+
+            public class SecondTest {
+                @Test
+                public void seesOnlySharedState() throws Exception {
+                    Files.write(new File("${file("second.process").toURI().path}").toPath(), ManagementFactory.getRuntimeMXBean().getName().getBytes());
+                    assertNull(System.getProperty("changed.by.first"));
+                    assertNull(TestState.value);
+                    assertEquals("first", LibraryState.value);
+                }
+            }
+        """
+
+        when:
+        executer.withArgument("-D${InternalFlags.Flag.REUSE_TEST_WORKERS.systemProperty}=true")
+        succeeds "test", "otherTest"
+
+        then:
+        file("second.process").text == file("first.process").text
+    }
+
+    def "test tasks do not share a worker unless enabled"() {
+        buildFile << """
+            apply plugin: 'java'
+            ${jcenterRepository()}
+            dependencies {
+                testCompile 'junit:junit:4.12'
+            }
+            task otherTest(type: Test) {
+                testClassesDirs = sourceSets.test.output.classesDirs
+                classpath = sourceSets.test.runtimeClasspath
+                mustRunAfter test
+            }
+        """
+        file("src/test/java/ProcessTest.java") << """
+            import org.junit.Test;
+            import java.io.File;
+            import java.lang.management.ManagementFactory;
+            import java.nio.file.Files;
+
+            public class ProcessTest {
+                @Test
+                public void recordsProcess() throws Exception {
+                    String process = ManagementFactory.getRuntimeMXBean().getName();
+                    Files.write(new File("${file("processes").toURI().path}", process).toPath(), process.getBytes());
+                }
+            }
+        """
+        file("processes").createDir()
+
+        when:
+        succeeds "test", "otherTest"
+
+        then:
+        file("processes").list().length == 2
+    }
+}
@@ -21,9 +21,14 @@ import org.apache.commons.lang.StringUtils;
 import org.gradle.api.internal.file.RelativeFile;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.cache.internal.FileContentCache;
+import org.gradle.cache.internal.FileContentCacheFactory;
 import org.gradle.internal.Factories;
 import org.gradle.internal.Factory;
 import org.gradle.internal.IoActions;
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Type;
 import org.slf4j.Logger;
@@ -38,6 +43,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.gradle.internal.FileUtils.hasExtension;
 
@@ -47,20 +54,22 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
 
     private List<File> testClassDirectories;
     private final ClassFileExtractionManager classFileExtractionManager;
+    private final ClassFileParser classFileParser;
     private final Map<File, Boolean> superClasses;
+    private final ConcurrentMap<File, TestClass> readAheadClasses = new ConcurrentHashMap<File, TestClass>();
+    private FileContentCache<TestClass> classFileCache;
     private TestClassProcessor testClassProcessor;
 
     private Set<File> testClassesDirectories;
     private Set<File> testClasspath;
 
-    protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager) {
+    protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager, Factory<? extends T> classVisitorFactory) {
         assert classFileExtractionManager != null;
         this.classFileExtractionManager = classFileExtractionManager;
+        this.classFileParser = new ClassFileParser(classVisitorFactory);
         this.superClasses = new HashMap<File, Boolean>();
     }
 
-    protected abstract T createClassVisitor();
-
     private File getSuperTestClassFile(String superClassName) {
         prepareClasspath();
         if (StringUtils.isEmpty(superClassName)) {
@@ -117,21 +126,33 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         this.testClasspath = testClasspath;
     }
 
+    @Override
+    public void setClassFileCacheFactory(FileContentCacheFactory cacheFactory) {
+        // The cache is shared by all detectors of the same type for the whole build, so its calculator must not refer to this detector
+        classFileCache = cacheFactory.newCache("testClassDetection" + getClass().getSimpleName(), 400000, classFileParser, new TestClassSerializer());
+    }
+
+    @Override
+    public void readAhead(File testClassFile) {
+        readAheadClasses.put(testClassFile, readClassFile(testClassFile));
+    }
+
     private TestClass readClassFile(File testClassFile, Factory<String> fallbackClassNameProvider) {
-        final TestClassVisitor classVisitor = createClassVisitor();
-
-        InputStream classStream = null;
-        try {
-            classStream = new BufferedInputStream(new FileInputStream(testClassFile));
-            final ClassReader classReader = new ClassReader(IOUtils.toByteArray(classStream));
-            classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
-            return TestClass.forParseableFile(classVisitor);
-        } catch (Throwable e) {
-            LOGGER.debug("Failed to read class file " + testClassFile.getAbsolutePath() + "; assuming it's a test class and continuing", e);
+        TestClass testClass = readAheadClasses.remove(testClassFile);
+        if (testClass == null) {
+            testClass = readClassFile(testClassFile);
+        }
+        if (!testClass.isParseable()) {
             return TestClass.forUnparseableFile(fallbackClassNameProvider.create());
-        } finally {
-            IoActions.closeQuietly(classStream);
         }
+        return testClass;
+    }
+
+    private TestClass readClassFile(File testClassFile) {
+        if (classFileCache != null) {
+            return classFileCache.get(testClassFile);
+        }
+        return classFileParser.calculate(testClassFile, true);
     }
 
     @Override
@@ -210,27 +231,67 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         this.testClassProcessor = testClassProcessor;
     }
 
-    private static class TestClass {
+    /**
+     * Parses a class file with a new visitor created by the given factory. Does not depend on the state of a detector, so that it can be used as the
+     * calculator of a cache which is shared by the detectors.
+     */
+    static class ClassFileParser implements FileContentCacheFactory.Calculator<TestClass> {
+        private final Factory<? extends TestClassVisitor> classVisitorFactory;
+
+        ClassFileParser(Factory<? extends TestClassVisitor> classVisitorFactory) {
+            this.classVisitorFactory = classVisitorFactory;
+        }
+
+        @Override
+        public TestClass calculate(File file, boolean isRegularFile) {
+            return parseClassFile(file, classVisitorFactory.create());
+        }
+
+        private static TestClass parseClassFile(File testClassFile, TestClassVisitor classVisitor) {
+            InputStream classStream = null;
+            try {
+                classStream = new BufferedInputStream(new FileInputStream(testClassFile));
+                final ClassReader classReader = new ClassReader(IOUtils.toByteArray(classStream));
+                classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+                return TestClass.forParseableFile(classVisitor);
+            } catch (Throwable e) {
+                LOGGER.debug("Failed to read class file " + testClassFile.getAbsolutePath() + "; assuming it's a test class and continuing", e);
+                return TestClass.UNPARSEABLE;
+            } finally {
+                IoActions.closeQuietly(classStream);
+            }
+        }
+    }
+
+    static class TestClass {
+        static final TestClass UNPARSEABLE = forUnparseableFile(null);
+
+        private final boolean parseable;
         private final boolean test;
         private final boolean isAbstract;
         private final String className;
         private final String superClassName;
 
         static TestClass forParseableFile(TestClassVisitor testClassVisitor) {
-            return new TestClass(testClassVisitor.isTest(), testClassVisitor.isAbstract(), testClassVisitor.getClassName(), testClassVisitor.getSuperClassName());
+            return new TestClass(true, testClassVisitor.isTest(), testClassVisitor.isAbstract(), testClassVisitor.getClassName(), testClassVisitor.getSuperClassName());
         }
 
         static TestClass forUnparseableFile(String className) {
-            return new TestClass(true, false, className, null);
+            return new TestClass(false, true, false, className, null);
         }
 
-        private TestClass(boolean test, boolean isAbstract, String className, String superClassName) {
+        private TestClass(boolean parseable, boolean test, boolean isAbstract, String className, String superClassName) {
+            this.parseable = parseable;
             this.test = test;
             this.isAbstract = isAbstract;
             this.className = className;
             this.superClassName = superClassName;
         }
 
+        boolean isParseable() {
+            return parseable;
+        }
+
         boolean isTest() {
             return test;
         }
@@ -248,4 +309,24 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         }
     }
 
+    static class TestClassSerializer extends AbstractSerializer<TestClass> {
+        @Override
+        public TestClass read(Decoder decoder) throws Exception {
+            if (!decoder.readBoolean()) {
+                return TestClass.UNPARSEABLE;
+            }
+            return new TestClass(true, decoder.readBoolean(), decoder.readBoolean(), decoder.readNullableString(), decoder.readNullableString());
+        }
+
+        @Override
+        public void write(Encoder encoder, TestClass value) throws Exception {
+            encoder.writeBoolean(value.isParseable());
+            if (value.isParseable()) {
+                encoder.writeBoolean(value.isTest());
+                encoder.writeBoolean(value.isAbstract());
+                encoder.writeNullableString(value.getClassName());
+                encoder.writeNullableString(value.getSuperClassName());
+            }
+        }
+    }
 }
@@ -24,18 +24,13 @@ import org.objectweb.asm.Opcodes;
  * Base class for ASM test class scanners.
  */
 public abstract class TestClassVisitor extends ClassVisitor {
-    protected final TestFrameworkDetector detector;
     private boolean isAbstract;
     private String className;
     private String superClassName;
     private boolean test;
 
-    protected TestClassVisitor(TestFrameworkDetector detector) {
+    protected TestClassVisitor() {
         super(AsmConstants.ASM_LEVEL);
-        if (detector == null) {
-            throw new IllegalArgumentException("detector == null!");
-        }
-        this.detector = detector;
     }
 
     public String getClassName() {
@@ -17,6 +17,7 @@ package org.gradle.api.internal.tasks.testing.detection;
 
 import org.gradle.api.internal.file.RelativeFile;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.cache.internal.FileContentCacheFactory;
 
 import java.io.File;
 import java.util.Set;
@@ -29,4 +30,14 @@ public interface TestFrameworkDetector {
     void setTestClasses(Set<File> testClasses);
 
     void setTestClasspath(Set<File> classpath);
+
+    /**
+     * Keeps the information read from class files in a cache created by the given factory, so that unchanged class files are not read again in later builds.
+     */
+    void setClassFileCacheFactory(FileContentCacheFactory cacheFactory);
+
+    /**
+     * Reads the given class file ahead of its detection. Can be called concurrently from multiple threads while test classes are detected.
+     */
+    void readAhead(File testClassFile);
 }
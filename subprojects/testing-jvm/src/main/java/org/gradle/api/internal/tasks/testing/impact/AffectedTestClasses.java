@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import com.google.common.collect.ImmutableSet;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+
+/**
+ * The test classes affected by the changes to the test runtime classpath since the previous test run, along with the
+ * state of the classpath to record once the tests have run successfully.
+ */
+public class AffectedTestClasses {
+    private final Set<String> affectedClasses;
+    private final String fullRunReason;
+    private final ClasspathState classpathState;
+
+    private AffectedTestClasses(Set<String> affectedClasses, @Nullable String fullRunReason, ClasspathState classpathState) {
+        this.affectedClasses = affectedClasses;
+        this.fullRunReason = fullRunReason;
+        this.classpathState = classpathState;
+    }
+
+    static AffectedTestClasses all(String reason, ClasspathState classpathState) {
+        return new AffectedTestClasses(ImmutableSet.<String>of(), reason, classpathState);
+    }
+
+    /**
+     * The test classes whose top level class is one of the given classes are affected.
+     */
+    static AffectedTestClasses of(Iterable<String> classes, ClasspathState classpathState) {
+        ImmutableSet.Builder<String> topLevelClasses = ImmutableSet.builder();
+        for (String className : classes) {
+            topLevelClasses.add(topLevelClassOf(className));
+        }
+        return new AffectedTestClasses(topLevelClasses.build(), null, classpathState);
+    }
+
+    /**
+     * Returns all test classes as affected for the given reason, keeping the state of the classpath to record.
+     */
+    public AffectedTestClasses withAll(String reason) {
+        return all(reason, classpathState);
+    }
+
+    public boolean isAll() {
+        return fullRunReason != null;
+    }
+
+    /**
+     * The reason why all test classes are affected, or null when only some are.
+     */
+    @Nullable
+    public String getFullRunReason() {
+        return fullRunReason;
+    }
+
+    public boolean isAffected(String testClassName) {
+        return isAll() || affectedClasses.contains(topLevelClassOf(testClassName));
+    }
+
+    ClasspathState getClasspathState() {
+        return classpathState;
+    }
+
+    private static String topLevelClassOf(String className) {
+        int nested = className.indexOf('$');
+        return nested < 0 ? className : className.substring(0, nested);
+    }
+}
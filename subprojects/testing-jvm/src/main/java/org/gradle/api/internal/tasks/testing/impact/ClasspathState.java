@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.ints.IntSets;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.HashCodeSerializer;
+import org.gradle.internal.serialize.IntSetSerializer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The state of a test runtime classpath which is compared between test runs: the hash of each class in the classpath directories,
+ * the constants declared by those classes, the hash of every other file in the classpath and the hash of the test configuration.
+ */
+class ClasspathState {
+    private final HashCode configurationHash;
+    private final Map<String, HashCode> classHashes;
+    private final Map<String, IntSet> classConstants;
+    private final Map<String, HashCode> fileHashes;
+
+    ClasspathState(HashCode configurationHash, Map<String, HashCode> classHashes, Map<String, IntSet> classConstants, Map<String, HashCode> fileHashes) {
+        this.configurationHash = configurationHash;
+        this.classHashes = classHashes;
+        this.classConstants = classConstants;
+        this.fileHashes = fileHashes;
+    }
+
+    public HashCode getConfigurationHash() {
+        return configurationHash;
+    }
+
+    /**
+     * The hashes of the classes in the classpath directories, by class name.
+     */
+    public Map<String, HashCode> getClassHashes() {
+        return classHashes;
+    }
+
+    /**
+     * The hashes of the accessible constants declared by the given class, as computed by the class dependency analysis.
+     */
+    public IntSet getConstants(String className) {
+        IntSet constants = classConstants.get(className);
+        return constants == null ? IntSets.EMPTY_SET : constants;
+    }
+
+    /**
+     * The hashes of the jars in the classpath and of the resources in the classpath directories, by absolute path.
+     */
+    public Map<String, HashCode> getFileHashes() {
+        return fileHashes;
+    }
+
+    static class Serializer extends AbstractSerializer<ClasspathState> {
+        private final HashCodeSerializer hashCodeSerializer = new HashCodeSerializer();
+
+        @Override
+        public ClasspathState read(Decoder decoder) throws Exception {
+            HashCode configurationHash = hashCodeSerializer.read(decoder);
+            Map<String, HashCode> classHashes = readHashes(decoder);
+            Map<String, IntSet> classConstants = readConstants(decoder);
+            Map<String, HashCode> fileHashes = readHashes(decoder);
+            return new ClasspathState(configurationHash, classHashes, classConstants, fileHashes);
+        }
+
+        @Override
+        public void write(Encoder encoder, ClasspathState value) throws Exception {
+            hashCodeSerializer.write(encoder, value.configurationHash);
+            writeHashes(encoder, value.classHashes);
+            writeConstants(encoder, value.classConstants);
+            writeHashes(encoder, value.fileHashes);
+        }
+
+        private Map<String, HashCode> readHashes(Decoder decoder) throws Exception {
+            int count = decoder.readSmallInt();
+            Map<String, HashCode> hashes = new HashMap<String, HashCode>(count * 2);
+            for (int i = 0; i < count; i++) {
+                hashes.put(decoder.readString(), hashCodeSerializer.read(decoder));
+            }
+            return hashes;
+        }
+
+        private void writeHashes(Encoder encoder, Map<String, HashCode> hashes) throws Exception {
+            encoder.writeSmallInt(hashes.size());
+            for (Map.Entry<String, HashCode> entry : hashes.entrySet()) {
+                encoder.writeString(entry.getKey());
+                hashCodeSerializer.write(encoder, entry.getValue());
+            }
+        }
+
+        private Map<String, IntSet> readConstants(Decoder decoder) throws Exception {
+            int count = decoder.readSmallInt();
+            Map<String, IntSet> constants = new HashMap<String, IntSet>(count * 2);
+            for (int i = 0; i < count; i++) {
+                constants.put(decoder.readString(), IntSetSerializer.INSTANCE.read(decoder));
+            }
+            return constants;
+        }
+
+        private void writeConstants(Encoder encoder, Map<String, IntSet> constants) throws Exception {
+            encoder.writeSmallInt(constants.size());
+            for (Map.Entry<String, IntSet> entry : constants.entrySet()) {
+                encoder.writeString(entry.getKey());
+                IntSetSerializer.INSTANCE.write(encoder, entry.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.api.internal.file.FileOperations;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.CachingClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependentsAccumulator;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysis;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Determines the test classes affected by the changes to the test runtime classpath since the previous test run, using the class dependency
+ * analysis of incremental Java compilation.
+ *
+ * <p>A test class is affected when it, or one of the classes it transitively depends on, has been added, changed or removed in the classpath directories.
+ * Every test class is affected when a jar, a resource or the test configuration has changed, or when a constant was changed or removed.
+ * Constants are inlined into the classes using them without any reference to the declaring class, so the classes using a constant cannot be told apart.</p>
+ *
+ * <p>The state of the classpath is only recorded by {@link #recordTestRun(AffectedTestClasses, File)} once the tests have run successfully, so that
+ * the changes since the last successful run are considered by the next analysis.</p>
+ */
+public class TestImpactAnalyzer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TestImpactAnalyzer.class);
+    private static final ClasspathState.Serializer SERIALIZER = new ClasspathState.Serializer();
+
+    private final FileHasher fileHasher;
+    private final ClassDependenciesAnalyzer analyzer;
+    private final FileOperations fileOperations;
+
+    public TestImpactAnalyzer(FileHasher fileHasher, ClassAnalysisCache classAnalysisCache, StringInterner interner, FileOperations fileOperations) {
+        this.fileHasher = fileHasher;
+        this.analyzer = new CachingClassDependenciesAnalyzer(new DefaultClassDependenciesAnalyzer(interner), classAnalysisCache);
+        this.fileOperations = fileOperations;
+    }
+
+    /**
+     * Compares the given classpath with the state recorded in the given file by the last successful test run.
+     */
+    public AffectedTestClasses analyze(Iterable<? extends File> classpath, HashCode configurationHash, File stateFile) {
+        ClasspathState previousState = readState(stateFile);
+        ClassDependentsAccumulator accumulator = new ClassDependentsAccumulator();
+        ClasspathState currentState = snapshot(classpath, configurationHash, accumulator);
+
+        if (previousState == null) {
+            return AffectedTestClasses.all("no previous test run was analyzed", currentState);
+        }
+        if (!previousState.getConfigurationHash().equals(currentState.getConfigurationHash())) {
+            return AffectedTestClasses.all("the test configuration has changed", currentState);
+        }
+        if (!previousState.getFileHashes().equals(currentState.getFileHashes())) {
+            return AffectedTestClasses.all("a jar or resource in the test runtime classpath has changed", currentState);
+        }
+
+        Set<String> changedClasses = new LinkedHashSet<String>();
+        for (Map.Entry<String, HashCode> entry : currentState.getClassHashes().entrySet()) {
+            if (!entry.getValue().equals(previousState.getClassHashes().get(entry.getKey()))) {
+                changedClasses.add(entry.getKey());
+            }
+        }
+        for (String previousClass : previousState.getClassHashes().keySet()) {
+            if (!currentState.getClassHashes().containsKey(previousClass)) {
+                changedClasses.add(previousClass);
+            }
+        }
+        if (changedClasses.isEmpty()) {
+            return AffectedTestClasses.of(changedClasses, currentState);
+        }
+
+        // Only the constants which no longer exist with the same value may still be inlined into classes which have not changed
+        IntSet changedConstants = new IntOpenHashSet();
+        for (String changedClass : changedClasses) {
+            IntSet currentConstants = currentState.getConstants(changedClass);
+            IntIterator previousConstants = previousState.getConstants(changedClass).iterator();
+            while (previousConstants.hasNext()) {
+                int constant = previousConstants.nextInt();
+                if (!currentConstants.contains(constant)) {
+                    changedConstants.add(constant);
+                }
+            }
+        }
+        ClassSetAnalysis analysis = new ClassSetAnalysis(accumulator.getAnalysis());
+        DependentsSet dependents = analysis.getRelevantDependents(changedClasses, changedConstants);
+        if (dependents.isDependencyToAll()) {
+            String description = dependents.getDescription();
+            return AffectedTestClasses.all(description != null ? description : "a changed constant may have been inlined into other classes", currentState);
+        }
+        changedClasses.addAll(dependents.getDependentClasses());
+        LOGGER.debug("Test classes depending on {} are affected by changes.", changedClasses);
+        return AffectedTestClasses.of(changedClasses, currentState);
+    }
+
+    /**
+     * Records the state of the classpath the given test classes were analyzed for, once the tests have run successfully.
+     */
+    public void recordTestRun(AffectedTestClasses affectedTestClasses, File stateFile) {
+        writeState(stateFile, affectedTestClasses.getClasspathState());
+    }
+
+    private ClasspathState snapshot(Iterable<? extends File> classpath, HashCode configurationHash, final ClassDependentsAccumulator accumulator) {
+        final Map<String, HashCode> classHashes = new HashMap<String, HashCode>();
+        final Map<String, IntSet> classConstants = new HashMap<String, IntSet>();
+        final Map<String, HashCode> fileHashes = new HashMap<String, HashCode>();
+        for (File classpathEntry : classpath) {
+            if (classpathEntry.isDirectory()) {
+                fileOperations.fileTree(classpathEntry).visit(new FileVisitor() {
+                    @Override
+                    public void visitDir(FileVisitDetails dirDetails) {
+                    }
+
+                    @Override
+                    public void visitFile(FileVisitDetails fileDetails) {
+                        HashCode hash = fileHasher.hash(fileDetails);
+                        if (!fileDetails.getName().endsWith(".class")) {
+                            fileHashes.put(fileDetails.getFile().getAbsolutePath(), hash);
+                            return;
+                        }
+                        try {
+                            ClassAnalysis classAnalysis = analyzer.getClassAnalysis(hash, fileDetails);
+                            accumulator.addClass(classAnalysis);
+                            // Same classes may be found in different classpath directories, and only the first one is used
+                            if (!classHashes.containsKey(classAnalysis.getClassName())) {
+                                classHashes.put(classAnalysis.getClassName(), hash);
+                                if (!classAnalysis.getConstants().isEmpty()) {
+                                    classConstants.put(classAnalysis.getClassName(), classAnalysis.getConstants());
+                                }
+                            }
+                        } catch (Exception e) {
+                            accumulator.fullRebuildNeeded(fileDetails.getName() + " could not be analyzed");
+                            fileHashes.put(fileDetails.getFile().getAbsolutePath(), hash);
+                            LOGGER.debug("Could not analyze {} for test impact analysis.", fileDetails.getFile(), e);
+                        }
+                    }
+                });
+            } else if (classpathEntry.isFile()) {
+                fileHashes.put(classpathEntry.getAbsolutePath(), fileHasher.hash(classpathEntry));
+            }
+        }
+        return new ClasspathState(configurationHash, classHashes, classConstants, fileHashes);
+    }
+
+    @Nullable
+    private static ClasspathState readState(File stateFile) {
+        if (!stateFile.isFile()) {
+            return null;
+        }
+        try {
+            KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(stateFile));
+            try {
+                return SERIALIZER.read(decoder);
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not read test impact analysis state from {}.", stateFile, e);
+            return null;
+        }
+    }
+
+    private static void writeState(File stateFile, ClasspathState state) {
+        GFileUtils.parentMkdirs(stateFile);
+        try {
+            KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(stateFile));
+            try {
+                SERIALIZER.write(encoder, state);
+            } finally {
+                encoder.close();
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+}
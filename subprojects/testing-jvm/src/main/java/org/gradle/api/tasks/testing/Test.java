@@ -27,19 +27,26 @@ import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.InternalFlags;
+import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.classpath.ModuleRegistry;
+import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
+import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
 import org.gradle.api.internal.tasks.testing.JvmTestExecutionSpec;
 import org.gradle.api.internal.tasks.testing.TestExecuter;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.detection.DefaultTestExecuter;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
+import org.gradle.api.internal.tasks.testing.impact.AffectedTestClasses;
+import org.gradle.api.internal.tasks.testing.impact.TestImpactAnalyzer;
 import org.gradle.api.internal.tasks.testing.junit.JUnitTestFramework;
 import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultSerializer;
 import org.gradle.api.internal.tasks.testing.junitplatform.JUnitPlatformTestFramework;
 import org.gradle.api.internal.tasks.testing.testng.TestNGTestFramework;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Classpath;
@@ -56,9 +63,15 @@ import org.gradle.api.tasks.testing.junit.JUnitOptions;
 import org.gradle.api.tasks.testing.junitplatform.JUnitPlatformOptions;
 import org.gradle.api.tasks.testing.testng.TestNGOptions;
 import org.gradle.api.tasks.util.PatternFilterable;
+import org.gradle.cache.internal.FileContentCacheFactory;
 import org.gradle.internal.Actions;
 import org.gradle.internal.Cast;
 import org.gradle.internal.actor.ActorFactory;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
 import org.gradle.internal.jvm.UnsupportedJavaRuntimeException;
 import org.gradle.internal.jvm.inspection.JvmVersionDetector;
 import org.gradle.internal.operations.BuildOperationExecutor;
@@ -74,11 +87,12 @@ import org.gradle.util.ConfigureUtil;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.io.File;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import static org.gradle.util.ConfigureUtil.configureUsing;
 
@@ -136,13 +150,14 @@ import static org.gradle.util.ConfigureUtil.configureUsing;
 @NonNullApi
 @CacheableTask
 public class Test extends AbstractTestTask implements JavaForkOptions, PatternFilterable {
-
     private final DefaultJavaForkOptions forkOptions;
 
     private FileCollection testClassesDirs;
     private PatternFilterable patternSet;
     private FileCollection classpath;
     private TestFramework testFramework;
+    private TestImpactAnalyzer testImpactAnalyzer;
+    private AffectedTestClasses affectedTestClasses;
     private boolean scanForTestClasses = true;
     private long forkEvery;
     private int maxParallelForks = 1;
@@ -551,25 +566,67 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
     protected JvmTestExecutionSpec createTestExecutionSpec() {
         DefaultJavaForkOptions javaForkOptions = new DefaultJavaForkOptions(getFileResolver());
         copyTo(javaForkOptions);
-        return new JvmTestExecutionSpec(getTestFramework(), getClasspath(), getCandidateClassFiles(), isScanForTestClasses(), getTestClassesDirs(), getPath(), getIdentityPath(), getForkEvery(), javaForkOptions, getMaxParallelForks(), getPreviousFailedTestClasses());
-    }
-
-    private Set<String> getPreviousFailedTestClasses() {
+        final Set<String> previousFailedTestClasses = new HashSet<String>();
+        final Map<String, Long> previousTestClassDurations = new HashMap<String, Long>();
+        final Map<String, TestClassResult> reusableTestClassResults = new HashMap<String, TestClassResult>();
+        final AffectedTestClasses affectedTestClasses = getInternalFlags().isEnabled(InternalFlags.Flag.TEST_IMPACT_ANALYSIS) ? analyzeTestImpact() : null;
+        this.affectedTestClasses = affectedTestClasses;
         TestResultSerializer serializer = new TestResultSerializer(getBinResultsDir());
         if (serializer.isHasResults()) {
-            final Set<String> previousFailedTestClasses = new HashSet<String>();
+            // Distributing test classes by duration only pays off when there is more than one fork
+            final boolean collectDurations = getMaxParallelForks() > 1 && getInternalFlags().isEnabled(InternalFlags.Flag.BALANCE_TEST_FORKS_BY_DURATION);
             serializer.read(new Action<TestClassResult>() {
                 @Override
                 public void execute(TestClassResult testClassResult) {
                     if (testClassResult.getFailuresCount() > 0) {
                         previousFailedTestClasses.add(testClassResult.getClassName());
+                    } else if (affectedTestClasses != null && !affectedTestClasses.isAffected(testClassResult.getClassName())) {
+                        reusableTestClassResults.put(testClassResult.getClassName(), testClassResult);
+                    }
+                    if (collectDurations) {
+                        previousTestClassDurations.put(testClassResult.getClassName(), testClassResult.getDuration());
                     }
                 }
             });
-            return previousFailedTestClasses;
-        } else {
-            return Collections.emptySet();
         }
+        return new JvmTestExecutionSpec(getTestFramework(), getClasspath(), getCandidateClassFiles(), isScanForTestClasses(), getTestClassesDirs(), getPath(), getIdentityPath(), getForkEvery(), javaForkOptions, getMaxParallelForks(), previousFailedTestClasses, previousTestClassDurations, reusableTestClassResults);
+    }
+
+    private AffectedTestClasses analyzeTestImpact() {
+        testImpactAnalyzer = new TestImpactAnalyzer(getServices().get(FileHasher.class), getServices().get(GeneralCompileCaches.class).getClassAnalysisCache(),
+            getServices().get(StringInterner.class), getServices().get(FileOperations.class));
+        AffectedTestClasses affectedTestClasses = testImpactAnalyzer.analyze(getClasspath(), getTestConfigurationHash(), getTestImpactStateFile());
+        if (getProject().getGradle().getStartParameter().isRerunTasks()) {
+            // Still analyze, so that the next run compares against the classpath of this run
+            affectedTestClasses = affectedTestClasses.withAll("--rerun-tasks was used");
+        }
+        if (affectedTestClasses.isAll()) {
+            getLogger().info("Running all test classes of {} because {}.", getPath(), affectedTestClasses.getFullRunReason());
+        }
+        return affectedTestClasses;
+    }
+
+    private InternalFlags getInternalFlags() {
+        return getServices().get(InternalFlags.class);
+    }
+
+    private File getTestImpactStateFile() {
+        return new File(getTemporaryDir(), "testImpactAnalysis.bin");
+    }
+
+    /**
+     * Hashes the input properties and the test classes directories, so that test classes are only considered unaffected when the tests run in the same way.
+     */
+    private HashCode getTestConfigurationHash() {
+        Hasher hasher = Hashing.newHasher();
+        for (Map.Entry<String, Object> property : new TreeMap<String, Object>(getInputs().getProperties()).entrySet()) {
+            hasher.putString(property.getKey());
+            hasher.putString(String.valueOf(property.getValue()));
+        }
+        for (File testClassesDir : getTestClassesDirs()) {
+            hasher.putString(testClassesDir.getAbsolutePath());
+        }
+        return hasher.hash();
     }
 
     @TaskAction
@@ -585,21 +642,32 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
 
         try {
             super.executeTests();
+            if (affectedTestClasses != null) {
+                // Only once the tests have run, so that the changes are analyzed again after a failed run
+                testImpactAnalyzer.recordTestRun(affectedTestClasses, getTestImpactStateFile());
+            }
         } finally {
             testFramework = null;
+            testImpactAnalyzer = null;
+            affectedTestClasses = null;
         }
     }
 
     @Override
     protected TestExecuter<JvmTestExecutionSpec> createTestExecuter() {
         if (testExecuter == null) {
+            InternalFlags internalFlags = getInternalFlags();
             return new DefaultTestExecuter(getProcessBuilderFactory(), getActorFactory(), getModuleRegistry(),
                 getServices().get(WorkerLeaseRegistry.class),
                 getServices().get(BuildOperationExecutor.class),
                 getServices().get(StartParameter.class).getMaxWorkerCount(),
                 getServices().get(Clock.class),
                 getServices().get(DocumentationRegistry.class),
-                (DefaultTestFilter) getFilter());
+                (DefaultTestFilter) getFilter(),
+                internalFlags.isEnabled(InternalFlags.Flag.REUSE_TEST_WORKERS) ? getServices().get(TestWorkerPool.class) : null,
+                internalFlags.isEnabled(InternalFlags.Flag.BATCH_TEST_EVENTS),
+                getServices().get(ExecutorFactory.class),
+                getServices().get(FileContentCacheFactory.class));
         } else {
             return testExecuter;
         }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection
+
+import org.gradle.api.file.RelativePath
+import org.gradle.api.internal.file.RelativeFile
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.junit.JUnitDetector
+import org.gradle.cache.internal.FileContentCache
+import org.gradle.cache.internal.FileContentCacheFactory
+import org.gradle.internal.Factory
+import org.gradle.internal.serialize.SerializerSpec
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+
+class AbstractTestFrameworkDetectorTest extends SerializerSpec {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def classesDir = tmpDir.createDir("classes")
+    def caches = [:]
+    def cacheFactory = Stub(FileContentCacheFactory) {
+        // Like the real factory, returns the cache created first for a name
+        newCache(_, _, _, _) >> { String name, int size, FileContentCacheFactory.Calculator calculator, serializer ->
+            if (!caches.containsKey(name)) {
+                caches[name] = new RecordingCache(calculator)
+            }
+            return caches[name]
+        }
+    }
+    def processor = Mock(TestClassProcessor)
+
+    def "parses a class file which is not in the cache"() {
+        def testClass = classFile("org.SomeTest", true)
+
+        when:
+        detect(testClass)
+
+        then:
+        1 * processor.processTestClass(new DefaultTestClassRunInfo("org.SomeTest"))
+        cache.calculated == [testClass]
+    }
+
+    def "reuses the result of another detector for a class file in the cache"() {
+        def testClass = classFile("org.SomeTest", true)
+        def other = classFile("org.Other", false)
+        detect(testClass, other)
+
+        when:
+        detect(testClass, other)
+
+        then:
+        1 * processor.processTestClass(new DefaultTestClassRunInfo("org.SomeTest"))
+        0 * processor._
+        caches.size() == 1
+        cache.calculated == [testClass, other]
+    }
+
+    def "parses a class file again when it has changed"() {
+        def testClass = classFile("org.SomeTest", false)
+        detect(testClass)
+
+        when:
+        classFile("org.SomeTest", true)
+        detect(testClass)
+
+        then:
+        1 * processor.processTestClass(new DefaultTestClassRunInfo("org.SomeTest"))
+        cache.calculated == [testClass, testClass]
+    }
+
+    def "the cached calculator does not refer to the detector which created the cache"() {
+        detect(classFile("org.SomeTest", true))
+
+        expect:
+        cache.calculator instanceof AbstractTestFrameworkDetector.ClassFileParser
+        cache.calculator.class.declaredFields.every { !TestFrameworkDetector.isAssignableFrom(it.type) }
+    }
+
+    def "serializes parsed test classes"() {
+        def classFile = classFile("org.SomeTest", true)
+        def parsed = new AbstractTestFrameworkDetector.ClassFileParser({ new TestClassVisitor() {
+            @Override
+            protected boolean ignoreNonStaticInnerClass() {
+                return false
+            }
+        } } as Factory).calculate(classFile, true)
+
+        when:
+        def result = serialize(parsed, new AbstractTestFrameworkDetector.TestClassSerializer())
+
+        then:
+        result.parseable
+        !result.test
+        !result.abstract
+        result.className == "org/SomeTest"
+        result.superClassName == "java/lang/Object"
+    }
+
+    def "serializes unparseable test classes"() {
+        when:
+        def result = serialize(AbstractTestFrameworkDetector.TestClass.UNPARSEABLE, new AbstractTestFrameworkDetector.TestClassSerializer())
+
+        then:
+        result.is(AbstractTestFrameworkDetector.TestClass.UNPARSEABLE)
+    }
+
+    private RecordingCache getCache() {
+        return caches.values().first()
+    }
+
+    private void detect(TestFile... classFiles) {
+        def detector = new JUnitDetector(Stub(ClassFileExtractionManager))
+        detector.setTestClasses([classesDir] as Set)
+        detector.setClassFileCacheFactory(cacheFactory)
+        detector.startDetection(processor)
+        classFiles.each {
+            detector.processTestClass(new RelativeFile(it, RelativePath.parse(true, classesDir.toURI().relativize(it.toURI()).path)))
+        }
+    }
+
+    private TestFile classFile(String className, boolean test) {
+        def internalName = className.replace('.', '/')
+        def writer = new ClassWriter(0)
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, internalName, null, "java/lang/Object", null)
+        def method = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT, test ? "test" : "other", "()V", null, null)
+        if (test) {
+            method.visitAnnotation("Lorg/junit/Test;", true).visitEnd()
+        }
+        method.visitEnd()
+        writer.visitEnd()
+        def file = classesDir.file("${internalName}.class")
+        file.parentFile.mkdirs()
+        file.bytes = writer.toByteArray()
+        return file
+    }
+
+    /**
+     * Caches the values by file content, like the real cache.
+     */
+    static class RecordingCache implements FileContentCache<Object> {
+        final FileContentCacheFactory.Calculator<?> calculator
+        final Map<String, Object> values = [:]
+        final List<File> calculated = []
+
+        RecordingCache(FileContentCacheFactory.Calculator<?> calculator) {
+            this.calculator = calculator
+        }
+
+        @Override
+        Object get(File file) {
+            def key = file.bytes.encodeHex().toString()
+            if (!values.containsKey(key)) {
+                calculated << file
+                values[key] = calculator.calculate(file, true)
+            }
+            return values[key]
+        }
+    }
+}
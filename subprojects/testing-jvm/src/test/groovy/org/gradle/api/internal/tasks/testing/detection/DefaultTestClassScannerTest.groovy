@@ -22,6 +22,7 @@ import org.gradle.api.file.FileVisitor
 import org.gradle.api.file.RelativePath
 import org.gradle.api.internal.file.DefaultFileVisitDetails
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.junit.Test
 import spock.lang.Specification
 import spock.lang.Subject
@@ -78,6 +79,38 @@ class DefaultTestClassScannerTest extends Specification {
         0 * _._
     }
 
+    @Test
+    void readsClassFilesAheadWhenExecutorIsAvailable() {
+        given:
+        def executorFactory = new DefaultExecutorFactory()
+        def parallelScanner = new DefaultTestClassScanner(files, detector, processor, executorFactory, 4)
+        def class1 = stubFileVisitDetails('class1')
+        def class2 = stubFileVisitDetails('class2')
+
+        when:
+        parallelScanner.run()
+
+        then:
+        1 * detector.startDetection(processor)
+        then:
+        1 * files.visit(_) >> { args ->
+            FileVisitor visitor = args[0]
+            visitor.visitFile(class1)
+            visitor.visitFile(class2)
+        }
+        1 * detector.readAhead(class1.file)
+        1 * detector.readAhead(class2.file)
+        then:
+        1 * detector.processTestClass({ it.file.is(class1.file) })
+        then:
+        1 * detector.processTestClass({ it.file.is(class2.file) })
+
+        0 * _._
+
+        cleanup:
+        executorFactory.stop()
+    }
+
     FileVisitDetails stubFileVisitDetails(String className) {
         return new DefaultFileVisitDetails(new File("${className}.class"), new RelativePath(false, "${className}.class"), null, null, null)
     }
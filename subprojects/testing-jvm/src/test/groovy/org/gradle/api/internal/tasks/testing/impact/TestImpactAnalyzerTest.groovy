@@ -0,0 +1,264 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact
+
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache
+import org.gradle.internal.Factory
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.hash.TestFileHasher
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import spock.lang.Specification
+
+class TestImpactAnalyzerTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def classesDir = tmpDir.createDir("classes")
+    def stateFile = tmpDir.file("state.bin")
+    def configurationHash = HashCode.fromInt(1234)
+    def classAnalysisCache = Stub(ClassAnalysisCache) {
+        get(_, _) >> { HashCode hash, Factory factory -> factory.create() }
+    }
+    def analyzer = new TestImpactAnalyzer(new TestFileHasher(), classAnalysisCache, new StringInterner(), TestFiles.fileOperations(tmpDir.testDirectory))
+
+    def setup() {
+        classFile("org.A")
+        classFile("org.B", "org.A")
+        classFile("org.C", "org.B")
+        classFile("org.D")
+        classesDir.file("resource.txt").text = "resource"
+    }
+
+    def "affects all test classes when there is no previous state"() {
+        when:
+        def affected = analyze()
+
+        then:
+        affected.all
+        affected.fullRunReason == "no previous test run was analyzed"
+        stateFile.file
+    }
+
+    def "does not record the state until the tests have run"() {
+        analyze()
+
+        when:
+        classFile("org.A", "java.lang.Object", "changed")
+        def affected = analyzer.analyze([classesDir], configurationHash, stateFile)
+
+        then:
+        affected.isAffected("org.A")
+        !affected.isAffected("org.D")
+
+        when:
+        affected = analyze()
+
+        then:
+        affected.isAffected("org.A")
+        !affected.isAffected("org.D")
+
+        when:
+        affected = analyze()
+
+        then:
+        !affected.isAffected("org.A")
+    }
+
+    def "affects all test classes when the previous state cannot be read"() {
+        stateFile.text = "corrupt"
+
+        when:
+        def affected = analyze()
+
+        then:
+        affected.all
+        affected.fullRunReason == "no previous test run was analyzed"
+
+        when:
+        affected = analyze()
+
+        then:
+        !affected.all
+    }
+
+    def "affects no test class when nothing has changed"() {
+        analyze()
+
+        when:
+        def affected = analyze()
+
+        then:
+        !affected.all
+        ["org.A", "org.B", "org.C", "org.D"].every { !affected.isAffected(it) }
+    }
+
+    def "affects a changed class and the classes which transitively depend on it"() {
+        analyze()
+
+        when:
+        classFile("org.A", "java.lang.Object", "changed")
+        def affected = analyze()
+
+        then:
+        !affected.all
+        affected.isAffected("org.A")
+        affected.isAffected("org.B")
+        affected.isAffected("org.C")
+        affected.isAffected("org.C\$Nested")
+        !affected.isAffected("org.D")
+    }
+
+    def "affects the dependents of a removed class"() {
+        analyze()
+
+        when:
+        classesDir.file("org/B.class").delete()
+        def affected = analyze()
+
+        then:
+        !affected.all
+        affected.isAffected("org.C")
+        !affected.isAffected("org.A")
+        !affected.isAffected("org.D")
+    }
+
+    def "affects an added class"() {
+        analyze()
+
+        when:
+        classFile("org.E", "org.D")
+        def affected = analyze()
+
+        then:
+        !affected.all
+        affected.isAffected("org.E")
+        !affected.isAffected("org.D")
+    }
+
+    def "affects all test classes when a resource has changed"() {
+        analyze()
+
+        when:
+        classesDir.file("resource.txt").text = "changed"
+        def affected = analyze()
+
+        then:
+        affected.all
+        affected.fullRunReason == "a jar or resource in the test runtime classpath has changed"
+    }
+
+    def "affects all test classes when a jar has changed"() {
+        def jar = tmpDir.file("lib.jar")
+        jar.text = "jar"
+        analyze(jar)
+
+        when:
+        jar.text = "changed"
+        def affected = analyze(jar)
+
+        then:
+        affected.all
+        affected.fullRunReason == "a jar or resource in the test runtime classpath has changed"
+    }
+
+    def "affects all test classes when the test configuration has changed"() {
+        analyze()
+
+        when:
+        configurationHash = HashCode.fromInt(4321)
+        def affected = analyze()
+
+        then:
+        affected.all
+        affected.fullRunReason == "the test configuration has changed"
+    }
+
+    def "affects all test classes when a constant has changed"() {
+        classFile("org.Constants", "java.lang.Object", null, 1)
+        analyze()
+
+        when:
+        classFile("org.Constants", "java.lang.Object", null, 2)
+        def affected = analyze()
+
+        then:
+        affected.all
+        affected.fullRunReason == "a changed constant may have been inlined into other classes"
+    }
+
+    def "affects all test classes when a class declaring a constant is removed"() {
+        classFile("org.Constants", "java.lang.Object", null, 1)
+        analyze()
+
+        when:
+        classesDir.file("org/Constants.class").delete()
+        def affected = analyze()
+
+        then:
+        affected.all
+    }
+
+    def "affects only the dependents of a changed class whose constants have not changed"() {
+        classFile("org.Constants", "java.lang.Object", null, 1)
+        classFile("org.E", "org.Constants")
+        analyze()
+
+        when:
+        classFile("org.Constants", "java.lang.Object", "changed", 1)
+        def affected = analyze()
+
+        then:
+        !affected.all
+        affected.isAffected("org.Constants")
+        affected.isAffected("org.E")
+        !affected.isAffected("org.A")
+    }
+
+    private AffectedTestClasses analyze(File... jars) {
+        def affected = analyzer.analyze([classesDir] + (jars as List), configurationHash, stateFile)
+        analyzer.recordTestRun(affected, stateFile)
+        return affected
+    }
+
+    private TestFile classFile(String className, String superClassName = "java.lang.Object", String methodName = null, Integer constant = null) {
+        ClassWriter writer = new ClassWriter(0)
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, internalName(className), null, internalName(superClassName), null)
+        if (methodName != null) {
+            def method = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT, methodName, "()V", null, null)
+            method.visitEnd()
+        }
+        if (constant != null) {
+            def field = writer.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL, "VALUE", "I", null, constant)
+            field.visitEnd()
+        }
+        writer.visitEnd()
+        def file = classesDir.file("${internalName(className)}.class")
+        file.parentFile.mkdirs()
+        file.bytes = writer.toByteArray()
+        return file
+    }
+
+    private static String internalName(String className) {
+        return className.replace('.', '/')
+    }
+}